@@ -0,0 +1,37 @@
+package org.curso.automacao.modulos.erp.benchmarks;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of benchmarks.jar. Accepts the usual JMH command line options
+ * but writes the results as JSON to target/jmh-result.json unless told
+ * otherwise, so runs on different commits can be compared.
+ */
+public class BenchmarkRunner {
+
+	private static final String DEFAULT_RESULT_FILE = "target/jmh-result.json";
+
+	public static void main(String[] args) throws Exception {
+
+		CommandLineOptions commandLine = new CommandLineOptions(args);
+
+		if (commandLine.shouldHelp() || commandLine.shouldList() || commandLine.shouldListProfilers()
+				|| commandLine.shouldListResultFormats() || commandLine.shouldListWithParams()) {
+			org.openjdk.jmh.Main.main(args);
+			return;
+		}
+
+		Options options = new OptionsBuilder()
+				.parent(commandLine)
+				.resultFormat(commandLine.getResultFormat().orElse(ResultFormatType.JSON))
+				.result(commandLine.getResult().orElse(DEFAULT_RESULT_FILE))
+				.build();
+
+		new Runner(options).run();
+	}
+
+}
@@ -0,0 +1,69 @@
+package org.curso.automacao.modulos.erp.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.curso.automacao.modulos.erp.benchmarks.support.BenchmarkSupport;
+import org.curso.automacao.modulos.erp.customerservice.impl.CustomerService;
+import org.curso.automacao.modulos.erp.customerservice.impl.ReferenceDataStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.ResponseEntity;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CountriesBenchmark {
+
+	private CustomerService customerService;
+
+	private ReferenceDataStore referenceDataStore;
+
+	private String eTag;
+
+	@Setup
+	public void setup() {
+		referenceDataStore = new ReferenceDataStore();
+		BenchmarkSupport.inject(referenceDataStore, "objectMapper", new ObjectMapper());
+		referenceDataStore.init();
+
+		customerService = new CustomerService();
+		BenchmarkSupport.inject(customerService, "referenceDataStore", referenceDataStore);
+
+		eTag = referenceDataStore.getCountries().getETag();
+	}
+
+	@Benchmark
+	public List<String> getAllCountries() {
+		return customerService.getAllCountries();
+	}
+
+	@Benchmark
+	public ResponseEntity<byte[]> countriesResponse() {
+		return referenceDataStore.getCountries().toResponse(null);
+	}
+
+	@Benchmark
+	public ResponseEntity<byte[]> countriesNotModified() {
+		return referenceDataStore.getCountries().toResponse(eTag);
+	}
+
+	@Benchmark
+	public List<String> searchCountries() {
+		return referenceDataStore.getCountries().findByPrefix("bo", 20);
+	}
+
+}
@@ -0,0 +1,100 @@
+package org.curso.automacao.modulos.erp.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.curso.automacao.modulos.erp.customerservice.common.SearchIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.github.javafaker.Faker;
+
+/**
+ * Customer search as served by /api/v1/customers/search, on the in-memory
+ * index alone: a short prefix, an exact name, a misspelled name and a name
+ * typed up to the second word, plus updates, which include the amortized cost
+ * of compaction. Customers are generated with a fixed seed, weighted as in
+ * customer-service's application.properties.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class CustomerSearchBenchmark {
+
+	private static final int PAGE_SIZE = 20;
+
+	@Param({ "1000000" })
+	private int customers;
+
+	private SearchIndex index;
+
+	private Faker faker;
+
+	private long version = 1;
+
+	@State(Scope.Benchmark)
+	public static class Query {
+
+		@Param({ "jo", "john", "jhon", "john sm", "john smith" })
+		private String text;
+	}
+
+	@Setup
+	public void setup() {
+
+		faker = new Faker(new Random(42));
+		index = new SearchIndex(new int[] { 30, 20, 15, 10 }, 1000);
+
+		List<SearchIndex.Document> batch = new ArrayList<>(1000);
+
+		for (int id = 1; id <= customers; id++) {
+			batch.add(customer(id, version));
+
+			if (batch.size() == 1000) {
+				index.putAll(batch);
+				batch.clear();
+			}
+		}
+
+		index.putAll(batch);
+		index.trim();
+	}
+
+	@Benchmark
+	public SearchIndex.Result search(Query query) {
+		return index.search(query.text, PAGE_SIZE, null);
+	}
+
+	@Benchmark
+	public void update() {
+		index.put(customer(ThreadLocalRandom.current().nextInt(customers) + 1, ++version));
+	}
+
+	private SearchIndex.Document customer(long id, long version) {
+
+		String firstName = faker.name().firstName();
+		String lastName = faker.name().lastName();
+
+		return new SearchIndex.Document(id, version, new String[] {
+				firstName + " " + lastName,
+				faker.internet().emailAddress(firstName.toLowerCase() + "." + lastName.toLowerCase()),
+				faker.company().name(),
+				faker.address().city() });
+	}
+
+}
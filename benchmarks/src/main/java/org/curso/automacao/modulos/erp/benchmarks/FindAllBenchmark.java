@@ -0,0 +1,79 @@
+package org.curso.automacao.modulos.erp.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.curso.automacao.modulos.erp.benchmarks.support.JpaFixture;
+import org.curso.automacao.modulos.erp.customerservice.exceptions.ServiceException;
+import org.curso.automacao.modulos.erp.customerservice.impl.Customer;
+import org.curso.automacao.modulos.erp.customerservice.impl.CustomerRepository;
+import org.curso.automacao.modulos.erp.customerservice.impl.CustomerService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FindAllBenchmark {
+
+	@Param({ "1000", "10000" })
+	private int rows;
+
+	private JpaFixture fixture;
+
+	private CustomerService customerService;
+
+	@Setup
+	public void setup() {
+
+		fixture = new JpaFixture(4, Customer.class.getPackageName());
+
+		CustomerRepository repository = fixture.getRepository(CustomerRepository.class);
+
+		List<Customer> customers = new ArrayList<>(rows);
+
+		for (int i = 0; i < rows; i++)
+			customers.add(Customer.builder()
+					.name("Customer number " + i)
+					.salary(1000 + i)
+					.address("Street " + i)
+					.email("customer" + i + "@automacao.org.br")
+					.phoneNumber("555-" + i)
+					.company("Company " + (i % 50))
+					.city("City " + (i % 100))
+					.state("State")
+					.country("Brazil")
+					.zipcode("00000-000")
+					.build());
+
+		fixture.inTransaction(() -> repository.saveAll(customers));
+
+		customerService = new CustomerService();
+		customerService.repository = repository;
+	}
+
+	@TearDown
+	public void tearDown() {
+		fixture.close();
+	}
+
+	@Benchmark
+	public List<Customer> findAll() throws ServiceException {
+		return customerService.findAll();
+	}
+
+}
@@ -0,0 +1,80 @@
+package org.curso.automacao.modulos.erp.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.curso.automacao.modulos.erp.benchmarks.support.BenchmarkSupport;
+import org.curso.automacao.modulos.erp.customerservice.security.JwtAuthCache;
+import org.curso.automacao.modulos.erp.customerservice.security.JwtAuthInfo;
+import org.curso.automacao.modulos.erp.customerservice.security.JwtRequestFilter;
+import org.curso.automacao.modulos.erp.userservice.impl.entities.support.AuthenticationToken;
+import org.curso.automacao.modulos.erp.userservice.impl.entities.support.JwtUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtBenchmark {
+
+	private static final String SECRET = "user-service";
+	private static final String ISSUER = "ERP Curso Automacao";
+
+	private JwtUtils jwtUtils;
+	private JwtRequestFilter jwtRequestFilter;
+	private JwtAuthCache jwtAuthCache;
+
+	private UserDetails userDetails;
+	private String token;
+
+	@Setup
+	public void setup() {
+
+		jwtUtils = new JwtUtils();
+		BenchmarkSupport.inject(jwtUtils, "secret", SECRET);
+		BenchmarkSupport.inject(jwtUtils, "issuer", ISSUER);
+		BenchmarkSupport.inject(jwtUtils, "tokenValidity", 18000L);
+
+		jwtRequestFilter = new JwtRequestFilter();
+		BenchmarkSupport.inject(jwtRequestFilter, "secret", SECRET);
+		BenchmarkSupport.inject(jwtRequestFilter, "issuer", ISSUER);
+
+		jwtAuthCache = new JwtAuthCache();
+		BenchmarkSupport.inject(jwtAuthCache, "maximumSize", 10000L);
+		BenchmarkSupport.inject(jwtAuthCache, "maxTtl", 900L);
+		jwtAuthCache.init();
+
+		userDetails = User.withUsername("admin@automacao.org.br").password("password01")
+				.authorities("ROLE_ADMIN", "ROLE_USER").build();
+
+		token = jwtUtils.generateToken(userDetails).getToken().replace("Bearer ", "");
+	}
+
+	@Benchmark
+	public AuthenticationToken generateToken() {
+		return jwtUtils.generateToken(userDetails);
+	}
+
+	@Benchmark
+	public JwtAuthInfo parseJwtClaims() {
+		return jwtRequestFilter.parseJwtClaims(token);
+	}
+
+	@Benchmark
+	public JwtAuthInfo parseJwtClaimsCached() {
+		return jwtAuthCache.get(token, jwtRequestFilter::parseJwtClaims);
+	}
+
+}
@@ -0,0 +1,77 @@
+package org.curso.automacao.modulos.erp.benchmarks;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.curso.automacao.modulos.erp.orderservice.impl.Order;
+import org.curso.automacao.modulos.erp.orderservice.impl.OrderItem;
+import org.curso.automacao.modulos.erp.orderservice.impl.OrderItemKey;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OrderSerializationBenchmark {
+
+	@Param({ "5", "50" })
+	private int items;
+
+	private ObjectMapper objectMapper;
+
+	private Order order;
+
+	@Setup
+	public void setup() {
+
+		// Same modules Spring Boot registers on its ObjectMapper (JavaTimeModule for LocalDate).
+		objectMapper = JsonMapper.builder().findAndAddModules().build();
+
+		order = Order.builder()
+				.name("Order benchmark")
+				.idCustomer(1L)
+				.customerName("Customer benchmark")
+				.date(LocalDate.now())
+				.deliveryDate(LocalDate.now().plusDays(5))
+				.build();
+
+		List<OrderItem> orderItems = new ArrayList<>(items);
+
+		for (int i = 1; i <= items; i++)
+			orderItems.add(OrderItem.builder()
+					.id(OrderItemKey.builder().idOrder(1L).id(i).build())
+					.idProduct((long) i)
+					.productName("Product " + i)
+					.productPrice(10.5f * i)
+					.quantity((long) i)
+					.order(order)
+					.build());
+
+		order.setItems(orderItems);
+		order.recalculateTotal();
+	}
+
+	@Benchmark
+	public byte[] serializeOrder() throws JsonProcessingException {
+		return objectMapper.writeValueAsBytes(order);
+	}
+
+}
@@ -0,0 +1,105 @@
+package org.curso.automacao.modulos.erp.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.curso.automacao.modulos.erp.benchmarks.support.BenchmarkSupport;
+import org.curso.automacao.modulos.erp.benchmarks.support.JpaFixture;
+import org.curso.automacao.modulos.erp.customerservice.common.ChangeFeed;
+import org.curso.automacao.modulos.erp.customerservice.impl.Customer;
+import org.curso.automacao.modulos.erp.customerservice.impl.CustomerRepository;
+import org.curso.automacao.modulos.erp.customerservice.impl.CustomerService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Inserting a large list of customers: one save() per row, each in its own
+ * transaction as the seeders used to do, against BaseService.saveAll(), which
+ * sends JDBC batches within a single transaction. Every iteration starts from
+ * an empty database.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SaveAllBenchmark {
+
+	@Param({ "10000", "100000" })
+	private int rows;
+
+	private JpaFixture fixture;
+
+	private CustomerRepository repository;
+
+	private CustomerService customerService;
+
+	private List<Customer> customers;
+
+	@Setup(Level.Iteration)
+	public void setup() {
+
+		fixture = new JpaFixture(4, Customer.class.getPackageName(), ChangeFeed.class.getPackageName());
+		repository = fixture.getRepository(CustomerRepository.class);
+
+		customerService = new CustomerService();
+		customerService.repository = repository;
+		BenchmarkSupport.inject(customerService, "em", fixture.getEntityManager());
+		BenchmarkSupport.inject(customerService, "changeFeed", fixture.createBean(ChangeFeed.class));
+
+		customers = new ArrayList<>(rows);
+
+		for (int i = 0; i < rows; i++)
+			customers.add(Customer.builder()
+					.name("Customer number " + i)
+					.salary(1000 + i)
+					.address("Street " + i)
+					.email("customer" + i + "@automacao.org.br")
+					.phoneNumber("555-" + i)
+					.company("Company " + (i % 50))
+					.city("City " + (i % 100))
+					.state("State")
+					.country("Brazil")
+					.zipcode("00000-000")
+					.build());
+	}
+
+	@TearDown(Level.Iteration)
+	public void tearDown() {
+		fixture.close();
+	}
+
+	@Benchmark
+	public int saveOneByOne() {
+
+		for (Customer customer : customers)
+			fixture.inTransaction(() -> repository.save(customer));
+
+		return customers.size();
+	}
+
+	@Benchmark
+	public int saveAll() {
+		return fixture.inTransaction(() -> {
+			try {
+				return customerService.saveAll(customers).size();
+			} catch (Exception e) {
+				throw new IllegalStateException(e);
+			}
+		});
+	}
+
+}
@@ -0,0 +1,103 @@
+package org.curso.automacao.modulos.erp.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.curso.automacao.modulos.erp.benchmarks.support.JpaFixture;
+import org.curso.automacao.modulos.erp.productservice.impl.Product;
+import org.curso.automacao.modulos.erp.productservice.impl.ProductRepository;
+import org.curso.automacao.modulos.erp.productservice.impl.ProductStock;
+import org.curso.automacao.modulos.erp.productservice.impl.ProductStockRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Stock reservation under contention: with one hot product every thread
+ * competes for the same row. Compares the conditional UPDATE used by
+ * /reserve-stock with the read-modify-write done by /update-stock (which, on
+ * top of being slower, loses updates).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class StockReservationBenchmark {
+
+	@Param({ "1", "100" })
+	private int hotProducts;
+
+	private JpaFixture fixture;
+
+	private ProductStockRepository stockRepository;
+
+	private long[] productIds;
+
+	@Setup
+	public void setup() {
+
+		fixture = new JpaFixture(16, Product.class.getPackageName());
+
+		ProductRepository productRepository = fixture.getRepository(ProductRepository.class);
+		stockRepository = fixture.getRepository(ProductStockRepository.class);
+
+		List<Product> products = new ArrayList<>(hotProducts);
+
+		for (int i = 0; i < hotProducts; i++) {
+			Product product = Product.builder()
+					.name("Product " + i)
+					.price(10)
+					.supplier("Supplier")
+					.manufacturer("Manufacturer")
+					.build();
+
+			product.setStock(ProductStock.builder().quantity(Long.MAX_VALUE / 2).product(product).build());
+			products.add(product);
+		}
+
+		productIds = fixture.inTransaction(() -> productRepository.saveAll(products)).stream()
+				.mapToLong(Product::getId).toArray();
+	}
+
+	@TearDown
+	public void tearDown() {
+		fixture.close();
+	}
+
+	@Benchmark
+	public int reserveAtomic() {
+		long id = nextProductId();
+		return fixture.inTransaction(() -> stockRepository.reserve(id, 1));
+	}
+
+	@Benchmark
+	public ProductStock readModifyWrite() {
+		long id = nextProductId();
+
+		return fixture.inTransaction(() -> {
+			ProductStock stock = stockRepository.findById(id).orElseThrow();
+			stock.setQuantity(stock.getQuantity() - 1);
+			return stockRepository.save(stock);
+		});
+	}
+
+	private long nextProductId() {
+		return productIds[ThreadLocalRandom.current().nextInt(productIds.length)];
+	}
+
+}
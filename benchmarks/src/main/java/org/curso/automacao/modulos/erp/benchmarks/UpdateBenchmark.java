@@ -0,0 +1,187 @@
+package org.curso.automacao.modulos.erp.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.curso.automacao.modulos.erp.benchmarks.support.BenchmarkSupport;
+import org.curso.automacao.modulos.erp.benchmarks.support.JpaFixture;
+import org.curso.automacao.modulos.erp.customerservice.common.ChangeFeed;
+import org.curso.automacao.modulos.erp.customerservice.impl.Customer;
+import org.curso.automacao.modulos.erp.customerservice.impl.CustomerRepository;
+import org.curso.automacao.modulos.erp.customerservice.impl.CustomerService;
+import org.curso.automacao.modulos.erp.productservice.impl.Product;
+import org.curso.automacao.modulos.erp.productservice.impl.ProductRepository;
+import org.curso.automacao.modulos.erp.productservice.impl.ProductService;
+import org.curso.automacao.modulos.erp.productservice.impl.ProductStock;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * /update on customers and products. Compares the versioned single-statement
+ * BaseService.update() with the previous findById() followed by save(), which
+ * merges and therefore reads the row twice before writing it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UpdateBenchmark {
+
+	private static final int ROWS = 1000;
+
+	private JpaFixture customerFixture;
+	private JpaFixture productFixture;
+
+	private CustomerRepository customerRepository;
+	private ProductRepository productRepository;
+
+	private CustomerService customerService;
+	private ProductService productService;
+
+	private List<Customer> customers;
+	private List<Product> products;
+
+	private int next;
+
+	@Setup
+	public void setup() {
+
+		customerFixture = new JpaFixture(4, Customer.class.getPackageName(), ChangeFeed.class.getPackageName());
+		customerRepository = customerFixture.getRepository(CustomerRepository.class);
+		ChangeFeed customerChangeFeed = customerFixture.createBean(ChangeFeed.class);
+
+		List<Customer> newCustomers = new ArrayList<>(ROWS);
+
+		for (int i = 0; i < ROWS; i++)
+			newCustomers.add(Customer.builder()
+					.name("Customer number " + i)
+					.salary(1000 + i)
+					.address("Street " + i)
+					.email("customer" + i + "@automacao.org.br")
+					.phoneNumber("555-" + i)
+					.company("Company " + (i % 50))
+					.city("City " + (i % 100))
+					.state("State")
+					.country("Brazil")
+					.zipcode("00000-000")
+					.build());
+
+		customers = new ArrayList<>(customerFixture.inTransaction(() -> customerRepository.saveAll(newCustomers)));
+
+		customerService = new CustomerService();
+		customerService.repository = customerRepository;
+		BenchmarkSupport.inject(customerService, "em", customerFixture.getEntityManager());
+		BenchmarkSupport.inject(customerService, "changeFeed", customerChangeFeed);
+
+		productFixture = new JpaFixture(4, Product.class.getPackageName(),
+				org.curso.automacao.modulos.erp.productservice.common.ChangeFeed.class.getPackageName());
+		productRepository = productFixture.getRepository(ProductRepository.class);
+		org.curso.automacao.modulos.erp.productservice.common.ChangeFeed productChangeFeed = productFixture
+				.createBean(org.curso.automacao.modulos.erp.productservice.common.ChangeFeed.class);
+
+		List<Product> newProducts = new ArrayList<>(ROWS);
+
+		for (int i = 0; i < ROWS; i++) {
+			Product product = Product.builder()
+					.name("Product " + i)
+					.price(10 + i)
+					.supplier("Supplier")
+					.manufacturer("Manufacturer")
+					.build();
+
+			product.setStock(ProductStock.builder().quantity(100L).product(product).build());
+			newProducts.add(product);
+		}
+
+		products = new ArrayList<>(productFixture.inTransaction(() -> productRepository.saveAll(newProducts)));
+
+		productService = new ProductService();
+		productService.repository = productRepository;
+		BenchmarkSupport.inject(productService, "em", productFixture.getEntityManager());
+		BenchmarkSupport.inject(productService, "changeFeed", productChangeFeed);
+	}
+
+	@TearDown
+	public void tearDown() {
+		customerFixture.close();
+		productFixture.close();
+	}
+
+	@Benchmark
+	public Customer customerVersionedUpdate() {
+		int index = nextIndex();
+		Customer customer = customers.get(index);
+		customer.setSalary(customer.getSalary() + 1);
+
+		return customerFixture.inTransaction(() -> {
+			try {
+				return customerService.update(customer);
+			} catch (Exception e) {
+				throw new IllegalStateException(e);
+			}
+		});
+	}
+
+	@Benchmark
+	public Customer customerFindAndSave() {
+		int index = nextIndex();
+		Customer customer = customers.get(index);
+		customer.setSalary(customer.getSalary() + 1);
+
+		Customer saved = customerFixture.inTransaction(() -> {
+			customerRepository.findById(customer.getId()).orElseThrow();
+			return customerRepository.save(customer);
+		});
+
+		customers.set(index, saved);
+		return saved;
+	}
+
+	@Benchmark
+	public Product productVersionedUpdate() {
+		int index = nextIndex();
+		Product product = products.get(index);
+		product.setPrice(product.getPrice() + 1);
+
+		return productFixture.inTransaction(() -> {
+			try {
+				return productService.update(product);
+			} catch (Exception e) {
+				throw new IllegalStateException(e);
+			}
+		});
+	}
+
+	@Benchmark
+	public Product productFindAndSave() {
+		int index = nextIndex();
+		Product product = products.get(index);
+		product.setPrice(product.getPrice() + 1);
+
+		Product saved = productFixture.inTransaction(() -> {
+			productRepository.findById(product.getId()).orElseThrow();
+			return productRepository.save(product);
+		});
+
+		products.set(index, saved);
+		return saved;
+	}
+
+	private int nextIndex() {
+		next = (next + 1) % ROWS;
+		return next;
+	}
+
+}
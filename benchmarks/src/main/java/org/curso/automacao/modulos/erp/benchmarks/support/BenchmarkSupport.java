@@ -0,0 +1,27 @@
+package org.curso.automacao.modulos.erp.benchmarks.support;
+
+import java.lang.reflect.Field;
+
+import org.springframework.util.ReflectionUtils;
+
+public final class BenchmarkSupport {
+
+	private BenchmarkSupport() {
+	}
+
+	/**
+	 * Sets a field that Spring would normally fill through {@code @Value} or
+	 * {@code @Autowired}, so components can be benchmarked without a context.
+	 */
+	public static void inject(Object target, String name, Object value) {
+
+		Field field = ReflectionUtils.findField(target.getClass(), name);
+
+		if (field == null)
+			throw new IllegalArgumentException("No field [" + name + "] in " + target.getClass().getName());
+
+		ReflectionUtils.makeAccessible(field);
+		ReflectionUtils.setField(field, target, value);
+	}
+
+}
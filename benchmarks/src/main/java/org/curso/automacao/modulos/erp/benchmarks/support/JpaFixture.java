@@ -0,0 +1,121 @@
+package org.curso.automacao.modulos.erp.benchmarks.support;
+
+import java.util.Properties;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.AutowiredAnnotationBeanPostProcessor;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.hibernate5.SpringBeanContainer;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.orm.jpa.support.PersistenceAnnotationBeanPostProcessor;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * In-memory H2 database with the entities of one service package and Spring
+ * Data repositories on top of it, without starting a Spring Boot context.
+ * Entity listeners are autowired from the components added with
+ * {@link #createBean}, as Spring Boot does through its bean container.
+ */
+public class JpaFixture implements AutoCloseable {
+
+	private final HikariDataSource dataSource;
+	private final EntityManagerFactory entityManagerFactory;
+	private final EntityManager sharedEntityManager;
+	private final JpaRepositoryFactory repositoryFactory;
+	private final TransactionTemplate transactionTemplate;
+	private final DefaultListableBeanFactory beanFactory;
+
+	public JpaFixture(int poolSize, String... packagesToScan) {
+
+		dataSource = new HikariDataSource();
+		dataSource.setJdbcUrl("jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+		dataSource.setUsername("sa");
+		dataSource.setMaximumPoolSize(poolSize);
+
+		beanFactory = new DefaultListableBeanFactory();
+
+		AutowiredAnnotationBeanPostProcessor autowired = new AutowiredAnnotationBeanPostProcessor();
+		autowired.setBeanFactory(beanFactory);
+		beanFactory.addBeanPostProcessor(autowired);
+
+		PersistenceAnnotationBeanPostProcessor persistence = new PersistenceAnnotationBeanPostProcessor();
+		persistence.setBeanFactory(beanFactory);
+		beanFactory.addBeanPostProcessor(persistence);
+
+		Properties properties = new Properties();
+		properties.put("hibernate.hbm2ddl.auto", "create-drop");
+		properties.put("hibernate.dialect", "org.hibernate.dialect.H2Dialect");
+		properties.put("hibernate.jdbc.batch_size", "50");
+		properties.put("hibernate.order_inserts", "true");
+		properties.put("hibernate.order_updates", "true");
+		properties.put(AvailableSettings.BEAN_CONTAINER, new SpringBeanContainer(beanFactory));
+
+		LocalContainerEntityManagerFactoryBean factoryBean = new LocalContainerEntityManagerFactoryBean();
+		factoryBean.setDataSource(dataSource);
+		factoryBean.setPackagesToScan(packagesToScan);
+		factoryBean.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+		factoryBean.setJpaProperties(properties);
+		factoryBean.afterPropertiesSet();
+
+		entityManagerFactory = factoryBean.getObject();
+
+		sharedEntityManager = SharedEntityManagerCreator.createSharedEntityManager(entityManagerFactory);
+		repositoryFactory = new JpaRepositoryFactory(sharedEntityManager);
+		transactionTemplate = new TransactionTemplate(new JpaTransactionManager(entityManagerFactory));
+
+		beanFactory.registerSingleton("entityManagerFactory", entityManagerFactory);
+		beanFactory.registerSingleton("jdbcTemplate", new JdbcTemplate(dataSource));
+	}
+
+	/**
+	 * Creates a component with its {@code @Autowired} and
+	 * {@code @PersistenceContext} fields filled from this fixture, and makes it
+	 * available to the components and entity listeners created after it.
+	 */
+	public <T> T createBean(Class<T> type) {
+
+		T bean = beanFactory.createBean(type);
+		beanFactory.registerSingleton(type.getName(), bean);
+
+		if (bean instanceof SmartInitializingSingleton singleton)
+			singleton.afterSingletonsInstantiated();
+
+		return bean;
+	}
+
+	public <T> T getRepository(Class<T> repositoryInterface) {
+		return repositoryFactory.getRepository(repositoryInterface);
+	}
+
+	/**
+	 * Transaction-bound entity manager, what {@code @PersistenceContext} injects
+	 * into the services.
+	 */
+	public EntityManager getEntityManager() {
+		return sharedEntityManager;
+	}
+
+	public <T> T inTransaction(Supplier<T> work) {
+		return transactionTemplate.execute(status -> work.get());
+	}
+
+	@Override
+	public void close() {
+		entityManagerFactory.close();
+		dataSource.close();
+	}
+
+}
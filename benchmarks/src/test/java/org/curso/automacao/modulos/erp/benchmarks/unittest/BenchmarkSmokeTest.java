@@ -0,0 +1,52 @@
+package org.curso.automacao.modulos.erp.benchmarks.unittest;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+import org.openjdk.jmh.runner.options.VerboseMode;
+
+// Runs every benchmark once, briefly, in this JVM and with the smallest data sets,
+// so a broken fixture fails the build instead of a benchmark run.
+@Tag("unit-tests")
+public class BenchmarkSmokeTest {
+
+	@Test
+	public void validateEveryBenchmarkRuns() throws RunnerException {
+
+		Options options = new OptionsBuilder()
+				.include("org\\.curso\\.automacao\\.modulos\\.erp\\.benchmarks\\..*")
+				.param("customers", "1000")
+				.param("text", "john")
+				.param("rows", "1000")
+				.param("items", "5")
+				.param("hotProducts", "1")
+				.forks(0)
+				.warmupIterations(0)
+				.measurementIterations(1)
+				.measurementTime(TimeValue.milliseconds(200))
+				.timeout(TimeValue.seconds(60))
+				.timeUnit(TimeUnit.MILLISECONDS)
+				.shouldFailOnError(true)
+				.verbosity(VerboseMode.SILENT)
+				.build();
+
+		Collection<RunResult> results = new Runner(options).run();
+
+		assertFalse(results.isEmpty(), "Validate if the benchmarks were found");
+
+		for (RunResult result : results)
+			assertTrue(result.getPrimaryResult().getSampleCount() > 0, result.getParams().getBenchmark());
+	}
+
+}
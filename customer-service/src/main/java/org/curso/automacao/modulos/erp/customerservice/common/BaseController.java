@@ -1,11 +1,19 @@
 package org.curso.automacao.modulos.erp.customerservice.common;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Optional;
 
+import javax.servlet.http.HttpServletResponse;
+
+import org.curso.automacao.modulos.erp.customerservice.exceptions.ConcurrentUpdateException;
 import org.curso.automacao.modulos.erp.customerservice.exceptions.ServiceException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
@@ -13,11 +21,24 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestParam;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+
 public abstract class BaseController<S extends BaseService<R, E>, R extends JpaRepository<E, Long>, E extends BaseEntity> {
 
+	public static final String NDJSON_MEDIA_TYPE = "application/x-ndjson";
+
+	public static final int DEFAULT_PAGE_SIZE = 100;
+	public static final int MAX_PAGE_SIZE = 1000;
+	public static final int MAX_SAVE_ALL_SIZE = 10000;
+
+	private static final int STREAM_FLUSH_INTERVAL = 100;
+
 	@Autowired
 	S baseService;
 
+	@Autowired
+	private ObjectMapper objectMapper;
 	public ResponseEntity<List<E>> findAll() {
 
 		try {
@@ -33,29 +54,132 @@ public abstract class BaseController<S extends BaseService<R, E>, R extends JpaR
 
 	}
 
-	public ResponseEntity<E> findById(long id) {
+	public ResponseEntity<List<E>> findAll(Integer page, Integer size, Long after) {
+
+		if (page == null && after == null)
+			return findAll();
+
+		int pageSize = size == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+
+		try {
+			HttpHeaders headers = new HttpHeaders();
+			List<E> results;
+
+			if (after != null) {
+				results = baseService.findAfter(after, pageSize);
+			} else {
+				Page<E> resultPage = baseService.findPage(Math.max(0, page), pageSize);
+				results = resultPage.getContent();
+				headers.add("X-Total-Count", String.valueOf(resultPage.getTotalElements()));
+			}
+
+			if (results.size() == pageSize)
+				headers.add("X-Next-Cursor", String.valueOf(results.get(results.size() - 1).getId()));
+
+			return new ResponseEntity<List<E>>(results, headers, HttpStatus.OK);
+		} catch (ServiceException e) {
+			return new ResponseEntity<List<E>>(HttpStatus.UNPROCESSABLE_ENTITY);
+		}
+	}
+
+	public void streamAll(HttpServletResponse response) throws IOException {
+
+		response.setContentType(NDJSON_MEDIA_TYPE);
+		response.setCharacterEncoding("UTF-8");
+
+		try (SequenceWriter writer = objectMapper.writer().withRootValueSeparator("\n")
+				.writeValues(response.getOutputStream())) {
+
+			int[] written = { 0 };
+
+			baseService.streamAll(entity -> {
+				try {
+					writer.write(entity);
+
+					if (++written[0] % STREAM_FLUSH_INTERVAL == 0)
+						writer.flush();
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			});
+		} catch (ServiceException e) {
+			if (!response.isCommitted())
+				response.setStatus(HttpStatus.UNPROCESSABLE_ENTITY.value());
+		}
+	}
+
+	public ResponseEntity<List<E>> findByIds(List<Long> ids) {
+
+		if (ids == null || ids.isEmpty())
+			return new ResponseEntity<List<E>>(List.of(), HttpStatus.OK);
+
+		if (ids.size() > MAX_PAGE_SIZE)
+			return new ResponseEntity<List<E>>(HttpStatus.BAD_REQUEST);
+
+		try {
+			return new ResponseEntity<List<E>>(baseService.findByIds(new LinkedHashSet<>(ids)), HttpStatus.OK);
+		} catch (ServiceException e) {
+			return new ResponseEntity<List<E>>(HttpStatus.UNPROCESSABLE_ENTITY);
+		}
+	}
+
+	public ResponseEntity<ChangeSet<E>> findChangesSince(long version, Integer limit) {
+
+		int pageSize = limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+
+		try {
+			return new ResponseEntity<ChangeSet<E>>(baseService.findChangesSince(Math.max(0, version), pageSize),
+					HttpStatus.OK);
+		} catch (ServiceException e) {
+			return new ResponseEntity<ChangeSet<E>>(HttpStatus.UNPROCESSABLE_ENTITY);
+		}
+	}
+
+	public ResponseEntity<E> findById(long id, String ifNoneMatch) {
 
 		try {
 			Optional<E> entity = baseService.findById(id);
 
-			if (entity.isPresent())
-				return new ResponseEntity<E>(entity.get(), HttpStatus.OK);
-			else
+			if (entity.isEmpty())
 				return new ResponseEntity<E>(HttpStatus.NOT_FOUND);
+
+			HttpHeaders headers = eTagHeaders(entity.get().getVersion());
+
+			if (matchesETag(ifNoneMatch, headers.getETag()))
+				return new ResponseEntity<E>(headers, HttpStatus.NOT_MODIFIED);
+
+			return new ResponseEntity<E>(entity.get(), headers, HttpStatus.OK);
 		} catch (ServiceException e) {
 			return new ResponseEntity<E>(HttpStatus.UNPROCESSABLE_ENTITY);
 		}
-
 	}
 
 	public ResponseEntity<E> save(E entity) {
 		try {
-			return new ResponseEntity<E>(baseService.save(entity), HttpStatus.CREATED);
+			E saved = baseService.save(entity);
+			return new ResponseEntity<E>(saved, eTagHeaders(saved.getVersion()), HttpStatus.CREATED);
+		} catch (ConcurrentUpdateException e) {
+			return new ResponseEntity<E>(HttpStatus.CONFLICT);
 		} catch (ServiceException e) {
 			return new ResponseEntity<E>(HttpStatus.UNPROCESSABLE_ENTITY);
 		}
 	}
 
+	public ResponseEntity<List<E>> saveAll(List<E> entities) {
+
+		if (entities == null || entities.isEmpty())
+			return new ResponseEntity<List<E>>(List.of(), HttpStatus.CREATED);
+
+		if (entities.size() > MAX_SAVE_ALL_SIZE)
+			return new ResponseEntity<List<E>>(HttpStatus.BAD_REQUEST);
+
+		try {
+			return new ResponseEntity<List<E>>(baseService.saveAll(entities), HttpStatus.CREATED);
+		} catch (ServiceException e) {
+			return new ResponseEntity<List<E>>(HttpStatus.UNPROCESSABLE_ENTITY);
+		}
+	}
+
 	public ResponseEntity<E> deleteById(long id) {
 		try {
 			E entity = baseService.deleteById(id);
@@ -69,11 +193,65 @@ public abstract class BaseController<S extends BaseService<R, E>, R extends JpaR
 		}
 	}
 
-	public ResponseEntity<E> update(E entity) {
+	public ResponseEntity<E> update(E entity, String ifMatch) {
+
+		// If-Match takes precedence over the version in the body; "*" only asks for the entity to exist.
+		if (ifMatch != null && !ifMatch.trim().equals("*")) {
+			Long version = parseETag(ifMatch);
+
+			if (version == null)
+				return new ResponseEntity<E>(HttpStatus.PRECONDITION_FAILED);
+
+			entity.setVersion(version);
+		}
+
 		try {
-			return new ResponseEntity<E>(baseService.update(entity), HttpStatus.OK);
+			E updated = baseService.update(entity);
+			return new ResponseEntity<E>(updated, eTagHeaders(updated.getVersion()), HttpStatus.OK);
+		} catch (ConcurrentUpdateException e) {
+			return new ResponseEntity<E>(eTagHeaders(e.getCurrentVersion()),
+					ifMatch != null ? HttpStatus.PRECONDITION_FAILED : HttpStatus.CONFLICT);
 		} catch (ServiceException e) {
 			return new ResponseEntity<E>(HttpStatus.UNPROCESSABLE_ENTITY);
 		}
 	}
+
+	private static HttpHeaders eTagHeaders(Long version) {
+
+		HttpHeaders headers = new HttpHeaders();
+
+		if (version != null)
+			headers.setETag("\"" + version + "\"");
+
+		return headers;
+	}
+
+	private static Long parseETag(String eTag) {
+
+		String value = eTag.trim();
+
+		if (value.length() < 3 || !value.startsWith("\"") || !value.endsWith("\""))
+			return null;
+
+		try {
+			return Long.valueOf(value.substring(1, value.length() - 1));
+		} catch (NumberFormatException e) {
+			return null;
+		}
+	}
+
+	private static boolean matchesETag(String ifNoneMatch, String eTag) {
+
+		if (ifNoneMatch == null || eTag == null)
+			return false;
+
+		for (String candidate : ifNoneMatch.split(",")) {
+			String tag = candidate.trim();
+
+			if (tag.equals("*") || tag.equals(eTag) || tag.equals("W/" + eTag))
+				return true;
+		}
+
+		return false;
+	}
 }
@@ -0,0 +1,125 @@
+package org.curso.automacao.modulos.erp.customerservice.common;
+
+import java.util.concurrent.ConcurrentSkipListSet;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.PersistenceContext;
+
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+import org.hibernate.persister.entity.EntityPersister;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Hands out the service-wide, strictly increasing change versions stamped on
+ * every inserted or updated entity and on every deletion, so clients can ask
+ * for what changed since the last version they saw.
+ * <p>
+ * A version is only published once every smaller version has committed or
+ * rolled back; otherwise a client could move past a change that commits late.
+ */
+@Component
+public class ChangeFeed implements SmartInitializingSingleton {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(ChangeFeed.class);
+
+	/**
+	 * Change version of rows written without a feed, as by the services used
+	 * outside a Spring context. They are numbered on the next start.
+	 */
+	public static final long UNVERSIONED = 0;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@PersistenceContext
+	private EntityManager em;
+
+	private final ConcurrentSkipListSet<Long> uncommitted = new ConcurrentSkipListSet<>();
+
+	private long lastVersion;
+
+	@Override
+	public void afterSingletonsInstantiated() {
+
+		SessionFactoryImplementor sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+
+		long last = jdbcTemplate.queryForObject("select coalesce(max(change_version), 0) from "
+				+ DeletedEntity.TABLE_NAME, Long.class);
+
+		for (EntityPersister persister : sessionFactory.getMetamodel().entityPersisters().values()) {
+
+			if (!BaseEntity.class.isAssignableFrom(persister.getMappedClass())
+					|| !(persister instanceof AbstractEntityPersister entityPersister))
+				continue;
+
+			String table = entityPersister.getTableName();
+			last = Math.max(last, jdbcTemplate.queryForObject("select coalesce(max(change_version), 0) from " + table,
+					Long.class));
+
+			// Rows written before the column existed, or without a feed, get distinct versions, in id order, above everything else.
+			int backfilled = jdbcTemplate.update("update " + table + " set change_version = id + ? where change_version = "
+					+ UNVERSIONED, last);
+
+			if (backfilled > 0) {
+				LOGGER.info("Assigned change versions to " + backfilled + " existing rows of [" + table + "]");
+				last += jdbcTemplate.queryForObject("select max(id) from " + table, Long.class);
+			}
+		}
+
+		synchronized (this) {
+			lastVersion = last;
+		}
+	}
+
+	/**
+	 * Next change version, held back from {@link #getPublishedVersion()} until the
+	 * current transaction completes.
+	 */
+	public synchronized long next() {
+
+		long version = ++lastVersion;
+
+		// Versions of one transaction only grow, so its first one is all that has to be tracked.
+		if (TransactionSynchronizationManager.isSynchronizationActive()
+				&& !TransactionSynchronizationManager.hasResource(this)) {
+			uncommitted.add(version);
+			TransactionSynchronizationManager.bindResource(this, version);
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCompletion(int status) {
+					TransactionSynchronizationManager.unbindResourceIfPossible(ChangeFeed.this);
+					uncommitted.remove(version);
+				}
+			});
+		}
+
+		return version;
+	}
+
+	/**
+	 * Highest version below which every change is committed and visible.
+	 */
+	public synchronized long getPublishedVersion() {
+		return uncommitted.isEmpty() ? lastVersion : uncommitted.first() - 1;
+	}
+
+	/**
+	 * Leaves a tombstone for an entity deleted in the current transaction.
+	 */
+	public void recordDeletion(Class<?> entityClass, long id) {
+		em.persist(new DeletedEntity(next(), entityClass.getSimpleName(), id, System.currentTimeMillis()));
+	}
+
+}
@@ -0,0 +1,26 @@
+package org.curso.automacao.modulos.erp.customerservice.common;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.experimental.SuperBuilder;
+
+/**
+ * Entities changed and ids deleted after a given change version. Clients pass
+ * {@code version} back on their next request; while {@code hasMore} is set the
+ * feed has further changes right away.
+ */
+@Getter @Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@SuperBuilder
+public class ChangeSet<E> {
+
+	private long version;
+	private boolean hasMore;
+	private List<E> changed;
+	private List<Long> deleted;
+}
@@ -0,0 +1,27 @@
+package org.curso.automacao.modulos.erp.customerservice.common;
+
+import javax.persistence.PrePersist;
+import javax.persistence.PreUpdate;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * Stamps entities written through the persistence context with the next
+ * change version. Bulk updates bypass it and have to call
+ * {@link ChangeFeed#next()} themselves, see {@link BaseService#update}.
+ */
+public class ChangeVersionListener {
+
+	// Hibernate creates listeners while the EntityManagerFactory ChangeFeed depends on is still being built.
+	@Autowired
+	private ObjectProvider<ChangeFeed> changeFeed;
+
+	@PrePersist
+	@PreUpdate
+	public void stamp(BaseEntity entity) {
+		ChangeFeed feed = changeFeed == null ? null : changeFeed.getIfAvailable();
+		entity.setChangeVersion(feed == null ? ChangeFeed.UNVERSIONED : feed.next());
+	}
+
+}
@@ -0,0 +1,826 @@
+package org.curso.automacao.modulos.erp.customerservice.common;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * In-memory index of a few short text fields per document for search as you
+ * type. Text is lower-cased, stripped of accents and split into words; each
+ * word maps to the documents holding it and the fields it was found in.
+ * <p>
+ * Every word of a query has to match a word of the document, exactly, as a
+ * prefix or, for words of four letters or more, within one edit (two from
+ * eight letters). A document scores the sum over the query words of the best
+ * match, weighted by the field it was found in, and results are ordered by
+ * score and then id. Scores are integers so a cursor can resume exactly after
+ * the last hit of a page.
+ * <p>
+ * Writes never edit postings in place: a new version of a document gets a new
+ * ordinal and the old one is marked dead. Once dead documents make up a
+ * quarter of the index it is compacted: live documents are numbered again from
+ * 0, and dead postings and words no document holds any more are dropped.
+ */
+public final class SearchIndex {
+
+	public static final int MAX_QUERY_WORDS = 8;
+
+	private static final int MAX_WORD_LENGTH = 64;
+
+	private static final int EXACT = 1000;
+	private static final int PREFIX = 500;
+	private static final int PREFIX_BY_LENGTH = 400;
+	private static final int FUZZY = 450;
+	private static final int FUZZY_PER_EDIT = 100;
+
+	private static final int FUZZY_MIN_LENGTH = 4;
+	private static final int FUZZY_TWO_EDITS_LENGTH = 8;
+
+	private static final int MIN_DEAD_TO_COMPACT = 10000;
+
+	private final int[] weightByFields;
+	private final int maxExpansions;
+
+	private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+	private final TreeMap<String, Term> terms = new TreeMap<>();
+	private final Map<String, List<Term>> termsByGram = new HashMap<>();
+
+	private final OrdinalMap ordinalById = new OrdinalMap();
+	private final Set<Long> deletedIds = new HashSet<>();
+	private final BitSet dead = new BitSet();
+
+	private long[] ids = new long[1024];
+	private long[] versions = new long[1024];
+	private int ordinals;
+	private int deadSinceCompaction;
+	private long postings;
+	private int compactions;
+
+	/**
+	 * @param fieldWeights  weight of a match in each field, in the order values
+	 *                      are passed to {@link #put}
+	 * @param maxExpansions most words a query word expands to as a prefix; the
+	 *                      shortest, best scoring, words are kept
+	 */
+	public SearchIndex(int[] fieldWeights, int maxExpansions) {
+
+		if (fieldWeights.length > 8)
+			throw new IllegalArgumentException("At most 8 fields can be indexed");
+
+		this.maxExpansions = Math.max(1, maxExpansions);
+		this.weightByFields = new int[1 << fieldWeights.length];
+
+		for (int fields = 1; fields < weightByFields.length; fields++)
+			for (int field = 0; field < fieldWeights.length; field++)
+				if ((fields & (1 << field)) != 0)
+					weightByFields[fields] = Math.max(weightByFields[fields], fieldWeights[field]);
+	}
+
+	@Getter
+	@AllArgsConstructor
+	public static final class Document {
+
+		private final long id;
+		private final long version;
+		private final String[] values;
+	}
+
+	@Getter
+	@AllArgsConstructor
+	public static final class Hit {
+
+		private final long id;
+		private final int score;
+	}
+
+	@Getter
+	@AllArgsConstructor
+	public static final class Result {
+
+		private final List<Hit> hits;
+		private final int total;
+		private final String nextCursor;
+	}
+
+	private static final class Term {
+
+		private final String text;
+		private int[] docs = new int[2];
+		// Bit mask of the fields holding the word, read back with & 0xFF.
+		private byte[] fields = new byte[2];
+		private int size;
+
+		private Term(String text) {
+			this.text = text;
+		}
+
+		private boolean add(int ordinal, int field) {
+
+			if (size > 0 && docs[size - 1] == ordinal) {
+				fields[size - 1] |= field;
+				return false;
+			}
+
+			if (size == docs.length) {
+				docs = Arrays.copyOf(docs, size + (size >> 1) + 2);
+				fields = Arrays.copyOf(fields, docs.length);
+			}
+
+			docs[size] = ordinal;
+			fields[size++] = (byte) field;
+			return true;
+		}
+	}
+
+	private static final class Expansion {
+
+		private final Term term;
+		private final int score;
+
+		private Expansion(Term term, int score) {
+			this.term = term;
+			this.score = score;
+		}
+	}
+
+	/**
+	 * Indexes the document unless the index already holds the same or a newer
+	 * version of it, or it was removed.
+	 */
+	public void put(Document document) {
+		putAll(List.of(document));
+	}
+
+	public void putAll(List<Document> documents) {
+
+		List<List<String>[]> words = new ArrayList<>(documents.size());
+
+		for (Document document : documents)
+			words.add(tokenize(document.values));
+
+		lock.writeLock().lock();
+
+		try {
+			for (int i = 0; i < documents.size(); i++)
+				add(documents.get(i), words.get(i));
+
+			compactIfNeeded();
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Drops the document for good; ids are never reused, so later puts of it,
+	 * such as from a rebuild that read it before the delete, are ignored.
+	 */
+	public void remove(long id) {
+
+		lock.writeLock().lock();
+
+		try {
+			deletedIds.add(id);
+
+			int ordinal = ordinalById.remove(id);
+
+			if (ordinal >= 0)
+				kill(ordinal);
+
+			compactIfNeeded();
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	public Result search(String query, int limit, String cursor) {
+
+		Hit after = parseCursor(cursor);
+		List<String> words = new ArrayList<>(new LinkedHashSet<>(tokenize(query)));
+
+		if (words.size() > MAX_QUERY_WORDS)
+			words = words.subList(0, MAX_QUERY_WORDS);
+
+		if (words.isEmpty())
+			return new Result(List.of(), 0, null);
+
+		long[] matchIds;
+		int[] matchScores;
+
+		lock.readLock().lock();
+
+		try {
+			List<List<Expansion>> expansions = new ArrayList<>(words.size());
+
+			for (String word : words) {
+				List<Expansion> expansion = expand(word);
+
+				if (expansion.isEmpty())
+					return new Result(List.of(), 0, null);
+
+				expansions.add(expansion);
+			}
+
+			// Start from the most selective word, so the candidate set is as small as it gets.
+			expansions.sort(Comparator.comparingLong(SearchIndex::postingsOf));
+
+			long[] first = collect(expansions.get(0));
+			int count = first.length;
+			int[] candidates = new int[count];
+			int[] scores = new int[count];
+
+			for (int i = 0; i < count; i++) {
+				candidates[i] = (int) (first[i] >>> 32);
+				scores[i] = (int) first[i];
+			}
+
+			for (int w = 1; w < expansions.size() && count > 0; w++)
+				count = intersect(expansions.get(w), candidates, scores, count);
+
+			matchIds = new long[count];
+			matchScores = new int[count];
+
+			for (int i = 0; i < count; i++) {
+				matchIds[i] = ids[candidates[i]];
+				matchScores[i] = scores[i];
+			}
+		} finally {
+			lock.readLock().unlock();
+		}
+
+		return top(matchIds, matchScores, Math.max(1, limit), after);
+	}
+
+	// Ordered from the best hit down: higher score first, then lower id.
+	private static int compare(long id, int score, long otherId, int otherScore) {
+		return score != otherScore ? Integer.compare(otherScore, score) : Long.compare(id, otherId);
+	}
+
+	private static Result top(long[] matchIds, int[] matchScores, int limit, Hit after) {
+
+		// Worst of the hits kept so far at the head.
+		PriorityQueue<Hit> top = new PriorityQueue<>(limit + 1,
+				(a, b) -> compare(b.id, b.score, a.id, a.score));
+		int remaining = 0;
+
+		for (int i = 0; i < matchIds.length; i++) {
+
+			if (after != null && compare(matchIds[i], matchScores[i], after.id, after.score) <= 0)
+				continue;
+
+			remaining++;
+
+			if (top.size() < limit) {
+				top.add(new Hit(matchIds[i], matchScores[i]));
+			} else if (compare(matchIds[i], matchScores[i], top.peek().id, top.peek().score) < 0) {
+				top.poll();
+				top.add(new Hit(matchIds[i], matchScores[i]));
+			}
+		}
+
+		List<Hit> hits = new ArrayList<>(top);
+		hits.sort((a, b) -> compare(a.id, a.score, b.id, b.score));
+
+		String nextCursor = remaining > limit ? hits.get(hits.size() - 1).score + "." + hits.get(hits.size() - 1).id
+				: null;
+
+		return new Result(hits, matchIds.length, nextCursor);
+	}
+
+	private static Hit parseCursor(String cursor) {
+
+		if (cursor == null || cursor.isBlank())
+			return null;
+
+		int dot = cursor.indexOf('.');
+
+		try {
+			return new Hit(Long.parseLong(cursor.substring(dot + 1)), Integer.parseInt(cursor.substring(0, dot)));
+		} catch (RuntimeException e) {
+			throw new IllegalArgumentException("Invalid cursor {" + cursor + "}", e);
+		}
+	}
+
+	private List<Expansion> expand(String word) {
+
+		List<Expansion> expansions = new ArrayList<>();
+		Term exact = terms.get(word);
+
+		if (exact != null)
+			expansions.add(new Expansion(exact, EXACT));
+
+		List<Term> prefixed = new ArrayList<>(terms.subMap(word, false, word + Character.MAX_VALUE, false).values());
+
+		if (prefixed.size() > maxExpansions) {
+			prefixed.sort(Comparator.comparingInt((Term term) -> term.text.length()).thenComparing(term -> term.text));
+			prefixed = prefixed.subList(0, maxExpansions);
+		}
+
+		for (Term term : prefixed)
+			expansions.add(new Expansion(term, PREFIX + PREFIX_BY_LENGTH * word.length() / term.text.length()));
+
+		if (word.length() >= FUZZY_MIN_LENGTH)
+			expansions.addAll(fuzzy(word, word.length() >= FUZZY_TWO_EDITS_LENGTH ? 2 : 1));
+
+		return expansions;
+	}
+
+	/**
+	 * Words within maxEdits of the query word that are not prefixed by it.
+	 * Candidates come from the trigram index: an edit changes at most four
+	 * trigrams (three, or four for a swap), so a word within k edits shares all
+	 * but 4k of them.
+	 */
+	private List<Expansion> fuzzy(String word, int maxEdits) {
+
+		Set<String> grams = grams(word);
+		Map<Term, Integer> shared = new HashMap<>();
+
+		for (String gram : grams)
+			for (Term term : termsByGram.getOrDefault(gram, List.of()))
+				if (Math.abs(term.text.length() - word.length()) <= maxEdits && !term.text.startsWith(word))
+					shared.merge(term, 1, Integer::sum);
+
+		List<Expansion> expansions = new ArrayList<>();
+		int required = Math.max(1, grams.size() - 4 * maxEdits);
+
+		shared.forEach((term, count) -> {
+			if (count >= required) {
+				int edits = distance(word, term.text, maxEdits);
+
+				if (edits <= maxEdits)
+					expansions.add(new Expansion(term, FUZZY - FUZZY_PER_EDIT * edits));
+			}
+		});
+
+		return expansions;
+	}
+
+	/**
+	 * Sorted (ordinal, score) pairs of the live documents matching any of the
+	 * expansions, each with its best score.
+	 */
+	private long[] collect(List<Expansion> expansions) {
+
+		long[] pairs = new long[(int) Math.min(Integer.MAX_VALUE - 8, postingsOf(expansions))];
+		int count = 0;
+
+		for (Expansion expansion : expansions) {
+			Term term = expansion.term;
+
+			for (int i = 0; i < term.size; i++)
+				if (!dead.get(term.docs[i]))
+					pairs[count++] = ((long) term.docs[i] << 32) | expansion.score * weightByFields[term.fields[i] & 0xFF];
+		}
+
+		Arrays.sort(pairs, 0, count);
+
+		// The pairs of one ordinal are adjacent and ascending by score, so the last one is the best.
+		int distinct = 0;
+
+		for (int i = 0; i < count; i++)
+			if (i + 1 == count || (pairs[i + 1] >>> 32) != (pairs[i] >>> 32))
+				pairs[distinct++] = pairs[i];
+
+		return Arrays.copyOf(pairs, distinct);
+	}
+
+	/**
+	 * Keeps the candidates matching one of the expansions and adds their best
+	 * score. Returns the number of candidates left, moved to the front.
+	 */
+	private int intersect(List<Expansion> expansions, int[] candidates, int[] scores, int count) {
+
+		int[] best = new int[count];
+
+		for (Expansion expansion : expansions) {
+			Term term = expansion.term;
+
+			if (term.size > 8L * count) {
+				// Few candidates against a long posting list: look each candidate up instead.
+				for (int c = 0; c < count; c++) {
+					int i = Arrays.binarySearch(term.docs, 0, term.size, candidates[c]);
+
+					if (i >= 0)
+						best[c] = Math.max(best[c], expansion.score * weightByFields[term.fields[i] & 0xFF]);
+				}
+			} else {
+				for (int i = 0; i < term.size; i++) {
+					int c = Arrays.binarySearch(candidates, 0, count, term.docs[i]);
+
+					if (c >= 0)
+						best[c] = Math.max(best[c], expansion.score * weightByFields[term.fields[i] & 0xFF]);
+				}
+			}
+		}
+
+		int kept = 0;
+
+		for (int c = 0; c < count; c++)
+			if (best[c] > 0) {
+				candidates[kept] = candidates[c];
+				scores[kept++] = scores[c] + best[c];
+			}
+
+		return kept;
+	}
+
+	private static long postingsOf(List<Expansion> expansions) {
+
+		long postings = 0;
+
+		for (Expansion expansion : expansions)
+			postings += expansion.term.size;
+
+		return postings;
+	}
+
+	private void add(Document document, List<String>[] words) {
+
+		if (deletedIds.contains(document.id))
+			return;
+
+		int previous = ordinalById.get(document.id);
+
+		if (previous >= 0) {
+			if (versions[previous] >= document.version)
+				return;
+
+			kill(previous);
+		}
+
+		if (ordinals == ids.length) {
+			ids = Arrays.copyOf(ids, ordinals * 2);
+			versions = Arrays.copyOf(versions, ordinals * 2);
+		}
+
+		int ordinal = ordinals++;
+		ids[ordinal] = document.id;
+		versions[ordinal] = document.version;
+		ordinalById.put(document.id, ordinal);
+
+		for (int field = 0; field < words.length; field++)
+			for (String word : words[field])
+				if (term(word).add(ordinal, 1 << field))
+					postings++;
+	}
+
+	private Term term(String word) {
+
+		Term term = terms.get(word);
+
+		if (term == null) {
+			term = new Term(word);
+			terms.put(word, term);
+
+			for (String gram : grams(word))
+				termsByGram.computeIfAbsent(gram, key -> new ArrayList<>(4)).add(term);
+		}
+
+		return term;
+	}
+
+	private void kill(int ordinal) {
+		dead.set(ordinal);
+		deadSinceCompaction++;
+	}
+
+	private void compactIfNeeded() {
+		if (deadSinceCompaction >= Math.max(MIN_DEAD_TO_COMPACT, ordinalById.size() / 4))
+			compact();
+	}
+
+	/**
+	 * Numbers the live documents again from 0, in the same order, so posting
+	 * lists stay sorted, and drops dead postings and the words left without any.
+	 */
+	private void compact() {
+
+		int[] renumbered = new int[ordinals];
+		int live = 0;
+
+		for (int ordinal = 0; ordinal < ordinals; ordinal++) {
+			if (dead.get(ordinal)) {
+				renumbered[ordinal] = -1;
+				continue;
+			}
+
+			renumbered[ordinal] = live;
+			ids[live] = ids[ordinal];
+			versions[live] = versions[ordinal];
+			ordinalById.put(ids[live], live);
+			live++;
+		}
+
+		int capacity = Math.max(1024, live + (live >> 1));
+		ids = Arrays.copyOf(ids, capacity);
+		versions = Arrays.copyOf(versions, capacity);
+		ordinals = live;
+		dead.clear();
+
+		Set<Term> emptied = new HashSet<>();
+		postings = 0;
+
+		for (Iterator<Term> iterator = terms.values().iterator(); iterator.hasNext();) {
+			Term term = iterator.next();
+			int kept = 0;
+
+			for (int i = 0; i < term.size; i++)
+				if (renumbered[term.docs[i]] >= 0) {
+					term.docs[kept] = renumbered[term.docs[i]];
+					term.fields[kept++] = term.fields[i];
+				}
+
+			if (kept == 0) {
+				iterator.remove();
+				emptied.add(term);
+				continue;
+			}
+
+			term.size = kept;
+			term.docs = Arrays.copyOf(term.docs, Math.max(2, kept));
+			term.fields = Arrays.copyOf(term.fields, term.docs.length);
+			postings += kept;
+		}
+
+		Set<String> grams = new HashSet<>();
+
+		for (Term term : emptied)
+			grams.addAll(grams(term.text));
+
+		for (String gram : grams) {
+			List<Term> gramTerms = termsByGram.get(gram);
+			gramTerms.removeIf(emptied::contains);
+
+			if (gramTerms.isEmpty())
+				termsByGram.remove(gram);
+		}
+
+		deadSinceCompaction = 0;
+		compactions++;
+	}
+
+	/**
+	 * Releases the spare capacity the posting lists grew while bulk loading.
+	 */
+	public void trim() {
+
+		lock.writeLock().lock();
+
+		try {
+			for (Term term : terms.values()) {
+				term.docs = Arrays.copyOf(term.docs, Math.max(2, term.size));
+				term.fields = Arrays.copyOf(term.fields, term.docs.length);
+			}
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	public int getDocuments() {
+		lock.readLock().lock();
+
+		try {
+			return ordinalById.size();
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	public int getTerms() {
+		lock.readLock().lock();
+
+		try {
+			return terms.size();
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	public long getPostings() {
+		lock.readLock().lock();
+
+		try {
+			return postings;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	public int getCompactions() {
+		lock.readLock().lock();
+
+		try {
+			return compactions;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private static List<String>[] tokenize(String[] values) {
+
+		List<String>[] words = new List[values.length];
+
+		for (int field = 0; field < values.length; field++)
+			words[field] = tokenize(values[field]);
+
+		return words;
+	}
+
+	/**
+	 * Lower-cased words of letters and digits, accents removed.
+	 */
+	public static List<String> tokenize(String text) {
+
+		if (text == null || text.isEmpty())
+			return List.of();
+
+		for (int i = 0; i < text.length(); i++)
+			if (text.charAt(i) > 127) {
+				text = Normalizer.normalize(text, Normalizer.Form.NFD).replaceAll("\\p{M}+", "");
+				break;
+			}
+
+		List<String> words = new ArrayList<>(4);
+		StringBuilder word = new StringBuilder();
+
+		for (int i = 0; i <= text.length(); i++) {
+			char c = i < text.length() ? Character.toLowerCase(text.charAt(i)) : ' ';
+
+			if (Character.isLetterOrDigit(c)) {
+				if (word.length() < MAX_WORD_LENGTH)
+					word.append(c);
+			} else if (word.length() > 0) {
+				words.add(word.toString());
+				word.setLength(0);
+			}
+		}
+
+		return words;
+	}
+
+	private static Set<String> grams(String word) {
+
+		String padded = "^" + word + "$";
+		Set<String> grams = new LinkedHashSet<>();
+
+		for (int i = 0; i + 3 <= padded.length(); i++)
+			grams.add(padded.substring(i, i + 3));
+
+		return grams;
+	}
+
+	/**
+	 * Optimal string alignment distance (edits, including swapping two adjacent
+	 * letters), or max + 1 as soon as it is known to exceed max.
+	 */
+	static int distance(String a, String b, int max) {
+
+		if (Math.abs(a.length() - b.length()) > max)
+			return max + 1;
+
+		int[] previous2 = new int[b.length() + 1];
+		int[] previous = new int[b.length() + 1];
+		int[] current = new int[b.length() + 1];
+
+		for (int j = 0; j <= b.length(); j++)
+			previous[j] = j;
+
+		for (int i = 1; i <= a.length(); i++) {
+			current[0] = i;
+			int rowMin = i;
+
+			for (int j = 1; j <= b.length(); j++) {
+				int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+				int value = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+
+				if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1))
+					value = Math.min(value, previous2[j - 2] + 1);
+
+				current[j] = value;
+				rowMin = Math.min(rowMin, value);
+			}
+
+			if (rowMin > max)
+				return max + 1;
+
+			int[] rotated = previous2;
+			previous2 = previous;
+			previous = current;
+			current = rotated;
+		}
+
+		return previous[b.length()];
+	}
+
+	/**
+	 * Open-addressing map from document id to ordinal; a million boxed entries
+	 * in a HashMap would take about three times the memory.
+	 */
+	private static final class OrdinalMap {
+
+		private long[] keys = new long[1 << 12];
+		private int[] values = new int[1 << 12];
+		private int size;
+
+		private int slot(long key) {
+			long hash = key * 0x9E3779B97F4A7C15L;
+			return (int) (hash ^ (hash >>> 32)) & (keys.length - 1);
+		}
+
+		// Values are stored plus one, so 0 marks a free slot.
+		int get(long key) {
+
+			for (int slot = slot(key);; slot = (slot + 1) & (keys.length - 1)) {
+				if (values[slot] == 0)
+					return -1;
+
+				if (keys[slot] == key)
+					return values[slot] - 1;
+			}
+		}
+
+		void put(long key, int value) {
+
+			if ((size + 1) * 3L > keys.length * 2L)
+				resize();
+
+			for (int slot = slot(key);; slot = (slot + 1) & (keys.length - 1)) {
+				if (values[slot] == 0) {
+					keys[slot] = key;
+					values[slot] = value + 1;
+					size++;
+					return;
+				}
+
+				if (keys[slot] == key) {
+					values[slot] = value + 1;
+					return;
+				}
+			}
+		}
+
+		int remove(long key) {
+
+			int slot = slot(key);
+
+			for (;; slot = (slot + 1) & (keys.length - 1)) {
+				if (values[slot] == 0)
+					return -1;
+
+				if (keys[slot] == key)
+					break;
+			}
+
+			int removed = values[slot] - 1;
+			values[slot] = 0;
+			size--;
+
+			// Re-insert the rest of the cluster so lookups never stop at the hole.
+			for (int next = (slot + 1) & (keys.length - 1); values[next] != 0; next = (next + 1) & (keys.length - 1)) {
+				long key2 = keys[next];
+				int value2 = values[next];
+				values[next] = 0;
+				size--;
+				put(key2, value2 - 1);
+			}
+
+			return removed;
+		}
+
+		int size() {
+			return size;
+		}
+
+		private void resize() {
+
+			long[] oldKeys = keys;
+			int[] oldValues = values;
+
+			keys = new long[oldKeys.length * 2];
+			values = new int[oldValues.length * 2];
+			size = 0;
+
+			for (int i = 0; i < oldKeys.length; i++)
+				if (oldValues[i] != 0)
+					put(oldKeys[i], oldValues[i] - 1);
+		}
+	}
+
+}
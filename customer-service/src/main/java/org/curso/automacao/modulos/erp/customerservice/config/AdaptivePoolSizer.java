@@ -0,0 +1,192 @@
+package org.curso.automacao.modulos.erp.customerservice.config;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+
+import lombok.Getter;
+
+/**
+ * Resizes every Hikari pool within [min-size, max-size] from what callers
+ * waited for a connection during the last interval. A pool grows by one step
+ * as soon as the 95th percentile wait passes grow-wait-ms, threads are queued
+ * or an acquire timed out, and shrinks by one step after shrink-after quiet
+ * intervals below shrink-utilization. Connections above the new size retire
+ * once idle for spring.datasource.hikari.idle-timeout.
+ */
+@Component
+public class AdaptivePoolSizer {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(AdaptivePoolSizer.class);
+
+	public enum Status {
+		OK, SATURATED, STARVED
+	}
+
+	@Autowired
+	private List<HikariDataSource> dataSources;
+
+	@Autowired
+	private PoolMetricsRegistry poolMetricsRegistry;
+
+	@Getter
+	@Value("${datasource.pool.adaptive.enabled:true}")
+	private boolean enabled;
+
+	@Getter
+	@Value("${datasource.pool.adaptive.min-size:5}")
+	private int minSize;
+
+	@Getter
+	@Value("${datasource.pool.adaptive.max-size:30}")
+	private int maxSize;
+
+	@Value("${datasource.pool.adaptive.step:2}")
+	private int step;
+
+	@Value("${datasource.pool.adaptive.grow-wait-ms:5}")
+	private double growWaitMs;
+
+	@Value("${datasource.pool.adaptive.shrink-wait-ms:1}")
+	private double shrinkWaitMs;
+
+	@Value("${datasource.pool.adaptive.shrink-utilization:0.5}")
+	private double shrinkUtilization;
+
+	@Value("${datasource.pool.adaptive.shrink-after:6}")
+	private int shrinkAfter;
+
+	private final Map<String, Window> windows = new ConcurrentHashMap<>();
+
+	/**
+	 * What one pool looked like over the last interval.
+	 */
+	@Getter
+	public static class Window {
+
+		private long[] acquireBuckets;
+		private long usageMicros;
+		private long timeouts;
+		private long at;
+
+		private long acquires;
+		private double acquireP95Ms;
+		private double utilization;
+		private long windowTimeouts;
+		private int pending;
+		private Status status = Status.OK;
+		private int quietIntervals;
+		private int resizes;
+		private long lastResizeAt;
+	}
+
+	@Scheduled(initialDelayString = "${datasource.pool.adaptive.interval-ms:5000}", fixedDelayString = "${datasource.pool.adaptive.interval-ms:5000}")
+	public void adjust() {
+		for (HikariDataSource dataSource : dataSources)
+			try {
+				adjust(dataSource);
+			} catch (RuntimeException e) {
+				LOGGER.warn("Sizing pool [" + dataSource.getPoolName() + "] failed", e);
+			}
+	}
+
+	private void adjust(HikariDataSource dataSource) {
+
+		HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+
+		// Pools start with their first connection.
+		if (pool == null)
+			return;
+
+		PoolMetrics metrics = poolMetricsRegistry.get(dataSource.getPoolName());
+		Window window = windows.computeIfAbsent(dataSource.getPoolName(), name -> new Window());
+
+		long now = System.currentTimeMillis();
+		long[] acquireBuckets = metrics.getAcquire().snapshot();
+		long usageMicros = metrics.getUsage().getSumMicros();
+		long timeouts = metrics.getTimeouts();
+		int size = dataSource.getHikariConfigMXBean().getMaximumPoolSize();
+
+		// The first run only sets the baseline the next interval is measured from.
+		if (window.acquireBuckets == null) {
+			window.acquireBuckets = acquireBuckets;
+			window.usageMicros = usageMicros;
+			window.timeouts = timeouts;
+			window.at = now;
+			return;
+		}
+
+		long[] acquired = LatencyHistogram.minus(acquireBuckets, window.acquireBuckets);
+
+		window.acquires = LatencyHistogram.count(acquired);
+		window.acquireP95Ms = LatencyHistogram.quantileMs(acquired, 0.95);
+		window.utilization = (usageMicros - window.usageMicros) / 1000.0 / Math.max(1, now - window.at) / size;
+		window.windowTimeouts = timeouts - window.timeouts;
+		window.pending = pool.getThreadsAwaitingConnection();
+
+		window.acquireBuckets = acquireBuckets;
+		window.usageMicros = usageMicros;
+		window.timeouts = timeouts;
+		window.at = now;
+
+		boolean waiting = window.windowTimeouts > 0 || window.pending > 0 || window.acquireP95Ms >= growWaitMs;
+		Status status = !waiting ? Status.OK
+				: window.windowTimeouts > 0 || size >= maxSize ? Status.STARVED : Status.SATURATED;
+
+		if (status == Status.STARVED && window.status != Status.STARVED)
+			LOGGER.warn("Pool [" + dataSource.getPoolName() + "] is starved: " + window.windowTimeouts
+					+ " acquire timeouts, " + window.pending + " waiting, p95 wait " + window.acquireP95Ms + " ms, size "
+					+ size);
+
+		window.status = status;
+
+		if (!enabled)
+			return;
+
+		if (waiting) {
+			window.quietIntervals = 0;
+
+			if (size < maxSize)
+				resize(dataSource, window, size, Math.min(maxSize, size + step));
+
+			return;
+		}
+
+		if (window.acquireP95Ms <= shrinkWaitMs && window.utilization < shrinkUtilization)
+			window.quietIntervals++;
+		else
+			window.quietIntervals = 0;
+
+		if (window.quietIntervals >= shrinkAfter && size > minSize) {
+			window.quietIntervals = 0;
+			resize(dataSource, window, size, Math.max(minSize, size - step));
+		}
+	}
+
+	private void resize(HikariDataSource dataSource, Window window, int from, int to) {
+
+		dataSource.getHikariConfigMXBean().setMaximumPoolSize(to);
+
+		window.resizes++;
+		window.lastResizeAt = System.currentTimeMillis();
+
+		LOGGER.info("Pool [" + dataSource.getPoolName() + "] resized from " + from + " to " + to + " (p95 wait "
+				+ window.acquireP95Ms + " ms, utilization " + String.format("%.2f", window.utilization) + ", waiting "
+				+ window.pending + ")");
+	}
+
+	public Window getWindow(String poolName) {
+		return windows.get(poolName);
+	}
+
+}
@@ -4,18 +4,17 @@ import java.util.Arrays;
 import java.util.List;
 
 import org.curso.automacao.modulos.erp.customerservice.impl.Customer;
-import org.curso.automacao.modulos.erp.customerservice.impl.CustomerQueryBuilder;
 import org.curso.automacao.modulos.erp.customerservice.impl.CustomerRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.boot.ApplicationArguments;
-import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.core.env.Environment;
 import org.springframework.stereotype.Component;
 
 @Component
-public class ApplicationConfig implements ApplicationRunner {
+public class ApplicationConfig {
 
 	private static final Logger LOGGER = LoggerFactory.getLogger(ApplicationConfig.class);
 
@@ -23,7 +22,7 @@ public class ApplicationConfig implements ApplicationRunner {
 	private CustomerRepository customerRepository;
 
 	@Autowired
-	private CustomerQueryBuilder customerQueryBuilder;
+	private DataSeeder dataSeeder;
 	
 	@Autowired
 	private Environment env;
@@ -32,25 +31,28 @@ public class ApplicationConfig implements ApplicationRunner {
 		this.customerRepository = customerRepository;
 	}
 
-	public void run(ApplicationArguments args) {
+	@EventListener(ApplicationReadyEvent.class)
+	public void run() {
 		
-		if (Arrays.stream(env.getActiveProfiles()).anyMatch(p -> p.equalsIgnoreCase("mock")))
+		if (Arrays.stream(env.getActiveProfiles()).anyMatch(p -> p.equalsIgnoreCase("mock"))) {
+			dataSeeder.skip("mock profile is active");
 			return;
+		}
 
-		if (customerRepository.findAll().size() == 0) {
-			List<Customer> customers = ApplicationConfigHelper.createListOfCustomers();
-			LOGGER.info("Total customers to be created {" + (customers != null ? String.valueOf(customers.size()) : 0)
-					+ "}");
+		dataSeeder.start(this::createCustomers);
+	}
 
-			if (customers != null) {
-				for (Customer customer : customers) {
+	private void createCustomers(DataSeeder seeder) {
 
-					if (customerQueryBuilder.findCustomerBy(customer.getName()) == null)
-						customerRepository.save(customer);
-				}
-			}
+		if (customerRepository.count() > 0) {
+			seeder.skip("customers already exist");
+			return;
 		}
 
+		List<Customer> customers = ApplicationConfigHelper.createListOfCustomers();
+		LOGGER.info("Total customers to be created {" + customers.size() + "}");
+
+		seeder.insertInBatches(customers, customerRepository::saveAll);
 	}
 
 }
@@ -0,0 +1,175 @@
+package org.curso.automacao.modulos.erp.customerservice.config;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.google.common.collect.Lists;
+
+import lombok.Getter;
+
+/**
+ * Runs the startup data seeding on a background thread, so startup time depends
+ * neither on the seed size nor on other services being up. A failed attempt is
+ * rolled back and retried with exponential backoff. Progress is exposed at
+ * /api/v1/metrics/seeding.
+ */
+@Component
+public class DataSeeder {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(DataSeeder.class);
+
+	public enum State {
+		PENDING, RUNNING, WAITING_TO_RETRY, DONE, SKIPPED, FAILED
+	}
+
+	@FunctionalInterface
+	public interface Task {
+		void run(DataSeeder seeder) throws Exception;
+	}
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	@Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}")
+	private int batchSize;
+
+	@Value("${seed.retry.initial-backoff-ms:1000}")
+	private long initialBackoff;
+
+	@Value("${seed.retry.max-backoff-ms:60000}")
+	private long maxBackoff;
+
+	// 0 keeps retrying until the seeding succeeds.
+	@Value("${seed.retry.max-attempts:0}")
+	private int maxAttempts;
+
+	private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+		Thread thread = new Thread(runnable, "data-seeder");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	@Getter
+	private volatile State state = State.PENDING;
+
+	@Getter
+	private volatile int total;
+
+	@Getter
+	private volatile int inserted;
+
+	@Getter
+	private volatile int attempts;
+
+	@Getter
+	private volatile String lastError;
+
+	@Getter
+	private volatile Instant startedAt;
+
+	@Getter
+	private volatile Instant finishedAt;
+
+	public void start(Task task) {
+		executor.execute(() -> runWithRetry(task));
+	}
+
+	public void skip(String reason) {
+		state = State.SKIPPED;
+		finishedAt = Instant.now();
+
+		LOGGER.info("Seeding skipped: " + reason);
+	}
+
+	/**
+	 * Inserts the rows in one transaction, flushing every JDBC batch so progress
+	 * can be followed while it runs.
+	 */
+	public <T> void insertInBatches(List<T> rows, Consumer<List<T>> saveBatch) {
+
+		total = rows.size();
+		inserted = 0;
+
+		transactionTemplate.executeWithoutResult(status -> {
+			for (List<T> batch : Lists.partition(rows, batchSize)) {
+				saveBatch.accept(batch);
+				entityManager.flush();
+				entityManager.clear();
+
+				inserted += batch.size();
+			}
+		});
+	}
+
+	private void runWithRetry(Task task) {
+
+		startedAt = Instant.now();
+		long backoff = initialBackoff;
+
+		while (true) {
+			attempts++;
+			state = State.RUNNING;
+
+			try {
+				task.run(this);
+
+				if (state == State.RUNNING) {
+					state = State.DONE;
+					finishedAt = Instant.now();
+
+					LOGGER.info("Seeding inserted " + inserted + " rows in "
+							+ Duration.between(startedAt, finishedAt).toMillis() + "ms");
+				}
+
+				return;
+			} catch (Exception e) {
+				lastError = e.toString();
+				inserted = 0;
+
+				if (maxAttempts > 0 && attempts >= maxAttempts) {
+					state = State.FAILED;
+					finishedAt = Instant.now();
+
+					LOGGER.error("Seeding failed after " + attempts + " attempts", e);
+					return;
+				}
+
+				state = State.WAITING_TO_RETRY;
+				LOGGER.warn("Seeding attempt " + attempts + " failed, retrying in " + backoff + "ms: " + e);
+
+				try {
+					Thread.sleep(backoff);
+				} catch (InterruptedException interrupted) {
+					Thread.currentThread().interrupt();
+					return;
+				}
+
+				backoff = Math.min(backoff * 2, maxBackoff);
+			}
+		}
+	}
+
+	@PreDestroy
+	public void stop() {
+		executor.shutdownNow();
+	}
+
+}
@@ -0,0 +1,47 @@
+package org.curso.automacao.modulos.erp.customerservice.config;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.stereotype.Component;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+
+/**
+ * Attaches a {@link PoolMetrics} to every Hikari pool in the context before
+ * the pool starts, keyed by pool name. Unnamed pools take the name of their
+ * bean.
+ */
+@Component
+public class PoolMetricsRegistry implements MetricsTrackerFactory, BeanPostProcessor {
+
+	private final Map<String, PoolMetrics> pools = new ConcurrentHashMap<>();
+
+	@Override
+	public Object postProcessBeforeInitialization(Object bean, String beanName) throws BeansException {
+
+		if (bean instanceof HikariDataSource dataSource) {
+			if (dataSource.getPoolName() == null)
+				dataSource.setPoolName(beanName);
+
+			dataSource.setMetricsTrackerFactory(this);
+		}
+
+		return bean;
+	}
+
+	@Override
+	public IMetricsTracker create(String poolName, PoolStats poolStats) {
+		return pools.computeIfAbsent(poolName, PoolMetrics::new);
+	}
+
+	public PoolMetrics get(String poolName) {
+		return pools.computeIfAbsent(poolName, PoolMetrics::new);
+	}
+
+}
@@ -0,0 +1,225 @@
+package org.curso.automacao.modulos.erp.customerservice.config;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Keeps the last tracing.buffer-size spans of this service in a ring buffer.
+ * Recording overwrites the oldest slot and never blocks; lookups scan the
+ * whole buffer.
+ */
+@Component
+public class SpanRecorder {
+
+	public static final String SERVER = "SERVER";
+
+	public static final String CLIENT = "CLIENT";
+
+	@Getter
+	@Value("${tracing.service-name:customer-service}")
+	private String serviceName;
+
+	@Getter
+	@Value("${tracing.buffer-size:10000}")
+	private int bufferSize;
+
+	private AtomicReferenceArray<Span> spans;
+
+	private final AtomicLong recorded = new AtomicLong();
+
+	@PostConstruct
+	public void init() {
+		spans = new AtomicReferenceArray<>(Math.max(1, bufferSize));
+	}
+
+	@Getter @Setter
+	@AllArgsConstructor
+	@NoArgsConstructor
+	public static class Span {
+
+		private String traceId;
+		private String spanId;
+		private String parentSpanId;
+		private String service;
+		private String kind;
+		private String name;
+		private String peer;
+		private long startMicros;
+		private long durationMicros;
+		private int status;
+		private String error;
+	}
+
+	public void record(TraceContext context, String kind, String name, String peer, long startMicros,
+			long elapsedNanos, int status, String error) {
+
+		if (!context.isSampled())
+			return;
+
+		spans.set((int) (recorded.getAndIncrement() % spans.length()),
+				new Span(context.getTraceId(), context.getSpanId(), context.getParentSpanId(), serviceName, kind, name,
+						peer, startMicros, elapsedNanos / 1000, status, error));
+	}
+
+	public static long nowMicros() {
+		Instant now = Instant.now();
+		return now.getEpochSecond() * 1_000_000 + now.getNano() / 1000;
+	}
+
+	public List<Span> findTrace(String traceId) {
+
+		List<Span> found = new ArrayList<>();
+
+		for (int i = 0; i < spans.length(); i++) {
+			Span span = spans.get(i);
+
+			if (span != null && span.traceId.equals(traceId))
+				found.add(span);
+		}
+
+		return found;
+	}
+
+	/**
+	 * Most recent spans that started a unit of work here, either serving a
+	 * request or calling out with no request to serve, newest first, of the
+	 * given kind unless it is null.
+	 */
+	public List<Span> findEntrySpans(String kind, long minDurationMicros, int limit) {
+
+		List<Span> found = new ArrayList<>();
+
+		for (int i = 0; i < spans.length(); i++) {
+			Span span = spans.get(i);
+
+			if (span != null && span.durationMicros >= minDurationMicros && (kind == null || kind.equals(span.kind))
+					&& (SERVER.equals(span.kind) || span.parentSpanId == null))
+				found.add(span);
+		}
+
+		found.sort(Comparator.comparingLong(Span::getStartMicros).reversed());
+
+		return found.size() > limit ? found.subList(0, limit) : found;
+	}
+
+	public long getRecorded() {
+		return recorded.get();
+	}
+
+	/**
+	 * Lays the spans of one trace out as a tree, in start order, with each
+	 * span's offset from the start of the trace and its self time: the part of
+	 * its duration not covered by its children. The self time of a client span
+	 * whose server span was recorded too is what the hop spent on the wire and
+	 * in the remote service's queue.
+	 */
+	public static Map<String, Object> breakdown(String traceId, List<Span> spans) {
+
+		Map<String, List<Span>> children = new HashMap<>();
+		Set<String> spanIds = new HashSet<>();
+		List<Span> roots = new ArrayList<>();
+
+		for (Span span : spans)
+			spanIds.add(span.spanId);
+
+		for (Span span : spans)
+			if (span.parentSpanId == null || !spanIds.contains(span.parentSpanId))
+				roots.add(span);
+			else
+				children.computeIfAbsent(span.parentSpanId, id -> new ArrayList<>()).add(span);
+
+		long start = spans.stream().mapToLong(Span::getStartMicros).min().orElse(0);
+		long end = spans.stream().mapToLong(span -> span.startMicros + span.durationMicros).max().orElse(0);
+
+		List<Map<String, Object>> rows = new ArrayList<>();
+		roots.sort(Comparator.comparingLong(Span::getStartMicros));
+
+		for (Span root : roots)
+			addRows(root, 0, start, children, rows);
+
+		Map<String, Object> slowest = rows.stream()
+				.max(Comparator.comparingDouble(row -> (Double) row.get("selfMs"))).orElse(null);
+
+		Set<String> services = new LinkedHashSet<>();
+		rows.forEach(row -> services.add((String) row.get("service")));
+
+		Map<String, Object> breakdown = new LinkedHashMap<>();
+		breakdown.put("traceId", traceId);
+		breakdown.put("durationMs", (end - start) / 1000.0);
+		breakdown.put("spanCount", spans.size());
+		breakdown.put("services", services);
+		breakdown.put("slowest", slowest == null ? null
+				: slowest.get("service") + " " + slowest.get("kind") + " " + slowest.get("name") + " ("
+						+ slowest.get("selfMs") + " ms self)");
+		breakdown.put("spans", rows);
+
+		return breakdown;
+	}
+
+	private static void addRows(Span span, int depth, long traceStart, Map<String, List<Span>> children,
+			List<Map<String, Object>> rows) {
+
+		List<Span> spanChildren = children.getOrDefault(span.spanId, Collections.emptyList());
+		spanChildren.sort(Comparator.comparingLong(Span::getStartMicros));
+
+		Map<String, Object> row = new LinkedHashMap<>();
+		row.put("depth", depth);
+		row.put("service", span.service);
+		row.put("kind", span.kind);
+		row.put("name", span.name);
+		row.put("peer", span.peer);
+		row.put("status", span.status);
+		row.put("error", span.error);
+		row.put("offsetMs", (span.startMicros - traceStart) / 1000.0);
+		row.put("durationMs", span.durationMicros / 1000.0);
+		row.put("selfMs", Math.max(0, span.durationMicros - covered(span, spanChildren)) / 1000.0);
+		row.put("spanId", span.spanId);
+		row.put("parentSpanId", span.parentSpanId);
+		rows.add(row);
+
+		for (Span child : spanChildren)
+			addRows(child, depth + 1, traceStart, children, rows);
+	}
+
+	// Time within the span during which at least one child was running; children may overlap.
+	private static long covered(Span span, List<Span> sortedChildren) {
+
+		long end = span.startMicros + span.durationMicros;
+		long covered = 0;
+		long coveredUntil = span.startMicros;
+
+		for (Span child : sortedChildren) {
+			long from = Math.max(coveredUntil, child.startMicros);
+			long to = Math.min(end, child.startMicros + child.durationMicros);
+
+			if (to > from) {
+				covered += to - from;
+				coveredUntil = to;
+			}
+		}
+
+		return covered;
+	}
+
+}
@@ -2,6 +2,8 @@ package org.curso.automacao.modulos.erp.customerservice.impl;
 
 import javax.persistence.Column;
 import javax.persistence.Entity;
+import javax.persistence.EntityListeners;
+import javax.persistence.Index;
 import javax.persistence.Table;
 import javax.validation.constraints.Min;
 import javax.validation.constraints.NotBlank;
@@ -15,7 +17,8 @@ import lombok.Setter;
 import lombok.experimental.SuperBuilder;
 
 @Entity
-@Table(name = "tb_customers")
+@Table(name = "tb_customers", indexes = @Index(name = "ix_customers_change_version", columnList = "change_version"))
+@EntityListeners(CustomerSearchListener.class)
 @Getter @Setter
 @AllArgsConstructor
 @NoArgsConstructor
@@ -1,10 +1,22 @@
 package org.curso.automacao.modulos.erp.customerservice.impl;
 
+import java.io.IOException;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import javax.servlet.http.HttpServletResponse;
 
 import org.curso.automacao.modulos.erp.customerservice.common.BaseController;
+import org.curso.automacao.modulos.erp.customerservice.common.ChangeSet;
+import org.curso.automacao.modulos.erp.customerservice.common.ReferenceData;
+import org.curso.automacao.modulos.erp.customerservice.common.SearchIndex;
+import org.curso.automacao.modulos.erp.customerservice.exceptions.ServiceException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
@@ -14,34 +26,114 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
-import com.github.javafaker.Faker;
-
 @RestController
 @RequestMapping("/api/v1/customers")
 public class CustomerController extends BaseController<CustomerService, JpaRepository<Customer,Long>, Customer>{
 
+	public static final int DEFAULT_SEARCH_PAGE_SIZE = 20;
+
+	@Autowired
+	private ReferenceDataStore referenceDataStore;
+
 	@Autowired
 	private CustomerService customerService;
+
+	@Autowired
+	private CustomerSearchIndex customerSearchIndex;
 	
 	@Override
 	@GetMapping("/all")
-	public final ResponseEntity<List<Customer>> findAll() {
-		return super.findAll();
+	public final ResponseEntity<List<Customer>> findAll(@RequestParam(name = "page", required = false) Integer page,
+			@RequestParam(name = "size", required = false) Integer size,
+			@RequestParam(name = "after", required = false) Long after) {
+		return super.findAll(page, size, after);
+	}
+	
+	@Override
+	@GetMapping(value = "/stream", produces = NDJSON_MEDIA_TYPE)
+	public void streamAll(HttpServletResponse response) throws IOException {
+		super.streamAll(response);
 	}
 	
 	@GetMapping("/countries/all")
-	public final ResponseEntity<List<String>> findAllCountries(){	
-		return new ResponseEntity<>(customerService.getAllCountries(), HttpStatus.OK);
+	public final ResponseEntity<byte[]> findAllCountries(
+			@RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+		return referenceDataStore.getCountries().toResponse(ifNoneMatch);
+	}
+	
+	@GetMapping("/countries/search")
+	public final ResponseEntity<List<String>> findCountriesByPrefix(@RequestParam(name = "prefix") String prefix,
+			@RequestParam(name = "limit", defaultValue = "" + ReferenceData.DEFAULT_SEARCH_LIMIT) int limit) {
+		return new ResponseEntity<>(referenceDataStore.getCountries().findByPrefix(prefix, limit), HttpStatus.OK);
+	}
+	
+	/**
+	 * Customers whose name, email, company or city match every word of the
+	 * query, best match first. Words match exactly, as a prefix or with a typo.
+	 * X-Next-Cursor is set when there are more results.
+	 */
+	@GetMapping("/search")
+	public ResponseEntity<List<Customer>> search(@RequestParam(name = "q") String query,
+			@RequestParam(name = "limit", defaultValue = "" + DEFAULT_SEARCH_PAGE_SIZE) int limit,
+			@RequestParam(name = "cursor", required = false) String cursor) {
+
+		SearchIndex.Result result;
+
+		try {
+			result = customerSearchIndex.search(query, Math.max(1, Math.min(limit, MAX_PAGE_SIZE)), cursor);
+		} catch (IllegalArgumentException e) {
+			return new ResponseEntity<List<Customer>>(HttpStatus.BAD_REQUEST);
+		} catch (IllegalStateException e) {
+			return new ResponseEntity<List<Customer>>(HttpStatus.SERVICE_UNAVAILABLE);
+		}
+
+		HttpHeaders headers = new HttpHeaders();
+		headers.add("X-Total-Count", String.valueOf(result.getTotal()));
+
+		if (result.getNextCursor() != null)
+			headers.add("X-Next-Cursor", result.getNextCursor());
+
+		if (result.getHits().isEmpty())
+			return new ResponseEntity<List<Customer>>(List.of(), headers, HttpStatus.OK);
+
+		try {
+			Map<Long, Customer> byId = customerService.findByIds(
+					result.getHits().stream().map(SearchIndex.Hit::getId).toList()).stream()
+					.collect(Collectors.toMap(Customer::getId, Function.identity()));
+
+			// Customers deleted since the search ran are left out.
+			List<Customer> customers = result.getHits().stream().map(hit -> byId.get(hit.getId()))
+					.filter(Objects::nonNull).toList();
+
+			return new ResponseEntity<List<Customer>>(customers, headers, HttpStatus.OK);
+		} catch (ServiceException e) {
+			return new ResponseEntity<List<Customer>>(HttpStatus.UNPROCESSABLE_ENTITY);
+		}
+	}
+	
+	@Override
+	@GetMapping("/find-by/ids")
+	public ResponseEntity<List<Customer>> findByIds(@RequestParam(name = "ids") List<Long> ids) {
+		return super.findByIds(ids);
+	}
+	
+	@Override
+	@GetMapping("/changes-since")
+	public ResponseEntity<ChangeSet<Customer>> findChangesSince(@RequestParam(name = "version") long version,
+			@RequestParam(name = "limit", required = false) Integer limit) {
+		return super.findChangesSince(version, limit);
 	}
 	
 	@Override
 	@GetMapping("/find-by/id/{id}")
-	public ResponseEntity<Customer> findById(@PathVariable("id") long id){
-		return super.findById(id);
+	public ResponseEntity<Customer> findById(@PathVariable("id") long id,
+			@RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+		return super.findById(id, ifNoneMatch);
 	}
 
 	@Override
@@ -50,10 +142,17 @@ public class CustomerController extends BaseController<CustomerService, JpaRepos
 		return super.save(entity);
 	}
 
+	@Override
+	@PutMapping("/save-all")
+	public ResponseEntity<List<Customer>> saveAll(@RequestBody List<Customer> entities) {
+		return super.saveAll(entities);
+	}
+
 	@Override
 	@PostMapping("/update")
-	public ResponseEntity<Customer> update(@RequestBody @Validated Customer entity) {
-		return super.update(entity);
+	public ResponseEntity<Customer> update(@RequestBody @Validated Customer entity,
+			@RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+		return super.update(entity, ifMatch);
 	}
 	
 	@Override
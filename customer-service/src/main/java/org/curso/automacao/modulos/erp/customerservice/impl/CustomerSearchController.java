@@ -0,0 +1,41 @@
+package org.curso.automacao.modulos.erp.customerservice.impl;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.curso.automacao.modulos.erp.customerservice.common.SearchIndex;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/v1/metrics/customer-search")
+public class CustomerSearchController {
+
+	@Autowired
+	private CustomerSearchIndex customerSearchIndex;
+
+	@GetMapping
+	public ResponseEntity<Map<String, Object>> getStats() {
+
+		SearchIndex index = customerSearchIndex.getIndex();
+		long searches = customerSearchIndex.getSearches();
+
+		Map<String, Object> stats = new LinkedHashMap<>();
+		stats.put("state", customerSearchIndex.getState());
+		stats.put("lastError", customerSearchIndex.getLastError());
+		stats.put("buildMs", customerSearchIndex.getBuildMs());
+		stats.put("documents", index == null ? 0 : index.getDocuments());
+		stats.put("terms", index == null ? 0 : index.getTerms());
+		stats.put("postings", index == null ? 0 : index.getPostings());
+		stats.put("compactions", index == null ? 0 : index.getCompactions());
+		stats.put("searches", searches);
+		stats.put("avgSearchMs", searches == 0 ? 0 : customerSearchIndex.getSearchMicros() / 1000.0 / searches);
+
+		return new ResponseEntity<Map<String, Object>>(stats, HttpStatus.OK);
+	}
+
+}
@@ -0,0 +1,224 @@
+package org.curso.automacao.modulos.erp.customerservice.impl;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.PreDestroy;
+
+import org.curso.automacao.modulos.erp.customerservice.common.SearchIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import lombok.Getter;
+
+/**
+ * Search index over the name, email, company and city of every customer. It
+ * is built from the database on a background thread once the service is up,
+ * and CustomerSearchListener and CustomerService hand it every write, which
+ * it applies when the transaction commits. Searches fail until the first build
+ * completes.
+ */
+@Component
+public class CustomerSearchIndex {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(CustomerSearchIndex.class);
+
+	private static final int BUILD_BATCH_SIZE = 1000;
+
+	public enum State {
+		PENDING, BUILDING, READY, FAILED
+	}
+
+	// CustomerService hands updates to the index, so it is only looked up when the build starts.
+	@Autowired
+	private ObjectProvider<CustomerService> customerService;
+
+	@Value("${customer.search.weight.name:30}")
+	private int nameWeight;
+
+	@Value("${customer.search.weight.email:20}")
+	private int emailWeight;
+
+	@Value("${customer.search.weight.company:15}")
+	private int companyWeight;
+
+	@Value("${customer.search.weight.city:10}")
+	private int cityWeight;
+
+	@Value("${customer.search.max-expansions:1000}")
+	private int maxExpansions;
+
+	private volatile SearchIndex index;
+
+	private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+		Thread thread = new Thread(runnable, "customer-search-index");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	@Getter
+	private volatile State state = State.PENDING;
+
+	@Getter
+	private volatile long buildMs;
+
+	@Getter
+	private volatile String lastError;
+
+	private final LongAdder searches = new LongAdder();
+
+	private final LongAdder searchMicros = new LongAdder();
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void build() {
+
+		index = new SearchIndex(new int[] { nameWeight, emailWeight, companyWeight, cityWeight }, maxExpansions);
+		state = State.BUILDING;
+
+		executor.execute(() -> {
+			Instant startedAt = Instant.now();
+			List<SearchIndex.Document> batch = new ArrayList<>(BUILD_BATCH_SIZE);
+
+			try {
+				customerService.getObject().streamAll(customer -> {
+					batch.add(toDocument(customer));
+
+					if (batch.size() == BUILD_BATCH_SIZE) {
+						index.putAll(batch);
+						batch.clear();
+					}
+				});
+
+				index.putAll(batch);
+				index.trim();
+
+				buildMs = Duration.between(startedAt, Instant.now()).toMillis();
+				state = State.READY;
+
+				LOGGER.info("Indexed " + index.getDocuments() + " customers for search in " + buildMs + "ms");
+			} catch (Exception e) {
+				lastError = e.toString();
+				state = State.FAILED;
+
+				LOGGER.error("Building the customer search index failed", e);
+			}
+		});
+	}
+
+	public SearchIndex.Result search(String query, int limit, String cursor) {
+
+		if (state != State.READY)
+			throw new IllegalStateException("Customer search index is " + state);
+
+		long start = System.nanoTime();
+
+		try {
+			return index.search(query, limit, cursor);
+		} finally {
+			searches.increment();
+			searchMicros.add((System.nanoTime() - start) / 1000);
+		}
+	}
+
+	/**
+	 * Indexes the customer as it is now once the current transaction commits,
+	 * or right away outside of one.
+	 */
+	public void putAfterCommit(Customer customer) {
+		record(toDocument(customer));
+	}
+
+	public void removeAfterCommit(long id) {
+		record(new SearchIndex.Document(id, -1, null));
+	}
+
+	// Changes of one transaction are applied together after it commits and dropped if it rolls back.
+	@SuppressWarnings("unchecked")
+	private void record(SearchIndex.Document change) {
+
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			apply(List.of(change));
+			return;
+		}
+
+		List<SearchIndex.Document> changes = (List<SearchIndex.Document>) TransactionSynchronizationManager
+				.getResource(this);
+
+		if (changes == null) {
+			List<SearchIndex.Document> bound = new ArrayList<>();
+
+			TransactionSynchronizationManager.bindResource(this, bound);
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCompletion(int status) {
+					TransactionSynchronizationManager.unbindResourceIfPossible(CustomerSearchIndex.this);
+
+					if (status == STATUS_COMMITTED)
+						apply(bound);
+				}
+			});
+
+			changes = bound;
+		}
+
+		changes.add(change);
+	}
+
+	private void apply(List<SearchIndex.Document> changes) {
+
+		SearchIndex current = index;
+
+		// Before the build starts there is nothing to update; the build reads the committed rows.
+		if (current == null)
+			return;
+
+		List<SearchIndex.Document> puts = new ArrayList<>(changes.size());
+
+		for (SearchIndex.Document change : changes)
+			if (change.getValues() == null) {
+				current.putAll(puts);
+				puts.clear();
+				current.remove(change.getId());
+			} else {
+				puts.add(change);
+			}
+
+		current.putAll(puts);
+	}
+
+	private static SearchIndex.Document toDocument(Customer customer) {
+		return new SearchIndex.Document(customer.getId(), customer.getVersion() == null ? 0 : customer.getVersion(),
+				new String[] { customer.getName(), customer.getEmail(), customer.getCompany(), customer.getCity() });
+	}
+
+	public SearchIndex getIndex() {
+		return index;
+	}
+
+	public long getSearches() {
+		return searches.sum();
+	}
+
+	public long getSearchMicros() {
+		return searchMicros.sum();
+	}
+
+	@PreDestroy
+	public void stop() {
+		executor.shutdownNow();
+	}
+
+}
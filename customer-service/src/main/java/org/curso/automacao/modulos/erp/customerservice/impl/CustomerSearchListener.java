@@ -0,0 +1,42 @@
+package org.curso.automacao.modulos.erp.customerservice.impl;
+
+import javax.persistence.PostPersist;
+import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * Hands customers written through the persistence context to the search
+ * index. Direct updates bypass it, see {@link CustomerService#update}.
+ */
+public class CustomerSearchListener {
+
+	// Hibernate creates listeners while the EntityManagerFactory the index depends on is still being built.
+	@Autowired
+	private ObjectProvider<CustomerSearchIndex> customerSearchIndex;
+
+	@PostPersist
+	@PostUpdate
+	public void indexed(Customer customer) {
+		CustomerSearchIndex index = getIndex();
+
+		if (index != null)
+			index.putAfterCommit(customer);
+	}
+
+	@PostRemove
+	public void removed(Customer customer) {
+		CustomerSearchIndex index = getIndex();
+
+		if (index != null)
+			index.removeAfterCommit(customer.getId());
+	}
+
+	// Absent when customers are written outside the service, as in the benchmarks.
+	private CustomerSearchIndex getIndex() {
+		return customerSearchIndex == null ? null : customerSearchIndex.getIfAvailable();
+	}
+
+}
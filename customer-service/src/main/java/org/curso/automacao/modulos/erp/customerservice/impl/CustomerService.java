@@ -1,46 +1,50 @@
 package org.curso.automacao.modulos.erp.customerservice.impl;
 
-import java.util.ArrayList;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
 
 import org.curso.automacao.modulos.erp.customerservice.common.BaseService;
 import org.curso.automacao.modulos.erp.customerservice.enums.ServiceExceptionOperationType;
 import org.curso.automacao.modulos.erp.customerservice.exceptions.ServiceException;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Service;
-
-import com.github.javafaker.Faker;
+import org.springframework.transaction.annotation.Transactional;
 
 @Service
 public class CustomerService extends BaseService<JpaRepository<Customer,Long>, Customer> {
 
+	@Autowired
+	private ReferenceDataStore referenceDataStore;
+
+	@Autowired
+	private CustomerSearchIndex customerSearchIndex;
+
 	
 	@Override
-	public Customer save(Customer entity) throws ServiceException {
+	protected void validate(Customer entity) throws ServiceException {
 	
 		if(entity.getName().trim().length() < 10) 
 			throw new ServiceException(ServiceExceptionOperationType.SAVE, entity, "Field name must have at least 10 chars.");
-		
-		return super.save(entity);		
+	}
+	
+	/**
+	 * The direct UPDATE skips the entity listeners, so the search index is told
+	 * here.
+	 */
+	@Override
+	@Transactional(rollbackFor = ServiceException.class)
+	public Customer update(Customer entity) throws ServiceException {
+
+		Customer updated = super.update(entity);
+
+		if (customerSearchIndex != null)
+			customerSearchIndex.putAfterCommit(updated);
+
+		return updated;
 	}
 	
 	public List<String> getAllCountries(){
-		
-		Set<String> countries = new HashSet<>();
-		Faker faker = Faker.instance();
-		
-		String country = faker.country().name();
-		
-		while(countries.size() < 193) {		
-			if(!countries.contains(country))
-				countries.add(country);	
-			
-			country = faker.country().name();
-		}
-		
-		return countries.stream().sorted().toList();
+		return referenceDataStore.getCountries().getValues();
 	}
 	
 }
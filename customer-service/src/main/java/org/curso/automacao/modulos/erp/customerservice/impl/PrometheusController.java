@@ -0,0 +1,210 @@
+package org.curso.automacao.modulos.erp.customerservice.impl;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToIntFunction;
+
+import org.curso.automacao.modulos.erp.customerservice.config.AdaptivePoolSizer;
+import org.curso.automacao.modulos.erp.customerservice.config.LatencyHistogram;
+import org.curso.automacao.modulos.erp.customerservice.config.PoolMetricsRegistry;
+import org.curso.automacao.modulos.erp.customerservice.config.RequestMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+
+/**
+ * Request and connection-pool metrics in the Prometheus text format.
+ */
+@RestController
+@RequestMapping("/api/v1/metrics/prometheus")
+public class PrometheusController {
+
+	private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+	private static final double[] QUANTILES = { 0.5, 0.95, 0.99, 0.999 };
+
+	@Autowired
+	private RequestMetrics requestMetrics;
+
+	@Autowired
+	private List<HikariDataSource> dataSources;
+
+	@Autowired
+	private PoolMetricsRegistry poolMetricsRegistry;
+
+	@Autowired
+	private AdaptivePoolSizer adaptivePoolSizer;
+
+	@GetMapping
+	public ResponseEntity<String> scrape() {
+
+		StringBuilder out = new StringBuilder(16 * 1024);
+
+		writeRequests(out);
+		writePools(out);
+
+		HttpHeaders headers = new HttpHeaders();
+		headers.set(HttpHeaders.CONTENT_TYPE, CONTENT_TYPE);
+
+		return new ResponseEntity<String>(out.toString(), headers, HttpStatus.OK);
+	}
+
+	private void writeRequests(StringBuilder out) {
+
+		List<RequestMetrics.Timer> timers = new ArrayList<>(requestMetrics.getTimers());
+		timers.sort(Comparator.comparing(RequestMetrics.Timer::getRoute).thenComparing(RequestMetrics.Timer::getMethod)
+				.thenComparingInt(RequestMetrics.Timer::getStatus));
+
+		long slice = requestMetrics.currentSlice();
+		Map<RequestMetrics.Timer, long[]> recent = new LinkedHashMap<>();
+
+		for (RequestMetrics.Timer timer : timers)
+			recent.put(timer, timer.recent(slice));
+
+		header(out, "http_server_requests_seconds", "summary",
+				"Request latency; quantiles cover the last " + requestMetrics.getWindowMs() / 2000 + " to "
+						+ requestMetrics.getWindowMs() / 1000 + " seconds, count and sum the life of the service.");
+
+		for (Map.Entry<RequestMetrics.Timer, long[]> entry : recent.entrySet()) {
+			String labels = labels(entry.getKey());
+
+			for (double quantile : QUANTILES)
+				sample(out, "http_server_requests_seconds",
+						labels + ",quantile=\"" + quantile + "\"",
+						seconds(LatencyHistogram.valueAtQuantile(entry.getValue(), quantile)));
+
+			sample(out, "http_server_requests_seconds_count", labels, entry.getKey().getCount());
+			sample(out, "http_server_requests_seconds_sum", labels, seconds(entry.getKey().getSumMicros()));
+		}
+
+		header(out, "http_server_requests_seconds_max", "gauge", "Slowest request in the recent window.");
+
+		for (Map.Entry<RequestMetrics.Timer, long[]> entry : recent.entrySet())
+			sample(out, "http_server_requests_seconds_max", labels(entry.getKey()),
+					seconds(LatencyHistogram.max(entry.getValue())));
+
+		header(out, "http_server_requests_errors_total", "counter", "Requests answered with a 5xx status.");
+
+		Map<String, Long> errors = new LinkedHashMap<>();
+
+		for (RequestMetrics.Timer timer : timers)
+			if (timer.getStatus() >= 500)
+				errors.merge("method=\"" + timer.getMethod() + "\",route=\"" + escape(timer.getRoute()) + "\"",
+						timer.getCount(), Long::sum);
+
+		errors.forEach((labels, count) -> sample(out, "http_server_requests_errors_total", labels, count));
+
+		header(out, "http_server_requests_in_flight", "gauge", "Requests being served.");
+		sample(out, "http_server_requests_in_flight", null, requestMetrics.getInFlight());
+
+		header(out, "http_server_requests_in_flight_max", "gauge",
+				"Most requests served at once since the last scrape.");
+		sample(out, "http_server_requests_in_flight_max", null, requestMetrics.takeMaxInFlight());
+	}
+
+	private void writePools(StringBuilder out) {
+
+		header(out, "hikaricp_connections_active", "gauge", "Connections in use.");
+		for (HikariDataSource dataSource : dataSources)
+			sample(out, "hikaricp_connections_active", pool(dataSource),
+					pool(dataSource, HikariPoolMXBean::getActiveConnections));
+
+		header(out, "hikaricp_connections_idle", "gauge", "Connections available.");
+		for (HikariDataSource dataSource : dataSources)
+			sample(out, "hikaricp_connections_idle", pool(dataSource),
+					pool(dataSource, HikariPoolMXBean::getIdleConnections));
+
+		header(out, "hikaricp_connections_pending", "gauge", "Threads waiting for a connection.");
+		for (HikariDataSource dataSource : dataSources)
+			sample(out, "hikaricp_connections_pending", pool(dataSource),
+					pool(dataSource, HikariPoolMXBean::getThreadsAwaitingConnection));
+
+		header(out, "hikaricp_connections_max", "gauge", "Current maximum pool size.");
+		for (HikariDataSource dataSource : dataSources)
+			sample(out, "hikaricp_connections_max", pool(dataSource),
+					dataSource.getHikariConfigMXBean().getMaximumPoolSize());
+
+		header(out, "hikaricp_connections_timeout_total", "counter", "Connection requests that timed out.");
+		for (HikariDataSource dataSource : dataSources)
+			sample(out, "hikaricp_connections_timeout_total", pool(dataSource),
+					poolMetricsRegistry.get(dataSource.getPoolName()).getTimeouts());
+
+		header(out, "hikaricp_pool_status", "gauge", "0 ok, 1 saturated, 2 starved, as of the last sizing interval.");
+		for (HikariDataSource dataSource : dataSources) {
+			AdaptivePoolSizer.Window window = adaptivePoolSizer.getWindow(dataSource.getPoolName());
+			sample(out, "hikaricp_pool_status", pool(dataSource), window == null ? 0 : window.getStatus().ordinal());
+		}
+
+		header(out, "hikaricp_connections_acquire_seconds", "histogram", "Time taken to get a connection.");
+		for (HikariDataSource dataSource : dataSources)
+			histogram(out, "hikaricp_connections_acquire_seconds", pool(dataSource),
+					poolMetricsRegistry.get(dataSource.getPoolName()).getAcquire());
+
+		header(out, "hikaricp_connections_usage_seconds", "histogram", "Time a connection was held.");
+		for (HikariDataSource dataSource : dataSources)
+			histogram(out, "hikaricp_connections_usage_seconds", pool(dataSource),
+					poolMetricsRegistry.get(dataSource.getPoolName()).getUsage());
+	}
+
+	private static void histogram(StringBuilder out, String name, String labels, LatencyHistogram histogram) {
+
+		long[] cumulative = LatencyHistogram.cumulative(histogram.snapshot());
+
+		for (int i = 0; i < cumulative.length; i++) {
+			String le = i < LatencyHistogram.BOUNDS_MICROS.length
+					? String.valueOf(LatencyHistogram.BOUNDS_MICROS[i] / 1e6) : "+Inf";
+			sample(out, name + "_bucket", labels + ",le=\"" + le + "\"", cumulative[i]);
+		}
+
+		sample(out, name + "_sum", labels, seconds(histogram.getSumMicros()));
+		sample(out, name + "_count", labels, cumulative[cumulative.length - 1]);
+	}
+
+	private static int pool(HikariDataSource dataSource, ToIntFunction<HikariPoolMXBean> metric) {
+		HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+		return pool == null ? 0 : metric.applyAsInt(pool);
+	}
+
+	private static String pool(HikariDataSource dataSource) {
+		return "pool=\"" + escape(dataSource.getPoolName()) + "\"";
+	}
+
+	private static String labels(RequestMetrics.Timer timer) {
+		return "method=\"" + timer.getMethod() + "\",route=\"" + escape(timer.getRoute()) + "\",status=\""
+				+ timer.getStatus() + "\"";
+	}
+
+	private static void header(StringBuilder out, String name, String type, String help) {
+		out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+		out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+	}
+
+	private static void sample(StringBuilder out, String name, String labels, Object value) {
+
+		out.append(name);
+
+		if (labels != null)
+			out.append('{').append(labels).append('}');
+
+		out.append(' ').append(value).append('\n');
+	}
+
+	private static double seconds(long micros) {
+		return micros / 1e6;
+	}
+
+	private static String escape(String value) {
+		return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+	}
+
+}
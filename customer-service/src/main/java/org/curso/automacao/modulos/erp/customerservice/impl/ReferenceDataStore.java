@@ -0,0 +1,38 @@
+package org.curso.automacao.modulos.erp.customerservice.impl;
+
+import java.util.List;
+import java.util.Locale;
+
+import javax.annotation.PostConstruct;
+
+import org.curso.automacao.modulos.erp.customerservice.common.ReferenceData;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.javafaker.service.FakeValuesService;
+import com.github.javafaker.service.RandomService;
+
+@Component
+public class ReferenceDataStore {
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	private ReferenceData countries;
+
+	@PostConstruct
+	@SuppressWarnings("unchecked")
+	public void init() {
+		// The same list Faker.country().name() picks from.
+		List<String> names = (List<String>) new FakeValuesService(Locale.ENGLISH, new RandomService())
+				.fetchObject("country.name");
+
+		countries = ReferenceData.of(names, objectMapper);
+	}
+
+	public ReferenceData getCountries() {
+		return countries;
+	}
+
+}
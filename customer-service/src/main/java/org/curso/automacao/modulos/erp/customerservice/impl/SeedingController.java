@@ -0,0 +1,36 @@
+package org.curso.automacao.modulos.erp.customerservice.impl;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.curso.automacao.modulos.erp.customerservice.config.DataSeeder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/v1/metrics/seeding")
+public class SeedingController {
+
+	@Autowired
+	private DataSeeder dataSeeder;
+
+	@GetMapping
+	public ResponseEntity<Map<String, Object>> getProgress() {
+
+		Map<String, Object> progress = new LinkedHashMap<>();
+		progress.put("state", dataSeeder.getState());
+		progress.put("total", dataSeeder.getTotal());
+		progress.put("inserted", dataSeeder.getInserted());
+		progress.put("attempts", dataSeeder.getAttempts());
+		progress.put("lastError", dataSeeder.getLastError());
+		progress.put("startedAt", dataSeeder.getStartedAt());
+		progress.put("finishedAt", dataSeeder.getFinishedAt());
+
+		return new ResponseEntity<Map<String, Object>>(progress, HttpStatus.OK);
+	}
+
+}
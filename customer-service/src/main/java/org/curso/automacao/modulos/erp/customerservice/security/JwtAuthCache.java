@@ -0,0 +1,81 @@
+package org.curso.automacao.modulos.erp.customerservice.security;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.Hashing;
+
+/**
+ * Bounded cache of tokens that already passed signature and issuer checks,
+ * keyed by the SHA-256 of the raw token. An entry is only served while the
+ * token's own expiry date is in the future; after that the token goes through
+ * the full parser again, which rejects it.
+ */
+@Component
+public class JwtAuthCache {
+
+	@Value("${jwt.cache.maximum-size:10000}")
+	private long maximumSize;
+
+	@Value("${jwt.cache.max-ttl-seconds:900}")
+	private long maxTtl;
+
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+
+	private Cache<String, JwtAuthInfo> cache;
+
+	@PostConstruct
+	public void init() {
+		cache = CacheBuilder.newBuilder()
+				.maximumSize(maximumSize)
+				.expireAfterWrite(maxTtl, TimeUnit.SECONDS)
+				.build();
+	}
+
+	public JwtAuthInfo get(String token, Function<String, JwtAuthInfo> parser) {
+
+		String key = Hashing.sha256().hashString(token, StandardCharsets.UTF_8).toString();
+		JwtAuthInfo authInfo = cache.getIfPresent(key);
+
+		if (authInfo != null && authInfo.getExpiryDate() != null && authInfo.getExpiryDate().after(new Date())) {
+			hits.increment();
+			return authInfo;
+		}
+
+		if (authInfo != null)
+			cache.invalidate(key);
+
+		misses.increment();
+
+		authInfo = parser.apply(token);
+
+		if (authInfo.getExpiryDate() != null && authInfo.getExpiryDate().after(new Date()))
+			cache.put(key, authInfo);
+
+		return authInfo;
+	}
+
+	public long getHitCount() {
+		return hits.sum();
+	}
+
+	public long getMissCount() {
+		return misses.sum();
+	}
+
+	public long size() {
+		return cache.size();
+	}
+
+}
@@ -2,6 +2,8 @@ package org.curso.automacao.modulos.erp.customerservice.security;
 
 import java.io.IOException;
 
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
 import javax.servlet.Filter;
 import javax.servlet.FilterChain;
 import javax.servlet.ServletException;
@@ -10,13 +12,20 @@ import javax.servlet.ServletResponse;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
+import org.curso.automacao.modulos.erp.customerservice.config.SpanRecorder;
+import org.curso.automacao.modulos.erp.customerservice.config.TraceContext;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.Ordered;
 import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerMapping;
 
 @Component
 @Order(Ordered.HIGHEST_PRECEDENCE)
 public class RequestFilter implements Filter {
+
+	@Autowired
+	private SpanRecorder spanRecorder;
 	
 	@Override
 	public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
@@ -30,23 +39,71 @@ public class RequestFilter implements Filter {
         res.setHeader("Access-Control-Allow-Headers", "x-requested-with, x-auth-token");
         res.setHeader("Access-Control-Max-Age", "3600");
         res.setHeader("Access-Control-Allow-Credentials", "true");
+        res.setHeader("Access-Control-Expose-Headers", TraceContext.TRACERESPONSE);
         
         if (!(req.getMethod().equalsIgnoreCase("OPTIONS"))) {
+            TraceContext trace = TraceContext.fromHeaders(req.getHeader(TraceContext.TRACEPARENT),
+                    req.getHeader(TraceContext.TRACESTATE));
+            TraceContext previous = TraceContext.attach(trace);
+            long startMicros = SpanRecorder.nowMicros();
+            long startedAt = System.nanoTime();
+            String error = null;
+
+            res.setHeader(TraceContext.TRACERESPONSE, trace.toTraceparent());
+
             try {
                 chain.doFilter(req, res);
             } catch (Exception ex) {
+                error = ex.toString();
                 ex.printStackTrace();
+            } finally {
+                TraceContext.attach(previous);
+
+                if (error == null && req.isAsyncStarted())
+                    req.getAsyncContext().addListener(new AsyncListener() {
+
+                        @Override
+                        public void onComplete(AsyncEvent event) {
+                            recordSpan(trace, req, res.getStatus(), null, startMicros, startedAt);
+                        }
+
+                        @Override
+                        public void onTimeout(AsyncEvent event) {
+                        }
+
+                        @Override
+                        public void onError(AsyncEvent event) {
+                        }
+
+                        @Override
+                        public void onStartAsync(AsyncEvent event) {
+                        }
+                    });
+                else
+                    recordSpan(trace, req, error == null ? res.getStatus() : HttpServletResponse.SC_INTERNAL_SERVER_ERROR,
+                            error, startMicros, startedAt);
             }
         } else {
             System.out.println("Pre-flight");
             res.setHeader("Access-Control-Allowed-Methods", "POST, GET, DELETE");
             res.setHeader("Access-Control-Max-Age", "3600");
             res.setHeader("Access-Control-Allow-Headers", "authorization, content-type,x-auth-token, " +
-                    "access-control-request-headers, access-control-request-method, accept, origin, authorization, x-requested-with");
+                    "access-control-request-headers, access-control-request-method, accept, origin, authorization, x-requested-with, " +
+                    TraceContext.TRACEPARENT + ", " + TraceContext.TRACESTATE);
 
             res.setStatus(HttpServletResponse.SC_OK);
         }
 		
 	}
 
+	private void recordSpan(TraceContext trace, HttpServletRequest req, int status, String error, long startMicros,
+			long startedAt) {
+
+		Object pattern = req.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+
+		spanRecorder.record(trace, SpanRecorder.SERVER,
+				req.getMethod() + " " + (pattern == null ? req.getRequestURI() : pattern.toString()), null, startMicros,
+				System.nanoTime() - startedAt, status, error);
+	}
+
 }
@@ -0,0 +1,92 @@
+package org.curso.automacao.modulos.erp.customerservice.unittest;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.curso.automacao.modulos.erp.customerservice.common.ReferenceData;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+@Tag("unit-tests")
+public class ReferenceDataTest {
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	private ReferenceData countries;
+
+	@BeforeEach
+	public void createCountries() {
+		countries = ReferenceData.of(List.of("Portugal", "Brazil", "Peru", "Argentina", "Brazil", "Paraguay"),
+				objectMapper);
+	}
+
+	@Test
+	public void validateValuesAreSortedAndDistinct() {
+		assertEquals(List.of("Argentina", "Brazil", "Paraguay", "Peru", "Portugal"), countries.getValues());
+	}
+
+	@Test
+	public void validatePrefixSearch() {
+
+		assertEquals(List.of("Paraguay", "Peru", "Portugal"), countries.findByPrefix("p", 10));
+		assertEquals(List.of("Paraguay", "Peru"), countries.findByPrefix("P", 2), "Validate if the limit is applied");
+		assertEquals(List.of("Peru"), countries.findByPrefix("PER", 10), "Validate if the case is ignored");
+		assertTrue(countries.findByPrefix("x", 10).isEmpty());
+		assertEquals(5, countries.findByPrefix(null, 10).size());
+	}
+
+	@Test
+	public void validateFullResponse() {
+
+		ResponseEntity<byte[]> response = countries.toResponse(null);
+
+		assertEquals(HttpStatus.OK, response.getStatusCode());
+		assertEquals(countries.getETag(), response.getHeaders().getETag());
+		assertEquals("max-age=86400, public", response.getHeaders().getCacheControl());
+		assertEquals("[\"Argentina\",\"Brazil\",\"Paraguay\",\"Peru\",\"Portugal\"]",
+				new String(response.getBody(), StandardCharsets.UTF_8));
+	}
+
+	@Test
+	public void validateNotModified() {
+
+		String eTag = countries.getETag();
+
+		for (String ifNoneMatch : List.of(eTag, "W/" + eTag, "\"other\", " + eTag, "*")) {
+			ResponseEntity<byte[]> response = countries.toResponse(ifNoneMatch);
+
+			assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode(), ifNoneMatch);
+			assertEquals(eTag, response.getHeaders().getETag());
+			assertNull(response.getBody(), "Validate if a 304 has no body");
+		}
+
+		assertEquals(HttpStatus.OK, countries.toResponse("\"other\"").getStatusCode());
+	}
+
+	@Test
+	public void validateETagFollowsTheContent() {
+
+		ReferenceData same = ReferenceData.of(List.of("Peru", "Portugal", "Paraguay", "Brazil", "Argentina"),
+				objectMapper);
+		ReferenceData other = ReferenceData.of(List.of("Chile"), objectMapper);
+
+		assertEquals(countries.getETag(), same.getETag(), "Validate if the order of the input does not matter");
+		assertArrayEquals(countries.toResponse(null).getBody(), same.toResponse(null).getBody());
+		assertNotEquals(countries.getETag(), other.getETag());
+		assertEquals(HttpStatus.OK,
+				other.toResponse(countries.toResponse(null).getHeaders().getFirst(HttpHeaders.ETAG)).getStatusCode());
+	}
+
+}
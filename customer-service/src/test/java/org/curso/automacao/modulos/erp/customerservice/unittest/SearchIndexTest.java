@@ -0,0 +1,191 @@
+package org.curso.automacao.modulos.erp.customerservice.unittest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.curso.automacao.modulos.erp.customerservice.common.SearchIndex;
+import org.curso.automacao.modulos.erp.customerservice.common.SearchIndex.Document;
+import org.curso.automacao.modulos.erp.customerservice.common.SearchIndex.Result;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+// Name, email, company and city, weighted as in application.properties.
+@Tag("unit-tests")
+public class SearchIndexTest {
+
+	private SearchIndex index;
+
+	@BeforeEach
+	public void createIndex() {
+
+		index = new SearchIndex(new int[] { 30, 20, 15, 10 }, 50);
+
+		index.putAll(List.of(
+				customer(1, 1, "Maria Silva", "maria.silva@mail.com", "Acme", "Recife"),
+				customer(2, 1, "Mario Souza", "mario@mail.com", "Globex", "Natal"),
+				customer(3, 1, "John Carter", "john@mail.com", "Initech", "Salvador"),
+				customer(4, 1, "Ana Lima", "carter@mail.com", "Acme", "Recife"),
+				customer(5, 1, "Marta Carter", "marta@mail.com", "Umbrella", "Olinda")));
+	}
+
+	@Test
+	public void validatePrefixSearch() {
+
+		assertEquals(List.of(1L, 2L, 5L), ids(index.search("mar", 10, null)));
+		assertEquals(List.of(2L), ids(index.search("mario sou", 10, null)));
+		assertTrue(ids(index.search("zzz", 10, null)).isEmpty());
+	}
+
+	@Test
+	public void validateAccentsAndCaseAreIgnored() {
+		assertEquals(List.of(1L), ids(index.search("MÁRIA SÍLVA", 10, null)));
+	}
+
+	@Test
+	public void validateFuzzySearch() {
+
+		// One substitution, one swap of adjacent letters.
+		assertEquals(List.of(1L), ids(index.search("silvs", 10, null)));
+		assertEquals(List.of(1L), ids(index.search("sliva", 10, null)));
+
+		// Words under four letters are only matched exactly or as a prefix.
+		assertTrue(ids(index.search("lma", 10, null)).isEmpty());
+	}
+
+	@Test
+	public void validateEveryWordMustMatch() {
+		assertTrue(ids(index.search("john souza", 10, null)).isEmpty());
+	}
+
+	@Test
+	public void validateRanking() {
+
+		// Exact over fuzzy: "mario" is exact for 2 and one edit from "maria" for 1.
+		assertEquals(List.of(2L, 1L), ids(index.search("mario", 10, null)));
+
+		// Same word, name before email: 3 and 5 in the name ordered by id, then 4 in the email.
+		assertEquals(List.of(3L, 5L, 4L), ids(index.search("carter", 10, null)));
+
+		// Equal scores are ordered by id.
+		Result result = index.search("recife", 10, null);
+		assertEquals(List.of(1L, 4L), ids(result));
+		assertEquals(result.getHits().get(0).getScore(), result.getHits().get(1).getScore());
+	}
+
+	@Test
+	public void validateCursorPages() {
+
+		Result first = index.search("mail", 2, null);
+
+		assertEquals(5, first.getTotal());
+		assertEquals(2, first.getHits().size());
+		assertNotNull(first.getNextCursor());
+
+		Set<Long> seen = new HashSet<>(ids(first));
+		String cursor = first.getNextCursor();
+
+		while (cursor != null) {
+			Result page = index.search("mail", 2, cursor);
+			assertTrue(page.getHits().size() > 0);
+
+			for (Long id : ids(page))
+				assertTrue(seen.add(id), "Validate if no hit is repeated across pages");
+
+			cursor = page.getNextCursor();
+		}
+
+		assertEquals(Set.of(1L, 2L, 3L, 4L, 5L), seen);
+	}
+
+	@Test
+	public void validateDelete() {
+
+		index.remove(3);
+
+		assertEquals(List.of(5L, 4L), ids(index.search("carter", 10, null)));
+		assertEquals(4, index.getDocuments());
+
+		// A put read before the delete must not bring the customer back.
+		index.put(customer(3, 2, "John Carter", "john@mail.com", "Initech", "Salvador"));
+
+		assertTrue(ids(index.search("john", 10, null)).isEmpty());
+	}
+
+	@Test
+	public void validateUpdate() {
+
+		index.put(customer(2, 2, "Mario Pereira", "mario@mail.com", "Globex", "Natal"));
+
+		assertTrue(ids(index.search("souza", 10, null)).isEmpty());
+		assertEquals(List.of(2L), ids(index.search("pereira", 10, null)));
+
+		// An older version than the one indexed is ignored.
+		index.put(customer(2, 1, "Mario Souza", "mario@mail.com", "Globex", "Natal"));
+
+		assertTrue(ids(index.search("souza", 10, null)).isEmpty());
+		assertEquals(5, index.getDocuments());
+	}
+
+	@Test
+	public void validateEightFields() {
+
+		SearchIndex wide = new SearchIndex(new int[] { 1, 1, 1, 1, 1, 1, 1, 50 }, 50);
+		wide.put(new Document(1, 1, new String[] { "a", "b", "c", "d", "e", "f", "g", "lastfield" }));
+
+		Result result = wide.search("lastfield", 10, null);
+
+		assertEquals(List.of(1L), ids(result));
+		assertEquals(1000 * 50, result.getHits().get(0).getScore());
+	}
+
+	@Test
+	public void validateCompactionDropsDeadPostingsAndWords() {
+
+		SearchIndex churned = new SearchIndex(new int[] { 1 }, 50);
+		int documents = 12000;
+
+		List<Document> created = new ArrayList<>(documents);
+		List<Document> updated = new ArrayList<>(documents);
+
+		for (int id = 1; id <= documents; id++) {
+			created.add(new Document(id, 1, new String[] { "shared old" + id }));
+			updated.add(new Document(id, 2, new String[] { "shared new" + id }));
+		}
+
+		churned.putAll(created);
+		assertEquals(documents + 1, churned.getTerms());
+
+		churned.putAll(updated);
+
+		assertEquals(1, churned.getCompactions());
+		assertEquals(documents, churned.getDocuments());
+		assertEquals(documents + 1, churned.getTerms(), "Validate if the old words were dropped");
+		assertEquals(documents * 2L, churned.getPostings(), "Validate if only live postings are left");
+
+		assertTrue(ids(churned.search("old12000", 10, null)).isEmpty());
+		assertEquals(12000L, churned.search("new12000", 1, null).getHits().get(0).getId());
+		assertEquals(List.of(5L), ids(churned.search("shared nev5", 10, null)));
+		assertEquals(documents, churned.search("shared", 1, null).getTotal());
+
+		churned.remove(12000);
+		assertNotEquals(12000L, churned.search("new12000", 1, null).getHits().get(0).getId());
+	}
+
+	private static Document customer(long id, long version, String name, String email, String company, String city) {
+		return new Document(id, version, new String[] { name, email, company, city });
+	}
+
+	private static List<Long> ids(Result result) {
+		return result.getHits().stream().map(SearchIndex.Hit::getId).collect(Collectors.toList());
+	}
+
+}
@@ -0,0 +1,42 @@
+package org.curso.automacao.modulos.erp.orderservice.common;
+
+/**
+ * Marks the reads that may be served by the read replica. Only read-only
+ * transactions opened inside the scope are routed there, and only the order
+ * tables are replicated, so other queries keep using the primary.
+ *
+ * <pre>
+ * try (ReplicaReads scope = ReplicaReads.open()) {
+ * 	return repository.findAll();
+ * }
+ * </pre>
+ */
+public final class ReplicaReads implements AutoCloseable {
+
+	private static final ThreadLocal<ReplicaReads> CURRENT = new ThreadLocal<>();
+
+	private final ReplicaReads outer;
+
+	private ReplicaReads(ReplicaReads outer) {
+		this.outer = outer;
+	}
+
+	public static ReplicaReads open() {
+		ReplicaReads scope = new ReplicaReads(CURRENT.get());
+		CURRENT.set(scope);
+		return scope;
+	}
+
+	public static boolean isOpen() {
+		return CURRENT.get() != null;
+	}
+
+	@Override
+	public void close() {
+		if (outer == null)
+			CURRENT.remove();
+		else
+			CURRENT.set(outer);
+	}
+
+}
@@ -4,21 +4,19 @@ import java.util.Arrays;
 import java.util.List;
 
 import org.curso.automacao.modulos.erp.orderservice.impl.Order;
-import org.curso.automacao.modulos.erp.orderservice.impl.OrderQueryBuilder;
 import org.curso.automacao.modulos.erp.orderservice.impl.OrderRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.boot.ApplicationArguments;
-import org.springframework.boot.ApplicationRunner;
-import org.springframework.context.ApplicationContext;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
 import org.springframework.core.env.Environment;
 import org.springframework.stereotype.Component;
 
 @Component
 @Profile("!unittest")
-public class ApplicationConfig implements ApplicationRunner {
+public class ApplicationConfig {
 
 	private static final Logger LOGGER = LoggerFactory.getLogger(ApplicationConfig.class);
 
@@ -26,7 +24,7 @@ public class ApplicationConfig implements ApplicationRunner {
 	private OrderRepository orderRepository;
 
 	@Autowired
-	private OrderQueryBuilder orderQueryBuilder;
+	private DataSeeder dataSeeder;
 
 	@Autowired
 	private Environment env;
@@ -38,25 +36,30 @@ public class ApplicationConfig implements ApplicationRunner {
 		this.orderRepository = orderRepository;
 	}
 
-	public void run(ApplicationArguments args) {
+	@EventListener(ApplicationReadyEvent.class)
+	public void run() {
 
-		if (Arrays.stream(env.getActiveProfiles()).anyMatch(p -> p.equalsIgnoreCase("mock")))
+		if (Arrays.stream(env.getActiveProfiles()).anyMatch(p -> p.equalsIgnoreCase("mock"))) {
+			dataSeeder.skip("mock profile is active");
 			return;
+		}
 		
-		if (orderRepository.findAll().size() == 0) {
+		// Orders are built from customers and products read over HTTP, so this keeps
+		// retrying in the background until those services are up and seeded.
+		dataSeeder.start(this::createOrders);
+	}
 
-			List<Order> orders = appHelper.createListOfOrders();
+	private void createOrders(DataSeeder seeder) {
 
-			LOGGER.info("Total orders to be created {" + (orders != null ? String.valueOf(orders.size()) : 0) + "}");
+		if (orderRepository.count() > 0) {
+			seeder.skip("orders already exist");
+			return;
+		}
 
-			if (orders != null) {
-				for (Order order : orders) {
+		List<Order> orders = appHelper.createListOfOrders();
+		LOGGER.info("Total orders to be created {" + orders.size() + "}");
 
-					if (orderQueryBuilder.findProductBy(order.getName()) == null)
-						orderRepository.save(order);
-				}
-			}
-		}
+		seeder.insertInBatches(orders, orderRepository::saveAll);
 	}
 
 }
@@ -8,7 +8,7 @@ import java.util.List;
 import org.curso.automacao.modulos.erp.orderservice.impl.Order;
 import org.curso.automacao.modulos.erp.orderservice.impl.OrderItem;
 import org.curso.automacao.modulos.erp.orderservice.impl.OrderItemKey;
-import org.curso.automacao.modulos.erp.orderservice.impl.OrderService;
+import org.curso.automacao.modulos.erp.orderservice.impl.helpers.CatalogClient;
 import org.curso.automacao.modulos.erp.orderservice.impl.helpers.CustomerInfo;
 import org.curso.automacao.modulos.erp.orderservice.impl.helpers.ProductInfo;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -20,15 +20,15 @@ import com.github.javafaker.Faker;
 public class ApplicationConfigHelper {
 	
 	@Autowired
-	OrderService orderService;
+	CatalogClient catalogClient;
 	
 	public Order createOrder() {
 		
 		Faker faker = Faker.instance();
 		Order order = null;
 		
-		List<CustomerInfo> customers = orderService.getAllCustomers();
-		List<ProductInfo> products = orderService.getAllProducts();
+		List<CustomerInfo> customers = catalogClient.findCustomersPage(0, CatalogClient.SAMPLE_SIZE);
+		List<ProductInfo> products = catalogClient.findProductsPage(0, CatalogClient.SAMPLE_SIZE);
 		
 		CustomerInfo customer = null;
 		ProductInfo product = null;
@@ -74,11 +74,14 @@ public class ApplicationConfigHelper {
 		Faker faker = Faker.instance();
 		
 		List<Order> orders = new ArrayList<Order>();
-		List<CustomerInfo> customers = orderService.getAllCustomers();
-		List<ProductInfo> products = orderService.getAllProducts();
+		List<CustomerInfo> customers = catalogClient.findCustomersPage(0, CatalogClient.SAMPLE_SIZE);
+		List<ProductInfo> products = catalogClient.findProductsPage(0, CatalogClient.SAMPLE_SIZE);
 		CustomerInfo customer = null;
 		ProductInfo product = null;
 		
+		if (customers.isEmpty() || products.isEmpty())
+			throw new IllegalStateException("Customers and products are not available yet.");
+		
 		for (int i=0; i < 10; i++) {
 			
 			List<OrderItem> orderItems = new ArrayList();
@@ -101,6 +104,7 @@ public class ApplicationConfigHelper {
 					
 				OrderItem orderItem = OrderItem.builder()
 													.id(OrderItemKey.builder().id(j).build())		
+													.idProduct(product.getId())
 													.productName(product.getName())
 													.productPrice(product.getPrice())
 													.quantity(faker
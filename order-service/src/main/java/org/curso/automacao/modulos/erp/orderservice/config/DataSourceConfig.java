@@ -0,0 +1,82 @@
+package org.curso.automacao.modulos.erp.orderservice.config;
+
+import javax.sql.DataSource;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * The primary pool, plus the replica pool and the routing between them when
+ * replica.enabled is set. With the replica off, the primary pool is the only
+ * DataSource.
+ */
+@Configuration
+public class DataSourceConfig {
+
+	private static final String REPLICA_ENABLED = "replica.enabled";
+
+	@Bean(destroyMethod = "close")
+	@ConfigurationProperties("spring.datasource.hikari")
+	public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+
+		HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+		dataSource.setPoolName("primary");
+
+		return dataSource;
+	}
+
+	@Bean(destroyMethod = "close")
+	@ConditionalOnProperty(name = REPLICA_ENABLED, havingValue = "true")
+	public HikariDataSource replicaDataSource(DataSourceProperties properties, Environment environment,
+			@Value("${replica.datasource.url}") String replicaUrl) {
+
+		HikariDataSource dataSource = DataSourceBuilder.create().type(HikariDataSource.class)
+				.driverClassName(properties.determineDriverClassName()).url(replicaUrl)
+				.username(properties.determineUsername()).password(properties.determinePassword()).build();
+
+		// Same pool settings as the primary.
+		Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(dataSource));
+		dataSource.setPoolName("replica");
+
+		return dataSource;
+	}
+
+	@Bean
+	@Primary
+	@ConditionalOnProperty(name = REPLICA_ENABLED, havingValue = "true")
+	public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+			@Qualifier("replicaDataSource") DataSource replicaDataSource, ReplicaRouting replicaRouting) {
+
+		ReplicaRoutingDataSource routingDataSource = new ReplicaRoutingDataSource(primaryDataSource, replicaDataSource,
+				replicaRouting);
+		routingDataSource.afterPropertiesSet();
+
+		return new LazyConnectionDataSourceProxy(routingDataSource);
+	}
+
+	// With the replica on, each transaction takes its own connection, so the routing is decided per transaction
+	// rather than once per request.
+	@Bean
+	@ConditionalOnProperty(name = REPLICA_ENABLED, havingValue = "true")
+	public HibernatePropertiesCustomizer replicaConnectionHandlingCustomizer() {
+		return properties -> properties.put(AvailableSettings.CONNECTION_HANDLING,
+				PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+	}
+
+}
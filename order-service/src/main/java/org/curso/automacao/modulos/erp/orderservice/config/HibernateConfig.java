@@ -0,0 +1,16 @@
+package org.curso.automacao.modulos.erp.orderservice.config;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class HibernateConfig {
+
+	@Bean
+	public HibernatePropertiesCustomizer queryCountCustomizer(QueryCountInspector queryCountInspector) {
+		return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, queryCountInspector);
+	}
+
+}
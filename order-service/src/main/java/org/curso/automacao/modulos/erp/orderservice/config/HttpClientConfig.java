@@ -0,0 +1,111 @@
+package org.curso.automacao.modulos.erp.orderservice.config;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import io.netty.channel.ChannelOption;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+@Configuration
+public class HttpClientConfig {
+
+	@Value("${service.http.pool.max-total:100}")
+	private int maxTotal;
+
+	@Value("${service.http.pool.max-per-route:20}")
+	private int maxPerRoute;
+
+	@Value("${service.http.connect-timeout-ms:2000}")
+	private int connectTimeout;
+
+	@Value("${service.http.connection-request-timeout-ms:2000}")
+	private int connectionRequestTimeout;
+
+	@Value("${service.http.read-timeout-ms:5000}")
+	private int readTimeout;
+
+	@Value("${service.http.keep-alive-ms:30000}")
+	private long keepAlive;
+
+	@Value("${service.http.idle-eviction-ms:60000}")
+	private long idleEviction;
+
+	@Bean(destroyMethod = "close")
+	public PoolingHttpClientConnectionManager httpConnectionManager() {
+
+		PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+		connectionManager.setMaxTotal(maxTotal);
+		connectionManager.setDefaultMaxPerRoute(maxPerRoute);
+		connectionManager.setValidateAfterInactivity(2000);
+
+		return connectionManager;
+	}
+
+	@Bean(destroyMethod = "close")
+	public CloseableHttpClient httpClient(PoolingHttpClientConnectionManager httpConnectionManager) {
+
+		RequestConfig requestConfig = RequestConfig.custom()
+				.setConnectTimeout(connectTimeout)
+				.setConnectionRequestTimeout(connectionRequestTimeout)
+				.setSocketTimeout(readTimeout)
+				.build();
+
+		// Honour the server's Keep-Alive header, but never keep a connection longer than keepAlive.
+		return HttpClients.custom()
+				.setConnectionManager(httpConnectionManager)
+				.setDefaultRequestConfig(requestConfig)
+				.setKeepAliveStrategy((response, context) -> {
+					long serverKeepAlive = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response,
+							context);
+					return serverKeepAlive > 0 ? Math.min(serverKeepAlive, keepAlive) : keepAlive;
+				})
+				.evictExpiredConnections()
+				.evictIdleConnections(idleEviction, TimeUnit.MILLISECONDS)
+				.build();
+	}
+
+	@Bean
+	public RestTemplate restTemplate(CloseableHttpClient httpClient, TracePropagation tracePropagation) {
+
+		RestTemplate restTemplate = new RestTemplate(new HttpComponentsClientHttpRequestFactory(httpClient));
+		restTemplate.getInterceptors().add(tracePropagation);
+
+		return restTemplate;
+	}
+
+	@Bean(destroyMethod = "dispose")
+	public ConnectionProvider webClientConnectionProvider() {
+		return ConnectionProvider.builder("service-http")
+				.maxConnections(maxTotal)
+				.pendingAcquireTimeout(Duration.ofMillis(connectionRequestTimeout))
+				.maxIdleTime(Duration.ofMillis(keepAlive))
+				.evictInBackground(Duration.ofMillis(idleEviction))
+				.build();
+	}
+
+	@Bean
+	public WebClient webClient(WebClient.Builder builder, ConnectionProvider webClientConnectionProvider,
+			TracePropagation tracePropagation) {
+
+		HttpClient httpClient = HttpClient.create(webClientConnectionProvider)
+				.option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectTimeout)
+				.responseTimeout(Duration.ofMillis(readTimeout));
+
+		return builder.clientConnector(new ReactorClientHttpConnector(httpClient)).filter(tracePropagation).build();
+	}
+
+}
@@ -0,0 +1,173 @@
+package org.curso.automacao.modulos.erp.orderservice.config;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Log-linear histogram of microseconds laid out like HdrHistogram with two
+ * significant digits: values below 128 get a bucket each, and above that
+ * every power of two is split into 64 buckets, so a bucket is never wider
+ * than 1/64 of the values in it. Values are capped at 2^32 us (about 71
+ * minutes). Recording is a single array increment.
+ * <p>
+ * Snapshots taken at two points in time can be subtracted to get the
+ * distribution of the interval in between.
+ */
+public class LatencyHistogram {
+
+	private static final int SUB_BUCKET_BITS = 7;
+
+	private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+	private static final int HALF_SUB_BUCKETS = SUB_BUCKETS / 2;
+
+	private static final long MAX_MICROS = (1L << 32) - 1;
+
+	public static final int BUCKETS = index(MAX_MICROS) + 1;
+
+	// Upper bounds reported when a short, fixed list of buckets is wanted, as in a Prometheus histogram.
+	public static final long[] BOUNDS_MICROS = { 100, 250, 500, 1_000, 2_500, 5_000, 10_000, 25_000, 50_000,
+			100_000, 250_000, 500_000, 1_000_000, 2_500_000, 5_000_000, 10_000_000, 30_000_000 };
+
+	private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+	private final LongAdder sumMicros = new LongAdder();
+
+	public void record(long micros) {
+		counts.incrementAndGet(index(Math.max(0, Math.min(micros, MAX_MICROS))));
+		sumMicros.add(micros);
+	}
+
+	public void clear() {
+		for (int i = 0; i < BUCKETS; i++)
+			counts.set(i, 0);
+
+		sumMicros.reset();
+	}
+
+	public long[] snapshot() {
+
+		long[] snapshot = new long[BUCKETS];
+		addTo(snapshot);
+
+		return snapshot;
+	}
+
+	public long getSumMicros() {
+		return sumMicros.sum();
+	}
+
+	public void addTo(long[] target) {
+		for (int i = 0; i < BUCKETS; i++)
+			target[i] += counts.get(i);
+	}
+
+	static int index(long micros) {
+
+		if (micros < SUB_BUCKETS)
+			return (int) micros;
+
+		// Shift that brings the value into [64, 128).
+		int shift = 63 - Long.numberOfLeadingZeros(micros) - (SUB_BUCKET_BITS - 1);
+
+		return SUB_BUCKETS + (shift - 1) * HALF_SUB_BUCKETS + (int) ((micros >> shift) - HALF_SUB_BUCKETS);
+	}
+
+	/**
+	 * Largest value that is recorded in the bucket.
+	 */
+	static long highestValue(int index) {
+
+		if (index < SUB_BUCKETS)
+			return index;
+
+		int shift = (index - SUB_BUCKETS) / HALF_SUB_BUCKETS + 1;
+		long subBucket = HALF_SUB_BUCKETS + (index - SUB_BUCKETS) % HALF_SUB_BUCKETS;
+
+		return ((subBucket + 1) << shift) - 1;
+	}
+
+	public static long count(long[] counts) {
+
+		long count = 0;
+		for (long bucket : counts)
+			count += bucket;
+
+		return count;
+	}
+
+	/**
+	 * Value at the quantile, as the highest value of its bucket, 0 when
+	 * nothing was recorded.
+	 */
+	public static long valueAtQuantile(long[] counts, double quantile) {
+
+		long count = count(counts);
+
+		if (count == 0)
+			return 0;
+
+		long rank = Math.max(1, (long) Math.ceil(quantile * count));
+		long seen = 0;
+
+		for (int i = 0; i < counts.length; i++) {
+			seen += counts[i];
+
+			if (seen >= rank)
+				return highestValue(i);
+		}
+
+		return MAX_MICROS;
+	}
+
+	/**
+	 * Same as {@link #valueAtQuantile(long[], double)}, in milliseconds.
+	 */
+	public static double quantileMs(long[] counts, double quantile) {
+		return valueAtQuantile(counts, quantile) / 1000.0;
+	}
+
+	public static long max(long[] counts) {
+
+		for (int i = counts.length - 1; i >= 0; i--)
+			if (counts[i] > 0)
+				return highestValue(i);
+
+		return 0;
+	}
+
+	/**
+	 * Cumulative counts at each of {@link #BOUNDS_MICROS} followed by the
+	 * total. A bucket that straddles a bound is counted above it, so values
+	 * within 1/64 below a bound may be reported in the next one.
+	 */
+	public static long[] cumulative(long[] counts) {
+
+		long[] cumulative = new long[BOUNDS_MICROS.length + 1];
+		long seen = 0;
+		int bound = 0;
+
+		for (int i = 0; i < counts.length; i++) {
+
+			while (bound < BOUNDS_MICROS.length && highestValue(i) > BOUNDS_MICROS[bound])
+				cumulative[bound++] = seen;
+
+			seen += counts[i];
+		}
+
+		while (bound < cumulative.length)
+			cumulative[bound++] = seen;
+
+		return cumulative;
+	}
+
+	public static long[] minus(long[] current, long[] previous) {
+
+		long[] delta = new long[current.length];
+		for (int i = 0; i < current.length; i++)
+			delta[i] = current[i] - (previous == null ? 0 : previous[i]);
+
+		return delta;
+	}
+
+}
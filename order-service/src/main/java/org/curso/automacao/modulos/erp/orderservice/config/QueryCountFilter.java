@@ -0,0 +1,38 @@
+package org.curso.automacao.modulos.erp.orderservice.config;
+
+import java.io.IOException;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+@Component
+public class QueryCountFilter extends OncePerRequestFilter {
+
+	@Autowired
+	private QueryCountInspector queryCountInspector;
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+			throws ServletException, IOException {
+
+		queryCountInspector.start();
+
+		try {
+			filterChain.doFilter(request, response);
+		} finally {
+			int queries = queryCountInspector.stop();
+			Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+
+			if (pattern != null)
+				queryCountInspector.record(request.getMethod() + " " + pattern, queries);
+		}
+	}
+
+}
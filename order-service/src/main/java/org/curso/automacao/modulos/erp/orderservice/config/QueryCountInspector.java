@@ -0,0 +1,85 @@
+package org.curso.automacao.modulos.erp.orderservice.config;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.curso.automacao.modulos.erp.orderservice.impl.helpers.EndpointQueryStats;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.stereotype.Component;
+
+/**
+ * Counts the SQL statements Hibernate prepares on the current thread, so the
+ * number of queries issued by each request can be recorded per endpoint.
+ */
+@Component
+public class QueryCountInspector implements StatementInspector {
+
+	private static final long serialVersionUID = 1L;
+
+	private static final ThreadLocal<int[]> CURRENT = new ThreadLocal<>();
+
+	private final Map<String, Counters> endpoints = new ConcurrentHashMap<>();
+
+	@Override
+	public String inspect(String sql) {
+		int[] count = CURRENT.get();
+
+		if (count != null)
+			count[0]++;
+
+		return sql;
+	}
+
+	public void start() {
+		CURRENT.set(new int[1]);
+	}
+
+	public int stop() {
+		int[] count = CURRENT.get();
+		CURRENT.remove();
+
+		return count == null ? 0 : count[0];
+	}
+
+	public void record(String endpoint, int queries) {
+		endpoints.computeIfAbsent(endpoint, key -> new Counters()).add(queries);
+	}
+
+	public Map<String, EndpointQueryStats> getEndpointStats() {
+		Map<String, EndpointQueryStats> stats = new TreeMap<>();
+		endpoints.forEach((endpoint, counters) -> stats.put(endpoint, counters.snapshot()));
+
+		return stats;
+	}
+
+	public void reset() {
+		endpoints.clear();
+	}
+
+	private static class Counters {
+
+		private final LongAdder requests = new LongAdder();
+		private final LongAdder queries = new LongAdder();
+		private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+		private volatile int last;
+
+		private void add(int count) {
+			requests.increment();
+			queries.add(count);
+			max.accumulate(count);
+			last = count;
+		}
+
+		private EndpointQueryStats snapshot() {
+			return EndpointQueryStats.builder()
+					.requests(requests.sum())
+					.queries(queries.sum())
+					.maxQueries(max.get())
+					.lastQueries(last)
+					.build();
+		}
+	}
+}
@@ -0,0 +1,122 @@
+package org.curso.automacao.modulos.erp.orderservice.config;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import lombok.Getter;
+
+/**
+ * Decides whether a replica-eligible read may go to the replica. The replica
+ * is used while everything committed up to {@code replica.max-lag-ms} ago has
+ * been applied to it, and not by a principal whose last write is newer than
+ * what the replica has applied.
+ */
+@Component
+public class ReplicaRouting {
+
+	@Getter
+	@Value("${replica.enabled:false}")
+	private boolean enabled;
+
+	@Getter
+	@Value("${replica.max-lag-ms:2000}")
+	private long maxLagMs;
+
+	@Value("${replica.read-your-writes:true}")
+	private boolean readYourWrites;
+
+	@Value("${replica.read-your-writes.max-principals:100000}")
+	private long maxPrincipals;
+
+	// Every change committed before this time is on the replica, 0 until the first snapshot.
+	@Getter
+	private volatile long appliedThrough;
+
+	// Writes older than the lag bound are always on an admitted replica, so they need not be kept.
+	private Cache<String, Long> lastWrites;
+
+	private final LongAdder replicaReads = new LongAdder();
+
+	private final LongAdder lagFallbacks = new LongAdder();
+
+	private final LongAdder readYourWritesFallbacks = new LongAdder();
+
+	private final LongAdder writes = new LongAdder();
+
+	@PostConstruct
+	public void init() {
+		lastWrites = CacheBuilder.newBuilder().maximumSize(maxPrincipals)
+				.expireAfterWrite(maxLagMs, TimeUnit.MILLISECONDS).build();
+	}
+
+	public boolean admit(String principal) {
+
+		if (!enabled)
+			return false;
+
+		long through = appliedThrough;
+
+		if (System.currentTimeMillis() - through > maxLagMs) {
+			lagFallbacks.increment();
+			return false;
+		}
+
+		if (readYourWrites && principal != null) {
+			Long writtenAt = lastWrites.getIfPresent(principal);
+
+			if (writtenAt != null && writtenAt >= through) {
+				readYourWritesFallbacks.increment();
+				return false;
+			}
+		}
+
+		replicaReads.increment();
+		return true;
+	}
+
+	public void recordWrite(String principal) {
+
+		writes.increment();
+
+		if (principal != null)
+			lastWrites.put(principal, System.currentTimeMillis());
+	}
+
+	public void markApplied(long time) {
+		if (time > appliedThrough)
+			appliedThrough = time;
+	}
+
+	/**
+	 * How far the replica is behind, -1 before its first snapshot.
+	 */
+	public long getLagMs() {
+		long through = appliedThrough;
+		return through == 0 ? -1 : Math.max(0, System.currentTimeMillis() - through);
+	}
+
+	public long getReplicaReads() {
+		return replicaReads.sum();
+	}
+
+	public long getLagFallbacks() {
+		return lagFallbacks.sum();
+	}
+
+	public long getReadYourWritesFallbacks() {
+		return readYourWritesFallbacks.sum();
+	}
+
+	public long getWrites() {
+		return writes.sum();
+	}
+
+}
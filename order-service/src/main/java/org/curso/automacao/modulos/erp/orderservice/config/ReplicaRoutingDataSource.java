@@ -0,0 +1,92 @@
+package org.curso.automacao.modulos.erp.orderservice.config;
+
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.curso.automacao.modulos.erp.orderservice.common.ReplicaReads;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Sends read-only transactions opened inside {@link ReplicaReads} to the
+ * replica when {@link ReplicaRouting} admits them, everything else to the
+ * primary. The lookup happens when a connection is taken, so this has to sit
+ * behind a LazyConnectionDataSourceProxy for the transaction to be known by
+ * then.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+	public enum Target {
+		PRIMARY, REPLICA
+	}
+
+	private final ReplicaRouting replicaRouting;
+
+	public ReplicaRoutingDataSource(DataSource primary, DataSource replica, ReplicaRouting replicaRouting) {
+		this.replicaRouting = replicaRouting;
+
+		setTargetDataSources(Map.of(Target.PRIMARY, primary, Target.REPLICA, replica));
+		setDefaultTargetDataSource(primary);
+	}
+
+	@Override
+	protected Object determineCurrentLookupKey() {
+
+		if (!TransactionSynchronizationManager.isActualTransactionActive())
+			return Target.PRIMARY;
+
+		if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+			trackWrite();
+			return Target.PRIMARY;
+		}
+
+		if (ReplicaReads.isOpen() && replicaRouting.admit(currentPrincipal()))
+			return Target.REPLICA;
+
+		return Target.PRIMARY;
+	}
+
+	private void trackWrite() {
+
+		if (!TransactionSynchronizationManager.isSynchronizationActive())
+			return;
+
+		for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations())
+			if (synchronization instanceof WriteTracker)
+				return;
+
+		TransactionSynchronizationManager.registerSynchronization(new WriteTracker(currentPrincipal()));
+	}
+
+	private static String currentPrincipal() {
+
+		Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+
+		if (authentication == null || authentication instanceof AnonymousAuthenticationToken
+				|| !authentication.isAuthenticated())
+			return null;
+
+		return authentication.getName();
+	}
+
+	private class WriteTracker implements TransactionSynchronization {
+
+		private final String principal;
+
+		WriteTracker(String principal) {
+			this.principal = principal;
+		}
+
+		@Override
+		public void afterCommit() {
+			replicaRouting.recordWrite(principal);
+		}
+
+	}
+
+}
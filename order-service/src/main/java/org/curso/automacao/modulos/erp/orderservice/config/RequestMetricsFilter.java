@@ -0,0 +1,78 @@
+package org.curso.automacao.modulos.erp.orderservice.config;
+
+import java.io.IOException;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Times every request, security included, and records it under its matched
+ * route. Requests that go async are recorded when they complete.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class RequestMetricsFilter extends OncePerRequestFilter {
+
+	@Autowired
+	private RequestMetrics requestMetrics;
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+			throws ServletException, IOException {
+
+		long startedAt = System.nanoTime();
+		boolean failed = false;
+
+		requestMetrics.started();
+
+		try {
+			filterChain.doFilter(request, response);
+		} catch (IOException | ServletException | RuntimeException | Error e) {
+			failed = true;
+			throw e;
+		} finally {
+			if (!failed && request.isAsyncStarted())
+				request.getAsyncContext().addListener(new AsyncListener() {
+
+					@Override
+					public void onComplete(AsyncEvent event) {
+						record(request, response.getStatus(), startedAt);
+					}
+
+					@Override
+					public void onTimeout(AsyncEvent event) {
+					}
+
+					@Override
+					public void onError(AsyncEvent event) {
+					}
+
+					@Override
+					public void onStartAsync(AsyncEvent event) {
+					}
+				});
+			else
+				record(request, failed ? HttpServletResponse.SC_INTERNAL_SERVER_ERROR : response.getStatus(), startedAt);
+		}
+	}
+
+	private void record(HttpServletRequest request, int status, long startedAt) {
+
+		Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+
+		requestMetrics.finished(request.getMethod(), pattern == null ? RequestMetrics.UNMATCHED_ROUTE : pattern.toString(),
+				status, System.nanoTime() - startedAt);
+	}
+
+}
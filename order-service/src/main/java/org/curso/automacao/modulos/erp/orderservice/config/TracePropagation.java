@@ -0,0 +1,147 @@
+package org.curso.automacao.modulos.erp.orderservice.config;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+/**
+ * Sends a child of the current trace context with every call made through the
+ * RestTemplate or the WebClient and records the call as a client span that
+ * ends once the response body has been read. Calls made outside a request,
+ * such as background syncs, start a trace of their own. The WebClient looks
+ * the parent up in the Reactor context under the TraceContext class, since
+ * the call may run on any thread.
+ */
+@Component
+public class TracePropagation implements ClientHttpRequestInterceptor, ExchangeFilterFunction {
+
+	@Autowired
+	private SpanRecorder spanRecorder;
+
+	@Override
+	public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+			throws IOException {
+
+		TraceContext context = childOf(TraceContext.current());
+		Call call = new Call(context, request.getMethodValue(), request.getURI());
+
+		inject(context, request.getHeaders());
+
+		ClientHttpResponse response;
+
+		try {
+			response = execution.execute(request, body);
+		} catch (IOException | RuntimeException e) {
+			call.finish(0, e.toString());
+			throw e;
+		}
+
+		int status = response.getRawStatusCode();
+
+		return new ClientHttpResponse() {
+
+			@Override
+			public HttpStatus getStatusCode() throws IOException {
+				return response.getStatusCode();
+			}
+
+			@Override
+			public int getRawStatusCode() throws IOException {
+				return status;
+			}
+
+			@Override
+			public String getStatusText() throws IOException {
+				return response.getStatusText();
+			}
+
+			@Override
+			public HttpHeaders getHeaders() {
+				return response.getHeaders();
+			}
+
+			@Override
+			public InputStream getBody() throws IOException {
+				return response.getBody();
+			}
+
+			@Override
+			public void close() {
+				try {
+					response.close();
+				} finally {
+					call.finish(status, null);
+				}
+			}
+		};
+	}
+
+	@Override
+	public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+
+		return Mono.deferContextual(view -> {
+			TraceContext context = childOf(view.getOrDefault(TraceContext.class, TraceContext.current()));
+			Call call = new Call(context, request.method().name(), request.url());
+
+			return next.exchange(ClientRequest.from(request).headers(headers -> inject(context, headers)).build())
+					.map(response -> response.mutate()
+							.body(body -> body.doFinally(signal -> call.finish(response.rawStatusCode(),
+									signal == SignalType.ON_COMPLETE ? null : "body " + signal)))
+							.build())
+					.doOnError(e -> call.finish(0, e.toString()))
+					.doOnCancel(() -> call.finish(0, "cancelled"));
+		});
+	}
+
+	private static TraceContext childOf(TraceContext parent) {
+		return parent == null ? TraceContext.root() : parent.child();
+	}
+
+	private static void inject(TraceContext context, HttpHeaders headers) {
+
+		headers.set(TraceContext.TRACEPARENT, context.toTraceparent());
+
+		if (context.getTraceState() != null)
+			headers.set(TraceContext.TRACESTATE, context.getTraceState());
+	}
+
+	private class Call {
+
+		private final TraceContext context;
+		private final String name;
+		private final String peer;
+		private final long startMicros = SpanRecorder.nowMicros();
+		private final long startedAt = System.nanoTime();
+		private final AtomicBoolean finished = new AtomicBoolean();
+
+		Call(TraceContext context, String method, URI uri) {
+			this.context = context;
+			this.name = method + " " + uri.getPath();
+			this.peer = uri.getAuthority();
+		}
+
+		void finish(int status, String error) {
+			if (finished.compareAndSet(false, true))
+				spanRecorder.record(context, SpanRecorder.CLIENT, name, peer, startMicros,
+						System.nanoTime() - startedAt, status, error);
+		}
+	}
+
+}
@@ -0,0 +1,7 @@
+package org.curso.automacao.modulos.erp.orderservice.enums;
+
+public enum ChangeOperation {
+
+	INSERT, UPDATE, DELETE;
+
+}
@@ -0,0 +1,24 @@
+package org.curso.automacao.modulos.erp.orderservice.exceptions;
+
+import org.springframework.web.client.RestClientException;
+
+import lombok.Getter;
+
+/**
+ * Thrown without calling a downstream service when its circuit breaker is open
+ * or its bulkhead is full. It is a RestClientException, so callers that already
+ * handle failed REST calls handle it too.
+ */
+public class DependencyUnavailableException extends RestClientException {
+
+	private static final long serialVersionUID = 1L;
+
+	@Getter
+	private final String dependency;
+
+	public DependencyUnavailableException(String dependency, String reason) {
+		super("Call to [" + dependency + "] rejected: " + reason);
+		this.dependency = dependency;
+	}
+
+}
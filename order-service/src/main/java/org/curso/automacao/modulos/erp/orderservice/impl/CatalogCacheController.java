@@ -0,0 +1,26 @@
+package org.curso.automacao.modulos.erp.orderservice.impl;
+
+import java.util.Map;
+
+import org.curso.automacao.modulos.erp.orderservice.impl.helpers.CatalogCache;
+import org.curso.automacao.modulos.erp.orderservice.impl.helpers.CatalogCacheStats;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/v1/metrics/catalog-cache")
+public class CatalogCacheController {
+
+	@Autowired
+	private CatalogCache catalogCache;
+
+	@GetMapping
+	public ResponseEntity<Map<String, CatalogCacheStats>> getStats() {
+		return new ResponseEntity<Map<String, CatalogCacheStats>>(catalogCache.getStats(), HttpStatus.OK);
+	}
+
+}
@@ -1,38 +1,36 @@
 package org.curso.automacao.modulos.erp.orderservice.impl;
 
-import java.io.InputStream;
 import java.util.List;
-import java.util.stream.Collectors;
 
+import org.curso.automacao.modulos.erp.orderservice.common.ReferenceData;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-
 @RestController
 @RequestMapping("/api/v1/companies")
 public class CompanyController {
 
-	@GetMapping("/all")
-	public final ResponseEntity<List<String>> findAll() {
+	@Autowired
+	private ReferenceDataStore referenceDataStore;
 
-		return new ResponseEntity<List<String>>(getCompanies().stream().sorted().collect(Collectors.toList()),
-				HttpStatus.OK);
+	@GetMapping("/all")
+	public final ResponseEntity<byte[]> findAll(
+			@RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+		return referenceDataStore.getCompanies().toResponse(ifNoneMatch);
 	}
 
-	private List<String> getCompanies() {
-
-		try (InputStream inputStream = Thread.currentThread().getContextClassLoader()
-				.getResourceAsStream("data/companies.json")) {
-			ObjectMapper mapper = new ObjectMapper();
-			String[] companies = mapper.readValue(inputStream, String[].class);
-			return List.of(companies);
-		} catch (Exception e) {
-			throw new RuntimeException(e);
-		}
+	@GetMapping("/search")
+	public final ResponseEntity<List<String>> findByPrefix(@RequestParam(name = "prefix") String prefix,
+			@RequestParam(name = "limit", defaultValue = "" + ReferenceData.DEFAULT_SEARCH_LIMIT) int limit) {
+		return new ResponseEntity<List<String>>(referenceDataStore.getCompanies().findByPrefix(prefix, limit),
+				HttpStatus.OK);
 	}
 
 }
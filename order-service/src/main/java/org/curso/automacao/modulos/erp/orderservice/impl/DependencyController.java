@@ -0,0 +1,26 @@
+package org.curso.automacao.modulos.erp.orderservice.impl;
+
+import java.util.Map;
+
+import org.curso.automacao.modulos.erp.orderservice.impl.helpers.DependencyGuards;
+import org.curso.automacao.modulos.erp.orderservice.impl.helpers.DependencyStats;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/v1/metrics/dependencies")
+public class DependencyController {
+
+	@Autowired
+	private DependencyGuards dependencyGuards;
+
+	@GetMapping
+	public ResponseEntity<Map<String, DependencyStats>> getStats() {
+		return new ResponseEntity<Map<String, DependencyStats>>(dependencyGuards.getStats(), HttpStatus.OK);
+	}
+
+}
@@ -0,0 +1,65 @@
+package org.curso.automacao.modulos.erp.orderservice.impl;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.curso.automacao.modulos.erp.orderservice.config.QueryCountInspector;
+import org.curso.automacao.modulos.erp.orderservice.impl.helpers.EndpointQueryStats;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/v1/metrics/hibernate")
+public class HibernateStatsController {
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	private QueryCountInspector queryCountInspector;
+
+	@GetMapping("/statistics")
+	public ResponseEntity<Map<String, Long>> getStatistics() {
+
+		Statistics statistics = getHibernateStatistics();
+
+		Map<String, Long> values = new LinkedHashMap<>();
+		values.put("prepareStatementCount", statistics.getPrepareStatementCount());
+		values.put("queryExecutionCount", statistics.getQueryExecutionCount());
+		values.put("entityLoadCount", statistics.getEntityLoadCount());
+		values.put("entityFetchCount", statistics.getEntityFetchCount());
+		values.put("collectionLoadCount", statistics.getCollectionLoadCount());
+		values.put("collectionFetchCount", statistics.getCollectionFetchCount());
+		values.put("transactionCount", statistics.getTransactionCount());
+
+		return new ResponseEntity<Map<String, Long>>(values, HttpStatus.OK);
+	}
+
+	@GetMapping("/requests")
+	public ResponseEntity<Map<String, EndpointQueryStats>> getRequestStats() {
+		return new ResponseEntity<Map<String, EndpointQueryStats>>(queryCountInspector.getEndpointStats(),
+				HttpStatus.OK);
+	}
+
+	@PostMapping("/reset")
+	public ResponseEntity<Void> reset() {
+		getHibernateStatistics().clear();
+		queryCountInspector.reset();
+
+		return new ResponseEntity<Void>(HttpStatus.OK);
+	}
+
+	private Statistics getHibernateStatistics() {
+		return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+	}
+
+}
@@ -0,0 +1,40 @@
+package org.curso.automacao.modulos.erp.orderservice.impl;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.curso.automacao.modulos.erp.orderservice.impl.helpers.ConnectionPoolStats;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/v1/metrics/http-pool")
+public class HttpPoolController {
+
+	@Autowired
+	private PoolingHttpClientConnectionManager httpConnectionManager;
+
+	@GetMapping("/total")
+	public ResponseEntity<ConnectionPoolStats> getTotalStats() {
+		return new ResponseEntity<ConnectionPoolStats>(
+				ConnectionPoolStats.of(httpConnectionManager.getTotalStats()), HttpStatus.OK);
+	}
+
+	@GetMapping("/routes")
+	public ResponseEntity<Map<String, ConnectionPoolStats>> getRouteStats() {
+
+		Map<String, ConnectionPoolStats> routes = new TreeMap<>();
+
+		for (HttpRoute route : httpConnectionManager.getRoutes())
+			routes.put(route.getTargetHost().toURI(), ConnectionPoolStats.of(httpConnectionManager.getStats(route)));
+
+		return new ResponseEntity<Map<String, ConnectionPoolStats>>(routes, HttpStatus.OK);
+	}
+
+}
@@ -0,0 +1,32 @@
+package org.curso.automacao.modulos.erp.orderservice.impl;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.curso.automacao.modulos.erp.orderservice.security.JwtAuthCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/v1/metrics/jwt-cache")
+public class JwtCacheController {
+
+	@Autowired
+	private JwtAuthCache jwtAuthCache;
+
+	@GetMapping("/stats")
+	public ResponseEntity<Map<String, Long>> getStats() {
+
+		Map<String, Long> stats = new LinkedHashMap<>();
+		stats.put("hits", jwtAuthCache.getHitCount());
+		stats.put("misses", jwtAuthCache.getMissCount());
+		stats.put("size", jwtAuthCache.size());
+
+		return new ResponseEntity<Map<String, Long>>(stats, HttpStatus.OK);
+	}
+
+}
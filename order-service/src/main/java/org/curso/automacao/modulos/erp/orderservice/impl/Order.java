@@ -4,6 +4,7 @@ import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import java.util.Set;
 
 import javax.persistence.CascadeType;
 import javax.persistence.Column;
@@ -12,20 +13,24 @@ import javax.persistence.FetchType;
 import javax.persistence.JoinColumn;
 import javax.persistence.OneToMany;
 import javax.persistence.PrePersist;
+import javax.persistence.PreUpdate;
 import javax.persistence.Table;
 import javax.persistence.Temporal;
 import javax.persistence.TemporalType;
+import javax.persistence.Transient;
 import javax.validation.constraints.NotBlank;
 
 import org.curso.automacao.modulos.erp.orderservice.common.BaseEntity;
-import org.hibernate.annotations.Formula;
+import org.hibernate.annotations.BatchSize;
 import org.hibernate.annotations.NotFound;
 import org.hibernate.annotations.NotFoundAction;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 
 import lombok.AllArgsConstructor;
+import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
@@ -64,10 +69,26 @@ public class Order extends BaseEntity {
 	@JsonFormat(pattern="yyyy-MM-dd")
 	private LocalDate deliveryDate;
 	
-	@Formula(value = "(SELECT SUM(p.quantity * p.productprice) FROM tb_orders_items p WHERE p.idorder=id)")
+	// Kept in sync with the items by recalculateTotal(); OrderTotalReconciler repairs any drift.
+	@Column(name = "total")
 	private Float total;
 	
-	@OneToMany(mappedBy = "order", targetEntity = OrderItem.class, fetch = FetchType.EAGER, cascade = CascadeType.ALL, orphanRemoval = true)
+	// Loaded on first access, up to 100 orders' items per query, instead of one query per order.
+	@OneToMany(mappedBy = "order", targetEntity = OrderItem.class, fetch = FetchType.LAZY, cascade = CascadeType.ALL, orphanRemoval = true)
+	@BatchSize(size = 100)
 	@JsonManagedReference
+	@Builder.Default
 	private List<OrderItem> items = new ArrayList<OrderItem>();
+
+	// Services whose data was taken from the last good snapshot while enriching this order.
+	@Transient
+	@JsonInclude(JsonInclude.Include.NON_EMPTY)
+	private Set<String> staleReferences;
+
+	@PrePersist
+	@PreUpdate
+	public void recalculateTotal() {
+		total = items == null || items.isEmpty() ? null
+				: (float) items.stream().mapToDouble(OrderItem::getTotalItem).sum();
+	}
 }
@@ -1,12 +1,20 @@
 package org.curso.automacao.modulos.erp.orderservice.impl;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
+import javax.servlet.http.HttpServletResponse;
+
 import org.curso.automacao.modulos.erp.orderservice.common.BaseController;
+import org.curso.automacao.modulos.erp.orderservice.exceptions.ServiceException;
+import org.curso.automacao.modulos.erp.orderservice.impl.helpers.ChangeRecord;
+import org.curso.automacao.modulos.erp.orderservice.impl.helpers.OrderChangeFeed;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
@@ -16,9 +24,13 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import reactor.core.publisher.Mono;
+
 @RestController
 @RequestMapping("/api/v1/orders")
 public class OrderController extends BaseController<OrderService, JpaRepository<Order,Long>, Order>{
@@ -29,28 +41,94 @@ public class OrderController extends BaseController<OrderService, JpaRepository<
 	@Autowired
 	OrderRepository orderRepository;
 	
+	@Autowired
+	OrderTotalReconciler orderTotalReconciler;
+	
+	@Autowired
+	OrderChangeFeed orderChangeFeed;
+	
 	@Override
 	@GetMapping("/all")
-	public final ResponseEntity<List<Order>> findAll() {
-		return super.findAll();
+	public final ResponseEntity<List<Order>> findAll(@RequestParam(name = "page", required = false) Integer page,
+			@RequestParam(name = "size", required = false) Integer size,
+			@RequestParam(name = "after", required = false) Long after) {
+		return super.findAll(page, size, after);
+	}
+	
+	@GetMapping("/headers")
+	public ResponseEntity<List<OrderHeader>> findHeaders(@RequestParam(name = "page", required = false) Integer page,
+			@RequestParam(name = "size", required = false) Integer size,
+			@RequestParam(name = "after", required = false) Long after) {
+
+		int pageSize = size == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+
+		try {
+			HttpHeaders headers = new HttpHeaders();
+			List<OrderHeader> results;
+
+			if (after != null) {
+				results = orderService.findHeadersAfter(after, pageSize);
+			} else {
+				Page<OrderHeader> resultPage = orderService.findHeaders(page == null ? 0 : Math.max(0, page), pageSize);
+				results = resultPage.getContent();
+				headers.add("X-Total-Count", String.valueOf(resultPage.getTotalElements()));
+			}
+
+			if (results.size() == pageSize)
+				headers.add("X-Next-Cursor", String.valueOf(results.get(results.size() - 1).getId()));
+
+			return new ResponseEntity<List<OrderHeader>>(results, headers, HttpStatus.OK);
+		} catch (ServiceException e) {
+			return new ResponseEntity<List<OrderHeader>>(HttpStatus.UNPROCESSABLE_ENTITY);
+		}
+	}
+	
+	/**
+	 * Order changes published from the outbox after {@code after}, oldest first.
+	 */
+	@GetMapping("/changes")
+	public ResponseEntity<List<ChangeRecord>> findChanges(@RequestParam(name = "after", defaultValue = "0") long after,
+			@RequestParam(name = "limit", required = false) Integer limit) {
+		int pageSize = limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+		return new ResponseEntity<List<ChangeRecord>>(orderChangeFeed.findAfter(after, pageSize), HttpStatus.OK);
+	}
+	
+	@Override
+	@GetMapping(value = "/stream", produces = NDJSON_MEDIA_TYPE)
+	public void streamAll(HttpServletResponse response) throws IOException {
+		super.streamAll(response);
 	}
 	
 	@Override
 	@GetMapping("/find-by/id/{id}")
-	public ResponseEntity<Order> findById(@PathVariable("id") long id){
-		return super.findById(id);
+	public ResponseEntity<Order> findById(@PathVariable("id") long id,
+			@RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+		return super.findById(id, ifNoneMatch);
 	}
 	
 	@Override
 	@PutMapping("/save")
 	public ResponseEntity<Order> save(@Validated @RequestBody Order entity) {
+		orderService.resolveReferences(List.of(entity));
 		return super.save(entity);
 	}
+
+	@Override
+	@PutMapping("/save-all")
+	public ResponseEntity<List<Order>> saveAll(@RequestBody List<Order> entities) {
+		// References are resolved ahead of the write transaction, so no connection is held during the remote calls.
+		if (entities != null && !entities.isEmpty() && entities.size() <= MAX_SAVE_ALL_SIZE)
+			orderService.resolveReferences(entities);
+
+		return super.saveAll(entities);
+	}
 	
 	@Override
 	@PostMapping("/update")
-	public ResponseEntity<Order> update(@RequestBody @Validated Order entity) {	
-		return super.update(entity);
+	public ResponseEntity<Order> update(@RequestBody @Validated Order entity,
+			@RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+		orderService.resolveReferences(List.of(entity));
+		return super.update(entity, ifMatch);
 	}
 
 	@Override
@@ -61,7 +139,26 @@ public class OrderController extends BaseController<OrderService, JpaRepository<
 	
 	@DeleteMapping("/delete-order-item-by/id/{id}/{id-item}")
 	public ResponseEntity<Order> deleteById(@PathVariable("id") long id, @PathVariable("id-item") int idItem) {
-		return new ResponseEntity<Order>(orderService.deleteItemById(id, idItem), HttpStatus.OK);
+		try {
+			return new ResponseEntity<Order>(orderService.deleteItemById(id, idItem), HttpStatus.OK);
+		} catch (ServiceException e) {
+			return new ResponseEntity<Order>(HttpStatus.UNPROCESSABLE_ENTITY);
+		}
+	}
+	
+	/**
+	 * Returns the order with missing customer and product data filled from
+	 * customer-service and product-service, without saving it. The servlet thread
+	 * is released while both services are queried concurrently.
+	 */
+	@PostMapping("/enrich")
+	public Mono<ResponseEntity<Order>> enrich(@RequestBody Order entity) {
+		return orderService.enrich(entity).map(order -> new ResponseEntity<Order>(order, HttpStatus.OK));
+	}
+	
+	@PostMapping("/reconcile-totals")
+	public ResponseEntity<Integer> reconcileTotals() {
+		return new ResponseEntity<Integer>(orderTotalReconciler.reconcile(), HttpStatus.OK);
 	}
 	
 }
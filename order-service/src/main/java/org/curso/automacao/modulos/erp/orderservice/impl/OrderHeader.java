@@ -0,0 +1,37 @@
+package org.curso.automacao.modulos.erp.orderservice.impl;
+
+import java.time.LocalDate;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.experimental.SuperBuilder;
+
+/**
+ * Order without its items, read with a single constructor-expression query
+ * for listings.
+ */
+@Getter @Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@SuperBuilder
+public class OrderHeader {
+
+	private long id;
+	private String name;
+	private boolean status;
+	private Long idCustomer;
+	private String customerName;
+
+	@JsonFormat(pattern = "yyyy-MM-dd")
+	private LocalDate date;
+
+	@JsonFormat(pattern = "yyyy-MM-dd")
+	private LocalDate deliveryDate;
+
+	private Float total;
+
+}
@@ -1,9 +1,41 @@
 package org.curso.automacao.modulos.erp.orderservice.impl;
 
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
 
+	String HEADER_SELECT = "SELECT new org.curso.automacao.modulos.erp.orderservice.impl.OrderHeader("
+			+ "o.id, o.name, o.status, o.idCustomer, o.customerName, o.date, o.deliveryDate, o.total) FROM Order o ";
+
+	@Query(value = HEADER_SELECT + "ORDER BY o.id", countQuery = "SELECT COUNT(o) FROM Order o")
+	Page<OrderHeader> findHeaders(Pageable pageable);
+
+	@Query(HEADER_SELECT + "WHERE o.id > :after ORDER BY o.id")
+	List<OrderHeader> findHeadersAfter(@Param("after") long after, Pageable pageable);
+
+	@Query(value = "SELECT o.id FROM tb_orders o "
+			+ "LEFT JOIN (SELECT i.idorder, SUM(i.quantity * i.productprice) AS total FROM tb_orders_items i GROUP BY i.idorder) s "
+			+ "ON s.idorder = o.id "
+			+ "WHERE (o.total IS NULL AND s.total IS NOT NULL) OR (o.total IS NOT NULL AND s.total IS NULL) "
+			+ "OR ABS(o.total - s.total) > :tolerance * GREATEST(1, ABS(s.total))", nativeQuery = true)
+	List<Long> findIdsWithStaleTotal(@Param("tolerance") double tolerance);
+
+	@Modifying
+	@Transactional
+	@Query(value = "UPDATE tb_orders o SET total = "
+			+ "(SELECT SUM(i.quantity * i.productprice) FROM tb_orders_items i WHERE i.idorder = o.id) "
+			+ "WHERE o.id IN (:ids)", nativeQuery = true)
+	int recalculateTotals(@Param("ids") Collection<Long> ids);
+
 }
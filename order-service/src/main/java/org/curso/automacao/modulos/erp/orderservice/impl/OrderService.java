@@ -1,22 +1,34 @@
 package org.curso.automacao.modulos.erp.orderservice.impl;
 
+import java.time.Duration;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import org.apache.commons.lang3.StringUtils;
 import org.curso.automacao.modulos.erp.orderservice.common.BaseService;
-import org.curso.automacao.modulos.erp.orderservice.impl.helpers.ConnectionHelper;
+import org.curso.automacao.modulos.erp.orderservice.common.ReplicaReads;
+import org.curso.automacao.modulos.erp.orderservice.enums.ServiceExceptionOperationType;
+import org.curso.automacao.modulos.erp.orderservice.exceptions.ServiceException;
+import org.curso.automacao.modulos.erp.orderservice.impl.helpers.CatalogCache;
 import org.curso.automacao.modulos.erp.orderservice.impl.helpers.CustomerInfo;
 import org.curso.automacao.modulos.erp.orderservice.impl.helpers.ProductInfo;
-import org.curso.automacao.modulos.erp.orderservice.impl.helpers.RestHelper;
+import org.hibernate.Hibernate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.context.properties.ConfigurationProperties;
-import org.springframework.core.env.Environment;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import reactor.core.publisher.Mono;
 
 @Service
 public class OrderService extends BaseService<JpaRepository<Order, Long>, Order> {
@@ -30,63 +42,182 @@ public class OrderService extends BaseService<JpaRepository<Order, Long>, Order>
 	public OrderRepository orderRepository;
 	
 	@Autowired
-	public RestHelper restHelper;
-	
-	@Autowired
-    private Environment env;
-	
-	@Autowired
-	private ConnectionHelper connectionHelper;
-
-	public Order deleteItemById(long id, int itemId) {
-		
-		Optional<Order> order = repository.findById(id);
-		
-		if(order.isPresent())
-		{
-			Order o = order.get();
-			Optional<OrderItem> oi = o.getItems().stream().filter(orderItem -> orderItem.getId().getId() == itemId).findFirst();
-			
-			if (oi.isPresent())
-				o.getItems().remove(oi.get());
-			
-			repository.save(o);
+	private CatalogCache catalogCache;
+
+	@Value("${service.http.call-timeout-ms:3000}")
+	private long callTimeout;
+
+	@Override
+	public Order save(Order entity) throws ServiceException {
+		entity.recalculateTotal();
+		return super.save(entity);
+	}
+
+	/**
+	 * Fills customer and product names/prices missing on the orders, fetching
+	 * only the ids they reference with one bulk lookup per service for the whole
+	 * list. Orders that come with every name and price are left alone, without
+	 * any remote call. Otherwise it blocks on remote calls, so callers run it
+	 * before the transaction that writes the orders is opened.
+	 */
+	public void resolveReferences(List<Order> orders) {
+
+		List<Order> incomplete = orders.stream().filter(OrderService::hasMissingReferences).toList();
+
+		if (incomplete.isEmpty())
+			return;
+
+		// Each lookup is bounded by its own timeout, this only guards against a stuck token refresh.
+		try {
+			enrich(incomplete).block(Duration.ofMillis(callTimeout * 2));
+		} catch (IllegalStateException e) {
+			LOGGER.warn("Could not resolve references of " + incomplete.size() + " orders", e);
 		}
-		
-		order = repository.findById(id);		
-		return order.get();
 	}
 
-	public List<CustomerInfo> getAllCustomers() {
-		
-		String url = StringUtils.EMPTY;
-	
-		if(connectionHelper.isRunningInsideDocker()) {
-			url = env.getProperty("service.customers.url");
-		} else {
-			url = env.getProperty("localhost.service.customers.url"); 
+	private static boolean hasMissingReferences(Order order) {
+		return isCustomerMissing(order) || itemsOf(order).stream().anyMatch(OrderService::isProductMissing);
+	}
+
+	private static boolean isCustomerMissing(Order order) {
+		return order.getIdCustomer() != null && StringUtils.isBlank(order.getCustomerName());
+	}
+
+	private static boolean isProductMissing(OrderItem item) {
+		return item.getIdProduct() != null && (StringUtils.isBlank(item.getProductName()) || item.getProductPrice() <= 0);
+	}
+
+	/**
+	 * Non-blocking variant of {@link #resolveReferences(List)} for one order.
+	 */
+	public Mono<Order> enrich(Order order) {
+		return enrich(List.of(order)).thenReturn(order);
+	}
+
+	/**
+	 * References held by the catalog cache are resolved without a remote call,
+	 * the rest are requested concurrently, so the result arrives as soon as the
+	 * slower of the two services answers. A lookup that fails or times out is
+	 * served from the last good snapshot, listed in staleReferences, or else
+	 * leaves its fields as they were.
+	 */
+	public Mono<List<Order>> enrich(List<Order> orders) {
+
+		Set<Long> customerIds = orders.stream().filter(OrderService::isCustomerMissing).map(Order::getIdCustomer)
+				.collect(Collectors.toSet());
+
+		Mono<Map<Long, CustomerInfo>> customers = Mono.just(Map.of());
+
+		if (!customerIds.isEmpty())
+			customers = catalogCache.findCustomersByIds(customerIds)
+					.map(list -> list.stream().collect(Collectors.toMap(CustomerInfo::getId, Function.identity(),
+							(first, second) -> first)))
+					.onErrorResume(e -> {
+						LOGGER.warn("Could not resolve customers " + customerIds + " of " + orders.size() + " orders", e);
+						return Mono.just(Map.of());
+					});
+
+		Set<Long> productIds = orders.stream().flatMap(order -> itemsOf(order).stream())
+				.filter(OrderService::isProductMissing).map(OrderItem::getIdProduct).collect(Collectors.toSet());
+
+		Mono<Map<Long, ProductInfo>> products = Mono.just(Map.of());
+
+		if (!productIds.isEmpty())
+			products = catalogCache.findProductsByIds(productIds)
+					.map(list -> list.stream().collect(Collectors.toMap(ProductInfo::getId, Function.identity(),
+							(first, second) -> first)))
+					.onErrorResume(e -> {
+						LOGGER.warn("Could not resolve products " + productIds + " of " + orders.size() + " orders", e);
+						return Mono.just(Map.of());
+					});
+
+		return Mono.zip(customers, products).map(resolved -> {
+			for (Order order : orders)
+				apply(order, resolved.getT1(), resolved.getT2());
+
+			return orders;
+		});
+	}
+
+	private static void apply(Order order, Map<Long, CustomerInfo> customers, Map<Long, ProductInfo> products) {
+
+		Set<String> staleReferences = new TreeSet<>();
+		CustomerInfo customer = order.getIdCustomer() == null ? null : customers.get(order.getIdCustomer());
+
+		if (customer != null && StringUtils.isBlank(order.getCustomerName())) {
+			order.setCustomerName(customer.getName());
+
+			if (customer.getSnapshotTakenAt() != null)
+				staleReferences.add("customer-service");
 		}
-	
-		LOGGER.info("Customer service URL: [" + url + "]");
-	
-		return List.of(restHelper.getRestObject(url + "/api/v1/customers/all", null, true, null,
-				CustomerInfo[].class));
+
+		for (OrderItem item : itemsOf(order)) {
+			ProductInfo product = item.getIdProduct() == null ? null : products.get(item.getIdProduct());
+
+			if (product == null || (StringUtils.isNotBlank(item.getProductName()) && item.getProductPrice() > 0))
+				continue;
+
+			if (StringUtils.isBlank(item.getProductName()))
+				item.setProductName(product.getName());
+
+			if (item.getProductPrice() <= 0)
+				item.setProductPrice(product.getPrice());
+
+			if (product.getSnapshotTakenAt() != null)
+				staleReferences.add("product-service");
+		}
+
+		order.setStaleReferences(staleReferences);
+		order.recalculateTotal();
+	}
+
+	// Items are batch-loaded, so this takes one query for up to 100 orders of the same read.
+	@Override
+	protected void initialize(Order order) {
+		Hibernate.initialize(order.getItems());
 	}
 
-	public List<ProductInfo> getAllProducts() {
-		
-		String url = StringUtils.EMPTY;
-		
-		if(connectionHelper.isRunningInsideDocker()) {
-			url = env.getProperty("service.products.url");
-		} else {
-			url = env.getProperty("localhost.service.products.url"); 
+	private static List<OrderItem> itemsOf(Order order) {
+		return order.getItems() == null ? List.of() : order.getItems();
+	}
+
+	@Transactional(readOnly = true)
+	public Page<OrderHeader> findHeaders(int page, int size) throws ServiceException {
+		try (ReplicaReads scope = ReplicaReads.open()) {
+			return orderRepository.findHeaders(PageRequest.of(page, size));
+		} catch (Exception e) {
+			throw new ServiceException(ServiceExceptionOperationType.OTHER, null,
+					"Error in finding page {" + page + "} of order headers.", e);
 		}
+	}
+
+	@Transactional(readOnly = true)
+	public List<OrderHeader> findHeadersAfter(long afterId, int size) throws ServiceException {
+		try (ReplicaReads scope = ReplicaReads.open()) {
+			return orderRepository.findHeadersAfter(afterId, PageRequest.of(0, size));
+		} catch (Exception e) {
+			throw new ServiceException(ServiceExceptionOperationType.OTHER, null,
+					"Error in finding order headers after id {" + afterId + "}", e);
+		}
+	}
+
+	/**
+	 * Removes one item and saves the order, so the total is recalculated in the
+	 * same transaction that loads the items.
+	 */
+	@Transactional(rollbackFor = ServiceException.class)
+	public Order deleteItemById(long id, int itemId) throws ServiceException {
+
+		Order order = repository.findById(id).orElseThrow(() -> new ServiceException(ServiceExceptionOperationType.DELETE,
+				null, "Order not found with id {" + id + "} to delete item {" + itemId + "}."));
+
+		Optional<OrderItem> item = order.getItems().stream().filter(orderItem -> orderItem.getId().getId() == itemId)
+				.findFirst();
 
-		LOGGER.info("Product service URL: [" + url + "]");
+		if (item.isPresent())
+			order.getItems().remove(item.get());
 
-		return List.of(restHelper.getRestObject(url + "/api/v1/products/all", null, true, null,
-				ProductInfo[].class));
+		return save(order);
 	}
 
 }
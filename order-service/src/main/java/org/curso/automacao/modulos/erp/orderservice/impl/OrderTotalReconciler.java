@@ -0,0 +1,53 @@
+package org.curso.automacao.modulos.erp.orderservice.impl;
+
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Compares the denormalized tb_orders.total column with the sum of the order
+ * items and rewrites the rows that drifted, e.g. items changed outside
+ * OrderService or orders created before the column existed.
+ */
+@Component
+public class OrderTotalReconciler {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(OrderTotalReconciler.class);
+
+	// Relative: the column is mapped to a Float, so large totals only keep about seven significant digits.
+	private static final double TOLERANCE = 1e-6;
+
+	private static final int BATCH_SIZE = 1000;
+
+	@Autowired
+	private OrderRepository orderRepository;
+
+	@Scheduled(initialDelayString = "${order.total.reconcile-initial-delay-ms:30000}", fixedDelayString = "${order.total.reconcile-interval-ms:3600000}")
+	public void scheduledReconcile() {
+		try {
+			reconcile();
+		} catch (Exception e) {
+			LOGGER.warn("Reconciliation of order totals failed", e);
+		}
+	}
+
+	public int reconcile() {
+
+		List<Long> ids = orderRepository.findIdsWithStaleTotal(TOLERANCE);
+
+		int corrected = 0;
+
+		for (int from = 0; from < ids.size(); from += BATCH_SIZE)
+			corrected += orderRepository.recalculateTotals(ids.subList(from, Math.min(from + BATCH_SIZE, ids.size())));
+
+		if (corrected > 0)
+			LOGGER.warn("Corrected total of {} order(s)", corrected);
+
+		return corrected;
+	}
+
+}
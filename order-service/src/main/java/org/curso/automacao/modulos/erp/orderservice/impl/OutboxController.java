@@ -0,0 +1,39 @@
+package org.curso.automacao.modulos.erp.orderservice.impl;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.curso.automacao.modulos.erp.orderservice.impl.helpers.OrderChangeFeed;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/v1/metrics/outbox")
+public class OutboxController {
+
+	@Autowired
+	private OutboxRelay outboxRelay;
+
+	@Autowired
+	private OrderChangeFeed orderChangeFeed;
+
+	@GetMapping
+	public ResponseEntity<Map<String, Object>> getStats() {
+
+		Map<String, Object> stats = new LinkedHashMap<>();
+		stats.put("pending", outboxRelay.getPendingCount());
+		stats.put("lagMs", outboxRelay.getLagMs());
+		stats.put("published", outboxRelay.getPublishedCount());
+		stats.put("lastRelayAt", outboxRelay.getLastRelayAt());
+		stats.put("lastSequence", orderChangeFeed.getLastSequence());
+		stats.put("caughtUpTo", orderChangeFeed.getCaughtUpTo());
+		stats.put("subscribers", orderChangeFeed.getSubscriberCount());
+
+		return new ResponseEntity<Map<String, Object>>(stats, HttpStatus.OK);
+	}
+
+}
@@ -0,0 +1,59 @@
+package org.curso.automacao.modulos.erp.orderservice.impl;
+
+import java.io.Serializable;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+import org.curso.automacao.modulos.erp.orderservice.enums.ChangeOperation;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.experimental.SuperBuilder;
+
+/**
+ * Compact record of a change to an order, written in the same transaction as
+ * the change by {@link ReplicationEventListener} and deleted by
+ * {@link OutboxRelay} once published.
+ */
+@Entity
+@Table(name = OutboxRecord.TABLE_NAME)
+@Getter @Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@SuperBuilder
+public class OutboxRecord implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	public static final String TABLE_NAME = "tb_outbox";
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@Column(name = "id")
+	private Long id;
+
+	@Column(name = "aggregate", nullable = false)
+	private String aggregate;
+
+	@Column(name = "aggregate_id", nullable = false)
+	private long aggregateId;
+
+	@Column(name = "operation", nullable = false)
+	@Enumerated(EnumType.STRING)
+	private ChangeOperation operation;
+
+	@Column(name = "version")
+	private Long version;
+
+	@Column(name = "occurred_at", nullable = false)
+	private long occurredAt;
+}
@@ -0,0 +1,112 @@
+package org.curso.automacao.modulos.erp.orderservice.impl;
+
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+import org.curso.automacao.modulos.erp.orderservice.impl.helpers.ChangeRecord;
+import org.curso.automacao.modulos.erp.orderservice.impl.helpers.OrderChangeFeed;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import lombok.Getter;
+
+/**
+ * Moves committed outbox records to the {@link OrderChangeFeed} in batches,
+ * oldest first, deleting each batch in the transaction that read it. Records
+ * committed late with a lower id are still picked up by the next run, and a
+ * batch whose deletion fails is published again.
+ */
+@Component
+public class OutboxRelay {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(OutboxRelay.class);
+
+	@Autowired
+	private OutboxRepository outboxRepository;
+
+	@Autowired
+	private OrderChangeFeed orderChangeFeed;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Value("${outbox.relay.batch-size:500}")
+	private int batchSize;
+
+	private final LongAdder published = new LongAdder();
+
+	@Getter
+	private volatile long lastRelayAt;
+
+	@Scheduled(initialDelayString = "${outbox.relay.initial-delay-ms:5000}", fixedDelayString = "${outbox.relay.interval-ms:500}")
+	public void scheduledRelay() {
+		try {
+			relay();
+		} catch (Exception e) {
+			LOGGER.warn("Relaying the order outbox failed", e);
+		}
+	}
+
+	public int relay() {
+
+		// Anything committed before this point is visible to the first batch.
+		long startedAt = System.currentTimeMillis();
+		int relayed = 0;
+		int batch;
+
+		do {
+			batch = transactionTemplate.execute(status -> relayBatch());
+			relayed += batch;
+		} while (batch == batchSize);
+
+		orderChangeFeed.markCaughtUp(startedAt);
+		lastRelayAt = System.currentTimeMillis();
+		return relayed;
+	}
+
+	private int relayBatch() {
+
+		List<OutboxRecord> records = outboxRepository.findAllByOrderByIdAsc(PageRequest.of(0, batchSize));
+
+		if (records.isEmpty())
+			return 0;
+
+		orderChangeFeed.publish(records.stream().map(record -> ChangeRecord.builder()
+				.aggregate(record.getAggregate())
+				.aggregateId(record.getAggregateId())
+				.operation(record.getOperation())
+				.version(record.getVersion())
+				.occurredAt(record.getOccurredAt())
+				.build()).collect(Collectors.toList()));
+
+		outboxRepository.deleteAllByIdInBatch(records.stream().map(OutboxRecord::getId).collect(Collectors.toList()));
+		published.add(records.size());
+
+		return records.size();
+	}
+
+	public long getPublishedCount() {
+		return published.sum();
+	}
+
+	public long getPendingCount() {
+		return outboxRepository.count();
+	}
+
+	/**
+	 * Age of the oldest record not yet published, 0 when the outbox is empty.
+	 */
+	public long getLagMs() {
+		return outboxRepository.findFirstByOrderByIdAsc()
+				.map(record -> Math.max(0, System.currentTimeMillis() - record.getOccurredAt()))
+				.orElse(0L);
+	}
+
+}
@@ -0,0 +1,17 @@
+package org.curso.automacao.modulos.erp.orderservice.impl;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface OutboxRepository extends JpaRepository<OutboxRecord, Long> {
+
+	List<OutboxRecord> findAllByOrderByIdAsc(Pageable pageable);
+
+	Optional<OutboxRecord> findFirstByOrderByIdAsc();
+
+}
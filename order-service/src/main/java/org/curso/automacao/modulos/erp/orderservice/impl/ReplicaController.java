@@ -0,0 +1,49 @@
+package org.curso.automacao.modulos.erp.orderservice.impl;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.curso.automacao.modulos.erp.orderservice.config.ReplicaRouting;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/v1/metrics/replica")
+public class ReplicaController {
+
+	@Autowired
+	private ReplicaRouting replicaRouting;
+
+	// Only present with replica.enabled.
+	@Autowired(required = false)
+	private OrderReplicaApplier orderReplicaApplier;
+
+	@GetMapping
+	public ResponseEntity<Map<String, Object>> getStats() {
+
+		Map<String, Object> stats = new LinkedHashMap<>();
+		stats.put("enabled", replicaRouting.isEnabled());
+		stats.put("lagMs", replicaRouting.getLagMs());
+		stats.put("maxLagMs", replicaRouting.getMaxLagMs());
+		stats.put("appliedThrough", replicaRouting.getAppliedThrough());
+		stats.put("replicaReads", replicaRouting.getReplicaReads());
+		stats.put("lagFallbacks", replicaRouting.getLagFallbacks());
+		stats.put("readYourWritesFallbacks", replicaRouting.getReadYourWritesFallbacks());
+		stats.put("writes", replicaRouting.getWrites());
+
+		if (orderReplicaApplier != null) {
+			stats.put("queued", orderReplicaApplier.getQueued());
+			stats.put("appliedOrders", orderReplicaApplier.getAppliedOrders());
+			stats.put("lastApplyMs", orderReplicaApplier.getLastApplyMs());
+			stats.put("snapshots", orderReplicaApplier.getSnapshots());
+			stats.put("failures", orderReplicaApplier.getFailures());
+		}
+
+		return new ResponseEntity<Map<String, Object>>(stats, HttpStatus.OK);
+	}
+
+}
@@ -0,0 +1,139 @@
+package org.curso.automacao.modulos.erp.orderservice.impl;
+
+import java.sql.PreparedStatement;
+import java.sql.Types;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.curso.automacao.modulos.erp.orderservice.enums.ChangeOperation;
+import org.hibernate.action.spi.AfterTransactionCompletionProcess;
+import org.hibernate.action.spi.BeforeTransactionCompletionProcess;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+
+/**
+ * Transactional outbox writer. Inserts, updates and deletes of an order and of
+ * its items are collapsed into one record per order and transaction, written
+ * to tb_outbox on the same connection right before the transaction commits.
+ * The records therefore exist exactly when the change does; OutboxRelay
+ * publishes them after the commit.
+ */
+@SuppressWarnings("serial")
+public class ReplicationEventListener
+		implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+
+	public static final ReplicationEventListener INSTANCE = new ReplicationEventListener();
+
+	private static final String AGGREGATE = Order.class.getSimpleName();
+
+	private static final String INSERT_SQL = "insert into " + OutboxRecord.TABLE_NAME
+			+ " (aggregate, aggregate_id, operation, version, occurred_at) values (?, ?, ?, ?, ?)";
+
+	private final Map<SessionImplementor, Map<Long, OutboxRecord>> pending = new ConcurrentHashMap<>();
+
+	@Override
+	public void onPostInsert(PostInsertEvent event) {
+		record(event.getSession(), event.getEntity(), ChangeOperation.INSERT);
+	}
+
+	@Override
+	public void onPostUpdate(PostUpdateEvent event) {
+		record(event.getSession(), event.getEntity(), ChangeOperation.UPDATE);
+	}
+
+	@Override
+	public void onPostDelete(PostDeleteEvent event) {
+		record(event.getSession(), event.getEntity(), ChangeOperation.DELETE);
+	}
+
+	@Override
+	public boolean requiresPostCommitHandling(EntityPersister persister) {
+		return false;
+	}
+
+	// Still abstract in Hibernate 5.6, only called through requiresPostCommitHandling.
+	@Deprecated
+	@Override
+	public boolean requiresPostCommitHanding(EntityPersister persister) {
+		return requiresPostCommitHandling(persister);
+	}
+
+	private void record(EventSource session, Object entity, ChangeOperation operation) {
+
+		OutboxRecord record;
+
+		if (entity instanceof Order order)
+			record = OutboxRecord.builder().aggregateId(order.getId()).operation(operation).version(order.getVersion())
+					.build();
+		else if (entity instanceof OrderItem item && item.getId() != null && item.getId().getIdOrder() != null)
+			// The order may be an uninitialized proxy here, so its version is left to the order's own record.
+			record = OutboxRecord.builder().aggregateId(item.getId().getIdOrder()).operation(ChangeOperation.UPDATE)
+					.build();
+		else
+			return;
+
+		record.setAggregate(AGGREGATE);
+		record.setOccurredAt(System.currentTimeMillis());
+
+		pending.computeIfAbsent(session, this::track).merge(record.getAggregateId(), record,
+				ReplicationEventListener::collapse);
+	}
+
+	private Map<Long, OutboxRecord> track(SessionImplementor session) {
+
+		session.getActionQueue().registerProcess((BeforeTransactionCompletionProcess) this::write);
+		session.getActionQueue().registerProcess(
+				(AfterTransactionCompletionProcess) (success, completed) -> pending.remove(session));
+
+		return new LinkedHashMap<>();
+	}
+
+	private static OutboxRecord collapse(OutboxRecord previous, OutboxRecord next) {
+
+		if (next.getOperation() == ChangeOperation.UPDATE) {
+			next.setOperation(previous.getOperation());
+
+			if (next.getVersion() == null)
+				next.setVersion(previous.getVersion());
+		}
+
+		return next;
+	}
+
+	private void write(SessionImplementor session) {
+
+		Map<Long, OutboxRecord> records = pending.remove(session);
+
+		if (records == null || records.isEmpty())
+			return;
+
+		session.doWork(connection -> {
+			try (PreparedStatement statement = connection.prepareStatement(INSERT_SQL)) {
+				for (OutboxRecord record : records.values()) {
+					statement.setString(1, record.getAggregate());
+					statement.setLong(2, record.getAggregateId());
+					statement.setString(3, record.getOperation().name());
+
+					if (record.getVersion() == null)
+						statement.setNull(4, Types.BIGINT);
+					else
+						statement.setLong(4, record.getVersion());
+
+					statement.setLong(5, record.getOccurredAt());
+					statement.addBatch();
+				}
+
+				statement.executeBatch();
+			}
+		});
+	}
+
+}
@@ -1,29 +1,29 @@
 package org.curso.automacao.modulos.erp.orderservice.impl;
 
 import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
 
+import org.hibernate.engine.spi.SessionFactoryImplementor;
 import org.hibernate.event.service.spi.EventListenerRegistry;
 import org.hibernate.event.spi.EventType;
-import org.hibernate.internal.SessionFactoryImpl;
-import org.hibernate.jpa.HibernateEntityManagerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-@SuppressWarnings("deprecation")
 @Service
 public class ReplicationEventListenerIntegrator {
 
 	@Autowired
-	private HibernateEntityManagerFactory entityManagerFactory;
+	private EntityManagerFactory entityManagerFactory;
 
 	@PostConstruct
 	public void registerListeners() {
 
-		EventListenerRegistry listenerRegistry = ((SessionFactoryImpl) entityManagerFactory.getSessionFactory())
+		EventListenerRegistry listenerRegistry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
 				.getServiceRegistry().getService(EventListenerRegistry.class);
 
-		//listenerRegistry.appendListeners(EventType.PRE_INSERT, ReplicationInsertEventListener.INSTANCE);
-
+		listenerRegistry.appendListeners(EventType.POST_INSERT, ReplicationEventListener.INSTANCE);
+		listenerRegistry.appendListeners(EventType.POST_UPDATE, ReplicationEventListener.INSTANCE);
+		listenerRegistry.appendListeners(EventType.POST_DELETE, ReplicationEventListener.INSTANCE);
 	}
 
 }
@@ -0,0 +1,86 @@
+package org.curso.automacao.modulos.erp.orderservice.impl;
+
+import java.lang.management.ManagementFactory;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline.TimelineEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Startup step timings recorded by the BufferingApplicationStartup installed in
+ * main(). Steps are nested, so a parent's duration includes its children's.
+ */
+@RestController
+@RequestMapping("/api/v1/metrics/startup")
+public class StartupController {
+
+	@Autowired
+	private ApplicationStartup applicationStartup;
+
+	private volatile long readyAfterMs = -1;
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void onReady() {
+		readyAfterMs = ManagementFactory.getRuntimeMXBean().getUptime();
+	}
+
+	@GetMapping
+	public ResponseEntity<Map<String, Object>> getTimings(@RequestParam(defaultValue = "20") int limit) {
+
+		Map<String, Object> timings = new LinkedHashMap<>();
+		timings.put("jvmUptimeAtReadyMs", readyAfterMs);
+
+		if (!(applicationStartup instanceof BufferingApplicationStartup))
+			return new ResponseEntity<Map<String, Object>>(timings, HttpStatus.OK);
+
+		StartupTimeline timeline = ((BufferingApplicationStartup) applicationStartup).getBufferedTimeline();
+		List<TimelineEvent> events = timeline.getEvents();
+
+		timings.put("startTime", timeline.getStartTime());
+		timings.put("recordedSteps", events.size());
+
+		timings.put("slowestSteps", events.stream()
+				.sorted(Comparator.comparing(TimelineEvent::getDuration).reversed())
+				.limit(Math.max(1, limit))
+				.map(this::describe)
+				.toList());
+
+		timings.put("totalMsByStep", events.stream()
+				.collect(Collectors.groupingBy(event -> event.getStartupStep().getName(),
+						Collectors.summingLong(event -> event.getDuration().toMillis())))
+				.entrySet().stream()
+				.sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+				.collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue, (a, b) -> a, LinkedHashMap::new)));
+
+		return new ResponseEntity<Map<String, Object>>(timings, HttpStatus.OK);
+	}
+
+	private Map<String, Object> describe(TimelineEvent event) {
+
+		Map<String, String> tags = new LinkedHashMap<>();
+		event.getStartupStep().getTags().forEach(tag -> tags.put(tag.getKey(), tag.getValue()));
+
+		Map<String, Object> step = new LinkedHashMap<>();
+		step.put("name", event.getStartupStep().getName());
+		step.put("durationMs", event.getDuration().toMillis());
+		step.put("tags", tags);
+
+		return step;
+	}
+
+}
@@ -0,0 +1,119 @@
+package org.curso.automacao.modulos.erp.orderservice.impl;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.curso.automacao.modulos.erp.orderservice.config.SpanRecorder;
+import org.curso.automacao.modulos.erp.orderservice.impl.helpers.CatalogClient;
+import org.curso.automacao.modulos.erp.orderservice.impl.helpers.ConnectionHelper;
+import org.curso.automacao.modulos.erp.orderservice.impl.helpers.RestHelper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Recent traces and the latency breakdown of a single trace. The breakdown
+ * merges in the spans user-service, customer-service and product-service
+ * recorded for the trace, so every hop of an order request shows up with its
+ * client and server side.
+ */
+@RestController
+@RequestMapping("/api/v1/metrics/traces")
+public class TraceController {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(TraceController.class);
+
+	private static final int MAX_LIMIT = 1000;
+
+	@Autowired
+	private SpanRecorder spanRecorder;
+
+	@Autowired
+	private RestHelper restHelper;
+
+	@Autowired
+	private CatalogClient catalogClient;
+
+	@Autowired
+	private ConnectionHelper connectionHelper;
+
+	@Autowired
+	private Environment env;
+
+	@GetMapping
+	public ResponseEntity<Map<String, Object>> findRecent(@RequestParam(name = "kind", required = false) String kind,
+			@RequestParam(name = "min-duration-ms", defaultValue = "0") long minDurationMs,
+			@RequestParam(name = "limit", defaultValue = "20") int limit) {
+
+		List<Map<String, Object>> traces = new ArrayList<>();
+
+		for (SpanRecorder.Span span : spanRecorder.findEntrySpans(kind == null ? null : kind.toUpperCase(),
+				minDurationMs * 1000, Math.max(1, Math.min(limit, MAX_LIMIT)))) {
+			Map<String, Object> trace = new LinkedHashMap<>();
+			trace.put("traceId", span.getTraceId());
+			trace.put("kind", span.getKind());
+			trace.put("name", span.getName());
+			trace.put("status", span.getStatus());
+			trace.put("startedAt", span.getStartMicros() / 1000);
+			trace.put("durationMs", span.getDurationMicros() / 1000.0);
+			traces.add(trace);
+		}
+
+		Map<String, Object> stats = new LinkedHashMap<>();
+		stats.put("service", spanRecorder.getServiceName());
+		stats.put("bufferSize", spanRecorder.getBufferSize());
+		stats.put("spansRecorded", spanRecorder.getRecorded());
+		stats.put("traces", traces);
+
+		return new ResponseEntity<Map<String, Object>>(stats, HttpStatus.OK);
+	}
+
+	@GetMapping("/{traceId}")
+	public ResponseEntity<Map<String, Object>> findTrace(@PathVariable String traceId,
+			@RequestParam(name = "remote", defaultValue = "true") boolean remote) {
+
+		List<SpanRecorder.Span> spans = spanRecorder.findTrace(traceId);
+		List<String> unavailable = new ArrayList<>();
+
+		if (remote) {
+			String usersUrl = connectionHelper.isRunningInsideDocker() ? env.getProperty("service.users.url")
+					: env.getProperty("localhost.service.users.url");
+
+			for (String url : List.of(usersUrl, catalogClient.getCustomersUrl(), catalogClient.getProductsUrl()))
+				try {
+					spans.addAll(List.of(restHelper.getRestObject(url + "/api/v1/metrics/traces/" + traceId + "/spans",
+							null, true, null, SpanRecorder.Span[].class)));
+				} catch (RuntimeException e) {
+					LOGGER.warn("Could not read the spans of trace [" + traceId + "] from [" + url + "]: "
+							+ e.getMessage());
+					unavailable.add(url);
+				}
+		}
+
+		if (spans.isEmpty())
+			return new ResponseEntity<Map<String, Object>>(HttpStatus.NOT_FOUND);
+
+		Map<String, Object> breakdown = SpanRecorder.breakdown(traceId, spans);
+
+		if (remote)
+			breakdown.put("unavailable", unavailable);
+
+		return new ResponseEntity<Map<String, Object>>(breakdown, HttpStatus.OK);
+	}
+
+	@GetMapping("/{traceId}/spans")
+	public ResponseEntity<List<SpanRecorder.Span>> findSpans(@PathVariable String traceId) {
+		return new ResponseEntity<List<SpanRecorder.Span>>(spanRecorder.findTrace(traceId), HttpStatus.OK);
+	}
+
+}
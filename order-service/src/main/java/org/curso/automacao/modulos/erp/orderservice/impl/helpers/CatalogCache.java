@@ -0,0 +1,441 @@
+package org.curso.automacao.modulos.erp.orderservice.impl.helpers;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.RemovalNotification;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * In-process copy of the customers and products order-service works with,
+ * indexed by id and by name. After a full load it is kept current from the
+ * changes-since feeds of customer-service and product-service, so lookups of
+ * cached entries need no remote call; misses are read through and kept.
+ * <p>
+ * When the feed could not be read for longer than
+ * service.catalog.cache.max-staleness-ms, entries are served with
+ * {@code snapshotTakenAt} set. Product stock is not part of the feed and is
+ * never cached.
+ */
+@Component
+public class CatalogCache {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(CatalogCache.class);
+
+	// Must not exceed BaseController.MAX_PAGE_SIZE on the remote services.
+	private static final int SYNC_PAGE_SIZE = 1000;
+
+	@Autowired
+	private CatalogClient catalogClient;
+
+	@Autowired
+	private ReactiveCatalogClient reactiveCatalogClient;
+
+	@Value("${service.catalog.cache.max-entries:100000}")
+	private long maxEntries;
+
+	@Value("${service.catalog.cache.sync-interval-ms:2000}")
+	private long syncInterval;
+
+	@Value("${service.catalog.cache.max-staleness-ms:30000}")
+	private long maxStaleness;
+
+	private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+		Thread thread = new Thread(runnable, "catalog-cache-sync");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	private Catalog<CustomerInfo> customers;
+
+	private Catalog<ProductInfo> products;
+
+	@PostConstruct
+	public void init() {
+		customers = new CustomerCatalog();
+		products = new ProductCatalog();
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void start() {
+		scheduler.scheduleWithFixedDelay(() -> {
+			customers.sync();
+			products.sync();
+		}, 0, syncInterval, TimeUnit.MILLISECONDS);
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		scheduler.shutdownNow();
+	}
+
+	public Mono<List<CustomerInfo>> findCustomersByIds(Collection<Long> ids) {
+		return customers.findByIds(ids);
+	}
+
+	public Mono<List<ProductInfo>> findProductsByIds(Collection<Long> ids) {
+		return products.findByIds(ids);
+	}
+
+	public Optional<CustomerInfo> findCustomerByName(String name) {
+		return customers.findByName(name);
+	}
+
+	public Optional<ProductInfo> findProductByName(String name) {
+		return products.findByName(name);
+	}
+
+	public Map<String, CatalogCacheStats> getStats() {
+
+		Map<String, CatalogCacheStats> stats = new LinkedHashMap<>();
+		stats.put("customers", customers.getStats());
+		stats.put("products", products.getStats());
+
+		return stats;
+	}
+
+	private abstract class Catalog<X> {
+
+		private final String name;
+
+		private final Cache<Long, X> entries = CacheBuilder.newBuilder()
+				.maximumSize(maxEntries)
+				.recordStats()
+				.removalListener((RemovalNotification<Long, X> removal) -> {
+					if (removal.wasEvicted())
+						unindex(removal.getKey(), removal.getValue());
+				})
+				.build();
+
+		private final Map<String, Long> idsByName = new ConcurrentHashMap<>();
+
+		private final AtomicLong syncs = new AtomicLong();
+
+		private final AtomicLong syncFailures = new AtomicLong();
+
+		// Only the sync thread writes these.
+		private volatile long version;
+		private volatile boolean loaded;
+		private volatile boolean failing;
+		private volatile Instant freshAsOf = Instant.now();
+		private volatile Instant lastSyncAt;
+		private volatile long lastSyncDurationMs;
+		private volatile int lastSyncChanges;
+
+		private Catalog(String name) {
+			this.name = name;
+		}
+
+		protected abstract long idOf(X entry);
+
+		protected abstract String nameOf(X entry);
+
+		protected abstract Long changeVersionOf(X entry);
+
+		protected abstract boolean isSnapshot(X entry);
+
+		// The copy kept in or served from the cache, marked as taken at snapshotTakenAt when that is set.
+		protected abstract X copy(X entry, Instant snapshotTakenAt);
+
+		protected abstract CatalogChanges<X> findChanges(long version);
+
+		protected abstract Mono<List<X>> findRemote(Collection<Long> ids);
+
+		private Mono<List<X>> findByIds(Collection<Long> ids) {
+
+			Instant staleSince = staleSince();
+			List<X> found = new ArrayList<>(ids.size());
+			List<Long> missing = new ArrayList<>();
+
+			for (Long id : new LinkedHashSet<>(ids)) {
+				X entry = entries.getIfPresent(id);
+
+				if (entry == null)
+					missing.add(id);
+				else
+					found.add(serve(entry, staleSince));
+			}
+
+			if (missing.isEmpty())
+				return Mono.just(found);
+
+			return findRemote(missing).map(fetched -> {
+				List<X> results = new ArrayList<>(found);
+
+				for (X entry : fetched) {
+					if (!isSnapshot(entry))
+						put(copy(entry, null));
+
+					results.add(entry);
+				}
+
+				return results;
+			}).onErrorResume(e -> {
+				if (found.isEmpty())
+					return Mono.error(e);
+
+				LOGGER.warn("Could not read " + missing.size() + " " + name + " through the cache: " + e.getMessage());
+				return Mono.just(found);
+			});
+		}
+
+		private Optional<X> findByName(String entryName) {
+
+			if (entryName == null)
+				return Optional.empty();
+
+			Long id = idsByName.get(nameKey(entryName));
+			X entry = id == null ? null : entries.getIfPresent(id);
+
+			if (entry == null || !entryName.equalsIgnoreCase(nameOf(entry)))
+				return Optional.empty();
+
+			return Optional.of(serve(entry, staleSince()));
+		}
+
+		/**
+		 * Reads the feed from the last applied version until it has nothing more.
+		 * Pages applied before a failure are kept, the next sync resumes after them.
+		 */
+		private void sync() {
+
+			long start = System.currentTimeMillis();
+			Instant startedAt = Instant.now();
+			int changes = 0;
+
+			try {
+				CatalogChanges<X> page;
+
+				do {
+					page = findChanges(version);
+
+					for (X entry : page.getChanged())
+						put(copy(entry, null));
+
+					for (Long id : page.getDeleted())
+						remove(id);
+
+					changes += page.getChanged().size() + page.getDeleted().size();
+					version = page.getVersion();
+				} while (page.isHasMore());
+
+				if (failing)
+					LOGGER.info("The " + name + " cache is in sync again at version " + version);
+
+				loaded = true;
+				failing = false;
+				freshAsOf = startedAt;
+				lastSyncAt = startedAt;
+				lastSyncChanges = changes;
+				lastSyncDurationMs = System.currentTimeMillis() - start;
+				syncs.incrementAndGet();
+			} catch (RuntimeException e) {
+				syncFailures.incrementAndGet();
+
+				if (!failing)
+					LOGGER.warn("Could not sync the " + name + " cache after version " + version + ": " + e.getMessage());
+
+				failing = true;
+			}
+		}
+
+		private CatalogCacheStats getStats() {
+
+			CacheStats stats = entries.stats();
+
+			return CatalogCacheStats.builder()
+					.entries(entries.size())
+					.complete(loaded && stats.evictionCount() == 0)
+					.hits(stats.hitCount())
+					.misses(stats.missCount())
+					.hitRatio(stats.hitRate())
+					.evictions(stats.evictionCount())
+					.version(version)
+					.lastSyncAt(lastSyncAt)
+					.stalenessMs(System.currentTimeMillis() - freshAsOf.toEpochMilli())
+					.lastSyncDurationMs(lastSyncDurationMs)
+					.lastSyncChanges(lastSyncChanges)
+					.syncs(syncs.get())
+					.syncFailures(syncFailures.get())
+					.build();
+		}
+
+		private Instant staleSince() {
+			Instant asOf = freshAsOf;
+			return System.currentTimeMillis() - asOf.toEpochMilli() > maxStaleness ? asOf : null;
+		}
+
+		private X serve(X entry, Instant staleSince) {
+			return staleSince == null ? entry : copy(entry, staleSince);
+		}
+
+		/**
+		 * Keeps whichever of the entry and the cached one has the higher change
+		 * version. A read-through answer or a feed page can be older than what the
+		 * other path has cached in the meantime.
+		 */
+		private void put(X entry) {
+
+			AtomicReference<X> replaced = new AtomicReference<>();
+
+			X kept = entries.asMap().compute(idOf(entry), (id, current) -> {
+				if (current != null && !isNewer(entry, current))
+					return current;
+
+				replaced.set(current);
+				return entry;
+			});
+
+			if (kept != entry)
+				return;
+
+			if (replaced.get() != null)
+				unindex(idOf(replaced.get()), replaced.get());
+
+			index(entry);
+		}
+
+		private boolean isNewer(X entry, X current) {
+
+			Long version = changeVersionOf(entry);
+			Long currentVersion = changeVersionOf(current);
+
+			return version == null || currentVersion == null || version >= currentVersion;
+		}
+
+		private void remove(long id) {
+
+			X previous = entries.asMap().remove(id);
+
+			if (previous != null)
+				unindex(id, previous);
+		}
+
+		private void index(X entry) {
+			if (nameOf(entry) != null)
+				idsByName.put(nameKey(nameOf(entry)), idOf(entry));
+		}
+
+		private void unindex(long id, X entry) {
+			if (nameOf(entry) != null)
+				idsByName.remove(nameKey(nameOf(entry)), id);
+		}
+
+		private String nameKey(String entryName) {
+			return entryName.toLowerCase(Locale.ROOT);
+		}
+	}
+
+	private final class CustomerCatalog extends Catalog<CustomerInfo> {
+
+		private CustomerCatalog() {
+			super("customers");
+		}
+
+		@Override
+		protected long idOf(CustomerInfo entry) {
+			return entry.getId();
+		}
+
+		@Override
+		protected String nameOf(CustomerInfo entry) {
+			return entry.getName();
+		}
+
+		@Override
+		protected Long changeVersionOf(CustomerInfo entry) {
+			return entry.getChangeVersion();
+		}
+
+		@Override
+		protected boolean isSnapshot(CustomerInfo entry) {
+			return entry.getSnapshotTakenAt() != null;
+		}
+
+		@Override
+		protected CustomerInfo copy(CustomerInfo entry, Instant snapshotTakenAt) {
+			return entry.toBuilder().snapshotTakenAt(snapshotTakenAt).build();
+		}
+
+		@Override
+		protected CatalogChanges<CustomerInfo> findChanges(long version) {
+			return catalogClient.findCustomerChanges(version, SYNC_PAGE_SIZE);
+		}
+
+		@Override
+		protected Mono<List<CustomerInfo>> findRemote(Collection<Long> ids) {
+			return reactiveCatalogClient.findCustomersByIds(ids);
+		}
+	}
+
+	private final class ProductCatalog extends Catalog<ProductInfo> {
+
+		private ProductCatalog() {
+			super("products");
+		}
+
+		@Override
+		protected long idOf(ProductInfo entry) {
+			return entry.getId();
+		}
+
+		@Override
+		protected String nameOf(ProductInfo entry) {
+			return entry.getName();
+		}
+
+		@Override
+		protected Long changeVersionOf(ProductInfo entry) {
+			return entry.getChangeVersion();
+		}
+
+		@Override
+		protected boolean isSnapshot(ProductInfo entry) {
+			return entry.getSnapshotTakenAt() != null;
+		}
+
+		@Override
+		protected ProductInfo copy(ProductInfo entry, Instant snapshotTakenAt) {
+			return entry.toBuilder().stock(null).snapshotTakenAt(snapshotTakenAt).build();
+		}
+
+		@Override
+		protected CatalogChanges<ProductInfo> findChanges(long version) {
+			return catalogClient.findProductChanges(version, SYNC_PAGE_SIZE);
+		}
+
+		@Override
+		protected Mono<List<ProductInfo>> findRemote(Collection<Long> ids) {
+			return reactiveCatalogClient.findProductsByIds(ids);
+		}
+	}
+
+}
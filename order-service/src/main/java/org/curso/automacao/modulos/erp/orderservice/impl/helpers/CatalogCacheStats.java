@@ -0,0 +1,30 @@
+package org.curso.automacao.modulos.erp.orderservice.impl.helpers;
+
+import java.time.Instant;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.experimental.SuperBuilder;
+
+@Getter @Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@SuperBuilder
+public class CatalogCacheStats {
+
+	private long entries;
+	private boolean complete;
+	private long hits;
+	private long misses;
+	private double hitRatio;
+	private long evictions;
+	private long version;
+	private Instant lastSyncAt;
+	private long stalenessMs;
+	private long lastSyncDurationMs;
+	private int lastSyncChanges;
+	private long syncs;
+	private long syncFailures;
+}
@@ -0,0 +1,22 @@
+package org.curso.automacao.modulos.erp.orderservice.impl.helpers;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * One page of the changes-since feed of customer-service or product-service.
+ */
+@Getter @Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class CatalogChanges<X> {
+
+	private long version;
+	private boolean hasMore;
+	private List<X> changed;
+	private List<Long> deleted;
+}
@@ -0,0 +1,129 @@
+package org.curso.automacao.modulos.erp.orderservice.impl.helpers;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestClientException;
+
+/**
+ * Resolves customers and products from customer-service and product-service by
+ * id or by bounded pages, so callers never have to download the whole catalog.
+ */
+@Service
+public class CatalogClient {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(CatalogClient.class);
+
+	public static final int SAMPLE_SIZE = 100;
+
+	// Must not exceed BaseController.MAX_PAGE_SIZE on the remote services.
+	static final int MAX_IDS_PER_REQUEST = 1000;
+
+	@Autowired
+	private RestHelper restHelper;
+
+	@Autowired
+	private Environment env;
+
+	@Autowired
+	private ConnectionHelper connectionHelper;
+
+	@Autowired
+	private CatalogSnapshot catalogSnapshot;
+
+	public List<CustomerInfo> findCustomersByIds(Collection<Long> ids) {
+		try {
+			List<CustomerInfo> customers = findByIds(getCustomersUrl() + "/api/v1/customers/find-by/ids", ids,
+					CustomerInfo[].class);
+			catalogSnapshot.rememberCustomers(customers);
+			return customers;
+		} catch (RestClientException e) {
+			return fallback(catalogSnapshot.findCustomers(ids), "customers", e);
+		}
+	}
+
+	public List<ProductInfo> findProductsByIds(Collection<Long> ids) {
+		try {
+			List<ProductInfo> products = findByIds(getProductsUrl() + "/api/v1/products/find-by/ids", ids,
+					ProductInfo[].class);
+			catalogSnapshot.rememberProducts(products);
+			return products;
+		} catch (RestClientException e) {
+			return fallback(catalogSnapshot.findProducts(ids), "products", e);
+		}
+	}
+
+	public List<CustomerInfo> findCustomersPage(int page, int size) {
+		List<CustomerInfo> customers = List.of(restHelper.getRestObject(
+				getCustomersUrl() + "/api/v1/customers/all?page=" + page + "&size=" + size, null, true, null,
+				CustomerInfo[].class));
+		catalogSnapshot.rememberCustomers(customers);
+		return customers;
+	}
+
+	public List<ProductInfo> findProductsPage(int page, int size) {
+		List<ProductInfo> products = List.of(restHelper.getRestObject(
+				getProductsUrl() + "/api/v1/products/all?page=" + page + "&size=" + size, null, true, null,
+				ProductInfo[].class));
+		catalogSnapshot.rememberProducts(products);
+		return products;
+	}
+
+	public CustomerChanges findCustomerChanges(long version, int limit) {
+		return restHelper.getRestObject(getCustomersUrl() + "/api/v1/customers/changes-since?version=" + version
+				+ "&limit=" + limit, null, true, null, CustomerChanges.class);
+	}
+
+	public ProductChanges findProductChanges(long version, int limit) {
+		return restHelper.getRestObject(getProductsUrl() + "/api/v1/products/changes-since?version=" + version
+				+ "&limit=" + limit, null, true, null, ProductChanges.class);
+	}
+
+	/**
+	 * Serves what the snapshot has for the requested ids, or rethrows when it has
+	 * none of them.
+	 */
+	private <X> List<X> fallback(List<X> snapshot, String what, RestClientException e) {
+
+		if (snapshot.isEmpty())
+			throw e;
+
+		LOGGER.warn("Serving " + snapshot.size() + " " + what + " from the last good snapshot: " + e.getMessage());
+		return snapshot;
+	}
+
+	public String getCustomersUrl() {
+		return connectionHelper.isRunningInsideDocker() ? env.getProperty("service.customers.url")
+				: env.getProperty("localhost.service.customers.url");
+	}
+
+	public String getProductsUrl() {
+		return connectionHelper.isRunningInsideDocker() ? env.getProperty("service.products.url")
+				: env.getProperty("localhost.service.products.url");
+	}
+
+	private <X> List<X> findByIds(String url, Collection<Long> ids, Class<X[]> clazzOut) {
+
+		List<Long> distinctIds = new ArrayList<>(new LinkedHashSet<>(ids));
+		List<X> results = new ArrayList<>(distinctIds.size());
+
+		for (int from = 0; from < distinctIds.size(); from += MAX_IDS_PER_REQUEST) {
+			String chunk = distinctIds.subList(from, Math.min(from + MAX_IDS_PER_REQUEST, distinctIds.size()))
+					.stream().map(String::valueOf).collect(Collectors.joining(","));
+
+			LOGGER.debug("Resolving ids [{}] from [{}]", chunk, url);
+
+			results.addAll(List.of(restHelper.getRestObject(url + "?ids=" + chunk, null, true, null, clazzOut)));
+		}
+
+		return results;
+	}
+}
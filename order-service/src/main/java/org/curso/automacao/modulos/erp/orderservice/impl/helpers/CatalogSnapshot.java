@@ -0,0 +1,56 @@
+package org.curso.automacao.modulos.erp.orderservice.impl.helpers;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+/**
+ * Last good copy of the customers and products order-service has fetched,
+ * served when customer-service or product-service cannot answer. Entries are
+ * marked with {@code snapshotTakenAt} so callers can tell they may be stale.
+ */
+@Component
+public class CatalogSnapshot {
+
+	@Value("${service.catalog.snapshot-size:10000}")
+	private long maximumSize;
+
+	private Cache<Long, CustomerInfo> customers;
+
+	private Cache<Long, ProductInfo> products;
+
+	@PostConstruct
+	public void init() {
+		customers = CacheBuilder.newBuilder().maximumSize(maximumSize).build();
+		products = CacheBuilder.newBuilder().maximumSize(maximumSize).build();
+	}
+
+	public void rememberCustomers(Collection<CustomerInfo> fresh) {
+		Instant now = Instant.now();
+		fresh.forEach(customer -> customers.put(customer.getId(), customer.toBuilder().snapshotTakenAt(now).build()));
+	}
+
+	public void rememberProducts(Collection<ProductInfo> fresh) {
+		Instant now = Instant.now();
+		fresh.forEach(product -> products.put(product.getId(), product.toBuilder().snapshotTakenAt(now).build()));
+	}
+
+	public List<CustomerInfo> findCustomers(Collection<Long> ids) {
+		return ids.stream().map(customers::getIfPresent).filter(Objects::nonNull).collect(Collectors.toList());
+	}
+
+	public List<ProductInfo> findProducts(Collection<Long> ids) {
+		return ids.stream().map(products::getIfPresent).filter(Objects::nonNull).collect(Collectors.toList());
+	}
+
+}
@@ -0,0 +1,23 @@
+package org.curso.automacao.modulos.erp.orderservice.impl.helpers;
+
+import org.curso.automacao.modulos.erp.orderservice.enums.ChangeOperation;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.experimental.SuperBuilder;
+
+@Getter @Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@SuperBuilder
+public class ChangeRecord {
+
+	private long sequence;
+	private String aggregate;
+	private long aggregateId;
+	private ChangeOperation operation;
+	private Long version;
+	private long occurredAt;
+}
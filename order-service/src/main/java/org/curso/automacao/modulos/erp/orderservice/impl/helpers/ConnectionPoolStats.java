@@ -0,0 +1,30 @@
+package org.curso.automacao.modulos.erp.orderservice.impl.helpers;
+
+import org.apache.http.pool.PoolStats;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.experimental.SuperBuilder;
+
+@Getter @Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@SuperBuilder
+public class ConnectionPoolStats {
+
+	private int leased;
+	private int pending;
+	private int available;
+	private int max;
+
+	public static ConnectionPoolStats of(PoolStats stats) {
+		return ConnectionPoolStats.builder()
+				.leased(stats.getLeased())
+				.pending(stats.getPending())
+				.available(stats.getAvailable())
+				.max(stats.getMax())
+				.build();
+	}
+}
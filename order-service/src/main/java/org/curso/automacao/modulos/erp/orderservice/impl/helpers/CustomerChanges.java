@@ -0,0 +1,8 @@
+package org.curso.automacao.modulos.erp.orderservice.impl.helpers;
+
+import lombok.NoArgsConstructor;
+
+@NoArgsConstructor
+public class CustomerChanges extends CatalogChanges<CustomerInfo> {
+
+}
@@ -1,5 +1,9 @@
 package org.curso.automacao.modulos.erp.orderservice.impl.helpers;
 
+import java.time.Instant;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
@@ -10,12 +14,15 @@ import lombok.experimental.SuperBuilder;
 @Getter @Setter
 @AllArgsConstructor
 @NoArgsConstructor
-@SuperBuilder
+@SuperBuilder(toBuilder = true)
 public class CustomerInfo {
 	
 	private long id;
 	private String name;
+	@Builder.Default
 	private boolean status = true;	
+	// Position of the last change in the owning service's changes-since feed.
+	private Long changeVersion;
 	private float salary;
 	private String address;
 	private String email;
@@ -26,4 +33,7 @@ public class CustomerInfo {
 	private String country;
 	private String zipcode;
 
+	// Set when served from CatalogSnapshot because the owning service could not answer.
+	@JsonInclude(JsonInclude.Include.NON_NULL)
+	private Instant snapshotTakenAt;
 }
@@ -0,0 +1,265 @@
+package org.curso.automacao.modulos.erp.orderservice.impl.helpers;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import org.curso.automacao.modulos.erp.orderservice.exceptions.DependencyUnavailableException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+/**
+ * Bulkhead and circuit breaker for one downstream service. At most
+ * maxConcurrentCalls calls run at once. When the failure rate of the last
+ * windowSize calls reaches the threshold the breaker opens and calls fail fast;
+ * after openDuration a few probe calls decide whether it closes again.
+ * Client errors (4xx) are answers, not failures.
+ */
+public class DependencyGuard {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(DependencyGuard.class);
+
+	private static final long NOT_PERMITTED = -1;
+	private static final long NOT_A_PROBE = 0;
+
+	public enum State {
+		CLOSED, OPEN, HALF_OPEN
+	}
+
+	private final String name;
+	private final int maxConcurrentCalls;
+	private final long maxWaitMs;
+	private final int minimumCalls;
+	private final float failureRateThreshold;
+	private final long openDurationMs;
+	private final int halfOpenProbes;
+
+	private final Semaphore bulkhead;
+
+	private final LongAdder successes = new LongAdder();
+	private final LongAdder failures = new LongAdder();
+	private final LongAdder rejectedByBreaker = new LongAdder();
+	private final LongAdder rejectedByBulkhead = new LongAdder();
+
+	// Outcomes of the last calls made while closed, true meaning failure; guarded by this.
+	private final boolean[] window;
+	private int windowIndex;
+	private int windowCalls;
+	private int windowFailures;
+
+	private State state = State.CLOSED;
+	private long openedAt;
+	private long timesOpened;
+	private long probeEpoch;
+	private int probesStarted;
+	private int probeSuccesses;
+
+	public DependencyGuard(String name, int maxConcurrentCalls, long maxWaitMs, int windowSize, int minimumCalls,
+			float failureRateThreshold, long openDurationMs, int halfOpenProbes) {
+		this.name = name;
+		this.maxConcurrentCalls = maxConcurrentCalls;
+		this.maxWaitMs = maxWaitMs;
+		this.minimumCalls = Math.min(minimumCalls, windowSize);
+		this.failureRateThreshold = failureRateThreshold;
+		this.openDurationMs = openDurationMs;
+		this.halfOpenProbes = halfOpenProbes;
+		this.bulkhead = new Semaphore(maxConcurrentCalls);
+		this.window = new boolean[windowSize];
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public <T> T call(Supplier<T> call) {
+
+		long permit = acquire(maxWaitMs);
+
+		try {
+			T result = call.get();
+			onResult(permit, true);
+			return result;
+		} catch (RuntimeException e) {
+			onResult(permit, !isFailure(e));
+			throw e;
+		} finally {
+			bulkhead.release();
+		}
+	}
+
+	/**
+	 * Reactive variant; the bulkhead never waits here, so it cannot block an
+	 * event loop thread.
+	 */
+	public <T> Mono<T> call(Mono<T> call) {
+
+		return Mono.defer(() -> {
+			long permit = acquire(0);
+
+			return call
+					.doOnSuccess(result -> onResult(permit, true))
+					.doOnError(e -> onResult(permit, !isFailure(e)))
+					.doFinally(signal -> {
+						if (signal == SignalType.CANCEL)
+							onCancel(permit);
+
+						bulkhead.release();
+					});
+		});
+	}
+
+	public synchronized DependencyStats getStats() {
+		return DependencyStats.builder()
+				.state(currentState().name())
+				.maxConcurrentCalls(maxConcurrentCalls)
+				.inFlight(maxConcurrentCalls - bulkhead.availablePermits())
+				.successes(successes.sum())
+				.failures(failures.sum())
+				.failureRate(windowCalls == 0 ? 0 : (float) windowFailures / windowCalls)
+				.rejectedByBreaker(rejectedByBreaker.sum())
+				.rejectedByBulkhead(rejectedByBulkhead.sum())
+				.timesOpened(timesOpened)
+				.build();
+	}
+
+	private long acquire(long waitMs) {
+
+		boolean acquired;
+
+		try {
+			acquired = bulkhead.tryAcquire(waitMs, TimeUnit.MILLISECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			acquired = false;
+		}
+
+		if (!acquired) {
+			rejectedByBulkhead.increment();
+			throw new DependencyUnavailableException(name, maxConcurrentCalls + " calls already in flight");
+		}
+
+		long permit = permitByBreaker();
+
+		if (permit == NOT_PERMITTED) {
+			bulkhead.release();
+			rejectedByBreaker.increment();
+			throw new DependencyUnavailableException(name, "circuit breaker is " + getState());
+		}
+
+		return permit;
+	}
+
+	private synchronized State getState() {
+		return state;
+	}
+
+	private synchronized State currentState() {
+		return state == State.OPEN && System.currentTimeMillis() - openedAt >= openDurationMs ? State.HALF_OPEN
+				: state;
+	}
+
+	private synchronized long permitByBreaker() {
+
+		if (currentState() == State.HALF_OPEN && state == State.OPEN) {
+			state = State.HALF_OPEN;
+			probeEpoch++;
+			probesStarted = 0;
+			probeSuccesses = 0;
+
+			LOGGER.info("Circuit breaker of [" + name + "] is half-open, probing with " + halfOpenProbes + " calls");
+		}
+
+		switch (state) {
+		case CLOSED:
+			return NOT_A_PROBE;
+		case HALF_OPEN:
+			if (probesStarted >= halfOpenProbes)
+				return NOT_PERMITTED;
+
+			probesStarted++;
+			return probeEpoch;
+		default:
+			return NOT_PERMITTED;
+		}
+	}
+
+	private synchronized void onResult(long permit, boolean success) {
+
+		if (success)
+			successes.increment();
+		else
+			failures.increment();
+
+		if (permit == NOT_A_PROBE) {
+			if (state == State.CLOSED)
+				record(!success);
+			return;
+		}
+
+		// A probe from an earlier half-open period finished late.
+		if (state != State.HALF_OPEN || permit != probeEpoch)
+			return;
+
+		if (!success)
+			open();
+		else if (++probeSuccesses >= halfOpenProbes)
+			close();
+	}
+
+	private synchronized void onCancel(long permit) {
+		if (state == State.HALF_OPEN && permit == probeEpoch)
+			probesStarted--;
+	}
+
+	private void record(boolean failure) {
+
+		if (windowCalls == window.length) {
+			if (window[windowIndex])
+				windowFailures--;
+		} else {
+			windowCalls++;
+		}
+
+		window[windowIndex] = failure;
+		windowIndex = (windowIndex + 1) % window.length;
+
+		if (failure)
+			windowFailures++;
+
+		if (windowCalls >= minimumCalls && windowFailures >= failureRateThreshold * windowCalls)
+			open();
+	}
+
+	private void open() {
+		state = State.OPEN;
+		openedAt = System.currentTimeMillis();
+		timesOpened++;
+
+		LOGGER.warn("Circuit breaker of [" + name + "] opened for " + openDurationMs + "ms");
+	}
+
+	private void close() {
+		state = State.CLOSED;
+		windowIndex = 0;
+		windowCalls = 0;
+		windowFailures = 0;
+
+		LOGGER.info("Circuit breaker of [" + name + "] closed");
+	}
+
+	private static boolean isFailure(Throwable e) {
+
+		if (e instanceof HttpClientErrorException)
+			return false;
+
+		return !(e instanceof WebClientResponseException
+				&& ((WebClientResponseException) e).getStatusCode().is4xxClientError());
+	}
+
+}
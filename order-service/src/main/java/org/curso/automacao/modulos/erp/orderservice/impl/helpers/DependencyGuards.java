@@ -0,0 +1,86 @@
+package org.curso.automacao.modulos.erp.orderservice.impl.helpers;
+
+import java.net.URI;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+/**
+ * One {@link DependencyGuard} per downstream service, looked up by the host and
+ * port of the URL being called.
+ */
+@Component
+public class DependencyGuards {
+
+	private static final Map<String, String> SERVICE_URL_PROPERTIES = Map.of(
+			"user-service", "service.users.url",
+			"customer-service", "service.customers.url",
+			"product-service", "service.products.url");
+
+	@Autowired
+	private Environment env;
+
+	@Value("${service.resilience.max-concurrent-calls:20}")
+	private int maxConcurrentCalls;
+
+	@Value("${service.resilience.max-wait-ms:100}")
+	private long maxWaitMs;
+
+	@Value("${service.resilience.window-size:20}")
+	private int windowSize;
+
+	@Value("${service.resilience.minimum-calls:10}")
+	private int minimumCalls;
+
+	@Value("${service.resilience.failure-rate-threshold:0.5}")
+	private float failureRateThreshold;
+
+	@Value("${service.resilience.open-duration-ms:10000}")
+	private long openDurationMs;
+
+	@Value("${service.resilience.half-open-probes:3}")
+	private int halfOpenProbes;
+
+	private final Map<String, String> namesByAuthority = new ConcurrentHashMap<>();
+
+	private final Map<String, DependencyGuard> guards = new ConcurrentHashMap<>();
+
+	@PostConstruct
+	public void init() {
+		SERVICE_URL_PROPERTIES.forEach((name, property) -> {
+			register(name, env.getProperty(property));
+			register(name, env.getProperty("localhost." + property));
+		});
+	}
+
+	public DependencyGuard forUrl(String url) {
+		String authority = URI.create(url).getAuthority();
+		return guards.computeIfAbsent(namesByAuthority.getOrDefault(authority, authority), this::create);
+	}
+
+	public Map<String, DependencyStats> getStats() {
+
+		Map<String, DependencyStats> stats = new TreeMap<>();
+		guards.forEach((name, guard) -> stats.put(name, guard.getStats()));
+
+		return stats;
+	}
+
+	private void register(String name, String url) {
+		if (url != null)
+			namesByAuthority.put(URI.create(url).getAuthority(), name);
+	}
+
+	private DependencyGuard create(String name) {
+		return new DependencyGuard(name, maxConcurrentCalls, maxWaitMs, windowSize, minimumCalls,
+				failureRateThreshold, openDurationMs, halfOpenProbes);
+	}
+
+}
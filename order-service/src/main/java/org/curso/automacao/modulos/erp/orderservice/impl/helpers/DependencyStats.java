@@ -0,0 +1,24 @@
+package org.curso.automacao.modulos.erp.orderservice.impl.helpers;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.experimental.SuperBuilder;
+
+@Getter @Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@SuperBuilder
+public class DependencyStats {
+
+	private String state;
+	private int maxConcurrentCalls;
+	private int inFlight;
+	private long successes;
+	private long failures;
+	private float failureRate;
+	private long rejectedByBreaker;
+	private long rejectedByBulkhead;
+	private long timesOpened;
+}
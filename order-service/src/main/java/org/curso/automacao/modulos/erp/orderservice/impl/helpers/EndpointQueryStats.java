@@ -0,0 +1,23 @@
+package org.curso.automacao.modulos.erp.orderservice.impl.helpers;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.experimental.SuperBuilder;
+
+@Getter @Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@SuperBuilder
+public class EndpointQueryStats {
+
+	private long requests;
+	private long queries;
+	private long maxQueries;
+	private long lastQueries;
+
+	public double getAverageQueries() {
+		return requests == 0 ? 0 : (double) queries / requests;
+	}
+}
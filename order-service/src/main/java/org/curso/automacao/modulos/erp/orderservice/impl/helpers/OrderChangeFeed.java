@@ -0,0 +1,123 @@
+package org.curso.automacao.modulos.erp.orderservice.impl.helpers;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * In-process feed of the order changes relayed from the outbox. Subscribers
+ * receive every batch, at least once and in publication order; the most recent
+ * records are also kept so HTTP consumers can poll them by sequence.
+ * Sequences restart with the service.
+ */
+@Component
+public class OrderChangeFeed {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(OrderChangeFeed.class);
+
+	@Value("${outbox.feed.retained:10000}")
+	private int retained;
+
+	private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+
+	private final Deque<ChangeRecord> recent = new ArrayDeque<>();
+
+	private long lastSequence;
+
+	private volatile long caughtUpTo;
+
+	public interface Subscriber {
+
+		void onChanges(List<ChangeRecord> records);
+
+		/**
+		 * Every change committed before {@code time} has been delivered.
+		 */
+		default void onCaughtUp(long time) {
+		}
+	}
+
+	public void subscribe(Subscriber subscriber) {
+		subscribers.add(subscriber);
+	}
+
+	/**
+	 * Numbers the records and hands them to every subscriber. A failing
+	 * subscriber is logged and does not stop the others.
+	 */
+	public void publish(List<ChangeRecord> records) {
+
+		synchronized (this) {
+			for (ChangeRecord record : records) {
+				record.setSequence(++lastSequence);
+				recent.addLast(record);
+
+				if (recent.size() > retained)
+					recent.removeFirst();
+			}
+		}
+
+		for (Subscriber subscriber : subscribers)
+			try {
+				subscriber.onChanges(records);
+			} catch (RuntimeException e) {
+				LOGGER.warn("Subscriber of the order change feed failed on " + records.size() + " records", e);
+			}
+	}
+
+	/**
+	 * Called by the relay once every record committed before {@code time} has
+	 * been published.
+	 */
+	public void markCaughtUp(long time) {
+
+		caughtUpTo = time;
+
+		for (Subscriber subscriber : subscribers)
+			try {
+				subscriber.onCaughtUp(time);
+			} catch (RuntimeException e) {
+				LOGGER.warn("Subscriber of the order change feed failed on catch-up mark " + time, e);
+			}
+	}
+
+	public long getCaughtUpTo() {
+		return caughtUpTo;
+	}
+
+	/**
+	 * Retained records after {@code sequence}. A sequence ahead of the feed, as
+	 * left by a restart, starts over from the oldest retained record.
+	 */
+	public synchronized List<ChangeRecord> findAfter(long sequence, int limit) {
+
+		long after = sequence > lastSequence ? 0 : sequence;
+		List<ChangeRecord> results = new ArrayList<>(Math.min(limit, recent.size()));
+
+		for (ChangeRecord record : recent) {
+			if (results.size() == limit)
+				break;
+
+			if (record.getSequence() > after)
+				results.add(record);
+		}
+
+		return results;
+	}
+
+	public synchronized long getLastSequence() {
+		return lastSequence;
+	}
+
+	public int getSubscriberCount() {
+		return subscribers.size();
+	}
+
+}
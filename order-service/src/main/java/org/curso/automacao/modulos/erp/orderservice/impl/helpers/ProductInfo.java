@@ -1,12 +1,17 @@
 package org.curso.automacao.modulos.erp.orderservice.impl.helpers;
 
+import java.time.Instant;
+
 import javax.persistence.CascadeType;
 import javax.persistence.Column;
 import javax.persistence.OneToOne;
 import javax.validation.constraints.Min;
 import javax.validation.constraints.NotBlank;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import lombok.AllArgsConstructor;
+import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
@@ -15,14 +20,21 @@ import lombok.experimental.SuperBuilder;
 @Getter @Setter
 @AllArgsConstructor
 @NoArgsConstructor
-@SuperBuilder
+@SuperBuilder(toBuilder = true)
 public class ProductInfo {
 
 	private long id;
 	private String name;
+	@Builder.Default
 	private boolean status = true;	
+	// Position of the last change in the owning service's changes-since feed.
+	private Long changeVersion;
 	private float price;
 	private String supplier;
 	private String manufacturer;
 	private ProductStockInfo stock;
+
+	// Set when served from CatalogSnapshot because the owning service could not answer.
+	@JsonInclude(JsonInclude.Include.NON_NULL)
+	private Instant snapshotTakenAt;
 }
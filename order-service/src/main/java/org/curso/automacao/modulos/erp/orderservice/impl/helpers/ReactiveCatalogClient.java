@@ -0,0 +1,136 @@
+package org.curso.automacao.modulos.erp.orderservice.impl.helpers;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.curso.automacao.modulos.erp.orderservice.config.TraceContext;
+import org.curso.automacao.modulos.erp.orderservice.security.AuditLog;
+import org.curso.automacao.modulos.erp.orderservice.security.helpers.ServiceTokenManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.context.Context;
+
+/**
+ * Non-blocking counterpart of {@link CatalogClient}. Every request, including
+ * each chunk of a large id list, is issued concurrently and bounded by
+ * service.http.call-timeout-ms, so a lookup takes as long as its slowest call.
+ */
+@Service
+public class ReactiveCatalogClient {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(ReactiveCatalogClient.class);
+
+	@Autowired
+	private WebClient webClient;
+
+	@Autowired
+	private CatalogClient catalogClient;
+
+	@Autowired
+	private CatalogSnapshot catalogSnapshot;
+
+	@Autowired
+	private DependencyGuards dependencyGuards;
+
+	@Autowired
+	private ServiceTokenManager tokenManager;
+
+	@Autowired
+	private AuditLog auditLog;
+
+	@Value("${service.http.call-timeout-ms:3000}")
+	private long callTimeout;
+
+	public Mono<List<CustomerInfo>> findCustomersByIds(Collection<Long> ids) {
+		return findByIds(catalogClient.getCustomersUrl() + "/api/v1/customers/find-by/ids", ids,
+				CustomerInfo[].class)
+				.doOnNext(catalogSnapshot::rememberCustomers)
+				.onErrorResume(e -> fallback(catalogSnapshot.findCustomers(ids), "customers", e))
+				.contextWrite(withTrace(TraceContext.current()));
+	}
+
+	public Mono<List<ProductInfo>> findProductsByIds(Collection<Long> ids) {
+		return findByIds(catalogClient.getProductsUrl() + "/api/v1/products/find-by/ids", ids, ProductInfo[].class)
+				.doOnNext(catalogSnapshot::rememberProducts)
+				.onErrorResume(e -> fallback(catalogSnapshot.findProducts(ids), "products", e))
+				.contextWrite(withTrace(TraceContext.current()));
+	}
+
+	// The calls run on event loop threads, so the caller's trace travels in the Reactor context.
+	private static Function<Context, Context> withTrace(TraceContext trace) {
+		return context -> trace == null ? context : context.put(TraceContext.class, trace);
+	}
+
+	private <X> Mono<List<X>> fallback(List<X> snapshot, String what, Throwable e) {
+
+		if (snapshot.isEmpty())
+			return Mono.error(e);
+
+		LOGGER.warn("Serving " + snapshot.size() + " " + what + " from the last good snapshot: " + e.getMessage());
+		return Mono.just(snapshot);
+	}
+
+	private <X> Mono<List<X>> findByIds(String url, Collection<Long> ids, Class<X[]> clazzOut) {
+
+		List<Long> distinctIds = new ArrayList<>(new LinkedHashSet<>(ids));
+		List<String> chunks = new ArrayList<>();
+
+		for (int from = 0; from < distinctIds.size(); from += CatalogClient.MAX_IDS_PER_REQUEST)
+			chunks.add(distinctIds.subList(from, Math.min(from + CatalogClient.MAX_IDS_PER_REQUEST, distinctIds.size()))
+					.stream().map(String::valueOf).collect(Collectors.joining(",")));
+
+		return Flux.fromIterable(chunks)
+				.flatMap(chunk -> get(url + "?ids=" + chunk, clazzOut))
+				.flatMapIterable(List::of)
+				.collectList();
+	}
+
+	private <X> Mono<X> get(String url, Class<X> clazzOut) {
+
+		// Logging in is a blocking call, so it never runs on an event loop thread.
+		return Mono.fromCallable(tokenManager::getToken)
+				.subscribeOn(Schedulers.boundedElastic())
+				.flatMap(token -> exchange(url, token, clazzOut)
+						.onErrorResume(WebClientResponseException.Unauthorized.class, e -> {
+							LOGGER.warn("Request to [" + url + "] was rejected with 401, refreshing the service token");
+
+							return Mono.fromCallable(() -> tokenManager.refreshAfterUnauthorized(token))
+									.subscribeOn(Schedulers.boundedElastic())
+									.flatMap(refreshed -> exchange(url, refreshed, clazzOut));
+						}));
+	}
+
+	private <X> Mono<X> exchange(String url, String token, Class<X> clazzOut) {
+
+		return Mono.defer(() -> {
+			long start = System.currentTimeMillis();
+
+			return dependencyGuards.forUrl(url).call(webClient.get()
+					.uri(url)
+					.header(HttpHeaders.AUTHORIZATION, token)
+					.retrieve()
+					.bodyToMono(clazzOut)
+					.timeout(Duration.ofMillis(callTimeout)))
+					.doOnSuccess(result -> auditLog.record(AuditLog.REST_CALL, true, "GET", url,
+							System.currentTimeMillis() - start))
+					.doOnError(e -> auditLog.record(AuditLog.REST_CALL, false, "GET", url,
+							System.currentTimeMillis() - start));
+		});
+	}
+
+}
@@ -1,70 +1,37 @@
 package org.curso.automacao.modulos.erp.orderservice.impl.helpers;
 
-import org.apache.commons.lang3.StringUtils;
-import org.curso.automacao.modulos.erp.orderservice.security.helpers.AuthenticationToken;
-import org.curso.automacao.modulos.erp.orderservice.security.helpers.LoginRequest;
+import org.curso.automacao.modulos.erp.orderservice.security.AuditLog;
+import org.curso.automacao.modulos.erp.orderservice.security.helpers.ServiceTokenManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.env.Environment;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestTemplate;
 
 @Service
 public class RestHelper {
-	
+
 	private static final Logger LOGGER = LoggerFactory.getLogger(RestHelper.class);
-	
+
 	@Autowired
-	private Environment env;
-	
+	private RestTemplate restTemplate;
+
 	@Autowired
-	private ConnectionHelper connectionHelper;
-	
-	@Value("${service.user.name}")
-	private String authUserName;
+	private ServiceTokenManager tokenManager;
 
-	@Value("${service.user.pass}")
-	private String authUserPass;
+	@Autowired
+	private AuditLog auditLog;
 
-	private String authToken;
+	@Autowired
+	private DependencyGuards dependencyGuards;
 
 	public boolean isAuthenticated() {
-		return authToken != null && !authToken.isEmpty();
-	}
-
-	private void authenticate() {
-		if (!isAuthenticated()) {
-
-			String url = StringUtils.EMPTY;
-			
-			if(connectionHelper.isRunningInsideDocker()) {
-				url = env.getProperty("service.users.url");
-			} else {
-				url = env.getProperty("localhost.service.users.url"); 
-			}
-			
-			LOGGER.info("User service URL: [" + url + "]");
-
-			LoginRequest loginRequest = new LoginRequest(authUserName, authUserPass);
-			RestTemplate client = new RestTemplate();
-
-			HttpHeaders headers = new HttpHeaders();
-			headers.setContentType(MediaType.APPLICATION_JSON);
-
-			HttpEntity<LoginRequest> request = new HttpEntity<LoginRequest>(loginRequest, headers);
-
-			AuthenticationToken token = client
-					.exchange(url + "/auth", HttpMethod.POST, request, AuthenticationToken.class).getBody();
-
-			if (token != null)
-				authToken = token.token;
-		}
+		return tokenManager.isAuthenticated();
 	}
 
 	public <T, X> X postRestObject(String url, T body, boolean withAutorization, Class<T> clazzIn, Class<X> clazzOut) {
@@ -77,58 +44,60 @@ public class RestHelper {
 
 	private <T, X> X postRestObject(String url, T body, boolean authenticate, boolean withAutorization,
 			Class<T> clazzIn, Class<X> clazzOut) {
+		return exchange(url, HttpMethod.POST, body, authenticate, withAutorization, clazzOut);
+	}
 
-		RestTemplate client = new RestTemplate();
-
-		HttpHeaders headers = new HttpHeaders();
-		headers.setContentType(MediaType.APPLICATION_JSON);
+	private <T, X> X getRestObject(String url, T body, boolean authenticate, boolean withAutorization, Class<T> clazzIn,
+			Class<X> clazzOut) {
+		return exchange(url, HttpMethod.GET, body, authenticate, withAutorization, clazzOut);
+	}
 
-		if (authenticate)
-			authenticate();
+	private <T, X> X exchange(String url, HttpMethod method, T body, boolean authenticate, boolean withAutorization,
+			Class<X> clazzOut) {
 
-		if (withAutorization)
-			headers.add("Authorization", authToken);
+		String token = authenticate || withAutorization ? tokenManager.getToken() : null;
 
-		HttpEntity request;
-		
-		if(body == null)
-			request = new HttpEntity<T>(headers);
-		else
-			request = new HttpEntity<T>(body, headers);
+		try {
+			return exchange(url, method, body, withAutorization ? token : null, clazzOut);
+		} catch (HttpClientErrorException.Unauthorized e) {
+			if (!withAutorization)
+				throw e;
 
-		X result = client.exchange(url, HttpMethod.POST, request, clazzOut).getBody();
-		
-		LOGGER.info(result.toString());
-		
-		return result;
+			// The token was revoked or expired early; log in again once and retry.
+			LOGGER.warn("Request to [" + url + "] was rejected with 401, refreshing the service token");
+			return exchange(url, method, body, tokenManager.refreshAfterUnauthorized(token), clazzOut);
+		}
 	}
 
-	private <T, X> X getRestObject(String url, T body, boolean authenticate, boolean withAutorization, Class<T> clazzIn,
-			Class<X> clazzOut) {
-
-		RestTemplate client = new RestTemplate();
+	private <T, X> X exchange(String url, HttpMethod method, T body, String token, Class<X> clazzOut) {
 
 		HttpHeaders headers = new HttpHeaders();
 		headers.setContentType(MediaType.APPLICATION_JSON);
 
-		if (authenticate)
-			authenticate();
+		if (token != null)
+			headers.add("Authorization", token);
 
-		if (withAutorization)
-			headers.add("Authorization", authToken);
+		HttpEntity<T> request;
 
-		HttpEntity request;
-		
 		if(body == null)
-			request = new HttpEntity(headers);
+			request = new HttpEntity<T>(headers);
 		else
 			request = new HttpEntity<T>(body, headers);
 
-		X result = client.exchange(url, HttpMethod.GET, request, clazzOut).getBody();
-		
-		LOGGER.info(result.toString());
-		
-		return result;
+		long start = System.currentTimeMillis();
+		boolean success = false;
+
+		try {
+			X result = dependencyGuards.forUrl(url)
+					.call(() -> restTemplate.exchange(url, method, request, clazzOut).getBody());
+			success = true;
+
+			LOGGER.debug("Response from [{}]: {}", url, result);
+
+			return result;
+		} finally {
+			auditLog.record(AuditLog.REST_CALL, success, method.name(), url, System.currentTimeMillis() - start);
+		}
 	}
 
 }
@@ -0,0 +1,214 @@
+package org.curso.automacao.modulos.erp.orderservice.security.helpers;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import javax.annotation.PreDestroy;
+
+import org.apache.commons.lang3.StringUtils;
+import org.curso.automacao.modulos.erp.orderservice.impl.helpers.ConnectionHelper;
+import org.curso.automacao.modulos.erp.orderservice.impl.helpers.DependencyGuards;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Holds the token order-service uses to call the other services. The token is
+ * refreshed in the background ahead of its {@code exp} claim, and concurrent
+ * callers that find it missing or rejected share a single login request.
+ */
+@Component
+public class ServiceTokenManager {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(ServiceTokenManager.class);
+
+	private static final long RETRY_DELAY_MS = 5000;
+
+	@Autowired
+	private Environment env;
+
+	@Autowired
+	private ConnectionHelper connectionHelper;
+
+	@Autowired
+	private RestTemplate restTemplate;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private DependencyGuards dependencyGuards;
+
+	@Value("${service.user.name}")
+	private String authUserName;
+
+	@Value("${service.user.pass}")
+	private String authUserPass;
+
+	@Value("${jwt.tokenValidity:18000}")
+	private long tokenValidity;
+
+	@Value("${service.auth.refresh-ahead-ms:60000}")
+	private long refreshAhead;
+
+	@Value("${service.auth.expiry-skew-ms:5000}")
+	private long expirySkew;
+
+	private final ReentrantLock refreshLock = new ReentrantLock();
+
+	private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+		Thread thread = new Thread(runnable, "service-token-refresh");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	private volatile CachedToken current;
+
+	private ScheduledFuture<?> scheduledRefresh;
+
+	public boolean isAuthenticated() {
+		CachedToken token = current;
+		return token != null && !token.isExpired();
+	}
+
+	public String getToken() {
+		CachedToken token = current;
+
+		if (token != null && !token.isExpired())
+			return token.value;
+
+		return refresh(token);
+	}
+
+	/**
+	 * Called when a request carrying {@code rejectedToken} got a 401. Only the
+	 * first caller for a given token logs in again; the others reuse its result.
+	 */
+	public String refreshAfterUnauthorized(String rejectedToken) {
+		CachedToken token = current;
+
+		if (token != null && !token.value.equals(rejectedToken) && !token.isExpired())
+			return token.value;
+
+		return refresh(token);
+	}
+
+	private String refresh(CachedToken stale) {
+
+		refreshLock.lock();
+
+		try {
+			CachedToken token = current;
+
+			// Another thread refreshed while this one was waiting for the lock.
+			if (token != null && token != stale && !token.isExpired())
+				return token.value;
+
+			CachedToken fresh = login();
+			current = fresh;
+
+			// Short-lived tokens are refreshed halfway through their lifetime instead.
+			long lifetime = fresh.expiresAt - System.currentTimeMillis();
+			scheduleRefresh(lifetime > 2 * refreshAhead ? lifetime - refreshAhead : Math.max(1000, lifetime / 2));
+
+			return fresh.value;
+		} finally {
+			refreshLock.unlock();
+		}
+	}
+
+	private void scheduleRefresh(long delay) {
+
+		if (scheduledRefresh != null)
+			scheduledRefresh.cancel(false);
+
+		scheduledRefresh = scheduler.schedule(() -> {
+			try {
+				refresh(current);
+			} catch (Exception e) {
+				LOGGER.warn("Background refresh of the service token failed, retrying in " + RETRY_DELAY_MS + "ms", e);
+
+				refreshLock.lock();
+				try {
+					scheduleRefresh(RETRY_DELAY_MS);
+				} finally {
+					refreshLock.unlock();
+				}
+			}
+		}, Math.max(0, delay), TimeUnit.MILLISECONDS);
+	}
+
+	private CachedToken login() {
+
+		String url = connectionHelper.isRunningInsideDocker() ? env.getProperty("service.users.url")
+				: env.getProperty("localhost.service.users.url");
+
+		LOGGER.info("Requesting service token from [" + url + "]");
+
+		HttpHeaders headers = new HttpHeaders();
+		headers.setContentType(MediaType.APPLICATION_JSON);
+
+		HttpEntity<LoginRequest> request = new HttpEntity<LoginRequest>(new LoginRequest(authUserName, authUserPass),
+				headers);
+
+		AuthenticationToken token = dependencyGuards.forUrl(url).call(() -> restTemplate
+				.exchange(url + "/auth", HttpMethod.POST, request, AuthenticationToken.class).getBody());
+
+		if (token == null || StringUtils.isBlank(token.token))
+			throw new IllegalStateException("User service returned an empty token.");
+
+		return new CachedToken(token.token, readExpiration(token.token));
+	}
+
+	private long readExpiration(String token) {
+
+		try {
+			String[] parts = token.replace("Bearer ", "").trim().split("\\.");
+			JsonNode claims = objectMapper
+					.readTree(new String(Base64.getUrlDecoder().decode(parts[1]), StandardCharsets.UTF_8));
+
+			if (claims.hasNonNull("exp"))
+				return claims.get("exp").asLong() * 1000;
+		} catch (Exception e) {
+			LOGGER.warn("Could not read the exp claim of the service token, assuming jwt.tokenValidity", e);
+		}
+
+		return System.currentTimeMillis() + tokenValidity * 1000;
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		scheduler.shutdownNow();
+	}
+
+	private class CachedToken {
+
+		private final String value;
+		private final long expiresAt;
+
+		private CachedToken(String value, long expiresAt) {
+			this.value = value;
+			this.expiresAt = expiresAt;
+		}
+
+		private boolean isExpired() {
+			return System.currentTimeMillis() >= expiresAt - expirySkew;
+		}
+	}
+}
@@ -0,0 +1,150 @@
+package org.curso.automacao.modulos.erp.orderservice.unittest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.curso.automacao.modulos.erp.orderservice.config.AdaptivePoolSizer;
+import org.curso.automacao.modulos.erp.orderservice.config.AdaptivePoolSizer.Status;
+import org.curso.automacao.modulos.erp.orderservice.config.PoolMetrics;
+import org.curso.automacao.modulos.erp.orderservice.config.PoolMetricsRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+
+@Tag("unit-tests")
+public class AdaptivePoolSizerTest {
+
+	private static final String POOL = "orders-pool";
+
+	private HikariConfig config;
+
+	private HikariPoolMXBean pool;
+
+	private PoolMetrics metrics;
+
+	private AdaptivePoolSizer sizer;
+
+	@BeforeEach
+	public void createSizer() {
+
+		config = new HikariConfig();
+		config.setMaximumPoolSize(10);
+
+		pool = mock(HikariPoolMXBean.class);
+
+		HikariDataSource dataSource = mock(HikariDataSource.class);
+		when(dataSource.getPoolName()).thenReturn(POOL);
+		when(dataSource.getHikariPoolMXBean()).thenReturn(pool);
+		when(dataSource.getHikariConfigMXBean()).thenReturn(config);
+
+		PoolMetricsRegistry registry = new PoolMetricsRegistry();
+		metrics = registry.get(POOL);
+
+		sizer = new AdaptivePoolSizer();
+		ReflectionTestUtils.setField(sizer, "dataSources", List.of(dataSource));
+		ReflectionTestUtils.setField(sizer, "poolMetricsRegistry", registry);
+		ReflectionTestUtils.setField(sizer, "enabled", true);
+		ReflectionTestUtils.setField(sizer, "minSize", 6);
+		ReflectionTestUtils.setField(sizer, "maxSize", 12);
+		ReflectionTestUtils.setField(sizer, "step", 2);
+		ReflectionTestUtils.setField(sizer, "growWaitMs", 5.0);
+		ReflectionTestUtils.setField(sizer, "shrinkWaitMs", 1.0);
+		ReflectionTestUtils.setField(sizer, "shrinkUtilization", 0.5);
+		ReflectionTestUtils.setField(sizer, "shrinkAfter", 2);
+
+		// Baseline interval.
+		sizer.adjust();
+	}
+
+	@Test
+	public void validateGrowsOnSlowAcquires() {
+
+		waitForConnections(20_000);
+		sizer.adjust();
+
+		assertEquals(12, config.getMaximumPoolSize());
+		assertEquals(Status.SATURATED, sizer.getWindow(POOL).getStatus());
+		assertEquals(20.0, sizer.getWindow(POOL).getAcquireP95Ms(), 0.5);
+
+		waitForConnections(20_000);
+		sizer.adjust();
+
+		assertEquals(12, config.getMaximumPoolSize(), "Validate if the pool never grows past the maximum");
+		assertEquals(Status.STARVED, sizer.getWindow(POOL).getStatus());
+		assertEquals(1, sizer.getWindow(POOL).getResizes());
+	}
+
+	@Test
+	public void validateGrowsOnQueuedThreadsAndTimeouts() {
+
+		when(pool.getThreadsAwaitingConnection()).thenReturn(3);
+		sizer.adjust();
+
+		assertEquals(12, config.getMaximumPoolSize(), "Validate if queued threads make the pool grow");
+
+		when(pool.getThreadsAwaitingConnection()).thenReturn(0);
+		config.setMaximumPoolSize(10);
+		metrics.recordConnectionTimeout();
+		sizer.adjust();
+
+		assertEquals(12, config.getMaximumPoolSize());
+		assertEquals(Status.STARVED, sizer.getWindow(POOL).getStatus(), "Validate if a timeout means starved");
+		assertEquals(1, sizer.getWindow(POOL).getWindowTimeouts());
+	}
+
+	@Test
+	public void validateShrinksAfterQuietIntervals() {
+
+		sizer.adjust();
+		assertEquals(10, config.getMaximumPoolSize(), "Validate if one quiet interval is not enough");
+
+		sizer.adjust();
+		assertEquals(8, config.getMaximumPoolSize());
+
+		for (int i = 0; i < 4; i++)
+			sizer.adjust();
+
+		assertEquals(6, config.getMaximumPoolSize(), "Validate if the pool never shrinks past the minimum");
+		assertEquals(Status.OK, sizer.getWindow(POOL).getStatus());
+	}
+
+	@Test
+	public void validateSlowIntervalResetsQuietCount() {
+
+		sizer.adjust();
+
+		// Not slow enough to grow, too slow to count as quiet.
+		waitForConnections(3_000);
+		sizer.adjust();
+		sizer.adjust();
+
+		assertEquals(10, config.getMaximumPoolSize());
+		assertEquals(1, sizer.getWindow(POOL).getQuietIntervals());
+	}
+
+	@Test
+	public void validateDisabledOnlyReports() {
+
+		ReflectionTestUtils.setField(sizer, "enabled", false);
+
+		waitForConnections(20_000);
+		sizer.adjust();
+
+		assertEquals(10, config.getMaximumPoolSize());
+		assertEquals(Status.SATURATED, sizer.getWindow(POOL).getStatus());
+	}
+
+	private void waitForConnections(long micros) {
+		for (int i = 0; i < 100; i++)
+			metrics.recordConnectionAcquiredNanos(micros * 1000);
+	}
+
+}
@@ -0,0 +1,163 @@
+package org.curso.automacao.modulos.erp.orderservice.unittest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.curso.automacao.modulos.erp.orderservice.impl.helpers.CatalogCache;
+import org.curso.automacao.modulos.erp.orderservice.impl.helpers.CatalogCacheStats;
+import org.curso.automacao.modulos.erp.orderservice.impl.helpers.CatalogClient;
+import org.curso.automacao.modulos.erp.orderservice.impl.helpers.CustomerChanges;
+import org.curso.automacao.modulos.erp.orderservice.impl.helpers.CustomerInfo;
+import org.curso.automacao.modulos.erp.orderservice.impl.helpers.ReactiveCatalogClient;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.ResourceAccessException;
+
+import reactor.core.publisher.Mono;
+
+@Tag("unit-tests")
+public class CatalogCacheTest {
+
+	private CatalogClient catalogClient;
+
+	private ReactiveCatalogClient reactiveCatalogClient;
+
+	private CatalogCache catalogCache;
+
+	@BeforeEach
+	public void createCache() {
+
+		catalogClient = mock(CatalogClient.class);
+		reactiveCatalogClient = mock(ReactiveCatalogClient.class);
+
+		catalogCache = new CatalogCache();
+		ReflectionTestUtils.setField(catalogCache, "catalogClient", catalogClient);
+		ReflectionTestUtils.setField(catalogCache, "reactiveCatalogClient", reactiveCatalogClient);
+		ReflectionTestUtils.setField(catalogCache, "maxEntries", 100L);
+		ReflectionTestUtils.setField(catalogCache, "maxStaleness", 30_000L);
+		catalogCache.init();
+	}
+
+	@Test
+	public void validateSyncAppliesEveryPage() {
+
+		when(catalogClient.findCustomerChanges(eq(0L), anyInt()))
+				.thenReturn(changes(2, true, List.of(customer(1, "John", 1), customer(2, "Mary", 2)), List.of()));
+		when(catalogClient.findCustomerChanges(eq(2L), anyInt()))
+				.thenReturn(changes(4, false, List.of(customer(3, "Paul", 3)), List.of(1L)));
+
+		syncCustomers();
+
+		List<CustomerInfo> found = catalogCache.findCustomersByIds(List.of(2L, 3L)).block();
+
+		assertEquals(List.of("Mary", "Paul"), List.of(found.get(0).getName(), found.get(1).getName()));
+		verify(reactiveCatalogClient, never()).findCustomersByIds(any());
+
+		assertEquals(3L, catalogCache.findCustomerByName("PAUL").get().getId(), "Validate if names are indexed");
+		assertFalse(catalogCache.findCustomerByName("John").isPresent(), "Validate if a tombstone removes the entry");
+
+		CatalogCacheStats stats = catalogCache.getStats().get("customers");
+		assertEquals(2, stats.getEntries());
+		assertEquals(4, stats.getVersion());
+		assertEquals(4, stats.getLastSyncChanges(), "Validate if the changes of every page are counted");
+		assertTrue(stats.isComplete());
+	}
+
+	@Test
+	public void validateMissesAreReadThrough() {
+
+		when(reactiveCatalogClient.findCustomersByIds(any())).thenReturn(Mono.just(List.of(customer(7, "Anne", 5))));
+
+		assertEquals("Anne", catalogCache.findCustomersByIds(List.of(7L)).block().get(0).getName());
+		assertEquals("Anne", catalogCache.findCustomersByIds(List.of(7L)).block().get(0).getName());
+
+		verify(reactiveCatalogClient).findCustomersByIds(List.of(7L));
+	}
+
+	@Test
+	public void validateNewerEntryIsKept() {
+
+		when(reactiveCatalogClient.findCustomersByIds(any()))
+				.thenReturn(Mono.just(List.of(customer(7, "Anne Smith", 5))));
+		catalogCache.findCustomersByIds(List.of(7L)).block();
+
+		// A feed page read before the rename was applied.
+		when(catalogClient.findCustomerChanges(eq(0L), anyInt()))
+				.thenReturn(changes(3, false, List.of(customer(7, "Anne", 3)), List.of()));
+		syncCustomers();
+
+		assertEquals("Anne Smith", catalogCache.findCustomersByIds(List.of(7L)).block().get(0).getName());
+		assertTrue(catalogCache.findCustomerByName("Anne Smith").isPresent());
+		assertFalse(catalogCache.findCustomerByName("Anne").isPresent(), "Validate if the older name is not indexed");
+	}
+
+	@Test
+	public void validateStaleEntriesAreMarked() throws InterruptedException {
+
+		ReflectionTestUtils.setField(catalogCache, "maxStaleness", 0L);
+
+		when(catalogClient.findCustomerChanges(eq(0L), anyInt()))
+				.thenReturn(changes(1, false, List.of(customer(1, "John", 1)), List.of()));
+		syncCustomers();
+
+		when(catalogClient.findCustomerChanges(eq(1L), anyInt()))
+				.thenThrow(new ResourceAccessException("Connection refused"));
+		Thread.sleep(10);
+		syncCustomers();
+
+		assertEquals(1, catalogCache.getStats().get("customers").getSyncFailures());
+		assertNotNull(catalogCache.findCustomersByIds(List.of(1L)).block().get(0).getSnapshotTakenAt(),
+				"Validate if entries are marked once the feed is behind");
+	}
+
+	@Test
+	public void validateFailedReadThroughKeepsCachedEntries() {
+
+		when(catalogClient.findCustomerChanges(eq(0L), anyInt()))
+				.thenReturn(changes(1, false, List.of(customer(1, "John", 1)), List.of()));
+		syncCustomers();
+
+		when(reactiveCatalogClient.findCustomersByIds(any()))
+				.thenReturn(Mono.error(new ResourceAccessException("Connection refused")));
+
+		List<CustomerInfo> found = catalogCache.findCustomersByIds(List.of(1L, 9L)).block();
+
+		assertEquals(1, found.size(), "Validate if the cached entries are still served");
+		assertNull(found.get(0).getSnapshotTakenAt());
+	}
+
+	private void syncCustomers() {
+		ReflectionTestUtils.invokeMethod(ReflectionTestUtils.getField(catalogCache, "customers"), "sync");
+	}
+
+	private static CustomerChanges changes(long version, boolean hasMore, List<CustomerInfo> changed,
+			List<Long> deleted) {
+
+		CustomerChanges changes = new CustomerChanges();
+		changes.setVersion(version);
+		changes.setHasMore(hasMore);
+		changes.setChanged(changed);
+		changes.setDeleted(deleted);
+
+		return changes;
+	}
+
+	private static CustomerInfo customer(long id, String name, long changeVersion) {
+		return CustomerInfo.builder().id(id).name(name).changeVersion(changeVersion).build();
+	}
+
+}
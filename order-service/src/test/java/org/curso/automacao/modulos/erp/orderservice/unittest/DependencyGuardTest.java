@@ -0,0 +1,185 @@
+package org.curso.automacao.modulos.erp.orderservice.unittest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.curso.automacao.modulos.erp.orderservice.exceptions.DependencyUnavailableException;
+import org.curso.automacao.modulos.erp.orderservice.impl.helpers.CatalogSnapshot;
+import org.curso.automacao.modulos.erp.orderservice.impl.helpers.CustomerInfo;
+import org.curso.automacao.modulos.erp.orderservice.impl.helpers.DependencyGuard;
+import org.curso.automacao.modulos.erp.orderservice.impl.helpers.DependencyStats;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+
+@Tag("unit-tests")
+public class DependencyGuardTest {
+
+	private static final long OPEN_DURATION_MS = 200;
+
+	@Test
+	public void validateBulkheadRejectsWhenFull() throws InterruptedException {
+
+		DependencyGuard guard = newGuard(2);
+		CountDownLatch started = new CountDownLatch(2);
+		CountDownLatch release = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+
+		try {
+			for (int i = 0; i < 2; i++)
+				executor.submit(() -> guard.call(() -> {
+					started.countDown();
+					await(release);
+					return "ok";
+				}));
+
+			assertTrue(started.await(5, TimeUnit.SECONDS));
+
+			AtomicInteger calls = new AtomicInteger();
+			assertThrows(DependencyUnavailableException.class, () -> guard.call(calls::incrementAndGet));
+			assertEquals(0, calls.get(), "Validate if a rejected call never reaches the service");
+
+			DependencyStats stats = guard.getStats();
+			assertEquals(2, stats.getInFlight());
+			assertEquals(1, stats.getRejectedByBulkhead());
+			assertEquals("CLOSED", stats.getState(), "Validate if a full bulkhead does not open the breaker");
+		} finally {
+			release.countDown();
+			executor.shutdown();
+			executor.awaitTermination(5, TimeUnit.SECONDS);
+		}
+
+		assertEquals(0, guard.getStats().getInFlight(), "Validate if the permits are given back");
+	}
+
+	@Test
+	public void validateReactiveBulkheadDoesNotWait() {
+
+		DependencyGuard guard = newGuard(1);
+		Disposable pending = guard.call(Mono.never()).subscribe();
+
+		try {
+			assertThrows(DependencyUnavailableException.class, () -> guard.call(Mono.just("ok")).block());
+			assertEquals(1, guard.getStats().getRejectedByBulkhead());
+		} finally {
+			pending.dispose();
+		}
+
+		assertEquals("ok", guard.call(Mono.just("ok")).block(), "Validate if a cancelled call gives its permit back");
+	}
+
+	@Test
+	public void validateBreakerOpensOnFailureRate() {
+
+		DependencyGuard guard = newGuard(10);
+
+		succeed(guard, 2);
+		fail(guard, 2);
+
+		DependencyStats stats = guard.getStats();
+		assertEquals("OPEN", stats.getState());
+		assertEquals(1, stats.getTimesOpened());
+
+		AtomicInteger calls = new AtomicInteger();
+		assertThrows(DependencyUnavailableException.class, () -> guard.call(calls::incrementAndGet));
+		assertEquals(0, calls.get(), "Validate if calls fail fast while the breaker is open");
+		assertEquals(1, guard.getStats().getRejectedByBreaker());
+	}
+
+	@Test
+	public void validateClientErrorsAreNotFailures() {
+
+		DependencyGuard guard = newGuard(10);
+
+		for (int i = 0; i < 10; i++)
+			assertThrows(HttpClientErrorException.class, () -> guard.call(() -> {
+				throw new HttpClientErrorException(HttpStatus.NOT_FOUND);
+			}));
+
+		DependencyStats stats = guard.getStats();
+		assertEquals("CLOSED", stats.getState(), "Validate if a 404 is treated as an answer");
+		assertEquals(10, stats.getSuccesses());
+		assertEquals(0, stats.getFailures());
+	}
+
+	@Test
+	public void validateHalfOpenProbes() throws InterruptedException {
+
+		DependencyGuard guard = newGuard(10);
+
+		succeed(guard, 2);
+		fail(guard, 2);
+		Thread.sleep(OPEN_DURATION_MS + 50);
+
+		assertEquals("HALF_OPEN", guard.getStats().getState());
+
+		fail(guard, 1);
+		assertEquals("OPEN", guard.getStats().getState(), "Validate if a failed probe opens the breaker again");
+		assertEquals(2, guard.getStats().getTimesOpened());
+
+		Thread.sleep(OPEN_DURATION_MS + 50);
+
+		succeed(guard, 2);
+		assertEquals("CLOSED", guard.getStats().getState(), "Validate if enough good probes close the breaker");
+		assertEquals(0f, guard.getStats().getFailureRate(), "Validate if the window starts empty after closing");
+	}
+
+	@Test
+	public void validateSnapshotMarksEntries() {
+
+		CatalogSnapshot snapshot = new CatalogSnapshot();
+		ReflectionTestUtils.setField(snapshot, "maximumSize", 10L);
+		snapshot.init();
+
+		CustomerInfo customer = CustomerInfo.builder().id(1L).name("John").build();
+		snapshot.rememberCustomers(List.of(customer));
+
+		List<CustomerInfo> found = snapshot.findCustomers(List.of(1L, 2L));
+
+		assertEquals(1, found.size(), "Validate if unknown ids are left out");
+		assertEquals("John", found.get(0).getName());
+		assertNotNull(found.get(0).getSnapshotTakenAt());
+		assertNull(customer.getSnapshotTakenAt(), "Validate if the fresh copy is left untouched");
+	}
+
+	private static DependencyGuard newGuard(int maxConcurrentCalls) {
+		return new DependencyGuard("customer-service", maxConcurrentCalls, 0, 4, 4, 0.5f, OPEN_DURATION_MS, 2);
+	}
+
+	private static void succeed(DependencyGuard guard, int times) {
+		for (int i = 0; i < times; i++)
+			guard.call(() -> "ok");
+	}
+
+	private static void fail(DependencyGuard guard, int times) {
+		for (int i = 0; i < times; i++)
+			assertThrows(ResourceAccessException.class, () -> guard.call(() -> {
+				throw new ResourceAccessException("Connection refused");
+			}));
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await(5, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+}
@@ -0,0 +1,98 @@
+package org.curso.automacao.modulos.erp.orderservice.unittest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.http.HttpHost;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.client.RestTemplate;
+
+import com.sun.net.httpserver.HttpServer;
+
+@ActiveProfiles("mock")
+public class HttpClientPoolTest extends BaseTest {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(HttpClientPoolTest.class);
+
+	@Autowired
+	private RestTemplate restTemplate;
+
+	@Autowired
+	private PoolingHttpClientConnectionManager httpConnectionManager;
+
+	private HttpServer server;
+
+	// Client ports seen by the server, one per TCP connection.
+	private final Set<Integer> connections = ConcurrentHashMap.newKeySet();
+
+	@BeforeEach
+	public void startServer() throws IOException {
+
+		server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+		server.createContext("/ping", exchange -> {
+			connections.add(exchange.getRemoteAddress().getPort());
+
+			byte[] body = "pong".getBytes(StandardCharsets.UTF_8);
+			exchange.sendResponseHeaders(200, body.length);
+
+			try (OutputStream out = exchange.getResponseBody()) {
+				out.write(body);
+			}
+		});
+		server.start();
+	}
+
+	@AfterEach
+	public void stopServer() {
+		server.stop(0);
+	}
+
+	@Test
+	public void validateConnectionIsReused() {
+
+		LOGGER.info("Starting test of reusing a pooled connection.");
+
+		String url = "http://localhost:" + server.getAddress().getPort() + "/ping";
+
+		for (int i = 0; i < 10; i++)
+			assertEquals("pong", restTemplate.getForObject(url, String.class));
+
+		assertEquals(1, connections.size(), "Validate if every request went over the same connection");
+
+		HttpRoute route = new HttpRoute(new HttpHost("localhost", server.getAddress().getPort()));
+
+		assertEquals(0, httpConnectionManager.getStats(route).getLeased(), "Validate if the connection was released");
+		assertEquals(1, httpConnectionManager.getStats(route).getAvailable(),
+				"Validate if the connection was kept for the next request");
+
+		LOGGER.info("End of test of reusing a pooled connection.");
+	}
+
+	@Test
+	public void validatePoolLimits() {
+
+		LOGGER.info("Starting test of the connection pool limits.");
+
+		assertEquals(100, httpConnectionManager.getMaxTotal());
+		assertEquals(20, httpConnectionManager.getDefaultMaxPerRoute());
+		assertTrue(httpConnectionManager.getTotalStats().getLeased() <= httpConnectionManager.getMaxTotal());
+
+		LOGGER.info("End of test of the connection pool limits.");
+	}
+
+}
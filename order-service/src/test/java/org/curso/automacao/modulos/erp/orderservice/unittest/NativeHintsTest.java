@@ -0,0 +1,93 @@
+package org.curso.automacao.modulos.erp.orderservice.unittest;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Serializable;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.persistence.Entity;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.core.type.filter.AnnotationTypeFilter;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+// The native build does not run the tests, so a stale hint would otherwise only show up
+// when the native executable fails.
+@Tag("unit-tests")
+public class NativeHintsTest {
+
+	private static final String HINTS = "META-INF/native-image/org.curso.automacao.modulos.erp/order-service/";
+
+	private static final Pattern LITERAL = Pattern.compile("\\\\Q(.*)\\\\E");
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	@Test
+	public void validateReflectionHintsExist() throws IOException {
+
+		for (JsonNode hint : read("reflect-config.json"))
+			assertDoesNotThrow(() -> load(hint.get("name").asText()), hint.get("name").asText());
+	}
+
+	@Test
+	public void validateSerializationHintsAreSerializable() throws IOException, ClassNotFoundException {
+
+		for (JsonNode hint : read("serialization-config.json")) {
+			String name = hint.get("name").asText();
+			assertTrue(Serializable.class.isAssignableFrom(load(name)), name);
+		}
+	}
+
+	@Test
+	public void validateEveryEntityHasReflectionHints() throws IOException {
+
+		Set<String> hinted = new HashSet<>();
+		read("reflect-config.json").forEach(hint -> hinted.add(hint.get("name").asText()));
+
+		ClassPathScanningCandidateComponentProvider scanner = new ClassPathScanningCandidateComponentProvider(false);
+		scanner.addIncludeFilter(new AnnotationTypeFilter(Entity.class));
+
+		Set<BeanDefinition> entities = scanner.findCandidateComponents("org.curso.automacao.modulos.erp.orderservice");
+		assertFalse(entities.isEmpty());
+
+		for (BeanDefinition entity : entities)
+			assertTrue(hinted.contains(entity.getBeanClassName()), entity.getBeanClassName());
+	}
+
+	@Test
+	public void validateLiteralResourcesExist() throws IOException {
+
+		for (JsonNode include : read("resource-config.json").get("resources").get("includes")) {
+			Matcher literal = LITERAL.matcher(include.get("pattern").asText());
+
+			if (literal.matches())
+				assertNotNull(getClass().getClassLoader().getResource(literal.group(1)), literal.group(1));
+		}
+	}
+
+	private JsonNode read(String file) throws IOException {
+
+		try (InputStream in = getClass().getClassLoader().getResourceAsStream(HINTS + file)) {
+			assertNotNull(in, file);
+			return objectMapper.readTree(in);
+		}
+	}
+
+	private Class<?> load(String name) throws ClassNotFoundException {
+		return Class.forName(name, false, getClass().getClassLoader());
+	}
+
+}
@@ -0,0 +1,93 @@
+package org.curso.automacao.modulos.erp.orderservice.unittest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.LocalDate;
+
+import org.curso.automacao.modulos.erp.orderservice.exceptions.ServiceException;
+import org.curso.automacao.modulos.erp.orderservice.impl.Order;
+import org.curso.automacao.modulos.erp.orderservice.impl.OrderItem;
+import org.curso.automacao.modulos.erp.orderservice.impl.OrderItemKey;
+import org.curso.automacao.modulos.erp.orderservice.impl.OrderService;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.github.javafaker.Faker;
+
+@ActiveProfiles("mock")
+public class OrderItemsTest extends BaseTest {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(OrderItemsTest.class);
+
+	@Autowired
+	private OrderService orderService;
+
+	@Test
+	public void validateDeleteItem() throws ServiceException {
+
+		LOGGER.info("Starting test of deleting an order item.");
+
+		Order order = orderService.save(newOrder(3));
+
+		// Outside a request there is no open session, the items are loaded by the service's own transaction.
+		Order updated = orderService.deleteItemById(order.getId(), 2);
+
+		assertEquals(2, updated.getItems().size());
+		assertEquals(10f * 1 + 10f * 3, updated.getTotal(), "Validate if the total was recalculated");
+
+		Order stored = orderService.findById(order.getId()).get();
+
+		assertEquals(2, stored.getItems().size(), "Validate if the item was deleted");
+		assertEquals(updated.getTotal(), stored.getTotal(), "Validate if the new total was stored");
+
+		LOGGER.info("End of test of deleting an order item.");
+	}
+
+	@Test
+	public void validateDeleteMissingItem() throws ServiceException {
+
+		LOGGER.info("Starting test of deleting an order item that does not exist.");
+
+		Order order = orderService.save(newOrder(2));
+
+		Order updated = orderService.deleteItemById(order.getId(), 9);
+
+		assertEquals(2, updated.getItems().size());
+		assertEquals(order.getTotal(), updated.getTotal());
+
+		assertThrows(ServiceException.class, () -> orderService.deleteItemById(Long.MAX_VALUE, 1),
+				"Validate if a missing order is reported");
+
+		LOGGER.info("End of test of deleting an order item that does not exist.");
+	}
+
+	private Order newOrder(int items) {
+
+		Order order = Order.builder()
+				.idCustomer(1L)
+				.customerName(Faker.instance().name().fullName())
+				.date(LocalDate.now())
+				.deliveryDate(LocalDate.now().plusDays(5))
+				.build();
+
+		for (int i = 1; i <= items; i++) {
+			OrderItem item = OrderItem.builder()
+					.id(OrderItemKey.builder().id(i).build())
+					.idProduct((long) i)
+					.productName(Faker.instance().commerce().productName())
+					.productPrice(10f * i)
+					.quantity(1L)
+					.build();
+
+			// Association management adds the item to order.getItems().
+			item.setOrder(order);
+		}
+
+		return order;
+	}
+
+}
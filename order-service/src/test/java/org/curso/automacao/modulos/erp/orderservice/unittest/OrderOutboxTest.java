@@ -0,0 +1,161 @@
+package org.curso.automacao.modulos.erp.orderservice.unittest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.curso.automacao.modulos.erp.orderservice.enums.ChangeOperation;
+import org.curso.automacao.modulos.erp.orderservice.exceptions.ServiceException;
+import org.curso.automacao.modulos.erp.orderservice.impl.Order;
+import org.curso.automacao.modulos.erp.orderservice.impl.OrderItem;
+import org.curso.automacao.modulos.erp.orderservice.impl.OrderItemKey;
+import org.curso.automacao.modulos.erp.orderservice.impl.OrderRepository;
+import org.curso.automacao.modulos.erp.orderservice.impl.OrderService;
+import org.curso.automacao.modulos.erp.orderservice.impl.OutboxRecord;
+import org.curso.automacao.modulos.erp.orderservice.impl.OutboxRelay;
+import org.curso.automacao.modulos.erp.orderservice.impl.OutboxRepository;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.github.javafaker.Faker;
+
+// The relay is held back so the records stay in tb_outbox until a test relays them.
+@ActiveProfiles("mock")
+@TestPropertySource(properties = "outbox.relay.initial-delay-ms=3600000")
+public class OrderOutboxTest extends BaseTest {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(OrderOutboxTest.class);
+
+	@Autowired
+	private OrderService orderService;
+
+	@Autowired
+	private OrderRepository orderRepository;
+
+	@Autowired
+	private OutboxRepository outboxRepository;
+
+	@Autowired
+	private OutboxRelay outboxRelay;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Test
+	public void validateOutboxRecordOnCommit() {
+
+		LOGGER.info("Starting test of the outbox record of a committed order.");
+
+		Order order = transactionTemplate.execute(status -> save(newOrder(2)));
+
+		List<OutboxRecord> records = findRecords(order.getId());
+
+		assertEquals(1, records.size(), "Validate if the order and its items left one record");
+		assertEquals(ChangeOperation.INSERT, records.get(0).getOperation());
+		assertEquals(order.getVersion(), records.get(0).getVersion());
+
+		LOGGER.info("End of test of the outbox record of a committed order.");
+	}
+
+	@Test
+	public void validateNoOutboxRecordOnRollback() {
+
+		LOGGER.info("Starting test of the outbox of a rolled back order.");
+
+		Order order = transactionTemplate.execute(status -> {
+			Order saved = save(newOrder(2));
+			orderRepository.flush();
+			status.setRollbackOnly();
+			return saved;
+		});
+
+		assertTrue(findRecords(order.getId()).isEmpty(), "Validate if no record was written");
+		assertFalse(orderRepository.existsById(order.getId()), "Validate if the order was rolled back");
+
+		LOGGER.info("End of test of the outbox of a rolled back order.");
+	}
+
+	@Test
+	public void validateChangesInOneTransactionCollapse() {
+
+		LOGGER.info("Starting test of collapsing the changes of one transaction.");
+
+		Order order = transactionTemplate.execute(status -> {
+			Order saved = save(newOrder(1));
+			orderRepository.flush();
+
+			saved.setDeliveryDate(saved.getDeliveryDate().plusDays(1));
+			orderRepository.flush();
+			return saved;
+		});
+
+		List<OutboxRecord> records = findRecords(order.getId());
+
+		assertEquals(1, records.size(), "Validate if the insert and the update left one record");
+		assertEquals(ChangeOperation.INSERT, records.get(0).getOperation());
+
+		LOGGER.info("End of test of collapsing the changes of one transaction.");
+	}
+
+	@Test
+	public void validateRelayEmptiesOutbox() {
+
+		LOGGER.info("Starting test of relaying the outbox.");
+
+		Order order = transactionTemplate.execute(status -> save(newOrder(1)));
+
+		assertFalse(findRecords(order.getId()).isEmpty());
+		assertTrue(outboxRelay.relay() > 0, "Validate if the relay published records");
+		assertTrue(findRecords(order.getId()).isEmpty(), "Validate if published records were deleted");
+
+		LOGGER.info("End of test of relaying the outbox.");
+	}
+
+	private Order save(Order order) {
+		try {
+			return orderService.save(order);
+		} catch (ServiceException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private List<OutboxRecord> findRecords(long orderId) {
+		return outboxRepository.findAll().stream().filter(record -> record.getAggregateId() == orderId)
+				.collect(Collectors.toList());
+	}
+
+	private Order newOrder(int items) {
+
+		Order order = Order.builder()
+				.idCustomer(1L)
+				.customerName(Faker.instance().name().fullName())
+				.date(LocalDate.now())
+				.deliveryDate(LocalDate.now().plusDays(5))
+				.build();
+
+		for (int i = 1; i <= items; i++) {
+			OrderItem item = OrderItem.builder()
+					.id(OrderItemKey.builder().id(i).build())
+					.idProduct((long) i)
+					.productName(Faker.instance().commerce().productName())
+					.productPrice(10f * i)
+					.quantity((long) i)
+					.build();
+
+			// Association management adds the item to order.getItems().
+			item.setOrder(order);
+		}
+
+		return order;
+	}
+
+}
@@ -0,0 +1,121 @@
+package org.curso.automacao.modulos.erp.orderservice.unittest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.curso.automacao.modulos.erp.orderservice.config.QueryCountInspector;
+import org.curso.automacao.modulos.erp.orderservice.exceptions.ServiceException;
+import org.curso.automacao.modulos.erp.orderservice.impl.Order;
+import org.curso.automacao.modulos.erp.orderservice.impl.OrderItem;
+import org.curso.automacao.modulos.erp.orderservice.impl.OrderItemKey;
+import org.curso.automacao.modulos.erp.orderservice.impl.OrderRepository;
+import org.curso.automacao.modulos.erp.orderservice.impl.OrderService;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.github.javafaker.Faker;
+
+@ActiveProfiles("mock")
+public class OrderQueryCountTest extends BaseTest {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(OrderQueryCountTest.class);
+
+	@Autowired
+	private OrderService orderService;
+
+	@Autowired
+	private OrderRepository orderRepository;
+
+	@Autowired
+	private QueryCountInspector queryCountInspector;
+
+	@Test
+	public void validateItemsAreNotLoadedPerOrder() throws ServiceException {
+
+		LOGGER.info("Starting test of the queries taken to list orders with their items.");
+
+		long few = createOrders(5);
+		int fewQueries = countQueries(() -> assertEquals(5, orderService.findAfter(few, 5).size()));
+
+		long many = createOrders(40);
+		int manyQueries = countQueries(() -> {
+			List<Order> orders = orderService.findAfter(many, 40);
+
+			assertEquals(40, orders.size());
+			orders.forEach(order -> assertEquals(3, order.getItems().size()));
+		});
+
+		assertTrue(fewQueries <= 2, "Validate if the orders and their items took one query each: " + fewQueries);
+		assertEquals(fewQueries, manyQueries, "Validate if the queries do not grow with the number of orders");
+
+		LOGGER.info("End of test of the queries taken to list orders with their items.");
+	}
+
+	@Test
+	public void validateHeadersTakeOneQuery() throws ServiceException {
+
+		LOGGER.info("Starting test of the queries taken to list order headers.");
+
+		long after = createOrders(10);
+
+		int queries = countQueries(
+				() -> assertEquals(10, orderRepository.findHeadersAfter(after, PageRequest.of(0, 10)).size()));
+
+		assertEquals(1, queries, "Validate if the headers did not touch the items");
+
+		LOGGER.info("End of test of the queries taken to list order headers.");
+	}
+
+	private int countQueries(ServiceCall call) throws ServiceException {
+
+		queryCountInspector.start();
+		call.run();
+
+		return queryCountInspector.stop();
+	}
+
+	// Id just below the first order created.
+	private long createOrders(int count) throws ServiceException {
+
+		List<Order> orders = new ArrayList<>();
+
+		for (int i = 0; i < count; i++) {
+			Order order = Order.builder()
+					.idCustomer(1L)
+					.customerName(Faker.instance().name().fullName())
+					.date(LocalDate.now())
+					.deliveryDate(LocalDate.now().plusDays(5))
+					.build();
+
+			for (int j = 1; j <= 3; j++) {
+				OrderItem item = OrderItem.builder()
+						.id(OrderItemKey.builder().id(j).build())
+						.idProduct((long) j)
+						.productName(Faker.instance().commerce().productName())
+						.productPrice(10f * j)
+						.quantity(1L)
+						.build();
+
+				// Association management adds the item to order.getItems().
+				item.setOrder(order);
+			}
+
+			orders.add(order);
+		}
+
+		return orderService.saveAll(orders).get(0).getId() - 1;
+	}
+
+	private interface ServiceCall {
+		void run() throws ServiceException;
+	}
+
+}
@@ -0,0 +1,154 @@
+package org.curso.automacao.modulos.erp.orderservice.unittest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+
+import org.curso.automacao.modulos.erp.orderservice.impl.Order;
+import org.curso.automacao.modulos.erp.orderservice.impl.OrderItem;
+import org.curso.automacao.modulos.erp.orderservice.impl.OrderItemKey;
+import org.curso.automacao.modulos.erp.orderservice.impl.OrderService;
+import org.curso.automacao.modulos.erp.orderservice.impl.helpers.CatalogCache;
+import org.curso.automacao.modulos.erp.orderservice.impl.helpers.CustomerInfo;
+import org.curso.automacao.modulos.erp.orderservice.impl.helpers.ProductInfo;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+
+import reactor.core.publisher.Mono;
+
+@ActiveProfiles("mock")
+public class OrderReferencesTest extends BaseTest {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(OrderReferencesTest.class);
+
+	@Autowired
+	private OrderService orderService;
+
+	@MockBean
+	private CatalogCache catalogCache;
+
+	@Test
+	public void validateCompleteOrderIsNotResolved() {
+
+		LOGGER.info("Starting test of resolving an order with every name and price.");
+
+		Order order = newOrder("Customer with a name", "Product with a name", 10f);
+
+		orderService.resolveReferences(List.of(order));
+
+		verify(catalogCache, never()).findCustomersByIds(any());
+		verify(catalogCache, never()).findProductsByIds(any());
+		assertEquals("Customer with a name", order.getCustomerName());
+		assertEquals(20f, order.getTotal(), "Validate if the order was left as it came");
+
+		LOGGER.info("End of test of resolving an order with every name and price.");
+	}
+
+	@Test
+	public void validateOnlyMissingReferencesAreResolved() {
+
+		LOGGER.info("Starting test of resolving an order without a product price.");
+
+		when(catalogCache.findProductsByIds(any())).thenReturn(Mono.just(List.of(
+				ProductInfo.builder().id(7).name("Product from the catalog").price(15f).build())));
+
+		Order complete = newOrder("Customer with a name", "Product with a name", 10f);
+		Order incomplete = newOrder("Customer with a name", "Product with a name", 0f);
+
+		orderService.resolveReferences(List.of(complete, incomplete));
+
+		verify(catalogCache).findProductsByIds(Set.of(7L));
+		verify(catalogCache, never()).findCustomersByIds(any());
+
+		OrderItem item = incomplete.getItems().get(0);
+
+		assertEquals("Product with a name", item.getProductName(), "Validate if a name sent was kept");
+		assertEquals(15f, item.getProductPrice(), "Validate if the missing price was resolved");
+		assertEquals(30f, incomplete.getTotal(), "Validate if the total was recalculated");
+
+		LOGGER.info("End of test of resolving an order without a product price.");
+	}
+
+	@Test
+	public void validateLookupsRunConcurrently() {
+
+		LOGGER.info("Starting test of resolving customers and products at the same time.");
+
+		when(catalogCache.findCustomersByIds(any())).thenReturn(Mono.delay(Duration.ofMillis(400))
+				.thenReturn(List.of(CustomerInfo.builder().id(3).name("Customer from the catalog").build())));
+		when(catalogCache.findProductsByIds(any())).thenReturn(Mono.delay(Duration.ofMillis(400))
+				.thenReturn(List.of(ProductInfo.builder().id(7).name("Product from the catalog").price(15f).build())));
+
+		Order order = newOrder(null, null, 0f);
+
+		long start = System.nanoTime();
+		orderService.resolveReferences(List.of(order));
+		long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+		assertTrue(elapsedMs < 750, "Validate if both lookups waited together, took " + elapsedMs + "ms");
+		assertEquals("Customer from the catalog", order.getCustomerName());
+		assertEquals("Product from the catalog", order.getItems().get(0).getProductName());
+		assertEquals(30f, order.getTotal());
+
+		LOGGER.info("End of test of resolving customers and products at the same time.");
+	}
+
+	@Test
+	public void validateFailedLookupDoesNotStopTheOther() {
+
+		LOGGER.info("Starting test of resolving references while customer-service fails.");
+
+		when(catalogCache.findCustomersByIds(any()))
+				.thenReturn(Mono.error(new IllegalStateException("Customer service is down")));
+		when(catalogCache.findProductsByIds(any())).thenReturn(Mono.just(List.of(
+				ProductInfo.builder().id(7).name("Product from the catalog").price(15f).build())));
+
+		Order order = newOrder(null, null, 0f);
+
+		orderService.resolveReferences(List.of(order));
+
+		assertNull(order.getCustomerName(), "Validate if the customer was left as it came");
+		assertEquals("Product from the catalog", order.getItems().get(0).getProductName());
+		assertEquals(30f, order.getTotal());
+
+		LOGGER.info("End of test of resolving references while customer-service fails.");
+	}
+
+	private Order newOrder(String customerName, String productName, float productPrice) {
+
+		Order order = Order.builder()
+				.idCustomer(3L)
+				.customerName(customerName)
+				.date(LocalDate.now())
+				.deliveryDate(LocalDate.now().plusDays(5))
+				.build();
+
+		OrderItem item = OrderItem.builder()
+				.id(OrderItemKey.builder().id(1).build())
+				.idProduct(7L)
+				.productName(productName)
+				.productPrice(productPrice)
+				.quantity(2L)
+				.build();
+
+		// Association management adds the item to order.getItems().
+		item.setOrder(order);
+		order.recalculateTotal();
+
+		return order;
+	}
+
+}
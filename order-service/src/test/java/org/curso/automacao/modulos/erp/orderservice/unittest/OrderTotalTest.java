@@ -0,0 +1,129 @@
+package org.curso.automacao.modulos.erp.orderservice.unittest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.curso.automacao.modulos.erp.orderservice.exceptions.ServiceException;
+import org.curso.automacao.modulos.erp.orderservice.impl.Order;
+import org.curso.automacao.modulos.erp.orderservice.impl.OrderHeader;
+import org.curso.automacao.modulos.erp.orderservice.impl.OrderItem;
+import org.curso.automacao.modulos.erp.orderservice.impl.OrderItemKey;
+import org.curso.automacao.modulos.erp.orderservice.impl.OrderRepository;
+import org.curso.automacao.modulos.erp.orderservice.impl.OrderService;
+import org.curso.automacao.modulos.erp.orderservice.impl.OrderTotalReconciler;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.github.javafaker.Faker;
+
+@ActiveProfiles("mock")
+public class OrderTotalTest extends BaseTest {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(OrderTotalTest.class);
+
+	@Autowired
+	private OrderService orderService;
+
+	@Autowired
+	private OrderRepository orderRepository;
+
+	@Autowired
+	private OrderTotalReconciler orderTotalReconciler;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	public void validateTotalIsStoredOnSave() throws ServiceException {
+
+		LOGGER.info("Starting test of the total stored with an order.");
+
+		Order order = orderService.save(newOrder(3));
+
+		assertEquals(10f * 1 + 20f * 2 + 30f * 3, order.getTotal());
+		assertEquals(order.getTotal(), orderService.findById(order.getId()).get().getTotal(),
+				"Validate if the total was stored");
+
+		Order empty = orderService.save(newOrder(0));
+		assertNull(empty.getTotal(), "Validate if an order without items has no total");
+
+		LOGGER.info("End of test of the total stored with an order.");
+	}
+
+	@Test
+	public void validateHeadersReadStoredTotal() throws ServiceException {
+
+		LOGGER.info("Starting test of the total listed in the order headers.");
+
+		Order order = orderService.save(newOrder(2));
+
+		List<OrderHeader> headers = orderRepository.findHeadersAfter(order.getId() - 1, PageRequest.of(0, 1));
+
+		assertEquals(order.getId(), headers.get(0).getId());
+		assertEquals(order.getTotal(), headers.get(0).getTotal());
+
+		LOGGER.info("End of test of the total listed in the order headers.");
+	}
+
+	@Test
+	public void validateReconcilerRepairsDrift() throws ServiceException {
+
+		LOGGER.info("Starting test of repairing order totals that drifted.");
+
+		Order wrong = orderService.save(newOrder(2));
+		Order missing = orderService.save(newOrder(1));
+		Order right = orderService.save(newOrder(3));
+
+		jdbcTemplate.update("UPDATE tb_orders SET total = 1 WHERE id = ?", wrong.getId());
+		jdbcTemplate.update("UPDATE tb_orders SET total = NULL WHERE id = ?", missing.getId());
+
+		assertTrue(orderTotalReconciler.reconcile() >= 2);
+
+		assertEquals(wrong.getTotal(), storedTotal(wrong), "Validate if a wrong total was corrected");
+		assertEquals(missing.getTotal(), storedTotal(missing), "Validate if a missing total was filled in");
+		assertEquals(right.getTotal(), storedTotal(right));
+
+		assertEquals(0, orderTotalReconciler.reconcile(), "Validate if nothing is left to correct");
+
+		LOGGER.info("End of test of repairing order totals that drifted.");
+	}
+
+	private Float storedTotal(Order order) {
+		return jdbcTemplate.queryForObject("SELECT total FROM tb_orders WHERE id = ?", Float.class, order.getId());
+	}
+
+	private Order newOrder(int items) {
+
+		Order order = Order.builder()
+				.idCustomer(1L)
+				.customerName(Faker.instance().name().fullName())
+				.date(LocalDate.now())
+				.deliveryDate(LocalDate.now().plusDays(5))
+				.build();
+
+		for (int i = 1; i <= items; i++) {
+			OrderItem item = OrderItem.builder()
+					.id(OrderItemKey.builder().id(i).build())
+					.idProduct((long) i)
+					.productName(Faker.instance().commerce().productName())
+					.productPrice(10f * i)
+					.quantity((long) i)
+					.build();
+
+			// Association management adds the item to order.getItems().
+			item.setOrder(order);
+		}
+
+		return order;
+	}
+
+}
@@ -0,0 +1,166 @@
+package org.curso.automacao.modulos.erp.orderservice.unittest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.curso.automacao.modulos.erp.orderservice.common.ReplicaReads;
+import org.curso.automacao.modulos.erp.orderservice.config.ReplicaRouting;
+import org.curso.automacao.modulos.erp.orderservice.config.ReplicaRoutingDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+@Tag("unit-tests")
+public class ReplicaRoutingTest {
+
+	private ReplicaRouting replicaRouting;
+
+	private Connection primaryConnection;
+
+	private Connection replicaConnection;
+
+	private ReplicaRoutingDataSource dataSource;
+
+	@BeforeEach
+	public void createRouting() throws SQLException {
+
+		replicaRouting = new ReplicaRouting();
+		ReflectionTestUtils.setField(replicaRouting, "enabled", true);
+		ReflectionTestUtils.setField(replicaRouting, "maxLagMs", 2000L);
+		ReflectionTestUtils.setField(replicaRouting, "readYourWrites", true);
+		ReflectionTestUtils.setField(replicaRouting, "maxPrincipals", 100L);
+		replicaRouting.init();
+
+		primaryConnection = mock(Connection.class);
+		replicaConnection = mock(Connection.class);
+
+		DataSource primary = mock(DataSource.class);
+		DataSource replica = mock(DataSource.class);
+		when(primary.getConnection()).thenReturn(primaryConnection);
+		when(replica.getConnection()).thenReturn(replicaConnection);
+
+		dataSource = new ReplicaRoutingDataSource(primary, replica, replicaRouting);
+		dataSource.afterPropertiesSet();
+	}
+
+	@AfterEach
+	public void clearTransaction() {
+
+		if (TransactionSynchronizationManager.isSynchronizationActive())
+			TransactionSynchronizationManager.clearSynchronization();
+
+		TransactionSynchronizationManager.setActualTransactionActive(false);
+		TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+		SecurityContextHolder.clearContext();
+	}
+
+	@Test
+	public void validateLagBound() {
+
+		assertFalse(replicaRouting.admit(null), "Validate if the replica is not used before its first snapshot");
+		assertEquals(-1, replicaRouting.getLagMs());
+
+		replicaRouting.markApplied(System.currentTimeMillis() - 5000);
+		assertFalse(replicaRouting.admit(null), "Validate if a replica behind the lag bound is not used");
+
+		replicaRouting.markApplied(System.currentTimeMillis());
+		assertTrue(replicaRouting.admit(null));
+
+		replicaRouting.markApplied(System.currentTimeMillis() - 5000);
+		assertTrue(replicaRouting.getLagMs() < 2000, "Validate if the applied time never goes back");
+
+		assertEquals(1, replicaRouting.getReplicaReads());
+		assertEquals(2, replicaRouting.getLagFallbacks());
+	}
+
+	@Test
+	public void validateReadYourWrites() throws InterruptedException {
+
+		replicaRouting.markApplied(System.currentTimeMillis());
+		Thread.sleep(5);
+		replicaRouting.recordWrite("alice");
+
+		assertFalse(replicaRouting.admit("alice"), "Validate if a writer does not read from a replica behind its write");
+		assertTrue(replicaRouting.admit("bob"));
+
+		Thread.sleep(5);
+		replicaRouting.markApplied(System.currentTimeMillis());
+
+		assertTrue(replicaRouting.admit("alice"), "Validate if the writer reads from the replica once it caught up");
+		assertEquals(1, replicaRouting.getReadYourWritesFallbacks());
+	}
+
+	@Test
+	public void validateDisabledReplica() {
+
+		ReflectionTestUtils.setField(replicaRouting, "enabled", false);
+		replicaRouting.markApplied(System.currentTimeMillis());
+
+		assertFalse(replicaRouting.admit(null));
+	}
+
+	@Test
+	public void validateOnlyReadOnlyScopedTransactionsAreRouted() throws SQLException {
+
+		replicaRouting.markApplied(System.currentTimeMillis());
+
+		try (ReplicaReads scope = ReplicaReads.open()) {
+			assertSame(primaryConnection, dataSource.getConnection(), "Validate if reads outside a transaction use the primary");
+
+			beginTransaction(true);
+			assertSame(replicaConnection, dataSource.getConnection());
+		}
+
+		assertSame(primaryConnection, dataSource.getConnection(), "Validate if reads outside the scope use the primary");
+	}
+
+	@Test
+	public void validateCommittedWritesAreTracked() throws SQLException {
+
+		replicaRouting.markApplied(System.currentTimeMillis());
+		SecurityContextHolder.getContext()
+				.setAuthentication(new UsernamePasswordAuthenticationToken("alice", null, List.of()));
+
+		beginTransaction(false);
+
+		try (ReplicaReads scope = ReplicaReads.open()) {
+			assertSame(primaryConnection, dataSource.getConnection(), "Validate if writes always use the primary");
+			dataSource.getConnection();
+		}
+
+		List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+		assertEquals(1, synchronizations.size(), "Validate if the write is tracked once per transaction");
+
+		assertEquals(0, replicaRouting.getWrites(), "Validate if the write is only recorded on commit");
+		synchronizations.forEach(TransactionSynchronization::afterCommit);
+		assertEquals(1, replicaRouting.getWrites());
+
+		assertFalse(replicaRouting.admit("alice"));
+	}
+
+	private static void beginTransaction(boolean readOnly) {
+
+		if (!TransactionSynchronizationManager.isSynchronizationActive())
+			TransactionSynchronizationManager.initSynchronization();
+
+		TransactionSynchronizationManager.setActualTransactionActive(true);
+		TransactionSynchronizationManager.setCurrentTransactionReadOnly(readOnly);
+	}
+
+}
@@ -0,0 +1,148 @@
+package org.curso.automacao.modulos.erp.orderservice.unittest;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.servlet.http.HttpServletResponse;
+
+import org.curso.automacao.modulos.erp.orderservice.config.LatencyHistogram;
+import org.curso.automacao.modulos.erp.orderservice.config.RequestMetrics;
+import org.curso.automacao.modulos.erp.orderservice.config.RequestMetrics.Timer;
+import org.curso.automacao.modulos.erp.orderservice.config.RequestMetricsFilter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.HandlerMapping;
+
+@Tag("unit-tests")
+public class RequestMetricsTest {
+
+	private RequestMetrics requestMetrics;
+
+	@BeforeEach
+	public void createMetrics() {
+		requestMetrics = new RequestMetrics();
+		ReflectionTestUtils.setField(requestMetrics, "windowMs", 2L);
+		requestMetrics.init();
+	}
+
+	@Test
+	public void validateHistogramQuantiles() {
+
+		LatencyHistogram histogram = new LatencyHistogram();
+
+		for (long millis = 1; millis <= 1000; millis++)
+			histogram.record(millis * 1000);
+
+		long[] counts = histogram.snapshot();
+
+		assertEquals(1000, LatencyHistogram.count(counts));
+		assertEquals(500_500_000L, histogram.getSumMicros());
+		assertEquals(500, LatencyHistogram.quantileMs(counts, 0.5), 500 / 64.0, "Validate if the error stays within a bucket");
+		assertEquals(990, LatencyHistogram.quantileMs(counts, 0.99), 990 / 64.0);
+		assertEquals(1000, LatencyHistogram.max(counts) / 1000.0, 1000 / 64.0);
+		assertEquals(0, LatencyHistogram.valueAtQuantile(new long[LatencyHistogram.BUCKETS], 0.99));
+	}
+
+	@Test
+	public void validateHistogramBoundsAndDeltas() {
+
+		LatencyHistogram histogram = new LatencyHistogram();
+		histogram.record(50);
+		histogram.record(200);
+
+		long[] before = histogram.snapshot();
+
+		histogram.record(200);
+		histogram.record(40_000_000);
+
+		long[] cumulative = LatencyHistogram.cumulative(histogram.snapshot());
+
+		assertEquals(LatencyHistogram.BOUNDS_MICROS.length + 1, cumulative.length);
+		assertEquals(1, cumulative[0], "Validate if only 50us is within 100us");
+		assertEquals(3, cumulative[1]);
+		assertEquals(3, cumulative[LatencyHistogram.BOUNDS_MICROS.length - 1],
+				"Validate if a value past the last bound is only in the total");
+		assertEquals(4, cumulative[LatencyHistogram.BOUNDS_MICROS.length]);
+
+		long[] delta = LatencyHistogram.minus(histogram.snapshot(), before);
+		assertEquals(2, LatencyHistogram.count(delta), "Validate if the delta holds only the later values");
+
+		histogram.clear();
+		assertArrayEquals(new long[LatencyHistogram.BUCKETS], histogram.snapshot());
+		assertEquals(0, histogram.getSumMicros());
+	}
+
+	@Test
+	public void validateRecentWindow() throws InterruptedException {
+
+		requestMetrics.started();
+		requestMetrics.finished("GET", "/api/v1/orders", 200, 3_000_000);
+
+		Timer timer = requestMetrics.getTimers().iterator().next();
+		long slice = requestMetrics.currentSlice();
+
+		assertEquals(1, LatencyHistogram.count(timer.recent(slice)));
+		assertEquals(1, LatencyHistogram.count(timer.recent(slice + 1)), "Validate if the previous half is still recent");
+		assertEquals(0, LatencyHistogram.count(timer.recent(slice + 2)), "Validate if an older half is left out");
+
+		Thread.sleep(10);
+
+		requestMetrics.started();
+		requestMetrics.finished("GET", "/api/v1/orders", 200, 5_000_000);
+
+		assertEquals(1, LatencyHistogram.count(timer.recent(requestMetrics.currentSlice())));
+		assertEquals(2, timer.getCount(), "Validate if the count covers the whole life of the service");
+		assertEquals(8_000, timer.getSumMicros());
+	}
+
+	@Test
+	public void validateInFlight() {
+
+		requestMetrics.started();
+		requestMetrics.started();
+		requestMetrics.finished("GET", "/api/v1/orders", 200, 1_000);
+
+		assertEquals(1, requestMetrics.getInFlight());
+		assertEquals(2, requestMetrics.takeMaxInFlight());
+		assertEquals(1, requestMetrics.takeMaxInFlight(), "Validate if the maximum starts again from what is in flight");
+	}
+
+	@Test
+	public void validateFilterLabels() throws Exception {
+
+		RequestMetricsFilter filter = new RequestMetricsFilter();
+		ReflectionTestUtils.setField(filter, "requestMetrics", requestMetrics);
+
+		MockHttpServletRequest matched = new MockHttpServletRequest("GET", "/api/v1/orders/7");
+		matched.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/v1/orders/{id}");
+		filter.doFilter(matched, new MockHttpServletResponse(),
+				(request, response) -> ((HttpServletResponse) response).setStatus(HttpServletResponse.SC_NOT_FOUND));
+
+		filter.doFilter(new MockHttpServletRequest("GET", "/api/v1/orders/7"), new MockHttpServletResponse(),
+				(request, response) -> ((HttpServletResponse) response).setStatus(HttpServletResponse.SC_UNAUTHORIZED));
+
+		MockHttpServletRequest failing = new MockHttpServletRequest("POST", "/api/v1/orders");
+		failing.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/v1/orders");
+		assertThrows(IllegalStateException.class, () -> filter.doFilter(failing, new MockHttpServletResponse(),
+				(request, response) -> {
+					throw new IllegalStateException("Handler failed");
+				}));
+
+		Map<String, Long> counts = new HashMap<>();
+		for (Timer timer : requestMetrics.getTimers())
+			counts.put(timer.getMethod() + " " + timer.getRoute() + " " + timer.getStatus(), timer.getCount());
+
+		assertEquals(Map.of("GET /api/v1/orders/{id} 404", 1L, "GET " + RequestMetrics.UNMATCHED_ROUTE + " 401", 1L,
+				"POST /api/v1/orders 500", 1L), counts, "Validate if requests are labelled by route, not by path");
+		assertEquals(0, requestMetrics.getInFlight(), "Validate if a failed request is no longer in flight");
+	}
+
+}
@@ -0,0 +1,161 @@
+package org.curso.automacao.modulos.erp.orderservice.unittest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.curso.automacao.modulos.erp.orderservice.security.helpers.ServiceTokenManager;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import com.sun.net.httpserver.HttpServer;
+
+@ActiveProfiles("mock")
+public class ServiceTokenManagerTest extends BaseTest {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(ServiceTokenManagerTest.class);
+
+	private static final int CALLERS = 8;
+
+	// Stands in for user-service: every login takes a while and returns a new token.
+	private static final HttpServer USER_SERVICE = startUserService();
+
+	private static final AtomicInteger LOGINS = new AtomicInteger();
+
+	@Autowired
+	private ServiceTokenManager serviceTokenManager;
+
+	@DynamicPropertySource
+	public static void userServiceUrl(DynamicPropertyRegistry registry) {
+		String url = "http://localhost:" + USER_SERVICE.getAddress().getPort();
+		registry.add("service.users.url", () -> url);
+		registry.add("localhost.service.users.url", () -> url);
+	}
+
+	@AfterAll
+	public static void stopUserService() {
+		USER_SERVICE.stop(0);
+	}
+
+	@Test
+	public void validateConcurrentRefreshesShareOneLogin() throws Exception {
+
+		LOGGER.info("Starting test of concurrent refreshes of a rejected token.");
+
+		String rejected = serviceTokenManager.getToken();
+		int logins = LOGINS.get();
+
+		Set<String> tokens = callConcurrently(() -> serviceTokenManager.refreshAfterUnauthorized(rejected));
+
+		assertEquals(logins + 1, LOGINS.get(), "Validate if only one caller logged in again");
+		assertEquals(1, tokens.size(), "Validate if every caller got the same token");
+		assertNotEquals(rejected, tokens.iterator().next());
+
+		LOGGER.info("End of test of concurrent refreshes of a rejected token.");
+	}
+
+	@Test
+	public void validateOlderRejectedTokenDoesNotLogIn() {
+
+		LOGGER.info("Starting test of a rejection of a token already replaced.");
+
+		String rejected = serviceTokenManager.getToken();
+		String current = serviceTokenManager.refreshAfterUnauthorized(rejected);
+		int logins = LOGINS.get();
+
+		assertEquals(current, serviceTokenManager.refreshAfterUnauthorized(rejected));
+		assertEquals(logins, LOGINS.get(), "Validate if the newer token was reused without a login");
+
+		LOGGER.info("End of test of a rejection of a token already replaced.");
+	}
+
+	@Test
+	public void validateValidTokenIsCached() throws Exception {
+
+		LOGGER.info("Starting test of reading a valid token.");
+
+		String token = serviceTokenManager.getToken();
+		int logins = LOGINS.get();
+
+		assertEquals(Set.of(token), callConcurrently(serviceTokenManager::getToken));
+		assertEquals(logins, LOGINS.get(), "Validate if no caller logged in");
+
+		LOGGER.info("End of test of reading a valid token.");
+	}
+
+	private static Set<String> callConcurrently(Callable<String> call) throws Exception {
+
+		ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+
+		try {
+			List<Future<String>> futures = new ArrayList<>();
+			for (int i = 0; i < CALLERS; i++)
+				futures.add(executor.submit(call));
+
+			Set<String> results = new HashSet<>();
+			for (Future<String> future : futures)
+				results.add(future.get());
+
+			return results;
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private static HttpServer startUserService() {
+
+		try {
+			HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+			server.setExecutor(Executors.newCachedThreadPool());
+			server.createContext("/auth", exchange -> {
+				int login = LOGINS.incrementAndGet();
+
+				try {
+					Thread.sleep(200);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+
+				long exp = System.currentTimeMillis() / 1000 + 3600;
+				String claims = Base64.getUrlEncoder().withoutPadding().encodeToString(
+						("{\"sub\":\"service\",\"login\":" + login + ",\"exp\":" + exp + "}")
+								.getBytes(StandardCharsets.UTF_8));
+				byte[] body = ("{\"token\":\"Bearer header." + claims + ".signature\"}")
+						.getBytes(StandardCharsets.UTF_8);
+
+				exchange.getResponseHeaders().add("Content-Type", "application/json");
+				exchange.sendResponseHeaders(200, body.length);
+
+				try (OutputStream out = exchange.getResponseBody()) {
+					out.write(body);
+				}
+			});
+			server.start();
+
+			return server;
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+}
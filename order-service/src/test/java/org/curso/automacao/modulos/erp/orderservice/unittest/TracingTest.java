@@ -0,0 +1,217 @@
+package org.curso.automacao.modulos.erp.orderservice.unittest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.curso.automacao.modulos.erp.orderservice.config.SpanRecorder;
+import org.curso.automacao.modulos.erp.orderservice.config.SpanRecorder.Span;
+import org.curso.automacao.modulos.erp.orderservice.config.TraceContext;
+import org.curso.automacao.modulos.erp.orderservice.config.TracePropagation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+
+import reactor.core.publisher.Mono;
+
+@Tag("unit-tests")
+public class TracingTest {
+
+	private static final String TRACE_ID = "4bf92f3577b34da6a3ce929d0e0e4736";
+
+	private static final String PARENT_ID = "00f067aa0ba902b7";
+
+	private SpanRecorder spanRecorder;
+
+	private TracePropagation tracePropagation;
+
+	@BeforeEach
+	public void createRecorder() {
+
+		spanRecorder = new SpanRecorder();
+		ReflectionTestUtils.setField(spanRecorder, "serviceName", "order-service");
+		ReflectionTestUtils.setField(spanRecorder, "bufferSize", 3);
+		spanRecorder.init();
+
+		tracePropagation = new TracePropagation();
+		ReflectionTestUtils.setField(tracePropagation, "spanRecorder", spanRecorder);
+	}
+
+	@AfterEach
+	public void detach() {
+		TraceContext.attach(null);
+	}
+
+	@Test
+	public void validateValidTraceparent() {
+
+		TraceContext context = TraceContext.fromHeaders(" 00-" + TRACE_ID + "-" + PARENT_ID + "-01 ", "vendor=1");
+
+		assertEquals(TRACE_ID, context.getTraceId());
+		assertEquals(PARENT_ID, context.getParentSpanId(), "Validate if the caller's span is the parent");
+		assertNotEquals(PARENT_ID, context.getSpanId());
+		assertTrue(context.isSampled());
+		assertEquals("vendor=1", context.getTraceState());
+		assertEquals("00-" + TRACE_ID + "-" + context.getSpanId() + "-01", context.toTraceparent());
+
+		assertFalse(TraceContext.fromHeaders("00-" + TRACE_ID + "-" + PARENT_ID + "-00", null).isSampled());
+		assertEquals(TRACE_ID, TraceContext.fromHeaders("01-" + TRACE_ID + "-" + PARENT_ID + "-01-future", null)
+				.getTraceId(), "Validate if later versions may append fields");
+	}
+
+	@Test
+	public void validateInvalidTraceparentStartsNewTrace() {
+
+		for (String traceparent : List.of("", "00-" + TRACE_ID.toUpperCase() + "-" + PARENT_ID + "-01",
+				"00-00000000000000000000000000000000-" + PARENT_ID + "-01",
+				"00-" + TRACE_ID + "-0000000000000000-01",
+				"ff-" + TRACE_ID + "-" + PARENT_ID + "-01",
+				"00-" + TRACE_ID + "-" + PARENT_ID + "-01-extra",
+				"01-" + TRACE_ID + "-" + PARENT_ID + "-01extra")) {
+
+			TraceContext context = TraceContext.fromHeaders(traceparent, null);
+
+			assertNotEquals(TRACE_ID, context.getTraceId(), traceparent);
+			assertNull(context.getParentSpanId(), traceparent);
+			assertTrue(context.isSampled());
+		}
+
+		TraceContext root = TraceContext.fromHeaders(null, null);
+		assertEquals(32, root.getTraceId().length());
+		assertEquals(16, root.getSpanId().length());
+	}
+
+	@Test
+	public void validateRecorderKeepsTheLastSpans() {
+
+		TraceContext root = TraceContext.root();
+
+		for (int i = 0; i < 5; i++)
+			spanRecorder.record(root.child(), SpanRecorder.CLIENT, "GET /" + i, "localhost:8101", i, 1_000, 200, null);
+
+		spanRecorder.record(TraceContext.fromHeaders("00-" + TRACE_ID + "-" + PARENT_ID + "-00", null),
+				SpanRecorder.SERVER, "GET /skipped", null, 0, 1_000, 200, null);
+
+		List<Span> spans = spanRecorder.findTrace(root.getTraceId());
+
+		assertEquals(5, spanRecorder.getRecorded(), "Validate if unsampled spans are not recorded");
+		assertEquals(3, spans.size(), "Validate if the oldest spans are overwritten");
+		assertTrue(spans.stream().noneMatch(span -> span.getName().equals("GET /0")));
+	}
+
+	@Test
+	public void validateEntrySpans() {
+
+		TraceContext server = TraceContext.root();
+
+		spanRecorder.record(server, SpanRecorder.SERVER, "GET /api/v1/orders", null, 100, 9_000_000, 200, null);
+		spanRecorder.record(server.child(), SpanRecorder.CLIENT, "GET /api/v1/customers", "localhost:8101", 200,
+				8_000_000, 200, null);
+		spanRecorder.record(TraceContext.root(), SpanRecorder.CLIENT, "GET /changes-since", "localhost:8102", 300,
+				2_000_000, 200, null);
+
+		List<Span> entries = spanRecorder.findEntrySpans(null, 0, 10);
+
+		assertEquals(List.of("GET /changes-since", "GET /api/v1/orders"),
+				List.of(entries.get(0).getName(), entries.get(1).getName()),
+				"Validate if calls made while serving a request are left out, newest first");
+		assertEquals(1, spanRecorder.findEntrySpans(SpanRecorder.SERVER, 0, 10).size());
+		assertEquals(1, spanRecorder.findEntrySpans(null, 5_000, 10).size(), "Validate if the minimum duration applies");
+		assertEquals(1, spanRecorder.findEntrySpans(null, 0, 1).size());
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void validateBreakdownSelfTime() {
+
+		// A 100ms request calling two services at once from 10ms to 40ms and from 20ms to 60ms.
+		List<Span> spans = List.of(
+				new Span("t", "a", null, "order-service", SpanRecorder.SERVER, "GET /orders", null, 0, 100_000, 200, null),
+				new Span("t", "b", "a", "order-service", SpanRecorder.CLIENT, "GET /customers", "c", 10_000, 30_000, 200,
+						null),
+				new Span("t", "c", "a", "order-service", SpanRecorder.CLIENT, "GET /products", "p", 20_000, 40_000, 200,
+						null));
+
+		Map<String, Object> breakdown = SpanRecorder.breakdown("t", spans);
+		List<Map<String, Object>> rows = (List<Map<String, Object>>) breakdown.get("spans");
+
+		assertEquals(100.0, breakdown.get("durationMs"));
+		assertEquals(List.of("a", "b", "c"), rows.stream().map(row -> row.get("spanId")).toList());
+		assertEquals(50.0, rows.get(0).get("selfMs"), "Validate if overlapping children are only counted once");
+		assertEquals(1, rows.get(1).get("depth"));
+		assertTrue(((String) breakdown.get("slowest")).startsWith("order-service SERVER GET /orders"));
+	}
+
+	@Test
+	public void validateRestTemplatePropagation() throws IOException {
+
+		TraceContext server = TraceContext.root();
+		TraceContext.attach(server);
+
+		MockClientHttpRequest request = new MockClientHttpRequest(HttpMethod.GET,
+				URI.create("http://localhost:8101/api/v1/customers/1"));
+
+		ClientHttpResponse response = tracePropagation.intercept(request, new byte[0],
+				(sent, body) -> new MockClientHttpResponse(new byte[0], HttpStatus.OK));
+
+		String traceparent = request.getHeaders().getFirst(TraceContext.TRACEPARENT);
+		assertTrue(traceparent.startsWith("00-" + server.getTraceId() + "-"));
+		assertEquals(0, spanRecorder.getRecorded(), "Validate if the span ends with the response, not before");
+
+		response.close();
+		response.close();
+
+		List<Span> spans = spanRecorder.findTrace(server.getTraceId());
+
+		assertEquals(1, spans.size(), "Validate if closing twice records one span");
+		assertEquals(server.getSpanId(), spans.get(0).getParentSpanId());
+		assertEquals(traceparent.substring(36, 52), spans.get(0).getSpanId());
+		assertEquals("GET /api/v1/customers/1", spans.get(0).getName());
+		assertEquals("localhost:8101", spans.get(0).getPeer());
+	}
+
+	@Test
+	public void validateWebClientPropagation() {
+
+		TraceContext server = TraceContext.root();
+		AtomicReference<String> traceparent = new AtomicReference<>();
+
+		ClientRequest request = ClientRequest.create(HttpMethod.GET, URI.create("http://localhost:8102/api/v1/products"))
+				.build();
+
+		String body = tracePropagation.filter(request, sent -> {
+			traceparent.set(sent.headers().getFirst(TraceContext.TRACEPARENT));
+			return Mono.just(ClientResponse.create(HttpStatus.NOT_FOUND).body("none").build());
+		}).flatMap(response -> response.bodyToMono(String.class))
+				.contextWrite(context -> context.put(TraceContext.class, server))
+				.block();
+
+		assertEquals("none", body);
+		assertTrue(traceparent.get().startsWith("00-" + server.getTraceId() + "-"),
+				"Validate if the parent comes from the Reactor context");
+
+		List<Span> spans = spanRecorder.findTrace(server.getTraceId());
+
+		assertEquals(1, spans.size());
+		assertEquals(404, spans.get(0).getStatus());
+		assertNull(spans.get(0).getError());
+	}
+
+}
@@ -2,12 +2,20 @@ package org.curso.automacao.modulos.erp.productservice;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class ProductServiceApplication {
 
+	// Startup steps kept for /api/v1/metrics/startup.
+	private static final int STARTUP_STEPS_CAPACITY = 4096;
+
 	public static void main(String[] args) {
-		SpringApplication.run(ProductServiceApplication.class, args);
+		SpringApplication application = new SpringApplication(ProductServiceApplication.class);
+		application.setApplicationStartup(new BufferingApplicationStartup(STARTUP_STEPS_CAPACITY));
+		application.run(args);
 	}
 
 }
@@ -2,23 +2,62 @@ package org.curso.automacao.modulos.erp.productservice.common;
 
 import java.io.File;
 import java.io.FileWriter;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.persistence.EntityManager;
+import javax.persistence.OptimisticLockException;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Query;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Root;
+import javax.persistence.metamodel.Attribute;
+import javax.persistence.metamodel.EntityType;
 
 import org.curso.automacao.modulos.erp.productservice.enums.ServiceExceptionOperationType;
+import org.curso.automacao.modulos.erp.productservice.exceptions.ConcurrentUpdateException;
 import org.curso.automacao.modulos.erp.productservice.exceptions.ServiceException;
+import org.hibernate.jpa.QueryHints;
+import org.springframework.beans.DirectFieldAccessor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.GenericTypeResolver;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.ClassUtils;
 
 import com.google.gson.Gson;
 
 public abstract class BaseService<R extends JpaRepository<E, Long>, E extends BaseEntity> {
 
+	private static final int STREAM_FETCH_SIZE = 500;
+
+	// Same as hibernate.jdbc.batch_size, so each flush in saveAll() sends full batches.
+	@Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}")
+	private int batchSize = 50;
+
 	@Autowired
 	public R repository;
 
+	@PersistenceContext
+	private EntityManager em;
+
+	@Autowired
+	private ChangeFeed changeFeed;
+
+	private volatile DirectUpdate directUpdate;
+
 	public Optional<E> findById(long id) throws ServiceException {
 		try {
 			return repository.findById(id);
@@ -36,41 +75,339 @@ public abstract class BaseService<R extends JpaRepository<E, Long>, E extends Ba
 		}
 	}
 
-	@Transactional
+	public List<E> findByIds(Collection<Long> ids) throws ServiceException {
+		try {
+			return repository.findAllById(ids);
+		} catch (Exception e) {
+			throw new ServiceException(ServiceExceptionOperationType.OTHER, null,
+					"Error in finding entities by ids {" + ids + "}", e);
+		}
+	}
+
+	public Page<E> findPage(int page, int size) throws ServiceException {
+		try {
+			return repository.findAll(PageRequest.of(page, size, Sort.by("id")));
+		} catch (Exception e) {
+			throw new ServiceException(ServiceExceptionOperationType.OTHER, null,
+					"Error in finding page {" + page + "} of entities.", e);
+		}
+	}
+
+	public List<E> findAfter(long afterId, int size) throws ServiceException {
+		try {
+			CriteriaBuilder cb = em.getCriteriaBuilder();
+			CriteriaQuery<E> cq = cb.createQuery(getEntityClass());
+			Root<E> root = cq.from(getEntityClass());
+
+			cq.select(root)
+					.where(cb.greaterThan(root.get("id"), afterId))
+					.orderBy(cb.asc(root.get("id")));
+
+			return em.createQuery(cq).setMaxResults(size).getResultList();
+		} catch (Exception e) {
+			throw new ServiceException(ServiceExceptionOperationType.OTHER, null,
+					"Error in finding entities after id {" + afterId + "}", e);
+		}
+	}
+
+	/**
+	 * Entities inserted or updated and ids deleted after {@code version}, oldest
+	 * first. Only changes already committed are returned, so the version handed
+	 * back is safe to resume from.
+	 */
+	@Transactional(readOnly = true)
+	public ChangeSet<E> findChangesSince(long version, int limit) throws ServiceException {
+		try {
+			long published = changeFeed.getPublishedVersion();
+
+			CriteriaBuilder cb = em.getCriteriaBuilder();
+			CriteriaQuery<E> cq = cb.createQuery(getEntityClass());
+			Root<E> root = cq.from(getEntityClass());
+
+			cq.select(root)
+					.where(cb.greaterThan(root.get("changeVersion"), version),
+							cb.lessThanOrEqualTo(root.get("changeVersion"), published))
+					.orderBy(cb.asc(root.get("changeVersion")));
+
+			List<E> changed = em.createQuery(cq).setMaxResults(limit).getResultList();
+
+			boolean hasMore = changed.size() == limit;
+			long upTo = hasMore ? changed.get(changed.size() - 1).getChangeVersion() : Math.max(version, published);
+
+			List<Long> deleted = em.createQuery("select d.entityId from DeletedEntity d where d.entityName = :entityName"
+					+ " and d.changeVersion > :version and d.changeVersion <= :upTo order by d.changeVersion", Long.class)
+					.setParameter("entityName", getEntityClass().getSimpleName())
+					.setParameter("version", version)
+					.setParameter("upTo", upTo)
+					.getResultList();
+
+			return ChangeSet.<E>builder().version(upTo).hasMore(hasMore).changed(changed).deleted(deleted).build();
+		} catch (Exception e) {
+			throw new ServiceException(ServiceExceptionOperationType.OTHER, null,
+					"Error in finding changes since version {" + version + "}", e);
+		}
+	}
+
+	@Transactional(readOnly = true)
+	public void streamAll(Consumer<E> consumer) throws ServiceException {
+		CriteriaBuilder cb = em.getCriteriaBuilder();
+		CriteriaQuery<E> cq = cb.createQuery(getEntityClass());
+		Root<E> root = cq.from(getEntityClass());
+
+		cq.select(root).orderBy(cb.asc(root.get("id")));
+
+		try (Stream<E> results = em.createQuery(cq).setHint(QueryHints.HINT_FETCH_SIZE, STREAM_FETCH_SIZE)
+				.setHint(QueryHints.HINT_READONLY, true).getResultStream()) {
+			// Each row is detached once written so the persistence context does not grow with the table.
+			results.forEach(entity -> {
+				consumer.accept(entity);
+				em.detach(entity);
+			});
+		} catch (Exception e) {
+			throw new ServiceException(ServiceExceptionOperationType.OTHER, null, "Error in streaming all entities.", e);
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	protected Class<E> getEntityClass() {
+		return (Class<E>) GenericTypeResolver.resolveTypeArguments(ClassUtils.getUserClass(getClass()),
+				BaseService.class)[1];
+	}
+
+	/**
+	 * Checks done before an entity is written by either {@link #save} or
+	 * {@link #update}.
+	 */
+	protected void validate(E entity) throws ServiceException {
+	}
+
+	@Transactional(rollbackFor = ServiceException.class)
 	public E save(E entity) throws ServiceException {
+
+		validate(entity);
+
 		try {
+			// Without a version Spring Data would take an existing entity for a new one and try to insert it.
+			if (entity.getId() != 0 && entity.getVersion() == null)
+				entity.setVersion(loadVersion(entity.getId()));
+
 			return repository.save(entity);
 		} catch (Exception e) {
+			if (isVersionConflict(e))
+				throw new ConcurrentUpdateException(entity, e);
+
 			throw new ServiceException(ServiceExceptionOperationType.SAVE, entity, "Error in saving entity", e);
 		}
 	}
 
+	/**
+	 * Saves all entities in one transaction. Inserts go to the database in JDBC
+	 * batches, and the persistence context is cleared after each batch so it does
+	 * not grow with the list.
+	 */
+	@Transactional(rollbackFor = ServiceException.class)
+	public List<E> saveAll(List<E> entities) throws ServiceException {
+
+		List<E> saved = new ArrayList<>(entities.size());
+
+		for (E entity : entities) {
+			saved.add(save(entity));
+
+			if (saved.size() % batchSize == 0) {
+				em.flush();
+				em.clear();
+			}
+		}
+
+		return saved;
+	}
+
+	/**
+	 * Writes the entity with a single UPDATE, without loading it first. When it
+	 * carries a version the row is only written if that is still the stored
+	 * version; without one the last writer wins, as before entities had versions.
+	 */
+	@Transactional(rollbackFor = ServiceException.class)
 	public E update(E entity) throws ServiceException {
 
-		Optional<E> entity0 = repository.findById(entity.getId());
+		DirectUpdate statements = getDirectUpdate();
 
-		if (entity0.isEmpty())
-			throw new ServiceException(ServiceExceptionOperationType.UPDATE, entity,
-					"Error in update entity, id {" + entity.getId() + "} was not found");
-		else
-			return save(entity);
+		if (!statements.isSupported())
+			return merge(entity);
+
+		validate(entity);
+
+		Long expectedVersion = entity.getVersion();
+		int updated;
+
+		try {
+			Query query = em.createQuery(expectedVersion == null ? statements.unconditional : statements.versioned)
+					.setParameter("id", entity.getId());
+
+			entity.setChangeVersion(changeFeed == null ? ChangeFeed.UNVERSIONED : changeFeed.next());
+
+			DirectFieldAccessor fields = new DirectFieldAccessor(entity);
+
+			for (String attribute : statements.attributes)
+				query.setParameter(attribute, fields.getPropertyValue(attribute));
+
+			if (expectedVersion != null)
+				query.setParameter("version", expectedVersion);
+
+			updated = query.executeUpdate();
+		} catch (Exception e) {
+			throw new ServiceException(ServiceExceptionOperationType.UPDATE, entity, "Error in updating entity", e);
+		}
+
+		if (updated == 0) {
+			Long currentVersion = findVersion(entity.getId());
+
+			if (currentVersion == null)
+				throw new ServiceException(ServiceExceptionOperationType.UPDATE, entity,
+						"Error in update entity, id {" + entity.getId() + "} was not found");
+
+			throw new ConcurrentUpdateException(entity, currentVersion);
+		}
+
+		entity.setVersion(expectedVersion != null ? expectedVersion + 1 : findVersion(entity.getId()));
+		return entity;
+	}
+
+	/**
+	 * Entities with associations cannot be written with one statement, so they are
+	 * merged and Hibernate checks the version.
+	 */
+	private E merge(E entity) throws ServiceException {
+
+		if (entity.getVersion() == null) {
+			entity.setVersion(findVersion(entity.getId()));
+
+			if (entity.getVersion() == null)
+				throw new ServiceException(ServiceExceptionOperationType.UPDATE, entity,
+						"Error in update entity, id {" + entity.getId() + "} was not found");
+		}
+
+		try {
+			E saved = save(entity);
+			em.flush();
+			return saved;
+		} catch (ServiceException e) {
+			throw e;
+		} catch (Exception e) {
+			if (isVersionConflict(e))
+				throw new ConcurrentUpdateException(entity, e);
+
+			throw new ServiceException(ServiceExceptionOperationType.UPDATE, entity, "Error in updating entity", e);
+		}
 	}
 
+	private static boolean isVersionConflict(Throwable e) {
+
+		for (Throwable cause = e; cause != null; cause = cause.getCause())
+			if (cause instanceof OptimisticLockingFailureException || cause instanceof OptimisticLockException)
+				return true;
+
+		return false;
+	}
+
+	/**
+	 * Version of the stored entity for a save that came without one. Entities
+	 * without associations are loaded, and the merge that follows finds them in
+	 * the persistence context instead of selecting them again. Merging an
+	 * association into an entity loaded ahead of time costs more statements than
+	 * looking the version up.
+	 */
+	private Long loadVersion(long id) {
+
+		if (!getDirectUpdate().isSupported())
+			return findVersion(id);
+
+		E current = em.find(getEntityClass(), id);
+		return current == null ? null : current.getVersion();
+	}
+
+	private Long findVersion(long id) {
+		return em.createQuery("select e.version from " + getDirectUpdate().entityName + " e where e.id = :id", Long.class)
+				.setParameter("id", id)
+				.getResultStream()
+				.findFirst()
+				.orElse(null);
+	}
+
+	private DirectUpdate getDirectUpdate() {
+
+		if (directUpdate == null)
+			directUpdate = new DirectUpdate(em.getMetamodel().entity(getEntityClass()));
+
+		return directUpdate;
+	}
+
+	/**
+	 * JPQL for updating every basic column of an entity by id, built once per
+	 * entity type from the metamodel.
+	 */
+	private static class DirectUpdate {
+
+		private final String entityName;
+		private final List<String> attributes;
+		private final String unconditional;
+		private final String versioned;
+
+		private DirectUpdate(EntityType<?> type) {
+
+			entityName = type.getName();
+
+			attributes = type.getSingularAttributes().stream()
+					.filter(attribute -> !attribute.isId() && !attribute.isVersion()
+							&& attribute.getPersistentAttributeType() == Attribute.PersistentAttributeType.BASIC)
+					.map(Attribute::getName)
+					.sorted()
+					.toList();
+
+			// A single UPDATE only writes this table, so anything cascaded to another one is left to merge().
+			boolean associations = !type.getPluralAttributes().isEmpty() || type.getSingularAttributes().stream()
+					.anyMatch(attribute -> attribute.getPersistentAttributeType() != Attribute.PersistentAttributeType.BASIC);
+
+			if (associations) {
+				unconditional = null;
+				versioned = null;
+				return;
+			}
+
+			String assignments = attributes.stream().map(attribute -> "e." + attribute + " = :" + attribute)
+					.collect(Collectors.joining(", "));
+
+			unconditional = "update " + entityName + " e set " + assignments
+					+ ", e.version = e.version + 1 where e.id = :id";
+			versioned = unconditional + " and e.version = :version";
+		}
+
+		private boolean isSupported() {
+			return unconditional != null;
+		}
+	}
+
+	@Transactional(rollbackFor = ServiceException.class)
 	public E delete(E entity) throws ServiceException {
 		try {
 			repository.delete(entity);
+			recordDeletion(entity.getId());
+			em.flush();
 			return entity;
 		} catch (Exception e) {
 			throw new ServiceException(ServiceExceptionOperationType.DELETE, entity, "Error in deleting entity", e);
 		}
 	}
 
+	@Transactional(rollbackFor = ServiceException.class)
 	public E deleteById(long id) throws ServiceException {
 		Optional<E> entity = repository.findById(id);
 
 		if (entity.isPresent())
 			try {
 				repository.delete(entity.get());
+				recordDeletion(id);
+				em.flush();
 				return entity.get();
 			} catch (Exception e) {
 				throw new ServiceException(ServiceExceptionOperationType.DELETE, entity.get(),
@@ -81,6 +418,12 @@ public abstract class BaseService<R extends JpaRepository<E, Long>, E extends Ba
 					"Entity not found with id {" + id + "} to be deleted.");
 	}
 	
+	// Without a feed there is no one to tell about the deletion.
+	private void recordDeletion(long id) {
+		if (changeFeed != null)
+			changeFeed.recordDeletion(getEntityClass(), id);
+	}
+
 	public String generateFile() throws ServiceException {
 		String gson = new Gson().toJson(findAll());
 		File file = new File("data/" + UUID.randomUUID() + ".json");
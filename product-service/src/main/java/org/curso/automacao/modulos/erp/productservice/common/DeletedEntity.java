@@ -0,0 +1,44 @@
+package org.curso.automacao.modulos.erp.productservice.common;
+
+import java.io.Serializable;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Table;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Tombstone of a deleted entity, kept so the changes-since feed can report
+ * deletions as well as inserts and updates.
+ */
+@Entity
+@Table(name = DeletedEntity.TABLE_NAME, indexes = @Index(name = "ix_deleted_entities_entity", columnList = "entity_name, change_version"))
+@Getter @Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class DeletedEntity implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	public static final String TABLE_NAME = "tb_deleted_entities";
+
+	@Id
+	@Column(name = "change_version")
+	private Long changeVersion;
+
+	@Column(name = "entity_name", nullable = false)
+	private String entityName;
+
+	@Column(name = "entity_id", nullable = false)
+	private long entityId;
+
+	@Column(name = "deleted_at", nullable = false)
+	private long deletedAt;
+
+}
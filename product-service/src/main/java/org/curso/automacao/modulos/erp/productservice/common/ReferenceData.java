@@ -0,0 +1,121 @@
+package org.curso.automacao.modulos.erp.productservice.common;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.hash.Hashing;
+
+/**
+ * Immutable, sorted list of reference values (countries, companies) built once
+ * at startup. The full list is kept already serialized to JSON together with a
+ * strong ETag, so serving it does not allocate per request.
+ */
+public final class ReferenceData {
+
+	public static final int DEFAULT_SEARCH_LIMIT = 20;
+	public static final int MAX_SEARCH_LIMIT = 1000;
+
+	private static final CacheControl CACHE_CONTROL = CacheControl.maxAge(1, TimeUnit.DAYS).cachePublic();
+
+	private final List<String> values;
+	private final String[] searchKeys;
+	private final String[] searchValues;
+	private final byte[] json;
+	private final String eTag;
+
+	private ReferenceData(String[] sorted, byte[] json) {
+
+		this.values = Collections.unmodifiableList(Arrays.asList(sorted));
+		this.json = json;
+		this.eTag = "\"" + Hashing.sha256().hashBytes(json).toString() + "\"";
+
+		// Prefix search is case-insensitive, so it runs over a second copy ordered by the lower-cased value.
+		String[] byKey = sorted.clone();
+		Arrays.sort(byKey, Comparator.comparing((String value) -> value.toLowerCase(Locale.ROOT)));
+
+		this.searchValues = byKey;
+		this.searchKeys = Arrays.stream(byKey).map(value -> value.toLowerCase(Locale.ROOT)).toArray(String[]::new);
+	}
+
+	public static ReferenceData of(Collection<String> values, ObjectMapper objectMapper) {
+
+		String[] sorted = new TreeSet<>(values).toArray(String[]::new);
+
+		try {
+			return new ReferenceData(sorted, objectMapper.writeValueAsBytes(sorted));
+		} catch (JsonProcessingException e) {
+			throw new IllegalStateException("Could not serialize reference data", e);
+		}
+	}
+
+	public List<String> getValues() {
+		return values;
+	}
+
+	public String getETag() {
+		return eTag;
+	}
+
+	public List<String> findByPrefix(String prefix, int limit) {
+
+		String key = prefix == null ? "" : prefix.toLowerCase(Locale.ROOT);
+		int max = Math.max(1, Math.min(limit, MAX_SEARCH_LIMIT));
+
+		int index = Arrays.binarySearch(searchKeys, key);
+		if (index < 0)
+			index = -index - 1;
+
+		List<String> results = new ArrayList<>(Math.min(max, searchKeys.length - index));
+
+		for (; index < searchKeys.length && results.size() < max && searchKeys[index].startsWith(key); index++)
+			results.add(searchValues[index]);
+
+		return results;
+	}
+
+	/**
+	 * The whole list as JSON, or 304 when the client already holds the current
+	 * version.
+	 */
+	public ResponseEntity<byte[]> toResponse(String ifNoneMatch) {
+
+		if (matches(ifNoneMatch))
+			return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).cacheControl(CACHE_CONTROL).build();
+
+		return ResponseEntity.ok()
+				.eTag(eTag)
+				.cacheControl(CACHE_CONTROL)
+				.contentType(MediaType.APPLICATION_JSON)
+				.body(json);
+	}
+
+	private boolean matches(String ifNoneMatch) {
+
+		if (ifNoneMatch == null)
+			return false;
+
+		for (String candidate : ifNoneMatch.split(",")) {
+			String tag = candidate.trim();
+
+			if (tag.equals("*") || tag.equals(eTag) || tag.equals("W/" + eTag))
+				return true;
+		}
+
+		return false;
+	}
+
+}
@@ -4,19 +4,17 @@ import java.util.Arrays;
 import java.util.List;
 
 import org.curso.automacao.modulos.erp.productservice.impl.Product;
-import org.curso.automacao.modulos.erp.productservice.impl.ProductQueryBuilder;
 import org.curso.automacao.modulos.erp.productservice.impl.ProductRepository;
-import org.curso.automacao.modulos.erp.productservice.impl.ProductStock;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.boot.ApplicationArguments;
-import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.core.env.Environment;
 import org.springframework.stereotype.Component;
 
 @Component
-public class ApplicationConfig implements ApplicationRunner {
+public class ApplicationConfig {
 
 	private static final Logger LOGGER = LoggerFactory.getLogger(ApplicationConfig.class);
 
@@ -24,7 +22,7 @@ public class ApplicationConfig implements ApplicationRunner {
 	private ProductRepository productRepository;
 
 	@Autowired
-	private ProductQueryBuilder productQueryBuilder;
+	private DataSeeder dataSeeder;
 	
 	@Autowired
 	private Environment env;
@@ -33,27 +31,29 @@ public class ApplicationConfig implements ApplicationRunner {
 		this.productRepository = productRepository;
 	}
 
-	public void run(ApplicationArguments args) {
+	@EventListener(ApplicationReadyEvent.class)
+	public void run() {
 		
-		if (Arrays.stream(env.getActiveProfiles()).anyMatch(p -> p.equalsIgnoreCase("mock")))
+		if (Arrays.stream(env.getActiveProfiles()).anyMatch(p -> p.equalsIgnoreCase("mock"))) {
+			dataSeeder.skip("mock profile is active");
 			return;
+		}
+
+		dataSeeder.start(this::createProducts);
+	}
+
+	private void createProducts(DataSeeder seeder) {
 
-		if (productRepository.findAll().size() == 0) {
-			List<Product> products = ApplicationConfigHelper.createListOfProducts();
-			LOGGER.info(
-					"Total products to be created {" + (products != null ? String.valueOf(products.size()) : 0) + "}");
-
-			if (products != null) {
-				for (Product product : products) {
-
-					if (productQueryBuilder.findProductBy(product.getName()) == null) {
-						product.getStock().setProduct(product);
-						//productStock.setProduct(product);
-						productRepository.save(product);
-					}
-				}
-			}
+		if (productRepository.count() > 0) {
+			seeder.skip("products already exist");
+			return;
 		}
+
+		List<Product> products = ApplicationConfigHelper.createListOfProducts();
+		LOGGER.info("Total products to be created {" + products.size() + "}");
+
+		products.forEach(product -> product.getStock().setProduct(product));
+		seeder.insertInBatches(products, productRepository::saveAll);
 	}
 
 }
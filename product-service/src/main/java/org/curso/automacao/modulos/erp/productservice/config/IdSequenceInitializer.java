@@ -0,0 +1,64 @@
+package org.curso.automacao.modulos.erp.productservice.config;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+import org.hibernate.persister.entity.EntityPersister;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Moves each id sequence past the highest id already in its table. Tables
+ * filled while ids came from IDENTITY columns would otherwise get colliding ids
+ * from a freshly created sequence. Runs before the web server starts accepting
+ * requests.
+ */
+@Component
+public class IdSequenceInitializer implements SmartInitializingSingleton {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(IdSequenceInitializer.class);
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Override
+	public void afterSingletonsInstantiated() {
+
+		SessionFactoryImplementor sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+
+		for (EntityPersister persister : sessionFactory.getMetamodel().entityPersisters().values()) {
+
+			if (!(persister.getIdentifierGenerator() instanceof SequenceStyleGenerator generator)
+					|| !(persister instanceof AbstractEntityPersister entityPersister))
+				continue;
+
+			String sequence = generator.getDatabaseStructure().getPhysicalName().render();
+
+			Long maxId = jdbcTemplate.queryForObject("select max(" + entityPersister.getIdentifierColumnNames()[0]
+					+ ") from " + entityPersister.getTableName(), Long.class);
+
+			if (maxId == null)
+				continue;
+
+			Long next = jdbcTemplate.queryForObject(
+					sessionFactory.getJdbcServices().getDialect().getSequenceNextValString(sequence), Long.class);
+
+			if (next != null && next <= maxId) {
+				LOGGER.info("Restarting sequence [" + sequence + "] at " + (maxId + 1) + ", after the ids already in ["
+						+ entityPersister.getTableName() + "]");
+
+				jdbcTemplate.execute("alter sequence " + sequence + " restart with " + (maxId + 1));
+			}
+		}
+	}
+
+}
@@ -0,0 +1,58 @@
+package org.curso.automacao.modulos.erp.productservice.config;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+
+import lombok.Getter;
+
+/**
+ * Timings Hikari reports for one pool: how long callers waited for a
+ * connection, how long they kept it and how many gave up waiting.
+ */
+public class PoolMetrics implements IMetricsTracker {
+
+	@Getter
+	private final String poolName;
+
+	@Getter
+	private final LatencyHistogram acquire = new LatencyHistogram();
+
+	@Getter
+	private final LatencyHistogram usage = new LatencyHistogram();
+
+	@Getter
+	private final LatencyHistogram creation = new LatencyHistogram();
+
+	private final LongAdder timeouts = new LongAdder();
+
+	public PoolMetrics(String poolName) {
+		this.poolName = poolName;
+	}
+
+	@Override
+	public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+		acquire.record(TimeUnit.NANOSECONDS.toMicros(elapsedAcquiredNanos));
+	}
+
+	@Override
+	public void recordConnectionUsageMillis(long elapsedBorrowedMillis) {
+		usage.record(TimeUnit.MILLISECONDS.toMicros(elapsedBorrowedMillis));
+	}
+
+	@Override
+	public void recordConnectionCreatedMillis(long connectionCreatedMillis) {
+		creation.record(TimeUnit.MILLISECONDS.toMicros(connectionCreatedMillis));
+	}
+
+	@Override
+	public void recordConnectionTimeout() {
+		timeouts.increment();
+	}
+
+	public long getTimeouts() {
+		return timeouts.sum();
+	}
+
+}
@@ -0,0 +1,150 @@
+package org.curso.automacao.modulos.erp.productservice.config;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import lombok.Getter;
+
+/**
+ * Request timers by method, matched route and status. Counts and sums cover
+ * the whole life of the service, percentiles only the recent window: each
+ * timer records into one of two half-window histograms and a half is cleared
+ * when its turn comes round again.
+ */
+@Component
+public class RequestMetrics {
+
+	// Requests that never reached a handler, such as those rejected by security.
+	public static final String UNMATCHED_ROUTE = "UNMATCHED";
+
+	@Value("${metrics.latency.window-ms:60000}")
+	private long windowMs;
+
+	private long sliceMs;
+
+	private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+	private final AtomicInteger inFlight = new AtomicInteger();
+
+	private final AtomicInteger maxInFlight = new AtomicInteger();
+
+	@PostConstruct
+	public void init() {
+		sliceMs = Math.max(1, windowMs / 2);
+	}
+
+	public static class Timer {
+
+		@Getter
+		private final String method;
+
+		@Getter
+		private final String route;
+
+		@Getter
+		private final int status;
+
+		private final LongAdder count = new LongAdder();
+		private final LongAdder sumMicros = new LongAdder();
+
+		private final Slice[] slices = { new Slice(), new Slice() };
+
+		Timer(String method, String route, int status) {
+			this.method = method;
+			this.route = route;
+			this.status = status;
+		}
+
+		void record(long micros, long slice) {
+
+			Slice current = slices[(int) (slice & 1)];
+
+			if (current.slice != slice)
+				current.rotate(slice);
+
+			current.histogram.record(micros);
+			count.increment();
+			sumMicros.add(micros);
+		}
+
+		/**
+		 * Bucket counts of the current and the previous half-window.
+		 */
+		public long[] recent(long slice) {
+
+			long[] counts = new long[LatencyHistogram.BUCKETS];
+
+			for (Slice candidate : slices)
+				if (candidate.slice == slice || candidate.slice == slice - 1)
+					candidate.histogram.addTo(counts);
+
+			return counts;
+		}
+
+		public long getCount() {
+			return count.sum();
+		}
+
+		public long getSumMicros() {
+			return sumMicros.sum();
+		}
+	}
+
+	private static class Slice {
+
+		private final LatencyHistogram histogram = new LatencyHistogram();
+
+		private volatile long slice = -1;
+
+		synchronized void rotate(long next) {
+			if (slice != next) {
+				histogram.clear();
+				slice = next;
+			}
+		}
+	}
+
+	public void started() {
+		maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+	}
+
+	public void finished(String method, String route, int status, long elapsedNanos) {
+
+		inFlight.decrementAndGet();
+
+		timers.computeIfAbsent(method + ' ' + route + ' ' + status, key -> new Timer(method, route, status))
+				.record(elapsedNanos / 1000, currentSlice());
+	}
+
+	public long currentSlice() {
+		return System.currentTimeMillis() / sliceMs;
+	}
+
+	public Collection<Timer> getTimers() {
+		return timers.values();
+	}
+
+	public int getInFlight() {
+		return inFlight.get();
+	}
+
+	/**
+	 * Highest number of concurrent requests since the previous call.
+	 */
+	public int takeMaxInFlight() {
+		return maxInFlight.getAndSet(inFlight.get());
+	}
+
+	public long getWindowMs() {
+		return windowMs;
+	}
+
+}
@@ -0,0 +1,34 @@
+package org.curso.automacao.modulos.erp.productservice.exceptions;
+
+import org.curso.automacao.modulos.erp.productservice.common.BaseEntity;
+import org.curso.automacao.modulos.erp.productservice.enums.ServiceExceptionOperationType;
+
+import lombok.Getter;
+
+/**
+ * The entity was changed by someone else since the client read the version it
+ * sent.
+ */
+public class ConcurrentUpdateException extends ServiceException {
+
+	private static final long serialVersionUID = 1L;
+
+	@Getter
+	private final Long currentVersion;
+
+	public ConcurrentUpdateException(BaseEntity entity, Long currentVersion) {
+		super(ServiceExceptionOperationType.UPDATE, entity, "Entity id {" + entity.getId() + "} is at version {"
+				+ currentVersion + "}, not {" + entity.getVersion() + "}");
+
+		this.currentVersion = currentVersion;
+	}
+
+	public ConcurrentUpdateException(BaseEntity entity, Exception innerException) {
+		super(ServiceExceptionOperationType.UPDATE, entity,
+				"Entity id {" + entity.getId() + "} was changed since version {" + entity.getVersion() + "}",
+				innerException);
+
+		this.currentVersion = null;
+	}
+
+}
@@ -0,0 +1,21 @@
+package org.curso.automacao.modulos.erp.productservice.exceptions;
+
+import org.curso.automacao.modulos.erp.productservice.enums.ServiceExceptionOperationType;
+
+import lombok.Getter;
+
+public class InsufficientStockException extends ServiceException {
+
+	private static final long serialVersionUID = 1L;
+
+	@Getter
+	private final long productId;
+
+	public InsufficientStockException(long productId, long quantity) {
+		super(ServiceExceptionOperationType.UPDATE,
+				"Not enough stock to reserve {" + quantity + "} of product id {" + productId + "}");
+
+		this.productId = productId;
+	}
+
+}
@@ -0,0 +1,112 @@
+package org.curso.automacao.modulos.erp.productservice.impl;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.curso.automacao.modulos.erp.productservice.config.AdaptivePoolSizer;
+import org.curso.automacao.modulos.erp.productservice.config.LatencyHistogram;
+import org.curso.automacao.modulos.erp.productservice.config.PoolMetrics;
+import org.curso.automacao.modulos.erp.productservice.config.PoolMetricsRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+
+@RestController
+@RequestMapping("/api/v1/metrics/datasource-pool")
+public class DataSourcePoolController {
+
+	@Autowired
+	private List<HikariDataSource> dataSources;
+
+	@Autowired
+	private PoolMetricsRegistry poolMetricsRegistry;
+
+	@Autowired
+	private AdaptivePoolSizer adaptivePoolSizer;
+
+	@GetMapping
+	public ResponseEntity<Map<String, Object>> getStats() {
+
+		Map<String, Object> pools = new LinkedHashMap<>();
+
+		for (HikariDataSource dataSource : dataSources)
+			pools.put(dataSource.getPoolName(), getStats(dataSource));
+
+		return new ResponseEntity<Map<String, Object>>(pools, HttpStatus.OK);
+	}
+
+	private Map<String, Object> getStats(HikariDataSource dataSource) {
+
+		HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+		PoolMetrics metrics = poolMetricsRegistry.get(dataSource.getPoolName());
+		AdaptivePoolSizer.Window window = adaptivePoolSizer.getWindow(dataSource.getPoolName());
+		long[] acquire = metrics.getAcquire().snapshot();
+		long[] usage = metrics.getUsage().snapshot();
+
+		Map<String, Object> stats = new LinkedHashMap<>();
+		stats.put("status", window == null ? AdaptivePoolSizer.Status.OK : window.getStatus());
+		stats.put("active", pool == null ? 0 : pool.getActiveConnections());
+		stats.put("idle", pool == null ? 0 : pool.getIdleConnections());
+		stats.put("pending", pool == null ? 0 : pool.getThreadsAwaitingConnection());
+		stats.put("total", pool == null ? 0 : pool.getTotalConnections());
+		stats.put("maximumPoolSize", dataSource.getHikariConfigMXBean().getMaximumPoolSize());
+		stats.put("minimumIdle", dataSource.getHikariConfigMXBean().getMinimumIdle());
+		stats.put("timeouts", metrics.getTimeouts());
+		stats.put("acquires", LatencyHistogram.count(acquire));
+		stats.put("acquireP50Ms", LatencyHistogram.quantileMs(acquire, 0.5));
+		stats.put("acquireP95Ms", LatencyHistogram.quantileMs(acquire, 0.95));
+		stats.put("acquireP99Ms", LatencyHistogram.quantileMs(acquire, 0.99));
+		stats.put("acquireHistogram", buckets(acquire));
+		stats.put("usageP50Ms", LatencyHistogram.quantileMs(usage, 0.5));
+		stats.put("usageP99Ms", LatencyHistogram.quantileMs(usage, 0.99));
+		stats.put("usageMeanMs", mean(metrics.getUsage().getSumMicros(), usage));
+		stats.put("usageHistogram", buckets(usage));
+
+		if (window != null) {
+			Map<String, Object> last = new LinkedHashMap<>();
+			last.put("acquires", window.getAcquires());
+			last.put("acquireP95Ms", window.getAcquireP95Ms());
+			last.put("utilization", window.getUtilization());
+			last.put("timeouts", window.getWindowTimeouts());
+			last.put("pending", window.getPending());
+			last.put("at", window.getAt());
+			stats.put("lastInterval", last);
+		}
+
+		Map<String, Object> adaptive = new LinkedHashMap<>();
+		adaptive.put("enabled", adaptivePoolSizer.isEnabled());
+		adaptive.put("minSize", adaptivePoolSizer.getMinSize());
+		adaptive.put("maxSize", adaptivePoolSizer.getMaxSize());
+		adaptive.put("resizes", window == null ? 0 : window.getResizes());
+		adaptive.put("lastResizeAt", window == null ? 0 : window.getLastResizeAt());
+		stats.put("adaptive", adaptive);
+
+		return stats;
+	}
+
+	// Cumulative counts keyed by the bucket's upper bound in milliseconds, as in a Prometheus histogram.
+	private static Map<String, Long> buckets(long[] snapshot) {
+
+		Map<String, Long> buckets = new LinkedHashMap<>();
+		long[] cumulative = LatencyHistogram.cumulative(snapshot);
+
+		for (int i = 0; i < cumulative.length; i++)
+			buckets.put(i < LatencyHistogram.BOUNDS_MICROS.length
+					? String.valueOf(LatencyHistogram.BOUNDS_MICROS[i] / 1000.0) : "+Inf", cumulative[i]);
+
+		return buckets;
+	}
+
+	private static double mean(long sumMicros, long[] snapshot) {
+		long count = LatencyHistogram.count(snapshot);
+		return count == 0 ? 0 : sumMicros / 1000.0 / count;
+	}
+
+}
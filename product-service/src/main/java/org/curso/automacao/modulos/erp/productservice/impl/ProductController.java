@@ -1,11 +1,18 @@
 package org.curso.automacao.modulos.erp.productservice.impl;
 
+import java.io.IOException;
 import java.util.List;
 
+import javax.servlet.http.HttpServletResponse;
+
 import org.curso.automacao.modulos.erp.productservice.common.BaseController;
+import org.curso.automacao.modulos.erp.productservice.common.ChangeSet;
+import org.curso.automacao.modulos.erp.productservice.exceptions.InsufficientStockException;
+import org.curso.automacao.modulos.erp.productservice.exceptions.ServiceException;
 import org.curso.automacao.modulos.erp.productservice.impl.helpers.UpdateStockInfo;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
@@ -15,6 +22,7 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
@@ -28,14 +36,36 @@ public class ProductController extends BaseController<ProductService, JpaReposit
 	
 	@Override
 	@GetMapping("/all")
-	public final ResponseEntity<List<Product>> findAll() {
-		return super.findAll();
+	public final ResponseEntity<List<Product>> findAll(@RequestParam(name = "page", required = false) Integer page,
+			@RequestParam(name = "size", required = false) Integer size,
+			@RequestParam(name = "after", required = false) Long after) {
+		return super.findAll(page, size, after);
+	}
+	
+	@Override
+	@GetMapping(value = "/stream", produces = NDJSON_MEDIA_TYPE)
+	public void streamAll(HttpServletResponse response) throws IOException {
+		super.streamAll(response);
 	}
 	
 	@Override
+	@GetMapping("/find-by/ids")
+	public ResponseEntity<List<Product>> findByIds(@RequestParam(name = "ids") List<Long> ids) {
+		return super.findByIds(ids);
+	}
+	
+	@Override
+	@GetMapping("/changes-since")
+	public ResponseEntity<ChangeSet<Product>> findChangesSince(@RequestParam(name = "version") long version,
+			@RequestParam(name = "limit", required = false) Integer limit) {
+		return super.findChangesSince(version, limit);
+	}
+	
 	@GetMapping("/find-by/id/{id}")
-	public ResponseEntity<Product> findById(@PathVariable("id") long id){
-		return super.findById(id);
+	public ResponseEntity<Product> findById(@PathVariable("id") long id) {
+		// The stock is part of the response but changes without bumping the product version,
+		// so If-None-Match cannot be honoured here.
+		return super.findById(id, null);
 	}
 	
 	@GetMapping("/find-by/product-name/{productName}")
@@ -47,27 +77,71 @@ public class ProductController extends BaseController<ProductService, JpaReposit
 	@PutMapping("/save")
 	public ResponseEntity<Product> save(@Validated @RequestBody Product entity) {	
 		
-		if(entity != null) {
-			if(entity.getStock() != null) {
-				entity.getStock().setProduct(entity);
-
-				if(entity.getStock().getId() == null)
-					entity.getStock().setId(entity.getId());
-			}
-		}
+		if(entity != null)
+			linkStock(entity);
 		
 		return super.save(entity);
 	}
+
+	@Override
+	@PutMapping("/save-all")
+	public ResponseEntity<List<Product>> saveAll(@RequestBody List<Product> entities) {
+
+		if(entities != null)
+			entities.forEach(this::linkStock);
+
+		return super.saveAll(entities);
+	}
+
+	private void linkStock(Product entity) {
+		if(entity.getStock() != null) {
+			entity.getStock().setProduct(entity);
+
+			if(entity.getStock().getId() == null)
+				entity.getStock().setId(entity.getId());
+		}
+	}
 	
 	@PutMapping("/update-stock")
 	public ResponseEntity<Product> updateStock(@Validated @RequestBody UpdateStockInfo updateStockInfo) {
 		return new ResponseEntity<Product>(productService.updateProductStock(updateStockInfo), HttpStatus.OK);
 	}
 
+	@PutMapping("/reserve-stock")
+	public ResponseEntity<List<UpdateStockInfo>> reserveStock(@RequestBody UpdateStockInfo line) {
+		return reserveStock(List.of(line));
+	}
+	
+	@PutMapping("/reserve-stock/batch")
+	public ResponseEntity<List<UpdateStockInfo>> reserveStock(@RequestBody List<UpdateStockInfo> lines) {
+		try {
+			return new ResponseEntity<List<UpdateStockInfo>>(productService.reserveStock(lines), HttpStatus.OK);
+		} catch (InsufficientStockException e) {
+			return new ResponseEntity<List<UpdateStockInfo>>(HttpStatus.CONFLICT);
+		} catch (ServiceException e) {
+			return new ResponseEntity<List<UpdateStockInfo>>(HttpStatus.UNPROCESSABLE_ENTITY);
+		}
+	}
+	
+	@PutMapping("/release-stock")
+	public ResponseEntity<List<UpdateStockInfo>> releaseStock(@RequestBody UpdateStockInfo line) {
+		return releaseStock(List.of(line));
+	}
+	
+	@PutMapping("/release-stock/batch")
+	public ResponseEntity<List<UpdateStockInfo>> releaseStock(@RequestBody List<UpdateStockInfo> lines) {
+		try {
+			return new ResponseEntity<List<UpdateStockInfo>>(productService.releaseStock(lines), HttpStatus.OK);
+		} catch (ServiceException e) {
+			return new ResponseEntity<List<UpdateStockInfo>>(HttpStatus.UNPROCESSABLE_ENTITY);
+		}
+	}
+
 	@Override
 	@PostMapping("/update")
-	public ResponseEntity<Product> update(@RequestBody @Validated Product entity) {
-		return super.update(entity);
+	public ResponseEntity<Product> update(@RequestBody @Validated Product entity,
+			@RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+		return super.update(entity, ifMatch);
 	}
 	
 	@Override
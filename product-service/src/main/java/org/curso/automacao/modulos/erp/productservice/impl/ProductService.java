@@ -1,12 +1,20 @@
 package org.curso.automacao.modulos.erp.productservice.impl;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.TreeMap;
 
 import org.curso.automacao.modulos.erp.productservice.common.BaseService;
+import org.curso.automacao.modulos.erp.productservice.enums.ServiceExceptionOperationType;
+import org.curso.automacao.modulos.erp.productservice.exceptions.InsufficientStockException;
+import org.curso.automacao.modulos.erp.productservice.exceptions.ServiceException;
 import org.curso.automacao.modulos.erp.productservice.impl.helpers.UpdateStockInfo;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 @Service
 public class ProductService extends BaseService<JpaRepository<Product,Long>, Product> {
@@ -17,6 +25,25 @@ public class ProductService extends BaseService<JpaRepository<Product,Long>, Pro
 	@Autowired
 	private ProductRepository productRepository;
 	
+	@Autowired
+	private ProductStockRepository productStockRepository;
+	
+	/**
+	 * Clients never see the id of a stock, so a stock sent with an existing
+	 * product is taken for the stored stock of that product.
+	 */
+	@Override
+	@Transactional(rollbackFor = ServiceException.class)
+	public Product save(Product entity) throws ServiceException {
+
+		if (entity.getId() != 0 && entity.getStock() != null && entity.getStock().getId() == null) {
+			entity.getStock().setId(entity.getId());
+			entity.getStock().setProduct(entity);
+		}
+
+		return super.save(entity);
+	}
+
 	public Product findByProductName(String productName) {
 		Product product = productQuery.findProductBy(productName);
 		return product;
@@ -37,4 +64,53 @@ public class ProductService extends BaseService<JpaRepository<Product,Long>, Pro
 		
 		return null;
 	}
+
+	/**
+	 * Takes the quantities of all lines atomically: either every line is reserved
+	 * or, when one product lacks stock, none is.
+	 */
+	@Transactional(rollbackFor = ServiceException.class)
+	public List<UpdateStockInfo> reserveStock(List<UpdateStockInfo> lines) throws ServiceException {
+
+		Map<Long, Long> quantities = mergeLines(lines);
+
+		for (Map.Entry<Long, Long> line : quantities.entrySet())
+			if (productStockRepository.reserve(line.getKey(), line.getValue()) == 0)
+				throw new InsufficientStockException(line.getKey(), line.getValue());
+
+		return findStockQuantities(quantities.keySet());
+	}
+
+	@Transactional(rollbackFor = ServiceException.class)
+	public List<UpdateStockInfo> releaseStock(List<UpdateStockInfo> lines) throws ServiceException {
+
+		Map<Long, Long> quantities = mergeLines(lines);
+
+		for (Map.Entry<Long, Long> line : quantities.entrySet())
+			if (productStockRepository.release(line.getKey(), line.getValue()) == 0)
+				throw new ServiceException(ServiceExceptionOperationType.UPDATE,
+						"Stock of product id {" + line.getKey() + "} was not found");
+
+		return findStockQuantities(quantities.keySet());
+	}
+
+	private List<UpdateStockInfo> findStockQuantities(Collection<Long> ids) {
+		return ids.isEmpty() ? List.of() : productStockRepository.findQuantities(ids);
+	}
+
+	private Map<Long, Long> mergeLines(List<UpdateStockInfo> lines) throws ServiceException {
+
+		// Sorted by id so concurrent batches always lock the stock rows in the same order.
+		Map<Long, Long> quantities = new TreeMap<>();
+
+		for (UpdateStockInfo line : lines) {
+			if (line.getId() == null || line.getQuantity() == null || line.getQuantity() <= 0)
+				throw new ServiceException(ServiceExceptionOperationType.UPDATE,
+						"Stock lines need a product id and a positive quantity");
+
+			quantities.merge(line.getId(), line.getQuantity(), Long::sum);
+		}
+
+		return quantities;
+	}
 }
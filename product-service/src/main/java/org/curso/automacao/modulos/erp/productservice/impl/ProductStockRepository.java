@@ -1,9 +1,32 @@
 package org.curso.automacao.modulos.erp.productservice.impl;
 
+import java.util.Collection;
+import java.util.List;
+
+import org.curso.automacao.modulos.erp.productservice.impl.helpers.UpdateStockInfo;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface ProductStockRepository extends JpaRepository<ProductStock, Long> {
 
+	/**
+	 * Takes {@code quantity} units only if that many are available. Returns 0 when
+	 * the stock is insufficient or does not exist.
+	 */
+	@Modifying(flushAutomatically = true, clearAutomatically = true)
+	@Query("UPDATE ProductStock s SET s.quantity = s.quantity - :quantity WHERE s.id = :id AND s.quantity >= :quantity")
+	int reserve(@Param("id") long id, @Param("quantity") long quantity);
+
+	@Modifying(flushAutomatically = true, clearAutomatically = true)
+	@Query("UPDATE ProductStock s SET s.quantity = s.quantity + :quantity WHERE s.id = :id")
+	int release(@Param("id") long id, @Param("quantity") long quantity);
+
+	@Query("SELECT new org.curso.automacao.modulos.erp.productservice.impl.helpers.UpdateStockInfo(s.id, s.quantity) "
+			+ "FROM ProductStock s WHERE s.id IN :ids ORDER BY s.id")
+	List<UpdateStockInfo> findQuantities(@Param("ids") Collection<Long> ids);
+
 }
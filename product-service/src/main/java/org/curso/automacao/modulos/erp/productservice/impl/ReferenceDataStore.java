@@ -0,0 +1,35 @@
+package org.curso.automacao.modulos.erp.productservice.impl;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+import javax.annotation.PostConstruct;
+
+import org.curso.automacao.modulos.erp.productservice.common.ReferenceData;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+@Component
+public class ReferenceDataStore {
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	private ReferenceData companies;
+
+	@PostConstruct
+	public void init() throws IOException {
+		try (InputStream inputStream = new ClassPathResource("data/companies.json").getInputStream()) {
+			companies = ReferenceData.of(List.of(objectMapper.readValue(inputStream, String[].class)), objectMapper);
+		}
+	}
+
+	public ReferenceData getCompanies() {
+		return companies;
+	}
+
+}
@@ -0,0 +1,139 @@
+package org.curso.automacao.modulos.erp.productservice.unittest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.curso.automacao.modulos.erp.productservice.config.DataSeeder;
+import org.curso.automacao.modulos.erp.productservice.config.DataSeeder.State;
+import org.curso.automacao.modulos.erp.productservice.impl.Product;
+import org.curso.automacao.modulos.erp.productservice.impl.ProductRepository;
+import org.curso.automacao.modulos.erp.productservice.impl.ProductStock;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.AutowireCapableBeanFactory;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.github.javafaker.Faker;
+
+@ActiveProfiles("mock")
+public class DataSeederTest extends BaseTest {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(DataSeederTest.class);
+
+	@Autowired
+	private DataSeeder dataSeeder;
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@Autowired
+	private AutowireCapableBeanFactory beanFactory;
+
+	@Test
+	public void validateMockProfileSkipsSeeding() {
+
+		LOGGER.info("Starting test of the seeding with the mock profile.");
+
+		assertEquals(State.SKIPPED, dataSeeder.getState());
+
+		LOGGER.info("End of test of the seeding with the mock profile.");
+	}
+
+	@Test
+	public void validateFailedAttemptsAreRetried() throws InterruptedException {
+
+		LOGGER.info("Starting test of retrying a failed seeding.");
+
+		DataSeeder seeder = newSeeder(0);
+		AtomicInteger calls = new AtomicInteger();
+		long products = productRepository.count();
+
+		seeder.start(task -> {
+			if (calls.incrementAndGet() < 3)
+				throw new IllegalStateException("Customer service is not up yet");
+
+			task.insertInBatches(newProducts(120), productRepository::saveAll);
+		});
+
+		awaitFinished(seeder);
+
+		assertEquals(State.DONE, seeder.getState());
+		assertEquals(3, seeder.getAttempts());
+		assertEquals(120, seeder.getInserted());
+		assertEquals(120, seeder.getTotal());
+		assertNotNull(seeder.getLastError(), "Validate if the last failure is reported");
+		assertEquals(products + 120, productRepository.count());
+
+		LOGGER.info("End of test of retrying a failed seeding.");
+	}
+
+	@Test
+	public void validateFailedAttemptIsRolledBack() throws InterruptedException {
+
+		LOGGER.info("Starting test of a seeding that fails halfway.");
+
+		DataSeeder seeder = newSeeder(1);
+		long products = productRepository.count();
+
+		seeder.start(task -> {
+			AtomicInteger batches = new AtomicInteger();
+
+			task.insertInBatches(newProducts(120), batch -> {
+				if (batches.incrementAndGet() == 3)
+					throw new IllegalStateException("Failed on the third batch");
+
+				productRepository.saveAll(batch);
+			});
+		});
+
+		awaitFinished(seeder);
+
+		assertEquals(State.FAILED, seeder.getState());
+		assertEquals(0, seeder.getInserted());
+		assertEquals(products, productRepository.count(), "Validate if the batches already flushed were rolled back");
+
+		LOGGER.info("End of test of a seeding that fails halfway.");
+	}
+
+	private DataSeeder newSeeder(int maxAttempts) {
+
+		DataSeeder seeder = beanFactory.createBean(DataSeeder.class);
+		ReflectionTestUtils.setField(seeder, "initialBackoff", 10L);
+		ReflectionTestUtils.setField(seeder, "maxAttempts", maxAttempts);
+
+		return seeder;
+	}
+
+	private static void awaitFinished(DataSeeder seeder) throws InterruptedException {
+
+		for (int i = 0; i < 500 && seeder.getFinishedAt() == null; i++)
+			Thread.sleep(20);
+
+		seeder.stop();
+	}
+
+	private static List<Product> newProducts(int count) {
+
+		Faker faker = Faker.instance();
+		List<Product> products = new ArrayList<>();
+
+		for (int i = 0; i < count; i++)
+			products.add(Product.builder()
+					.name(faker.commerce().productName())
+					.manufacturer(faker.company().name())
+					.supplier(faker.company().name())
+					.price(faker.number().numberBetween(1000, 15000))
+					.stock(ProductStock.builder().quantity(10L).build())
+					.build());
+
+		return products;
+	}
+
+}
@@ -0,0 +1,150 @@
+package org.curso.automacao.modulos.erp.productservice.unittest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.curso.automacao.modulos.erp.productservice.common.ChangeFeed;
+import org.curso.automacao.modulos.erp.productservice.common.ChangeSet;
+import org.curso.automacao.modulos.erp.productservice.exceptions.ServiceException;
+import org.curso.automacao.modulos.erp.productservice.impl.Product;
+import org.curso.automacao.modulos.erp.productservice.impl.ProductService;
+import org.curso.automacao.modulos.erp.productservice.impl.ProductStock;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.github.javafaker.Faker;
+
+@ActiveProfiles("mock")
+public class ProductChangesTest extends BaseTest {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(ProductChangesTest.class);
+
+	@Autowired
+	private ProductService productService;
+
+	@Autowired
+	private ChangeFeed changeFeed;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Test
+	public void validateInsertsAndUpdates() throws ServiceException {
+
+		LOGGER.info("Starting test of the changes since a version.");
+
+		long version = changeFeed.getPublishedVersion();
+
+		Product first = createProduct();
+		Product second = createProduct();
+
+		ChangeSet<Product> changes = productService.findChangesSince(version, 100);
+
+		assertEquals(List.of(first.getId(), second.getId()), ids(changes), "Validate if the changes come oldest first");
+		assertFalse(changes.isHasMore());
+		assertEquals(changeFeed.getPublishedVersion(), changes.getVersion());
+
+		first.setName(first.getName() + " v2");
+		productService.save(first);
+
+		changes = productService.findChangesSince(changes.getVersion(), 100);
+
+		assertEquals(List.of(first.getId()), ids(changes), "Validate if only the updated product comes back");
+		assertEquals(first.getName(), changes.getChanged().get(0).getName());
+
+		LOGGER.info("End of test of the changes since a version.");
+	}
+
+	@Test
+	public void validateDeletionsLeaveTombstones() throws ServiceException {
+
+		LOGGER.info("Starting test of deletions in the changes feed.");
+
+		Product product = createProduct();
+		long version = changeFeed.getPublishedVersion();
+
+		productService.deleteById(product.getId());
+
+		ChangeSet<Product> changes = productService.findChangesSince(version, 100);
+
+		assertTrue(changes.getChanged().isEmpty());
+		assertEquals(List.of(product.getId()), changes.getDeleted(), "Validate if the deletion is reported");
+		assertTrue(productService.findChangesSince(changes.getVersion(), 100).getDeleted().isEmpty(),
+				"Validate if the tombstone is reported once");
+
+		LOGGER.info("End of test of deletions in the changes feed.");
+	}
+
+	@Test
+	public void validatePages() throws ServiceException {
+
+		LOGGER.info("Starting test of paging through the changes feed.");
+
+		long version = changeFeed.getPublishedVersion();
+
+		Product first = createProduct();
+		Product second = createProduct();
+		Product third = createProduct();
+
+		ChangeSet<Product> page = productService.findChangesSince(version, 2);
+
+		assertTrue(page.isHasMore());
+		assertEquals(List.of(first.getId(), second.getId()), ids(page));
+		assertEquals(second.getChangeVersion(), page.getVersion(), "Validate if the page ends at its last change");
+
+		page = productService.findChangesSince(page.getVersion(), 2);
+
+		assertFalse(page.isHasMore());
+		assertEquals(List.of(third.getId()), ids(page));
+
+		LOGGER.info("End of test of paging through the changes feed.");
+	}
+
+	@Test
+	public void validateUncommittedVersionsAreHeldBack() {
+
+		LOGGER.info("Starting test of publishing change versions on commit.");
+
+		long published = changeFeed.getPublishedVersion();
+
+		long version = new TransactionTemplate(transactionManager).execute(status -> {
+			long next = changeFeed.next();
+
+			assertEquals(published, changeFeed.getPublishedVersion(),
+					"Validate if a version is not published before its transaction commits");
+
+			return next;
+		});
+
+		assertEquals(version, changeFeed.getPublishedVersion());
+
+		LOGGER.info("End of test of publishing change versions on commit.");
+	}
+
+	private static List<Long> ids(ChangeSet<Product> changes) {
+		return changes.getChanged().stream().map(Product::getId).collect(Collectors.toList());
+	}
+
+	private Product createProduct() throws ServiceException {
+
+		Faker faker = Faker.instance();
+
+		return productService.save(Product.builder()
+				.name(faker.commerce().productName())
+				.manufacturer(faker.company().name())
+				.supplier(faker.company().name())
+				.price(faker.number().numberBetween(1000, 15000))
+				.stock(ProductStock.builder().quantity(10L).build())
+				.build());
+	}
+
+}
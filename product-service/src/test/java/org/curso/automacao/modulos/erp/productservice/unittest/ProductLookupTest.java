@@ -0,0 +1,97 @@
+package org.curso.automacao.modulos.erp.productservice.unittest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.curso.automacao.modulos.erp.productservice.common.BaseController;
+import org.curso.automacao.modulos.erp.productservice.exceptions.ServiceException;
+import org.curso.automacao.modulos.erp.productservice.impl.Product;
+import org.curso.automacao.modulos.erp.productservice.impl.ProductController;
+import org.curso.automacao.modulos.erp.productservice.impl.ProductService;
+import org.curso.automacao.modulos.erp.productservice.impl.ProductStock;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.github.javafaker.Faker;
+
+@ActiveProfiles("mock")
+public class ProductLookupTest extends BaseTest {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(ProductLookupTest.class);
+
+	@Autowired
+	private ProductService productService;
+
+	@Autowired
+	private ProductController productController;
+
+	@Test
+	public void validateFindByIds() throws ServiceException {
+
+		LOGGER.info("Starting test of finding products by ids.");
+
+		Product first = createProduct();
+		Product second = createProduct();
+
+		ResponseEntity<List<Product>> response = productController
+				.findByIds(List.of(first.getId(), second.getId(), first.getId(), Long.MAX_VALUE));
+
+		assertEquals(HttpStatus.OK, response.getStatusCode());
+		assertEquals(Set.of(first.getId(), second.getId()),
+				response.getBody().stream().map(Product::getId).collect(Collectors.toSet()),
+				"Validate if repeated ids come once and unknown ids are left out");
+		assertEquals(2, response.getBody().size());
+
+		LOGGER.info("End of test of finding products by ids.");
+	}
+
+	@Test
+	public void validateEmptyIds() {
+
+		LOGGER.info("Starting test of finding products without ids.");
+
+		ResponseEntity<List<Product>> response = productController.findByIds(List.of());
+
+		assertEquals(HttpStatus.OK, response.getStatusCode());
+		assertTrue(response.getBody().isEmpty());
+
+		LOGGER.info("End of test of finding products without ids.");
+	}
+
+	@Test
+	public void validateTooManyIdsAreRejected() {
+
+		LOGGER.info("Starting test of finding more products than a page holds.");
+
+		ResponseEntity<List<Product>> response = productController
+				.findByIds(Collections.nCopies(BaseController.MAX_PAGE_SIZE + 1, 1L));
+
+		assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+
+		LOGGER.info("End of test of finding more products than a page holds.");
+	}
+
+	private Product createProduct() throws ServiceException {
+
+		Faker faker = Faker.instance();
+
+		return productService.save(Product.builder()
+				.name(faker.commerce().productName())
+				.manufacturer(faker.company().name())
+				.supplier(faker.company().name())
+				.price(faker.number().numberBetween(1000, 15000))
+				.stock(ProductStock.builder().quantity(10L).build())
+				.build());
+	}
+
+}
@@ -0,0 +1,188 @@
+package org.curso.automacao.modulos.erp.productservice.unittest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.List;
+
+import org.curso.automacao.modulos.erp.productservice.exceptions.InsufficientStockException;
+import org.curso.automacao.modulos.erp.productservice.exceptions.ServiceException;
+import org.curso.automacao.modulos.erp.productservice.impl.Product;
+import org.curso.automacao.modulos.erp.productservice.impl.ProductService;
+import org.curso.automacao.modulos.erp.productservice.impl.ProductStock;
+import org.curso.automacao.modulos.erp.productservice.impl.helpers.UpdateStockInfo;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.github.javafaker.Faker;
+
+@ActiveProfiles("mock")
+public class ProductStockTest extends BaseTest {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(ProductStockTest.class);
+
+	@Autowired
+	private ProductService productService;
+
+	@Test
+	public void validateReserveAndRelease() throws ServiceException {
+
+		LOGGER.info("Starting test of a stock reserve and release.");
+
+		Product first = createProduct(10);
+		Product second = createProduct(5);
+
+		List<UpdateStockInfo> reserved = productService.reserveStock(List.of(
+				new UpdateStockInfo(first.getId(), 4L),
+				new UpdateStockInfo(second.getId(), 5L)));
+
+		assertEquals(2, reserved.size(), "Validate if every reserved product is returned");
+		assertEquals(6L, quantityOf(first), "Validate if the stock of the first product was taken");
+		assertEquals(0L, quantityOf(second), "Validate if the whole stock of the second product was taken");
+
+		productService.releaseStock(List.of(
+				new UpdateStockInfo(first.getId(), 4L),
+				new UpdateStockInfo(second.getId(), 2L)));
+
+		assertEquals(10L, quantityOf(first), "Validate if the stock of the first product was given back");
+		assertEquals(2L, quantityOf(second), "Validate if the stock of the second product was given back");
+
+		LOGGER.info("End of test of a stock reserve and release.");
+	}
+
+	@Test
+	public void validateRepeatedLinesAreMerged() throws ServiceException {
+
+		LOGGER.info("Starting test of a reserve with repeated products.");
+
+		Product product = createProduct(10);
+
+		List<UpdateStockInfo> reserved = productService.reserveStock(List.of(
+				new UpdateStockInfo(product.getId(), 3L),
+				new UpdateStockInfo(product.getId(), 4L)));
+
+		assertEquals(1, reserved.size());
+		assertEquals(3L, reserved.get(0).getQuantity(), "Validate if the remaining stock is returned");
+		assertEquals(3L, quantityOf(product));
+
+		// Together the lines exceed the stock, although each one alone would fit.
+		assertThrows(InsufficientStockException.class, () -> productService.reserveStock(List.of(
+				new UpdateStockInfo(product.getId(), 2L),
+				new UpdateStockInfo(product.getId(), 2L))));
+
+		assertEquals(3L, quantityOf(product));
+
+		LOGGER.info("End of test of a reserve with repeated products.");
+	}
+
+	@Test
+	public void validateInsufficientStockReservesNothing() throws ServiceException {
+
+		LOGGER.info("Starting test of a reserve without enough stock.");
+
+		Product available = createProduct(10);
+		Product missing = createProduct(1);
+
+		InsufficientStockException e = assertThrows(InsufficientStockException.class,
+				() -> productService.reserveStock(List.of(
+						new UpdateStockInfo(available.getId(), 5L),
+						new UpdateStockInfo(missing.getId(), 2L))));
+
+		assertEquals(missing.getId(), e.getProductId(), "Validate if the product without stock is reported");
+		assertEquals(10L, quantityOf(available), "Validate if the other lines were rolled back");
+		assertEquals(1L, quantityOf(missing));
+
+		LOGGER.info("End of test of a reserve without enough stock.");
+	}
+
+	@Test
+	public void validateInvalidLinesAreRejected() throws ServiceException {
+
+		LOGGER.info("Starting test of stock lines without a positive quantity.");
+
+		Product product = createProduct(10);
+
+		assertThrows(ServiceException.class, () -> productService.reserveStock(List.of(
+				new UpdateStockInfo(product.getId(), 0L))));
+		assertThrows(ServiceException.class, () -> productService.reserveStock(List.of(
+				new UpdateStockInfo(product.getId(), -1L))));
+		assertThrows(ServiceException.class, () -> productService.releaseStock(List.of(
+				new UpdateStockInfo(product.getId(), null))));
+		assertThrows(ServiceException.class, () -> productService.releaseStock(List.of(
+				new UpdateStockInfo(null, 1L))));
+
+		assertEquals(10L, quantityOf(product));
+
+		LOGGER.info("End of test of stock lines without a positive quantity.");
+	}
+
+	@Test
+	public void validateReleaseOfMissingStockIsRejected() throws ServiceException {
+
+		LOGGER.info("Starting test of a release of a product without stock.");
+
+		Product product = createProduct(10);
+
+		assertThrows(ServiceException.class, () -> productService.releaseStock(List.of(
+				new UpdateStockInfo(product.getId(), 1L),
+				new UpdateStockInfo(Long.MAX_VALUE, 1L))));
+
+		assertEquals(10L, quantityOf(product), "Validate if the release was rolled back");
+
+		LOGGER.info("End of test of a release of a product without stock.");
+	}
+
+	@Test
+	public void validateUpdateWritesStock() throws ServiceException {
+
+		LOGGER.info("Starting test of a product update with a new stock.");
+
+		Product product = createProduct(10);
+
+		Product stored = productService.findById(product.getId()).get();
+		stored.setPrice(stored.getPrice() + 1);
+		stored.getStock().setQuantity(25L);
+
+		productService.update(stored);
+
+		assertEquals(25L, quantityOf(product), "Validate if the stock of a loaded product was written");
+
+		// As /update receives it: a new instance, without the stock's id or product.
+		Product received = Product.builder()
+				.id(product.getId())
+				.name(product.getName())
+				.manufacturer(product.getManufacturer())
+				.supplier(product.getSupplier())
+				.price(product.getPrice())
+				.build();
+		received.setStock(ProductStock.builder().quantity(40L).build());
+
+		Product updated = productService.update(received);
+
+		assertEquals(product.getVersion() + 2, updated.getVersion(), "Validate if the stored version was used");
+		assertEquals(40L, quantityOf(product), "Validate if the stock of a received product was written");
+
+		LOGGER.info("End of test of a product update with a new stock.");
+	}
+
+	private Product createProduct(long quantity) throws ServiceException {
+
+		Faker faker = Faker.instance();
+
+		return productService.save(Product.builder()
+				.name(faker.commerce().productName())
+				.manufacturer(faker.company().name())
+				.supplier(faker.company().name())
+				.price(faker.number().numberBetween(1000, 15000))
+				.stock(ProductStock.builder().quantity(quantity).build())
+				.build());
+	}
+
+	private long quantityOf(Product product) throws ServiceException {
+		return productService.findById(product.getId()).get().getStock().getQuantity();
+	}
+
+}
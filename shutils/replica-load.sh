@@ -0,0 +1,112 @@
+#!/bin/bash
+# Mixed read/write load against a running order-service, to compare it with replica.enabled=false and
+# replica.enabled=true. Readers fetch orders by id and by page as user@automacao.org.br, writers save orders as
+# admin@automacao.org.br, so read-your-writes does not hold the readers on the primary. After a discarded warm-up,
+# prints throughput, latency percentiles and the replica stats of the measured run.
+# Usage: replica-load.sh [seconds] [clients] [write-ratio]
+# Needs user-service on 8100 and order-service on 8103; start order-service with --replica.enabled=true for the
+# replica side of the comparison.
+
+seconds=${1:-30}
+clients=${2:-16}
+write_ratio=${3:-0.2}
+warmup=10
+
+root=$(cd "$(dirname "$0")/.." && pwd)
+results=$root/benchmarks/results/replica-load-$(git -C "$root" rev-parse --short HEAD 2>/dev/null || echo local).csv
+
+token() {
+    curl -s -X POST http://localhost:8100/auth -H "Content-Type: application/json" \
+        -d "{\"username\":\"$1\",\"password\":\"password01\"}" | sed -n 's/.*"token":"\([^"]*\)".*/\1/p'
+}
+
+reader=$(token user@automacao.org.br)
+writer=$(token admin@automacao.org.br)
+
+if [ -z "$reader" ] || [ -z "$writer" ]; then
+    echo "Could not authenticate against user-service on localhost:8100"
+    exit 1
+fi
+
+enabled=$(curl -s -H "Authorization: $writer" http://localhost:8103/api/v1/metrics/replica \
+    | sed -n 's/.*"enabled":\([a-z]*\).*/\1/p')
+
+if [ -z "$enabled" ]; then
+    echo "order-service is not answering on localhost:8103"
+    exit 1
+fi
+
+# Prints one CSV line: reads/s, writes/s, errors, then p50 and p99 of reads and writes in ms.
+load() {
+    READER="$reader" WRITER="$writer" python3 - "$1" "$clients" "$write_ratio" <<'EOF'
+import http.client, json, os, random, sys, threading, time
+
+seconds, clients, write_ratio = float(sys.argv[1]), int(sys.argv[2]), float(sys.argv[3])
+reader = {"Authorization": os.environ["READER"]}
+writer = {"Authorization": os.environ["WRITER"], "Content-Type": "application/json"}
+order = json.dumps({"idCustomer": 1, "customerName": "Replica load", "date": time.strftime("%Y-%m-%d"),
+                    "deliveryDate": time.strftime("%Y-%m-%d"),
+                    "items": [{"id": {"id": 1}, "idProduct": 1, "productName": "Replica load", "productPrice": 10.0,
+                               "quantity": 2}]})
+
+latencies = {"read": [], "write": []}
+errors = [0]
+lock = threading.Lock()
+
+def client():
+    connection = http.client.HTTPConnection("localhost", 8103)
+    end = time.time() + seconds
+
+    while time.time() < end:
+        kind = "write" if random.random() < write_ratio else "read"
+        started = time.time()
+
+        try:
+            if kind == "write":
+                connection.request("PUT", "/api/v1/orders/save", order, writer)
+            elif random.random() < 0.5:
+                connection.request("GET", "/api/v1/orders/find-by/id/%d" % random.randint(1, 600), headers=reader)
+            else:
+                connection.request("GET", "/api/v1/orders/all?page=%d&size=50" % random.randint(0, 10), headers=reader)
+
+            response = connection.getresponse()
+            response.read()
+            failed = response.status >= 500
+        except Exception:
+            failed = True
+            connection = http.client.HTTPConnection("localhost", 8103)
+
+        with lock:
+            latencies[kind].append(time.time() - started)
+            errors[0] += failed
+
+threads = [threading.Thread(target=client) for _ in range(clients)]
+[thread.start() for thread in threads]
+[thread.join() for thread in threads]
+
+def percentile(values, q):
+    values = sorted(values)
+    return values[int(len(values) * q)] * 1000 if values else 0
+
+print("%.0f,%.0f,%d,%.1f,%.1f,%.1f,%.1f" % (len(latencies["read"]) / seconds, len(latencies["write"]) / seconds,
+      errors[0], percentile(latencies["read"], .5), percentile(latencies["read"], .99),
+      percentile(latencies["write"], .5), percentile(latencies["write"], .99)))
+EOF
+}
+
+echo "Warming up for ${warmup}s..."
+load $warmup > /dev/null
+
+echo "Measuring for ${seconds}s with $clients clients, write ratio $write_ratio, replica.enabled=$enabled..."
+line=$(load $seconds)
+
+mkdir -p "$root/benchmarks/results"
+[ -f "$results" ] || echo "replica_enabled,seconds,clients,write_ratio,reads_s,writes_s,errors,read_p50_ms,read_p99_ms,write_p50_ms,write_p99_ms" > "$results"
+echo "$enabled,$seconds,$clients,$write_ratio,$line" >> "$results"
+
+IFS=, read reads writes errors read_p50 read_p99 write_p50 write_p99 <<< "$line"
+echo "  reads:  $reads/s, p50 ${read_p50}ms, p99 ${read_p99}ms"
+echo "  writes: $writes/s, p50 ${write_p50}ms, p99 ${write_p99}ms"
+echo "  errors: $errors"
+echo "  replica: $(curl -s -H "Authorization: $writer" http://localhost:8103/api/v1/metrics/replica)"
+echo "Results appended to $results"
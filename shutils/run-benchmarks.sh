@@ -0,0 +1,15 @@
+#!/bin/bash
+
+echo 'Installing services as plain jars for the benchmarks...'
+for service in user-service customer-service product-service order-service; do
+    cd $service \
+        && ./mvnw clean install -DskipTests -Drepackage.classifier=exec \
+        && cd - || exit
+done
+
+echo 'Building and running benchmarks...'
+mkdir -p benchmarks/results
+cd benchmarks \
+    && mvn clean package \
+    && java -jar target/benchmarks.jar -rff results/jmh-$(git rev-parse --short HEAD).json "$@" \
+    && cd -
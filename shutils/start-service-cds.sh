@@ -0,0 +1,52 @@
+#!/bin/bash
+# Starts a service from its unpacked boot jar using a dynamic AppCDS archive (JDK 13+, Linux).
+# The first launch is a training run that writes the archive when the service stops; it is
+# recreated whenever the jar changes. Usage: start-service-cds.sh <service> [spring args...]
+
+service=$1; shift
+if [ -z "$service" ]; then
+    echo "Usage: $0 <user-service|customer-service|product-service|order-service> [args...]"
+    exit 1
+fi
+
+root=$(cd "$(dirname "$0")/.." && pwd)
+jar=$(ls "$root"/$service/target/$service-*-exec.jar 2>/dev/null | head -1)
+[ -z "$jar" ] && jar=$(ls "$root"/$service/target/$service-*.jar 2>/dev/null | grep -v plain | head -1)
+if [ -z "$jar" ]; then
+    echo "No jar found in $service/target, build the service first (shutils/build-all.sh)."
+    exit 1
+fi
+
+cds=$root/$service/target/cds
+archive=$cds/$service.jsa
+checksum=$(sha256sum "$jar" | cut -d' ' -f1)
+
+# CDS only archives classes loaded from plain jars on the class path, not from the nested
+# jars of the Spring Boot loader nor from directories, so the jar is unpacked, its classes are
+# repackaged as a jar and it is launched from its classpath.idx.
+if [ "$(cat "$cds/jar.sha256" 2>/dev/null)" != "$checksum" ]; then
+    echo "Unpacking $jar..."
+    rm -rf "$cds" && mkdir -p "$cds/app" \
+        && (cd "$cds/app" && unzip -q "$jar") \
+        && jar cf "$cds/app/application.jar" -C "$cds/app/BOOT-INF/classes" . \
+        && echo "$checksum" > "$cds/jar.sha256" || exit 1
+fi
+
+classpath=$cds/app/application.jar
+for lib in $(sed -n 's/^- "\(.*\)"$/\1/p' "$cds/app/BOOT-INF/classpath.idx"); do
+    classpath=$classpath:$cds/app/$lib
+done
+# Manifest lines are wrapped at 72 bytes, continuation lines start with a space.
+main=$(tr -d '\r' < "$cds/app/META-INF/MANIFEST.MF" \
+    | awk '/^ / { line = line substr($0, 2); next } { print line; line = $0 } END { print line }' \
+    | sed -n 's/^Start-Class: *//p')
+
+if [ -f "$archive" ]; then
+    exec java -XX:SharedArchiveFile="$archive" -Xlog:cds=off -Xlog:cds+dynamic=off \
+        -cp "$classpath" "$main" "$@"
+fi
+
+# Training run: classes loaded until the JVM exits go into the archive, so stop the service
+# (Ctrl+C or SIGTERM) once it has started and served a few requests.
+echo "No CDS archive yet for $service, it will be written to $archive when the service stops."
+exec java -XX:ArchiveClassesAtExit="$archive" -cp "$classpath" "$main" "$@"
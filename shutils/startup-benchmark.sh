@@ -0,0 +1,93 @@
+#!/bin/bash
+# Measures time-to-first-request of the backend services: from launching the process until the
+# service answers its first HTTP request, and its resident memory at that point. Each service gets
+# one discarded warm-up run and then <runs> measured runs.
+# Usage: startup-benchmark.sh [runs] [--cds | --native]
+# --native runs the executables built with "./mvnw -Pnative -DskipTests package".
+
+runs=${1:-5}
+mode=jar
+[ "$2" == "--cds" ] && mode=cds
+[ "$2" == "--native" ] && mode=native
+
+root=$(cd "$(dirname "$0")/.." && pwd)
+services="user-service:8100 customer-service:8101 product-service:8102 order-service:8103"
+results=$root/benchmarks/results/startup-$(git -C "$root" rev-parse --short HEAD 2>/dev/null || echo local)-$mode.csv
+
+mkdir -p "$root/benchmarks/results"
+echo "service,mode,run,ms,rss_mb" > "$results"
+
+launch() {
+    local service=$1
+    mkdir -p "$root/$service/target/startup-benchmark" && cd "$root/$service/target/startup-benchmark" || exit 1
+
+    if [ "$mode" == "cds" ]; then
+        "$root/shutils/start-service-cds.sh" $service > startup.log 2>&1 &
+    elif [ "$mode" == "native" ]; then
+        "$root/$service/target/$service" > startup.log 2>&1 &
+    else
+        # With -Drepackage.classifier=exec (shutils/run-benchmarks.sh) the boot jar is the -exec one.
+        local jar=$(ls "$root"/$service/target/$service-*-exec.jar 2>/dev/null | head -1)
+        [ -z "$jar" ] && jar=$(ls "$root"/$service/target/$service-*.jar | grep -v plain | head -1)
+
+        java -jar "$jar" > startup.log 2>&1 &
+    fi
+
+    pid=$!
+    cd - > /dev/null
+}
+
+# Prints the milliseconds until the service on the given port answers, with any status code.
+first_request() {
+    local port=$1 start=$(date +%s%N)
+
+    until [ "$(curl -s -o /dev/null -w '%{http_code}' http://localhost:$port/api/v1/metrics/startup)" != "000" ]; do
+        kill -0 $pid 2>/dev/null || { echo "failed"; return; }
+        sleep 0.05
+    done
+
+    echo $(( ($(date +%s%N) - start) / 1000000 ))
+}
+
+# Resident set size of the service process in MB.
+rss() {
+    echo $(( $(awk '/^VmRSS:/ { print $2 }' /proc/$pid/status) / 1024 ))
+}
+
+stop() {
+    kill $pid && wait $pid 2>/dev/null
+}
+
+for entry in $services; do
+    service=${entry%%:*}; port=${entry##*:}
+
+    # The warm-up run creates the database and, in cds mode, writes the archive if it is missing.
+    launch $service && first_request $port > /dev/null && stop
+
+    for run in $(seq 1 $runs); do
+        launch $service
+        ms=$(first_request $port)
+        [ "$ms" != "failed" ] && mb=$(rss)
+        stop
+
+        if [ "$ms" == "failed" ]; then
+            echo "$service did not start, see $service/target/startup-benchmark/startup.log"
+            exit 1
+        fi
+
+        echo "$service,$mode,$run,$ms,$mb" >> "$results"
+        echo "$service run $run: ${ms}ms, ${mb}MB RSS"
+    done
+done
+
+echo
+echo "Median time-to-first-request and RSS ($mode, $runs runs):"
+median() {
+    sort -n | awk '{ v[NR] = $1 } END { print (NR % 2) ? v[(NR + 1) / 2] : int((v[NR / 2] + v[NR / 2 + 1]) / 2) }'
+}
+for entry in $services; do
+    service=${entry%%:*}
+    printf "  %-18s %6d ms %6d MB\n" $service \
+        $(grep "^$service," "$results" | cut -d, -f4 | median) $(grep "^$service," "$results" | cut -d, -f5 | median)
+done
+echo "Results written to $results"
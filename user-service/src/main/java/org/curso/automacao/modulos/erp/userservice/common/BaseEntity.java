@@ -7,8 +7,13 @@ import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.MappedSuperclass;
+import javax.persistence.Version;
 import javax.validation.constraints.NotBlank;
 
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
@@ -23,8 +28,13 @@ public class BaseEntity implements Serializable {
 
 	private static final long serialVersionUID = 1L;
 
+	// One sequence per entity, reserved 50 ids at a time. Unlike IDENTITY this lets Hibernate batch the inserts.
 	@Column(name="id")
-	@Id @GeneratedValue(strategy = GenerationType.IDENTITY) 
+	@Id @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "pooled-sequence")
+	@GenericGenerator(name = "pooled-sequence", strategy = "org.hibernate.id.enhanced.SequenceStyleGenerator", parameters = {
+			@Parameter(name = SequenceStyleGenerator.CONFIG_PREFER_SEQUENCE_PER_ENTITY, value = "true"),
+			@Parameter(name = SequenceStyleGenerator.INCREMENT_PARAM, value = "50"),
+			@Parameter(name = SequenceStyleGenerator.OPT_PARAM, value = "pooled-lo") })
 	private long id;
 	
 	@Column(name = "name")
@@ -34,6 +44,11 @@ public class BaseEntity implements Serializable {
 	@Column(name = "status")
 	@Builder.Default
 	private boolean status = true;
+
+	// Bumped by every update and sent to clients as the ETag. Null means the client did not say which version it read.
+	@Version
+	@Column(name = "version", columnDefinition = "bigint default 0 not null")
+	private Long version;
 	
 	public BaseEntity() {	
 		
@@ -32,7 +32,7 @@ public class ApplicationConfig implements ApplicationRunner {
 		if (Arrays.stream(env.getActiveProfiles()).anyMatch(p -> p.equalsIgnoreCase("mock")))
 			return;
 
-		if (userRepository.findAll().size() == 0) {
+		if (userRepository.count() == 0) {
 
 			User admin = User.builder().name("Administrator").username("admin@automacao.org.br").userpass("password01")
 					.roles("ROLE_ADMIN, ROLE_USER").build(),
@@ -0,0 +1,150 @@
+package org.curso.automacao.modulos.erp.userservice.config;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import lombok.Getter;
+
+/**
+ * W3C trace context (https://www.w3.org/TR/trace-context/) of the span being
+ * served. RequestFilter attaches it to the request thread, and the
+ * inter-service clients send a child of it in the {@code traceparent} header.
+ */
+@Getter
+public final class TraceContext {
+
+	public static final String TRACEPARENT = "traceparent";
+
+	public static final String TRACESTATE = "tracestate";
+
+	// Returned to callers so they can look the trace up (W3C Trace Context Level 2).
+	public static final String TRACERESPONSE = "traceresponse";
+
+	private static final ThreadLocal<TraceContext> CURRENT = new ThreadLocal<>();
+
+	private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+	private final String traceId;
+
+	private final String spanId;
+
+	private final String parentSpanId;
+
+	private final boolean sampled;
+
+	private final String traceState;
+
+	private TraceContext(String traceId, String spanId, String parentSpanId, boolean sampled, String traceState) {
+		this.traceId = traceId;
+		this.spanId = spanId;
+		this.parentSpanId = parentSpanId;
+		this.sampled = sampled;
+		this.traceState = traceState;
+	}
+
+	/**
+	 * Context of a server span: a child of the caller's span when the
+	 * traceparent header is valid, otherwise the root of a new sampled trace.
+	 */
+	public static TraceContext fromHeaders(String traceparent, String tracestate) {
+
+		traceparent = traceparent == null ? null : traceparent.trim();
+
+		if (isValid(traceparent))
+			return new TraceContext(traceparent.substring(3, 35), newId(16), traceparent.substring(36, 52),
+					(Character.digit(traceparent.charAt(54), 16) & 1) == 1, tracestate);
+
+		return root();
+	}
+
+	public static TraceContext root() {
+		return new TraceContext(newId(32), newId(16), null, true, null);
+	}
+
+	public TraceContext child() {
+		return new TraceContext(traceId, newId(16), spanId, sampled, traceState);
+	}
+
+	public String toTraceparent() {
+		return "00-" + traceId + "-" + spanId + (sampled ? "-01" : "-00");
+	}
+
+	public static TraceContext current() {
+		return CURRENT.get();
+	}
+
+	/**
+	 * Makes the context current on this thread and returns the one it replaces.
+	 */
+	public static TraceContext attach(TraceContext context) {
+
+		TraceContext previous = CURRENT.get();
+
+		if (context == null)
+			CURRENT.remove();
+		else
+			CURRENT.set(context);
+
+		return previous;
+	}
+
+	// version "-" trace-id "-" parent-id "-" trace-flags, where later versions may append fields.
+	private static boolean isValid(String traceparent) {
+
+		if (traceparent == null || traceparent.length() < 55 || traceparent.charAt(2) != '-'
+				|| traceparent.charAt(35) != '-' || traceparent.charAt(52) != '-')
+			return false;
+
+		String version = traceparent.substring(0, 2);
+
+		if (!isHex(version) || version.equals("ff") || (version.equals("00") && traceparent.length() != 55)
+				|| (traceparent.length() > 55 && traceparent.charAt(55) != '-'))
+			return false;
+
+		String traceId = traceparent.substring(3, 35);
+		String parentId = traceparent.substring(36, 52);
+
+		return isHex(traceId) && isHex(parentId) && isHex(traceparent.substring(53, 55)) && !isZero(traceId)
+				&& !isZero(parentId);
+	}
+
+	private static boolean isHex(String value) {
+
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+
+			if ((c < '0' || c > '9') && (c < 'a' || c > 'f'))
+				return false;
+		}
+
+		return true;
+	}
+
+	private static boolean isZero(String value) {
+
+		for (int i = 0; i < value.length(); i++)
+			if (value.charAt(i) != '0')
+				return false;
+
+		return true;
+	}
+
+	private static String newId(int length) {
+
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		char[] id = new char[length];
+
+		for (int offset = 0; offset < length; offset += 16) {
+			long value;
+
+			do {
+				value = random.nextLong();
+			} while (value == 0);
+
+			for (int i = 15; i >= 0; i--, value >>>= 4)
+				id[offset + i] = HEX[(int) (value & 0xf)];
+		}
+
+		return new String(id);
+	}
+
+}
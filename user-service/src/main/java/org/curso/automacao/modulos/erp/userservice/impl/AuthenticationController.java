@@ -39,64 +39,69 @@ public class AuthenticationController {
 		
 		User user = service.isLoginValid(loginRequest);
 		
-		AuthenticationToken token = jwtUtils.generateToken(new UserDetails() {
-			
-			private Long id;
-			private String username;
-			private String password;
-			private String email;
-			private Collection<? extends GrantedAuthority> grantedAuthorities;
-			
-			{
-				username = user.getUsername();
-				password = user.getUserpass();
-				email = user.getUsername();		
-				
-				grantedAuthorities = user.getRoles() != null ? Arrays.stream(user.getRoles().split(","))
-						.map(SimpleGrantedAuthority::new)
-						.collect(Collectors.toList()) : Collections.emptyList();
-			}
-			
-			@Override
-			public boolean isEnabled() {
-				return true;
-			}
-			
-			@Override
-			public boolean isCredentialsNonExpired() {
-				return true;
-			}
-			
-			@Override
-			public boolean isAccountNonLocked() {
-				return true;
-			}
-			
-			@Override
-			public boolean isAccountNonExpired() {
-				return true;
-			}
-			
-			@Override
-			public String getUsername() {
-				return username;
-			}
-			
-			@Override
-			public String getPassword() {
-				return password;
-			}
-			
-			@Override
-			public Collection<? extends GrantedAuthority> getAuthorities() {
-				return grantedAuthorities;
-			}
-			
-		});
+		AuthenticationToken token = jwtUtils.generateToken(new TokenSubject(user));
 				
 		LOGGER.info("Token generated succesfully {" + token.token + "}");
 		
 		return new ResponseEntity<AuthenticationToken>(token, HttpStatus.OK);
 	}
 	
+	/**
+	 * The user a token is issued for. A named class rather than an anonymous one,
+	 * so the native-image hints in META-INF/native-image can refer to it.
+	 */
+	static final class TokenSubject implements UserDetails {
+
+		private static final long serialVersionUID = 1L;
+
+		private final String username;
+		private final String password;
+		private final Collection<? extends GrantedAuthority> grantedAuthorities;
+
+		private TokenSubject(User user) {
+			username = user.getUsername();
+			password = user.getUserpass();
+
+			grantedAuthorities = user.getRoles() != null ? Arrays.stream(user.getRoles().split(","))
+					.map(SimpleGrantedAuthority::new)
+					.collect(Collectors.toList()) : Collections.emptyList();
+		}
+
+		@Override
+		public boolean isEnabled() {
+			return true;
+		}
+
+		@Override
+		public boolean isCredentialsNonExpired() {
+			return true;
+		}
+
+		@Override
+		public boolean isAccountNonLocked() {
+			return true;
+		}
+
+		@Override
+		public boolean isAccountNonExpired() {
+			return true;
+		}
+
+		@Override
+		public String getUsername() {
+			return username;
+		}
+
+		@Override
+		public String getPassword() {
+			return password;
+		}
+
+		@Override
+		public Collection<? extends GrantedAuthority> getAuthorities() {
+			return grantedAuthorities;
+		}
+
+	}
+	
 }
@@ -0,0 +1,76 @@
+package org.curso.automacao.modulos.erp.userservice.impl;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.curso.automacao.modulos.erp.userservice.config.SpanRecorder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Recent traces and the latency breakdown of a single trace as seen by this
+ * service. order-service reads the raw spans from /{traceId}/spans to merge
+ * them into its own breakdown.
+ */
+@RestController
+@RequestMapping("/api/v1/metrics/traces")
+public class TraceController {
+
+	private static final int MAX_LIMIT = 1000;
+
+	@Autowired
+	private SpanRecorder spanRecorder;
+
+	@GetMapping
+	public ResponseEntity<Map<String, Object>> findRecent(@RequestParam(name = "kind", required = false) String kind,
+			@RequestParam(name = "min-duration-ms", defaultValue = "0") long minDurationMs,
+			@RequestParam(name = "limit", defaultValue = "20") int limit) {
+
+		List<Map<String, Object>> traces = new ArrayList<>();
+
+		for (SpanRecorder.Span span : spanRecorder.findEntrySpans(kind == null ? null : kind.toUpperCase(),
+				minDurationMs * 1000, Math.max(1, Math.min(limit, MAX_LIMIT)))) {
+			Map<String, Object> trace = new LinkedHashMap<>();
+			trace.put("traceId", span.getTraceId());
+			trace.put("kind", span.getKind());
+			trace.put("name", span.getName());
+			trace.put("status", span.getStatus());
+			trace.put("startedAt", span.getStartMicros() / 1000);
+			trace.put("durationMs", span.getDurationMicros() / 1000.0);
+			traces.add(trace);
+		}
+
+		Map<String, Object> stats = new LinkedHashMap<>();
+		stats.put("service", spanRecorder.getServiceName());
+		stats.put("bufferSize", spanRecorder.getBufferSize());
+		stats.put("spansRecorded", spanRecorder.getRecorded());
+		stats.put("traces", traces);
+
+		return new ResponseEntity<Map<String, Object>>(stats, HttpStatus.OK);
+	}
+
+	@GetMapping("/{traceId}")
+	public ResponseEntity<Map<String, Object>> findTrace(@PathVariable String traceId) {
+
+		List<SpanRecorder.Span> spans = spanRecorder.findTrace(traceId);
+
+		if (spans.isEmpty())
+			return new ResponseEntity<Map<String, Object>>(HttpStatus.NOT_FOUND);
+
+		return new ResponseEntity<Map<String, Object>>(SpanRecorder.breakdown(traceId, spans), HttpStatus.OK);
+	}
+
+	@GetMapping("/{traceId}/spans")
+	public ResponseEntity<List<SpanRecorder.Span>> findSpans(@PathVariable String traceId) {
+		return new ResponseEntity<List<SpanRecorder.Span>>(spanRecorder.findTrace(traceId), HttpStatus.OK);
+	}
+
+}
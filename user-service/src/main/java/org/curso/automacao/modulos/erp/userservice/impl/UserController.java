@@ -1,11 +1,15 @@
 package org.curso.automacao.modulos.erp.userservice.impl;
 
+import java.io.IOException;
 import java.util.List;
 import java.util.Map;
 
+import javax.servlet.http.HttpServletResponse;
+
 import org.curso.automacao.modulos.erp.userservice.common.BaseController;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
@@ -15,6 +19,7 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
@@ -28,8 +33,16 @@ public class UserController extends BaseController<UserService, JpaRepository<Us
 	
 	@Override
 	@GetMapping("/all")
-	public final ResponseEntity<List<User>> findAll() {
-		return super.findAll();
+	public final ResponseEntity<List<User>> findAll(@RequestParam(name = "page", required = false) Integer page,
+			@RequestParam(name = "size", required = false) Integer size,
+			@RequestParam(name = "after", required = false) Long after) {
+		return super.findAll(page, size, after);
+	}
+	
+	@Override
+	@GetMapping(value = "/stream", produces = NDJSON_MEDIA_TYPE)
+	public void streamAll(HttpServletResponse response) throws IOException {
+		super.streamAll(response);
 	}
 	
 	@GetMapping("/find-by/user-name/")
@@ -39,8 +52,9 @@ public class UserController extends BaseController<UserService, JpaRepository<Us
 	
 	@Override
 	@GetMapping("/find-by/id/{id}")
-	public ResponseEntity<User> findById(@PathVariable("id") long id){
-		return super.findById(id);
+	public ResponseEntity<User> findById(@PathVariable("id") long id,
+			@RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+		return super.findById(id, ifNoneMatch);
 	}
 
 	@Override
@@ -49,10 +63,17 @@ public class UserController extends BaseController<UserService, JpaRepository<Us
 		return super.save(entity);
 	}
 
+	@Override
+	@PutMapping("/save-all")
+	public ResponseEntity<List<User>> saveAll(@RequestBody List<User> entities) {
+		return super.saveAll(entities);
+	}
+
 	@Override
 	@PostMapping("/update")
-	public ResponseEntity<User> update(@RequestBody @Validated User entity) {
-		return super.update(entity);
+	public ResponseEntity<User> update(@RequestBody @Validated User entity,
+			@RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+		return super.update(entity, ifMatch);
 	}
 	
 	@Override
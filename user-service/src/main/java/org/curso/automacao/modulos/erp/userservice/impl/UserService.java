@@ -23,11 +23,15 @@ public class UserService extends BaseService<JpaRepository<User,Long>, User> {
 			throw new ServiceException(ServiceExceptionOperationType.SAVE, "User name already exists."); 
 		}
 		
+		return super.save(u);
+	}
+	
+	@Override
+	protected void validate(User u) throws ServiceException {
+		
 		if(u.getUserpass().trim().length() < 10) {
 			throw new ServiceException(ServiceExceptionOperationType.SAVE, "User pass is too short.");
 		}
-		
-		return super.save(u);
 	}
 	
 	public User delete(User u) throws ServiceException {
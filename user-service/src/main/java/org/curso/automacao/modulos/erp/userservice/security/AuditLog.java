@@ -0,0 +1,180 @@
+package org.curso.automacao.modulos.erp.userservice.security;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Structured audit events for the request hot paths. Callers only enqueue a
+ * small immutable event into a bounded buffer; formatting and appender I/O
+ * happen in batches on a background thread. Successful events are sampled,
+ * failures are always kept, and events are dropped (and counted) when the
+ * buffer is full instead of blocking the request thread.
+ */
+@Component
+public class AuditLog {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(AuditLog.class);
+
+	public static final String AUTHENTICATED = "AUTHENTICATED";
+	public static final String TOKEN_REJECTED = "TOKEN_REJECTED";
+
+	@Value("${audit.enabled:true}")
+	private boolean enabled;
+
+	@Value("${audit.buffer-size:8192}")
+	private int bufferSize;
+
+	@Value("${audit.batch-size:256}")
+	private int batchSize;
+
+	@Value("${audit.flush-interval-ms:1000}")
+	private long flushInterval;
+
+	@Value("${audit.success-sample-rate:0.1}")
+	private double successSampleRate;
+
+	private final LongAdder recorded = new LongAdder();
+	private final LongAdder sampledOut = new LongAdder();
+	private final LongAdder dropped = new LongAdder();
+
+	private BlockingQueue<Event> buffer;
+
+	private Thread writer;
+
+	private volatile boolean running;
+
+	@PostConstruct
+	public void start() {
+
+		buffer = new ArrayBlockingQueue<>(bufferSize);
+		running = true;
+
+		writer = new Thread(this::drain, "audit-writer");
+		writer.setDaemon(true);
+		writer.start();
+	}
+
+	public void record(String event, boolean success, String subject, String target) {
+		record(event, success, subject, target, -1);
+	}
+
+	public void record(String event, boolean success, String subject, String target, long elapsedMs) {
+
+		if (!enabled)
+			return;
+
+		if (success && successSampleRate < 1 && ThreadLocalRandom.current().nextDouble() >= successSampleRate) {
+			sampledOut.increment();
+			return;
+		}
+
+		if (buffer.offer(new Event(System.currentTimeMillis(), event, success, subject, target, elapsedMs)))
+			recorded.increment();
+		else
+			dropped.increment();
+	}
+
+	public long getRecordedCount() {
+		return recorded.sum();
+	}
+
+	public long getSampledOutCount() {
+		return sampledOut.sum();
+	}
+
+	public long getDroppedCount() {
+		return dropped.sum();
+	}
+
+	private void drain() {
+
+		List<Event> batch = new ArrayList<>(batchSize);
+
+		while (running || !buffer.isEmpty()) {
+			try {
+				Event first = buffer.poll(flushInterval, TimeUnit.MILLISECONDS);
+
+				if (first == null)
+					continue;
+
+				batch.add(first);
+				buffer.drainTo(batch, batchSize - 1);
+
+				write(batch);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				break;
+			} catch (Exception e) {
+				LOGGER.warn("Could not write audit batch", e);
+			} finally {
+				batch.clear();
+			}
+		}
+	}
+
+	private void write(List<Event> batch) {
+
+		if (!LOGGER.isInfoEnabled())
+			return;
+
+		StringBuilder lines = new StringBuilder(batch.size() * 128);
+
+		for (Event event : batch) {
+			if (lines.length() > 0)
+				lines.append('\n');
+
+			lines.append("ts=").append(Instant.ofEpochMilli(event.timestamp))
+					.append(" event=").append(event.event)
+					.append(" outcome=").append(event.success ? "success" : "failure")
+					.append(" subject=").append(event.subject)
+					.append(" target=").append(event.target);
+
+			if (event.elapsedMs >= 0)
+				lines.append(" elapsedMs=").append(event.elapsedMs);
+		}
+
+		LOGGER.info(lines.toString());
+	}
+
+	@PreDestroy
+	public void stop() throws InterruptedException {
+
+		running = false;
+
+		// Let the writer flush what is already buffered.
+		writer.join(flushInterval * 2);
+	}
+
+	private static final class Event {
+
+		private final long timestamp;
+		private final String event;
+		private final boolean success;
+		private final String subject;
+		private final String target;
+		private final long elapsedMs;
+
+		private Event(long timestamp, String event, boolean success, String subject, String target, long elapsedMs) {
+			this.timestamp = timestamp;
+			this.event = event;
+			this.success = success;
+			this.subject = subject;
+			this.target = target;
+			this.elapsedMs = elapsedMs;
+		}
+	}
+}
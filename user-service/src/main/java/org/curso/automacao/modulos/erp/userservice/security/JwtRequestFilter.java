@@ -15,6 +15,7 @@ import javax.servlet.http.HttpServletResponse;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -41,6 +42,14 @@ public class JwtRequestFilter extends OncePerRequestFilter {
 	@Value("${jwt.issuer}")
 	private String issuer;
 
+	@Autowired
+	private JwtAuthCache jwtAuthCache;
+
+	@Autowired
+	private AuditLog auditLog;
+
+	private final WebAuthenticationDetailsSource authenticationDetailsSource = new WebAuthenticationDetailsSource();
+
 	@Override
 	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
 			throws ServletException, IOException {
@@ -52,18 +61,18 @@ public class JwtRequestFilter extends OncePerRequestFilter {
 
 		try {
 			if (token != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-				JwtAuthInfo authInfo = parseJwtClaims(token);
+				JwtAuthInfo authInfo = jwtAuthCache.get(token, this::parseJwtClaims);
 				boolean isTokenValid = validateToken(authInfo);
 				String user = authInfo.getUser();
 				if (isTokenValid) {
 					UsernamePasswordAuthenticationToken usernamePasswordAuthenticationToken = new UsernamePasswordAuthenticationToken(
 							user, null, authInfo.getGrantedAuthorities());
 					usernamePasswordAuthenticationToken
-							.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-					LOGGER.info("Authenticated User {} , setting security context", user);
+							.setDetails(authenticationDetailsSource.buildDetails(request));
+					auditLog.record(AuditLog.AUTHENTICATED, true, user, request.getRequestURI());
 					SecurityContextHolder.getContext().setAuthentication(usernamePasswordAuthenticationToken);
 				} else {
-					LOGGER.warn("Token: {} not valid for user: {}", token, user);
+					auditLog.record(AuditLog.TOKEN_REJECTED, false, user, request.getRequestURI());
 				}
 				
 			}
@@ -88,7 +97,7 @@ public class JwtRequestFilter extends OncePerRequestFilter {
 		if (requestHeader != null && requestHeader.startsWith("Bearer")) {
 			return requestHeader.replace("Bearer ", "").trim();
 		} else {
-			LOGGER.warn("Couldn't find the bearer so will ignore the header: {}", requestHeader);
+			LOGGER.debug("Couldn't find the bearer so will ignore the header: {}", requestHeader);
 			return null;
 		}
 	}
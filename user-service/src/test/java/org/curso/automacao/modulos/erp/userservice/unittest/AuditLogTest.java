@@ -0,0 +1,116 @@
+package org.curso.automacao.modulos.erp.userservice.unittest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.stream.Collectors;
+
+import org.curso.automacao.modulos.erp.userservice.security.AuditLog;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+
+@Tag("unit-tests")
+public class AuditLogTest {
+
+	private final Logger auditLogger = (Logger) LoggerFactory.getLogger(AuditLog.class);
+
+	private ListAppender<ILoggingEvent> appender;
+
+	@BeforeEach
+	public void captureAuditLines() {
+		appender = new ListAppender<>();
+		appender.start();
+		auditLogger.addAppender(appender);
+	}
+
+	@AfterEach
+	public void releaseAuditLines() {
+		auditLogger.detachAppender(appender);
+	}
+
+	@Test
+	public void validateFailuresAreNeverSampled() {
+
+		AuditLog auditLog = newAuditLog(true, 16, 0);
+
+		for (int i = 0; i < 10; i++) {
+			auditLog.record(AuditLog.AUTHENTICATED, true, "user", "/api/v1/users/all");
+			auditLog.record(AuditLog.TOKEN_REJECTED, false, "user", "/api/v1/users/all");
+		}
+
+		assertEquals(10, auditLog.getSampledOutCount(), "Validate if every success was sampled out");
+		assertEquals(10, auditLog.getRecordedCount(), "Validate if every failure was kept");
+	}
+
+	@Test
+	public void validateFullBufferDrops() {
+
+		AuditLog auditLog = newAuditLog(true, 4, 1);
+
+		for (int i = 0; i < 6; i++)
+			auditLog.record(AuditLog.TOKEN_REJECTED, false, "user", "/api/v1/users/all");
+
+		assertEquals(4, auditLog.getRecordedCount());
+		assertEquals(2, auditLog.getDroppedCount(), "Validate if events past the buffer were dropped");
+	}
+
+	@Test
+	public void validateDisabledLogRecordsNothing() {
+
+		AuditLog auditLog = newAuditLog(false, 4, 1);
+
+		auditLog.record(AuditLog.TOKEN_REJECTED, false, "user", "/api/v1/users/all");
+
+		assertEquals(0, auditLog.getRecordedCount());
+		assertEquals(0, auditLog.getDroppedCount());
+	}
+
+	@Test
+	public void validateEventsAreWrittenInBatchesOffTheCaller() throws InterruptedException {
+
+		AuditLog auditLog = newAuditLog(true, 16, 1);
+		ReflectionTestUtils.setField(auditLog, "batchSize", 256);
+		ReflectionTestUtils.setField(auditLog, "flushInterval", 100L);
+
+		auditLog.start();
+
+		for (int i = 0; i < 3; i++)
+			auditLog.record(AuditLog.TOKEN_REJECTED, false, "user" + i, "/api/v1/users/all", 5);
+
+		auditLog.stop();
+
+		List<String> lines = appender.list.stream()
+				.peek(event -> assertEquals("audit-writer", event.getThreadName()))
+				.flatMap(event -> List.of(event.getFormattedMessage().split("\n")).stream())
+				.collect(Collectors.toList());
+
+		assertEquals(3, lines.size(), "Validate if every buffered event was written before stopping");
+
+		for (int i = 0; i < 3; i++)
+			assertTrue(lines.get(i).contains("event=TOKEN_REJECTED outcome=failure subject=user" + i
+					+ " target=/api/v1/users/all elapsedMs=5"), lines.get(i));
+	}
+
+	// Without start() nothing drains the buffer, so the counters can be checked as they are.
+	private static AuditLog newAuditLog(boolean enabled, int bufferSize, double successSampleRate) {
+
+		AuditLog auditLog = new AuditLog();
+		ReflectionTestUtils.setField(auditLog, "enabled", enabled);
+		ReflectionTestUtils.setField(auditLog, "bufferSize", bufferSize);
+		ReflectionTestUtils.setField(auditLog, "successSampleRate", successSampleRate);
+		ReflectionTestUtils.setField(auditLog, "buffer", new ArrayBlockingQueue<>(bufferSize));
+
+		return auditLog;
+	}
+
+}
@@ -0,0 +1,119 @@
+package org.curso.automacao.modulos.erp.userservice.unittest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.curso.automacao.modulos.erp.userservice.config.IdSequenceInitializer;
+import org.curso.automacao.modulos.erp.userservice.exceptions.ServiceException;
+import org.curso.automacao.modulos.erp.userservice.impl.User;
+import org.curso.automacao.modulos.erp.userservice.impl.UserService;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.github.javafaker.Faker;
+
+public class IdSequenceInitializerTest extends BaseTest {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(IdSequenceInitializerTest.class);
+
+	@Autowired
+	private IdSequenceInitializer idSequenceInitializer;
+
+	@Autowired
+	private UserService userService;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Test
+	public void validateSequenceMovesPastExistingIds() throws ServiceException {
+
+		LOGGER.info("Starting test of moving the id sequence past the ids in the table.");
+
+		// As if the row had been written while ids came from an IDENTITY column.
+		long highId = moveToHighId(createUser());
+
+		idSequenceInitializer.afterSingletonsInstantiated();
+
+		long next = nextValue();
+		assertTrue(next > highId, "Validate if the sequence was restarted after " + highId + ", got " + next);
+
+		idSequenceInitializer.afterSingletonsInstantiated();
+
+		assertTrue(nextValue() > next, "Validate if a sequence already ahead of the table is left alone");
+
+		LOGGER.info("End of test of moving the id sequence past the ids in the table.");
+	}
+
+	@Test
+	public void validateNewIdsDoNotCollide() throws ServiceException {
+
+		LOGGER.info("Starting test of saving users after the sequence was moved.");
+
+		long highId = moveToHighId(createUser());
+
+		idSequenceInitializer.afterSingletonsInstantiated();
+
+		// More than one block of 50, so ids come from the restarted sequence as well as the block already held.
+		List<User> users = new ArrayList<>();
+		for (int i = 0; i < 120; i++)
+			users.add(newUser());
+
+		Set<Long> ids = new HashSet<>();
+		for (User user : userService.saveAll(users))
+			ids.add(user.getId());
+
+		assertEquals(120, ids.size());
+		assertFalse(ids.contains(highId), "Validate if no new user took the id already in the table");
+
+		LOGGER.info("End of test of saving users after the sequence was moved.");
+	}
+
+	private long moveToHighId(User user) {
+
+		long highId = jdbcTemplate.queryForObject("select max(id) from tb_users", Long.class) + 1000;
+		jdbcTemplate.update("update tb_users set id = ? where id = ?", highId, user.getId());
+
+		return highId;
+	}
+
+	private long nextValue() {
+
+		SessionFactoryImplementor sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+		SequenceStyleGenerator generator = (SequenceStyleGenerator) sessionFactory.getMetamodel()
+				.entityPersister(User.class).getIdentifierGenerator();
+
+		return jdbcTemplate.queryForObject(sessionFactory.getJdbcServices().getDialect()
+				.getSequenceNextValString(generator.getDatabaseStructure().getPhysicalName().render()), Long.class);
+	}
+
+	private User createUser() throws ServiceException {
+		return userService.save(newUser());
+	}
+
+	private User newUser() {
+		return User.builder()
+				.name(Faker.instance().name().fullName())
+				.roles("ROLE_USER")
+				.username(Faker.instance().internet().emailAddress())
+				.userpass(Faker.instance().internet().password(10, 15))
+				.build();
+	}
+
+}
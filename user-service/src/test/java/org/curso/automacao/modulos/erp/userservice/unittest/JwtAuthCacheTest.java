@@ -0,0 +1,121 @@
+package org.curso.automacao.modulos.erp.userservice.unittest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.curso.automacao.modulos.erp.userservice.security.JwtAuthCache;
+import org.curso.automacao.modulos.erp.userservice.security.JwtAuthInfo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.util.ReflectionTestUtils;
+
+@Tag("unit-tests")
+public class JwtAuthCacheTest {
+
+	private JwtAuthCache cache;
+
+	private AtomicInteger parses;
+
+	@BeforeEach
+	public void createCache() {
+		cache = newCache(100);
+		parses = new AtomicInteger();
+	}
+
+	@Test
+	public void validateVerifiedTokenIsCached() {
+
+		JwtAuthInfo first = cache.get("token", parser(60_000));
+		JwtAuthInfo second = cache.get("token", parser(60_000));
+
+		assertSame(first, second);
+		assertEquals(1, parses.get(), "Validate if the token was parsed only once");
+		assertEquals(1, cache.getHitCount());
+		assertEquals(1, cache.getMissCount());
+	}
+
+	@Test
+	public void validateTokensAreCachedApart() {
+
+		assertEquals("token-a", cache.get("token-a", parser(60_000)).getUser());
+		assertEquals("token-b", cache.get("token-b", parser(60_000)).getUser());
+
+		assertEquals(2, parses.get());
+		assertEquals(2, cache.size());
+	}
+
+	@Test
+	public void validateExpiredTokenIsNotCached() {
+
+		cache.get("token", parser(-1000));
+		cache.get("token", parser(-1000));
+
+		assertEquals(2, parses.get(), "Validate if an expired token is parsed every time");
+		assertEquals(0, cache.size());
+	}
+
+	@Test
+	public void validateEntryIsDroppedWhenTheTokenExpires() throws InterruptedException {
+
+		cache.get("token", parser(200));
+		Thread.sleep(300);
+		cache.get("token", parser(60_000));
+
+		assertEquals(2, parses.get(), "Validate if the token was parsed again once it expired");
+		assertEquals(0, cache.getHitCount());
+	}
+
+	@Test
+	public void validateRejectedTokenIsNotCached() {
+
+		Function<String, JwtAuthInfo> rejecting = token -> {
+			parses.incrementAndGet();
+			throw new IllegalArgumentException("Invalid signature");
+		};
+
+		assertThrows(IllegalArgumentException.class, () -> cache.get("token", rejecting));
+		assertThrows(IllegalArgumentException.class, () -> cache.get("token", rejecting));
+
+		assertEquals(2, parses.get());
+		assertEquals(0, cache.size());
+	}
+
+	@Test
+	public void validateCacheIsBounded() {
+
+		JwtAuthCache small = newCache(2);
+
+		for (int i = 0; i < 10; i++)
+			small.get("token-" + i, parser(60_000));
+
+		assertTrue(small.size() <= 2);
+	}
+
+	private Function<String, JwtAuthInfo> parser(long expiresInMs) {
+		return token -> {
+			parses.incrementAndGet();
+			return new JwtAuthInfo(token, List.of(new SimpleGrantedAuthority("ROLE_USER")),
+					new Date(System.currentTimeMillis() + expiresInMs));
+		};
+	}
+
+	private static JwtAuthCache newCache(long maximumSize) {
+
+		JwtAuthCache cache = new JwtAuthCache();
+		ReflectionTestUtils.setField(cache, "maximumSize", maximumSize);
+		ReflectionTestUtils.setField(cache, "maxTtl", 900L);
+		cache.init();
+
+		return cache;
+	}
+
+}
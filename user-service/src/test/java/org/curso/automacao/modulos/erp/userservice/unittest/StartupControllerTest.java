@@ -0,0 +1,77 @@
+package org.curso.automacao.modulos.erp.userservice.unittest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+
+import org.curso.automacao.modulos.erp.userservice.impl.StartupController;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
+import org.springframework.test.util.ReflectionTestUtils;
+
+@Tag("unit-tests")
+public class StartupControllerTest {
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void validateSlowestStepsAndTotals() throws InterruptedException {
+
+		BufferingApplicationStartup startup = new BufferingApplicationStartup(100);
+
+		step(startup, "spring.beans.instantiate", "beanName", "slowBean", 60);
+		step(startup, "spring.beans.instantiate", "beanName", "fastBean", 20);
+		step(startup, "spring.data.repository.scanning", "packageName", "impl", 5);
+
+		StartupController controller = newController(startup);
+		controller.onReady();
+
+		Map<String, Object> timings = controller.getTimings(2).getBody();
+
+		assertTrue((Long) timings.get("jvmUptimeAtReadyMs") > 0);
+		assertEquals(3, timings.get("recordedSteps"));
+
+		List<Map<String, Object>> slowest = (List<Map<String, Object>>) timings.get("slowestSteps");
+
+		assertEquals(2, slowest.size(), "Validate if the limit is applied");
+		assertEquals(Map.of("beanName", "slowBean"), slowest.get(0).get("tags"));
+		assertEquals(Map.of("beanName", "fastBean"), slowest.get(1).get("tags"));
+
+		Map<String, Long> totals = (Map<String, Long>) timings.get("totalMsByStep");
+
+		assertEquals(List.of("spring.beans.instantiate", "spring.data.repository.scanning"),
+				List.copyOf(totals.keySet()), "Validate if the steps are ordered by total time");
+		assertTrue(totals.get("spring.beans.instantiate") >= 80);
+	}
+
+	@Test
+	public void validateWithoutBufferedStartup() {
+
+		Map<String, Object> timings = newController(ApplicationStartup.DEFAULT).getTimings(20).getBody();
+
+		assertEquals(-1L, timings.get("jvmUptimeAtReadyMs"), "Validate if not ready yet is reported");
+		assertFalse(timings.containsKey("slowestSteps"));
+	}
+
+	private static void step(ApplicationStartup startup, String name, String tag, String value, long millis)
+			throws InterruptedException {
+
+		StartupStep step = startup.start(name).tag(tag, value);
+		Thread.sleep(millis);
+		step.end();
+	}
+
+	private static StartupController newController(ApplicationStartup startup) {
+
+		StartupController controller = new StartupController();
+		ReflectionTestUtils.setField(controller, "applicationStartup", startup);
+
+		return controller;
+	}
+
+}
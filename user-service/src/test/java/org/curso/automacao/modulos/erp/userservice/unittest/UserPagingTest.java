@@ -0,0 +1,157 @@
+package org.curso.automacao.modulos.erp.userservice.unittest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.curso.automacao.modulos.erp.userservice.common.BaseController;
+import org.curso.automacao.modulos.erp.userservice.exceptions.ServiceException;
+import org.curso.automacao.modulos.erp.userservice.impl.User;
+import org.curso.automacao.modulos.erp.userservice.impl.UserController;
+import org.curso.automacao.modulos.erp.userservice.impl.UserService;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.javafaker.Faker;
+
+public class UserPagingTest extends BaseTest {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(UserPagingTest.class);
+
+	@Autowired
+	private UserService userService;
+
+	@Autowired
+	private UserController userController;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Test
+	public void validateKeysetPages() throws ServiceException {
+
+		LOGGER.info("Starting test of walking the users by keyset pages.");
+
+		List<Long> created = createUsers(7);
+		long after = created.get(0) - 1;
+		List<Long> seen = new ArrayList<>();
+
+		ResponseEntity<List<User>> response;
+
+		do {
+			response = userController.findAll(null, 3, after);
+			assertEquals(HttpStatus.OK, response.getStatusCode());
+
+			for (User user : response.getBody()) {
+				assertTrue(user.getId() > after, "Validate if the page starts after the cursor");
+				seen.add(user.getId());
+			}
+
+			String next = response.getHeaders().getFirst("X-Next-Cursor");
+			after = next == null ? after : Long.parseLong(next);
+		} while (response.getHeaders().containsKey("X-Next-Cursor"));
+
+		assertEquals(created, seen.subList(0, created.size()), "Validate if the users came once and in id order");
+
+		LOGGER.info("End of test of walking the users by keyset pages.");
+	}
+
+	@Test
+	public void validateOffsetPage() throws ServiceException {
+
+		LOGGER.info("Starting test of an offset page of users.");
+
+		createUsers(3);
+		long total = userService.findAll().size();
+
+		ResponseEntity<List<User>> response = userController.findAll(0, 2, null);
+
+		assertEquals(HttpStatus.OK, response.getStatusCode());
+		assertEquals(2, response.getBody().size());
+		assertEquals(String.valueOf(total), response.getHeaders().getFirst("X-Total-Count"));
+		assertEquals(String.valueOf(response.getBody().get(1).getId()),
+				response.getHeaders().getFirst("X-Next-Cursor"));
+
+		LOGGER.info("End of test of an offset page of users.");
+	}
+
+	@Test
+	public void validatePageSizeIsCapped() throws ServiceException {
+
+		LOGGER.info("Starting test of a page larger than the maximum.");
+
+		ResponseEntity<List<User>> response = userController.findAll(0, Integer.MAX_VALUE, null);
+
+		assertTrue(response.getBody().size() <= BaseController.MAX_PAGE_SIZE);
+
+		LOGGER.info("End of test of a page larger than the maximum.");
+	}
+
+	@Test
+	public void validateLastKeysetPageHasNoCursor() throws ServiceException {
+
+		LOGGER.info("Starting test of the last keyset page.");
+
+		List<Long> created = createUsers(1);
+
+		ResponseEntity<List<User>> response = userController.findAll(null, 10, created.get(0));
+
+		assertTrue(response.getBody().isEmpty());
+		assertNull(response.getHeaders().getFirst("X-Next-Cursor"));
+
+		LOGGER.info("End of test of the last keyset page.");
+	}
+
+	@Test
+	public void validateStream() throws ServiceException, IOException {
+
+		LOGGER.info("Starting test of streaming all users.");
+
+		createUsers(3);
+		List<Long> expected = userService.findAll().stream().map(User::getId).sorted().collect(Collectors.toList());
+
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		userController.streamAll(response);
+
+		assertEquals(BaseController.NDJSON_MEDIA_TYPE, response.getContentType().split(";")[0]);
+
+		List<Long> streamed = new ArrayList<>();
+
+		for (String line : response.getContentAsString().split("\n")) {
+			assertFalse(line.isBlank(), "Validate if there is one user per line");
+			streamed.add(objectMapper.readValue(line, User.class).getId());
+		}
+
+		assertEquals(expected, streamed, "Validate if every user was streamed in id order");
+
+		LOGGER.info("End of test of streaming all users.");
+	}
+
+	private List<Long> createUsers(int count) throws ServiceException {
+
+		List<Long> ids = new ArrayList<>();
+
+		for (int i = 0; i < count; i++)
+			ids.add(userService.save(User.builder()
+					.name(Faker.instance().name().fullName())
+					.roles("ROLE_USER")
+					.username(Faker.instance().internet().emailAddress())
+					.userpass(Faker.instance().internet().password(10, 15))
+					.build()).getId());
+
+		return ids;
+	}
+
+}
@@ -0,0 +1,158 @@
+package org.curso.automacao.modulos.erp.userservice.unittest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.curso.automacao.modulos.erp.userservice.exceptions.ConcurrentUpdateException;
+import org.curso.automacao.modulos.erp.userservice.exceptions.ServiceException;
+import org.curso.automacao.modulos.erp.userservice.impl.User;
+import org.curso.automacao.modulos.erp.userservice.impl.UserService;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import com.github.javafaker.Faker;
+
+public class UserServiceVersionTest extends BaseTest {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(UserServiceVersionTest.class);
+
+	@Autowired
+	private UserService userService;
+
+	@Test
+	public void validateVersionedUpdate() throws ServiceException {
+
+		LOGGER.info("Starting test of an update with the current version.");
+
+		User user = createUser();
+		long version = user.getVersion();
+
+		user.setName(Faker.instance().name().fullName());
+		User updated = userService.update(user);
+
+		User stored = userService.findById(user.getId()).get();
+
+		assertEquals(version + 1, updated.getVersion(), "Validate if the returned version was incremented");
+		assertEquals(version + 1, stored.getVersion(), "Validate if the stored version was incremented");
+		assertEquals(user.getName(), stored.getName());
+
+		LOGGER.info("End of test of an update with the current version.");
+	}
+
+	@Test
+	public void validateStaleUpdateIsRejected() throws ServiceException {
+
+		LOGGER.info("Starting test of an update with a stale version.");
+
+		User user = createUser();
+		User first = userService.findById(user.getId()).get();
+		User second = userService.findById(user.getId()).get();
+
+		first.setName("First writer");
+		userService.update(first);
+
+		second.setName("Second writer");
+		ConcurrentUpdateException conflict = assertThrows(ConcurrentUpdateException.class,
+				() -> userService.update(second));
+
+		assertEquals(first.getVersion(), conflict.getCurrentVersion(), "Validate if the current version is reported");
+		assertEquals("First writer", userService.findById(user.getId()).get().getName(),
+				"Validate if the stale update was not written");
+
+		LOGGER.info("End of test of an update with a stale version.");
+	}
+
+	@Test
+	public void validateUnversionedUpdateWins() throws ServiceException {
+
+		LOGGER.info("Starting test of an update without a version.");
+
+		User user = createUser();
+		User first = userService.findById(user.getId()).get();
+		User second = userService.findById(user.getId()).get();
+
+		first.setName("First writer");
+		userService.update(first);
+
+		second.setName("Second writer");
+		second.setVersion(null);
+		User updated = userService.update(second);
+
+		assertEquals(first.getVersion() + 1, updated.getVersion(), "Validate if the new version is returned");
+		assertEquals("Second writer", userService.findById(user.getId()).get().getName());
+
+		LOGGER.info("End of test of an update without a version.");
+	}
+
+	@Test
+	public void validateUpdateOfMissingUserIsNotAConflict() throws ServiceException {
+
+		LOGGER.info("Starting test of an update of a missing user.");
+
+		User user = createUser();
+		User missing = userService.findById(user.getId()).get();
+		missing.setId(Long.MAX_VALUE);
+
+		ServiceException e = assertThrows(ServiceException.class, () -> userService.update(missing));
+
+		assertFalse(e instanceof ConcurrentUpdateException, "Validate if a missing user is not reported as a conflict");
+
+		LOGGER.info("End of test of an update of a missing user.");
+	}
+
+	@Test
+	public void validateStaleSaveIsRejected() throws ServiceException {
+
+		LOGGER.info("Starting test of a save with a stale version.");
+
+		User user = createUser();
+		User first = userService.findById(user.getId()).get();
+		User second = userService.findById(user.getId()).get();
+
+		first.setName("First writer");
+		userService.save(first);
+
+		second.setName("Second writer");
+		assertThrows(ConcurrentUpdateException.class, () -> userService.save(second));
+
+		assertEquals("First writer", userService.findById(user.getId()).get().getName(),
+				"Validate if the stale save was not written");
+
+		LOGGER.info("End of test of a save with a stale version.");
+	}
+
+	@Test
+	public void validateUnversionedSaveUpdatesInPlace() throws ServiceException {
+
+		LOGGER.info("Starting test of a save without a version.");
+
+		User user = createUser();
+		int users = userService.findAll().size();
+
+		User unversioned = userService.findById(user.getId()).get();
+		unversioned.setName("Saved without a version");
+		unversioned.setVersion(null);
+
+		User saved = userService.save(unversioned);
+
+		assertEquals(user.getId(), saved.getId());
+		assertEquals(user.getVersion() + 1, saved.getVersion(), "Validate if the stored version was used");
+		assertEquals(users, userService.findAll().size(), "Validate if no user was inserted");
+		assertEquals("Saved without a version", userService.findById(user.getId()).get().getName());
+
+		LOGGER.info("End of test of a save without a version.");
+	}
+
+	private User createUser() throws ServiceException {
+		return userService.save(User.builder()
+				.name(Faker.instance().name().fullName())
+				.roles("ROLE_USER")
+				.username(Faker.instance().internet().emailAddress())
+				.userpass(Faker.instance().internet().password(10, 15))
+				.build());
+	}
+
+}
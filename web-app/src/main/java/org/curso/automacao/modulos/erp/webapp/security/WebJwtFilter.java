@@ -18,6 +18,7 @@ import javax.servlet.http.HttpServletResponse;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.AnonymousAuthenticationToken;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -43,6 +44,14 @@ public class WebJwtFilter extends OncePerRequestFilter {
 
 	@Value("${jwt.issuer}")
 	private String issuer;
+
+	@Autowired
+	private JwtAuthCache jwtAuthCache;
+
+	@Autowired
+	private AuditLog auditLog;
+
+	private final WebAuthenticationDetailsSource authenticationDetailsSource = new WebAuthenticationDetailsSource();
 	
 	@Override
 	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
@@ -54,7 +63,7 @@ public class WebJwtFilter extends OncePerRequestFilter {
 		if (token != null && !token.isEmpty() && SecurityContextHolder.getContext().getAuthentication() instanceof AnonymousAuthenticationToken) {
 			
 			try {
-				JwtAuthInfo authInfo = parseJwtClaims(token);
+				JwtAuthInfo authInfo = jwtAuthCache.get(token, this::parseJwtClaims);
 				boolean isTokenValid = validateToken(authInfo);
 				
 				String user = authInfo.getUser();
@@ -62,11 +71,11 @@ public class WebJwtFilter extends OncePerRequestFilter {
 					UsernamePasswordAuthenticationToken usernamePasswordAuthenticationToken = new UsernamePasswordAuthenticationToken(
 							user, null, authInfo.getGrantedAuthorities());
 					usernamePasswordAuthenticationToken
-							.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-					LOGGER.info("Authenticated User {} , setting security context", user);
+							.setDetails(authenticationDetailsSource.buildDetails(request));
+					auditLog.record(AuditLog.AUTHENTICATED, true, user, request.getRequestURI());
 					SecurityContextHolder.getContext().setAuthentication(usernamePasswordAuthenticationToken);
 				} else {
-					LOGGER.warn("Token: {} not valid for user: {}", token, user);
+					auditLog.record(AuditLog.TOKEN_REJECTED, false, user, request.getRequestURI());
 				}
 			}
 			catch (ExpiredJwtException tokenExpired) {